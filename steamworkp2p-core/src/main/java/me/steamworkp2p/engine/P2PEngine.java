@@ -0,0 +1,758 @@
+package me.steamworkp2p.engine;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.logging.SampledPacketLogger;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.TransportSessionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * P2P引擎
+ * 负责处理P2P连接、数据传输等功能，不依赖Spring，可直接嵌入其他程序或以无界面模式运行
+ * 引擎不自带线程：收包由调用方定期调用{@link #processReceivedPackets()}驱动（Web模块由Steam回调驱动，无界面模式由独立的tick线程驱动）
+ */
+public class P2PEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(P2PEngine.class);
+    
+    private final P2PTransport transport;
+    
+    // 活跃连接表
+    private final PeerTable peers;
+    
+    // 连接监控（ping/超时检测）
+    private final PeerMonitor monitor;
+    
+    // 连接状态监听器
+    private final List<ConnectionStateListener> connectionListeners = new CopyOnWriteArrayList<>();
+    
+    // 消息监听器
+    private final List<MessageListener> messageListeners = new CopyOnWriteArrayList<>();
+    
+    // 消息发送监听器
+    private final List<MessageSentListener> sentListeners = new CopyOnWriteArrayList<>();
+    
+    // 当前连接；会话状态不缓存，查询时向传输层读取
+    private final Set<SteamID> connections = ConcurrentHashMap.newKeySet();
+    
+    // 连接尝试跟踪 - 用于超时检测
+    private final Map<SteamID, Long> connectionAttempts = new ConcurrentHashMap<>();
+    
+    // 连接超时时间（毫秒）
+    private static final long CONNECTION_TIMEOUT = 30000; // 30秒
+    
+    // 同步接口等待传输层结果的时间（毫秒）
+    private static final long COMMAND_TIMEOUT = 2000;
+    
+    // 是否正在监听
+    private volatile boolean isListening = false;
+    
+    // 接收缓冲区，按需扩容
+    private ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(1024);
+    
+    // 逐包日志只计数并定期输出摘要，详情按时间采样
+    private final SampledPacketLogger sendLog = new SampledPacketLogger(logger, "P2P发送");
+    private final SampledPacketLogger receiveLog = new SampledPacketLogger(logger, "P2P接收");
+    
+    /**
+     * 连接状态监听器接口
+     */
+    public interface ConnectionStateListener {
+        void onConnectionEstablished(SteamID steamID);
+        void onConnectionLost(SteamID steamID);
+        void onConnectionFailed(SteamID steamID);
+    }
+    
+    /**
+     * 消息监听器接口
+     */
+    public interface MessageListener {
+        void onMessageReceived(SteamID steamID, String message);
+        
+        /**
+         * 消息日志回放的旧消息，默认忽略；需要回放的监听器覆盖此方法，不要把它当作新消息处理
+         */
+        default void onMessageReplayed(SteamID steamID, String message) {
+        }
+    }
+    
+    /**
+     * 消息发送监听器接口，在传输层确认发送后调用
+     */
+    public interface MessageSentListener {
+        void onMessageSent(SteamID steamID, String message);
+    }
+    
+    public P2PEngine(P2PTransport transport, PeerTable peers) {
+        this.transport = transport;
+        this.peers = peers;
+        this.monitor = new PeerMonitor(transport, peers);
+        transport.setSessionFailureListener(this::handleSessionFailure);
+    }
+    
+    /**
+     * 配置逐包日志的摘要和采样频率
+     */
+    public void configurePacketLogging(long summaryPackets, long summaryIntervalMs, long sampleIntervalMs) {
+        sendLog.configure(summaryPackets, summaryIntervalMs, sampleIntervalMs);
+        receiveLog.configure(summaryPackets, summaryIntervalMs, sampleIntervalMs);
+    }
+    
+    /**
+     * 开始监听P2P连接
+     */
+    public boolean startListening() {
+        if (!transport.isAvailable()) {
+            logger.error("❌ P2P传输({})不可用，无法开始监听", transport.getName());
+            return false;
+        }
+        
+        try {
+            // 使用Steam P2P API开始监听
+            isListening = true;
+            logger.info("🎧 P2P监听已启动，等待连接...");
+            logger.debug("🔍 开始处理P2P数据包...");
+            
+            // 启动数据包处理线程
+            startPacketProcessor();
+            
+            // 启动网络监控
+            monitor.startNetworkMonitoring();
+            
+            return true;
+            
+        } catch (Exception e) {
+            logger.error("💥 启动P2P监听时发生错误", e);
+            return false;
+        }
+    }
+    
+    /**
+     * 停止监听P2P连接
+     */
+    public void stopListening() {
+        if (isListening) {
+            isListening = false;
+            logger.info("🛑 P2P监听已停止");
+            
+            // 停止网络监控
+            monitor.stopNetworkMonitoring();
+            
+            // 关闭所有现有连接
+            for (SteamID steamID : new ArrayList<>(connections)) {
+                disconnectFromUser(String.valueOf(SteamID.getNativeHandle(steamID)));
+            }
+            connections.clear();
+        }
+    }
+    
+    /**
+     * 连接到指定的Steam用户
+     * 模仿C++示例的InitiateServerConnection逻辑
+     */
+    public boolean connectToUser(String steamIDString) {
+        try {
+            return awaitResult(connectToUserAsync(steamIDString));
+        } catch (Exception e) {
+            logger.error("💥 连接用户时发生错误", e);
+            return false;
+        }
+    }
+    
+    /**
+     * 异步连接到指定的Steam用户
+     * 连接请求由传输层发送，不阻塞调用线程
+     */
+    public CompletableFuture<Boolean> connectToUserAsync(String steamIDString) {
+        logger.info("🔍 [P2P连接] 开始连接用户: {}", steamIDString);
+        
+        if (!transport.isAvailable()) {
+            logger.error("❌ [P2P连接] P2P传输({})不可用，无法连接", transport.getName());
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        try {
+            SteamID steamID = SteamID.createFromNativeHandle(Long.parseLong(steamIDString));
+            logger.info("🔗 [P2P连接] 正在连接到用户: {} ({})", steamIDString, steamID);
+            
+            // 检查是否已经连接
+            if (connections.contains(steamID)) {
+                logger.warn("⚠️ [P2P连接] 与用户 {} 的连接已存在", steamIDString);
+                return CompletableFuture.completedFuture(true);
+            }
+            
+            // 发送P2P连接请求 - 模仿C++示例的BSendServerData
+            byte[] connectMessage = "P2P_CONNECT_REQUEST".getBytes(StandardCharsets.UTF_8);
+            logger.info("🔍 [P2P连接] 准备发送P2P数据包到: {}, 数据大小: {}", steamIDString, connectMessage.length);
+            
+            // 使用可靠传输发送连接请求
+            return transport.sendPacket(steamID, connectMessage, P2PSendType.Reliable, 0)
+                .thenApply(result -> {
+                    if (result) {
+                        logger.info("✅ [P2P连接] 连接请求已发送给用户: {}", steamIDString);
+                        logger.info("🔍 [P2P连接] 等待对方接受连接...");
+                        
+                        // 记录连接尝试时间，用于超时检测
+                        connectionAttempts.put(steamID, System.currentTimeMillis());
+                    } else {
+                        logger.error("❌ [P2P连接] 发送连接请求失败 - Steam API返回false");
+                        logger.error("🔍 [P2P连接] 可能原因：1) 目标用户不在线 2) 网络问题 3) Steam P2P服务问题");
+                    }
+                    return result;
+                });
+            
+        } catch (NumberFormatException e) {
+            logger.error("❌ 无效的Steam ID格式: {}", steamIDString);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+    
+    /**
+     * 断开与指定用户的连接
+     * 模仿C++示例的DisconnectFromServer逻辑
+     */
+    public void disconnectFromUser(String steamIDString) {
+        try {
+            SteamID steamID = SteamID.createFromNativeHandle(Long.parseLong(steamIDString));
+            logger.info("🔌 [P2P断开] 正在断开与用户 {} 的连接", steamIDString);
+            
+            // 发送断开连接通知，随后关闭P2P会话（同一队列中按顺序执行）
+            byte[] disconnectMessage = "P2P_DISCONNECT".getBytes(StandardCharsets.UTF_8);
+            transport.sendPacket(steamID, disconnectMessage, P2PSendType.Reliable, 0);
+            transport.closeSession(steamID);
+            
+            // 从连接列表中移除
+            connections.remove(steamID);
+            connectionAttempts.remove(steamID);
+            
+            // 从活跃连接中移除
+            peers.remove(steamID);
+            
+            logger.info("✅ [P2P断开] 已断开与用户 {} 的连接", steamIDString);
+            
+            // 通知连接状态监听器
+            for (ConnectionStateListener listener : connectionListeners) {
+                try {
+                    listener.onConnectionLost(steamID);
+                } catch (Exception e) {
+                    logger.error("💥 连接状态监听器处理错误", e);
+                }
+            }
+            
+        } catch (NumberFormatException e) {
+            logger.error("❌ 无效的Steam ID格式: {}", steamIDString);
+        } catch (Exception e) {
+            logger.error("💥 断开连接时发生错误", e);
+        }
+    }
+    
+    /**
+     * 发送消息给指定用户
+     * 模仿C++示例的BSendServerData方法
+     */
+    public boolean sendMessage(String steamIDString, String message) {
+        try {
+            return awaitResult(sendMessageAsync(steamIDString, message));
+        } catch (Exception e) {
+            logger.error("💥 发送消息时发生错误", e);
+            return false;
+        }
+    }
+    
+    /**
+     * 异步发送消息给指定用户
+     * 数据包由传输层发送（Steam后端在回调线程上执行），调用线程不等待
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String steamIDString, String message) {
+        return sendMessageAsync(steamIDString, message, determineSendType(message));
+    }
+    
+    /**
+     * 以指定的发送方式异步发送消息
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String steamIDString, String message, P2PSendType sendType) {
+        if (!transport.isAvailable()) {
+            logger.error("❌ P2P传输({})不可用，无法发送消息", transport.getName());
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        try {
+            SteamID steamID = SteamID.createFromNativeHandle(Long.parseLong(steamIDString));
+            if (sendLog.shouldLogDetail()) {
+                logger.debug("📤 [P2P发送] (采样) 发送消息给用户 {}: {}", steamIDString, message);
+            }
+            
+            // 检查连接是否存在
+            CompletableFuture<Boolean> ready = CompletableFuture.completedFuture(true);
+            if (!connections.contains(steamID) && !peers.contains(steamID)) {
+                logger.warn("⚠️ [P2P发送] 与用户 {} 的连接不存在，尝试建立连接", steamIDString);
+                ready = connectToUserAsync(steamIDString);
+            }
+            
+            // 将消息转换为字节数组
+            byte[] messageBytes = message.getBytes(StandardCharsets.UTF_8);
+            
+            return ready.thenCompose(connected -> {
+                if (!connected) {
+                    logger.error("❌ [P2P发送] 无法建立与用户 {} 的连接", steamIDString);
+                    return CompletableFuture.completedFuture(false);
+                }
+                
+                // 发送P2P数据包 - 模仿C++示例的发送逻辑
+                return transport.sendPacket(steamID, messageBytes, sendType, 0);
+            }).thenApply(result -> {
+                if (result) {
+                    sendLog.record(messageBytes.length);
+                    if (!sentListeners.isEmpty()) {
+                        notifySentListeners(steamID, message);
+                    }
+                } else {
+                    logger.error("❌ [P2P发送] 发送消息失败 - Steam API返回false");
+                    logger.error("🔍 [P2P发送] 可能原因：1) 连接已断开 2) 网络问题 3) 消息过大");
+                }
+                return result;
+            });
+            
+        } catch (NumberFormatException e) {
+            logger.error("❌ 无效的Steam ID格式: {}", steamIDString);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+    
+    /**
+     * 等待异步的传输层结果
+     */
+    private boolean awaitResult(CompletableFuture<Boolean> future) {
+        return future.orTimeout(COMMAND_TIMEOUT, TimeUnit.MILLISECONDS).join();
+    }
+    
+    /**
+     * 根据消息类型确定发送方式
+     * 模仿C++示例的发送标志选择逻辑
+     */
+    private P2PSendType determineSendType(String message) {
+        // 连接相关消息使用可靠传输
+        if (message.startsWith("P2P_CONNECT_") || message.startsWith("P2P_DISCONNECT")) {
+            return P2PSendType.Reliable;
+        }
+        
+        // 普通消息使用可靠传输（确保消息送达）
+        return P2PSendType.Reliable;
+    }
+    
+    /**
+     * 处理接收到的P2P数据包
+     * 模仿C++示例的ReceiveNetworkData方法；调用方需保证同一时刻只有一个线程调用
+     */
+    public void processReceivedPackets() {
+        if (!transport.isAvailable()) {
+            return;
+        }
+        
+        try {
+            // 读取P2P数据包
+            int packetSize = transport.isPacketAvailable(0);
+            while (packetSize > 0) {
+                ByteBuffer buffer = ensureReceiveBuffer(packetSize);
+                SteamID senderID = transport.readPacket(buffer, 0);
+                if (senderID != null) {
+                    // 处理接收到的数据包
+                    byte[] data = new byte[buffer.remaining()];
+                    buffer.get(data);
+                    
+                    String message = new String(data, StandardCharsets.UTF_8);
+                    
+                    receiveLog.record(data.length);
+                    if (receiveLog.shouldLogDetail()) {
+                        logger.debug("📥 (采样) 收到来自用户 {} 的消息: {}", senderID, message);
+                    }
+                    
+                    // 处理不同类型的消息 - 模仿C++示例的消息类型处理
+                    handleReceivedMessage(senderID, message);
+                    
+                    // 记录连接，会话状态在查询连接列表时再读取，收包路径上不做本地调用
+                    connections.add(senderID);
+                    
+                    // 清除连接尝试记录（连接成功）
+                    connectionAttempts.remove(senderID);
+                }
+                
+                // 检查是否还有更多数据包
+                packetSize = transport.isPacketAvailable(0);
+            }
+            
+            // 检查连接超时
+            checkConnectionTimeouts();
+            
+        } catch (Exception e) {
+            logger.error("💥 处理接收数据包时发生错误", e);
+        }
+    }
+    
+    /**
+     * 获取足够容纳数据包的接收缓冲区（仅在回调线程上使用）
+     */
+    private ByteBuffer ensureReceiveBuffer(int packetSize) {
+        if (receiveBuffer.capacity() < packetSize) {
+            receiveBuffer = ByteBuffer.allocateDirect(packetSize);
+        }
+        return receiveBuffer;
+    }
+    
+    /**
+     * 处理接收到的消息
+     * 模仿C++示例的消息类型处理逻辑
+     */
+    private void handleReceivedMessage(SteamID senderID, String message) {
+        try {
+            // 处理连接请求
+            if ("P2P_CONNECT_REQUEST".equals(message)) {
+                logger.info("📨 [P2P接收] 收到来自 {} 的连接请求", senderID);
+                handleConnectionRequest(senderID);
+                return;
+            }
+            
+            // 处理连接确认
+            if ("P2P_CONNECT_ACCEPT".equals(message)) {
+                logger.info("✅ [P2P接收] 收到来自 {} 的连接确认", senderID);
+                handleConnectionAccept(senderID);
+                return;
+            }
+            
+            // 处理连接拒绝
+            if ("P2P_CONNECT_REJECT".equals(message)) {
+                logger.warn("❌ [P2P接收] 收到来自 {} 的连接拒绝", senderID);
+                handleConnectionReject(senderID);
+                return;
+            }
+            
+            // 处理断开连接消息
+            if ("P2P_DISCONNECT".equals(message)) {
+                logger.info("🔌 [P2P接收] 收到来自 {} 的断开连接消息", senderID);
+                handleDisconnectMessage(senderID);
+                return;
+            }
+            
+            // 处理ping消息
+            if (message.startsWith("P2P_PING:")) {
+                logger.debug("📡 [P2P接收] 收到来自 {} 的ping消息", senderID);
+                monitor.handlePingRequest(senderID, message);
+                return;
+            }
+            
+            // 处理pong消息
+            if (message.startsWith("P2P_PONG:")) {
+                logger.debug("📡 [P2P接收] 收到来自 {} 的pong消息", senderID);
+                monitor.handlePingResponse(senderID, message);
+                return;
+            }
+            
+            // 处理普通消息（逐包日志已由receiveLog采样）
+            notifyMessageListeners(senderID, message);
+            
+        } catch (Exception e) {
+            logger.error("💥 处理接收消息时发生错误", e);
+        }
+    }
+    
+    /**
+     * 通知消息监听器
+     */
+    private void notifyMessageListeners(SteamID senderID, String message) {
+        for (MessageListener listener : messageListeners) {
+            try {
+                listener.onMessageReceived(senderID, message);
+            } catch (Exception e) {
+                logger.error("💥 消息监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 通知消息发送监听器
+     */
+    private void notifySentListeners(SteamID targetID, String message) {
+        for (MessageSentListener listener : sentListeners) {
+            try {
+                listener.onMessageSent(targetID, message);
+            } catch (Exception e) {
+                logger.error("💥 消息发送监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 将一条旧消息重新送入消息监听器管道（用于消息日志回放），监听器通过onMessageReplayed接收
+     */
+    public void replayMessage(SteamID senderID, String message) {
+        for (MessageListener listener : messageListeners) {
+            try {
+                listener.onMessageReplayed(senderID, message);
+            } catch (Exception e) {
+                logger.error("💥 消息监听器处理回放消息错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 处理连接请求
+     */
+    private void handleConnectionRequest(SteamID senderID) {
+        try {
+            logger.info("🔗 [P2P接收] 处理来自 {} 的连接请求", senderID);
+            
+            // 自动接受连接请求 - 模仿C++示例的自动接受逻辑
+            // 发送连接确认
+            byte[] acceptMessage = "P2P_CONNECT_ACCEPT".getBytes(StandardCharsets.UTF_8);
+            transport.sendPacket(senderID, acceptMessage, P2PSendType.Reliable, 0)
+                .thenAccept(result -> {
+                    if (result) {
+                        logger.info("✅ [P2P接收] 已发送连接确认给 {}", senderID);
+                        // 添加到活跃连接
+                        peers.add(senderID);
+                        
+                        // 通知连接状态监听器
+                        for (ConnectionStateListener listener : connectionListeners) {
+                            try {
+                                listener.onConnectionEstablished(senderID);
+                            } catch (Exception e) {
+                                logger.error("💥 连接状态监听器处理错误", e);
+                            }
+                        }
+                    } else {
+                        logger.error("❌ [P2P接收] 发送连接确认失败");
+                    }
+                });
+            
+        } catch (Exception e) {
+            logger.error("💥 处理连接请求时发生错误", e);
+        }
+    }
+    
+    /**
+     * 处理连接确认
+     */
+    private void handleConnectionAccept(SteamID senderID) {
+        logger.info("✅ [P2P连接] 连接已建立: {}", senderID);
+        
+        // 添加到活跃连接
+        peers.add(senderID);
+        
+        // 通知连接状态监听器
+        for (ConnectionStateListener listener : connectionListeners) {
+            try {
+                listener.onConnectionEstablished(senderID);
+            } catch (Exception e) {
+                logger.error("💥 连接状态监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 处理连接拒绝
+     */
+    private void handleConnectionReject(SteamID senderID) {
+        logger.warn("❌ [P2P连接] 连接被拒绝: {}", senderID);
+        
+        // 通知连接状态监听器
+        for (ConnectionStateListener listener : connectionListeners) {
+            try {
+                listener.onConnectionFailed(senderID);
+            } catch (Exception e) {
+                logger.error("💥 连接状态监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 处理断开连接消息
+     */
+    private void handleDisconnectMessage(SteamID senderID) {
+        logger.info("🔌 [P2P接收] 处理来自 {} 的断开连接", senderID);
+        
+        // 对端已断开，释放本端的传输层会话，之后重新连接时双方从新会话开始
+        transport.closeSession(senderID);
+        
+        // 从连接列表中移除
+        connections.remove(senderID);
+        connectionAttempts.remove(senderID);
+        
+        // 从活跃连接中移除
+        peers.remove(senderID);
+        
+        // 通知连接状态监听器
+        for (ConnectionStateListener listener : connectionListeners) {
+            try {
+                listener.onConnectionLost(senderID);
+            } catch (Exception e) {
+                logger.error("💥 连接状态监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 处理传输层会话失败
+     * 传输层已放弃会话并丢弃未送达的数据：尚未建立的连接按连接失败通知，已建立的按连接断开通知
+     */
+    private void handleSessionFailure(SteamID steamID) {
+        boolean wasConnected = peers.contains(steamID);
+        boolean known = connections.remove(steamID);
+        boolean attempted = connectionAttempts.remove(steamID) != null;
+        peers.remove(steamID);
+        if (!known && !attempted && !wasConnected) {
+            return;
+        }
+        logger.warn("❌ [P2P连接] 传输层放弃了与 {} 的会话，未送达的消息已丢弃", steamID);
+        
+        // 通知连接状态监听器
+        for (ConnectionStateListener listener : connectionListeners) {
+            try {
+                if (wasConnected) {
+                    listener.onConnectionLost(steamID);
+                } else {
+                    listener.onConnectionFailed(steamID);
+                }
+            } catch (Exception e) {
+                logger.error("💥 连接状态监听器处理错误", e);
+            }
+        }
+    }
+    
+    /**
+     * 检查连接超时
+     */
+    private void checkConnectionTimeouts() {
+        long currentTime = System.currentTimeMillis();
+        
+        for (Map.Entry<SteamID, Long> entry : connectionAttempts.entrySet()) {
+            SteamID steamID = entry.getKey();
+            long attemptTime = entry.getValue();
+            
+            if (currentTime - attemptTime > CONNECTION_TIMEOUT) {
+                logger.warn("⏰ [P2P连接] 连接超时: {}", steamID);
+                
+                // 移除超时的连接尝试
+                connectionAttempts.remove(steamID);
+                
+                // 通知连接状态监听器
+                for (ConnectionStateListener listener : connectionListeners) {
+                    try {
+                        listener.onConnectionFailed(steamID);
+                    } catch (Exception e) {
+                        logger.error("💥 连接状态监听器处理错误", e);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * 启动数据包处理线程
+     */
+    private void startPacketProcessor() {
+        // 数据包处理由调用方定期调用processReceivedPackets驱动
+        logger.debug("🔄 P2P数据包处理已启动");
+    }
+    
+    /**
+     * 添加连接状态监听器
+     */
+    public void addConnectionStateListener(ConnectionStateListener listener) {
+        connectionListeners.add(listener);
+    }
+    
+    /**
+     * 移除连接状态监听器
+     */
+    public void removeConnectionStateListener(ConnectionStateListener listener) {
+        connectionListeners.remove(listener);
+    }
+    
+    /**
+     * 添加消息监听器
+     */
+    public void addMessageListener(MessageListener listener) {
+        messageListeners.add(listener);
+    }
+    
+    /**
+     * 移除消息监听器
+     */
+    public void removeMessageListener(MessageListener listener) {
+        messageListeners.remove(listener);
+    }
+    
+    /**
+     * 添加消息发送监听器
+     */
+    public void addMessageSentListener(MessageSentListener listener) {
+        sentListeners.add(listener);
+    }
+    
+    /**
+     * 移除消息发送监听器
+     */
+    public void removeMessageSentListener(MessageSentListener listener) {
+        sentListeners.remove(listener);
+    }
+    
+    /**
+     * 获取当前连接列表，每次调用都向传输层批量重新读取会话状态
+     * 只需要连接数时使用{@link #getConnectionCount()}，不产生本地调用
+     */
+    public Map<SteamID, TransportSessionState> getConnections() {
+        return transport.getSessionStates(new ArrayList<>(connections));
+    }
+    
+    /**
+     * 获取当前连接数
+     */
+    public int getConnectionCount() {
+        return connections.size();
+    }
+    
+    /**
+     * 检查是否正在监听
+     */
+    public boolean isListening() {
+        return isListening;
+    }
+    
+    /**
+     * 获取网络状态信息
+     */
+    public String getNetworkStatus() {
+        return monitor.getConnectionStats();
+    }
+    
+    /**
+     * 获取网络连接质量
+     */
+    public String getNetworkQuality() {
+        return monitor.getNetworkQuality();
+    }
+    
+    /**
+     * 获取引擎使用的传输层
+     */
+    public P2PTransport getTransport() {
+        return transport;
+    }
+    
+    /**
+     * 获取活跃连接表
+     */
+    public PeerTable getPeers() {
+        return peers;
+    }
+}
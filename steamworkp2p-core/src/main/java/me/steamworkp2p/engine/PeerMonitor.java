@@ -1,12 +1,12 @@
-package me.steamworkp2p.service;
+package me.steamworkp2p.engine;
 
 import com.codedisaster.steamworks.SteamID;
-import com.codedisaster.steamworks.SteamNetworking;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
@@ -14,16 +14,16 @@ import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 
 /**
- * P2P网络工具类
- * 模仿C++示例的网络状态检查、连接监控等功能
+ * P2P连接监控
+ * 模仿C++示例的网络状态检查、连接监控等功能：定期向活跃连接发送ping，统计延迟并移除超时的连接
  */
-@Component
-public class P2PNetworkUtils {
+public class PeerMonitor {
     
-    private static final Logger logger = LoggerFactory.getLogger(P2PNetworkUtils.class);
+    private static final Logger logger = LoggerFactory.getLogger(PeerMonitor.class);
     
-    @Autowired
-    private SteamService steamService;
+    private final P2PTransport transport;
+    
+    private final PeerTable peers;
     
     // 连接状态监控
     private final Map<SteamID, ConnectionMonitor> connectionMonitors = new ConcurrentHashMap<>();
@@ -72,6 +72,11 @@ public class P2PNetworkUtils {
         }
     }
     
+    public PeerMonitor(P2PTransport transport, PeerTable peers) {
+        this.transport = transport;
+        this.peers = peers;
+    }
+    
     /**
      * 启动网络监控
      */
@@ -117,13 +122,13 @@ public class P2PNetworkUtils {
      * 模仿C++示例的网络状态检查逻辑
      */
     private void checkNetworkStatus() {
-        if (!steamService.isInitialized()) {
+        if (!transport.isAvailable()) {
             return;
         }
         
         try {
             // 检查所有活跃连接
-            for (SteamID steamID : steamService.getActiveConnections()) {
+            for (SteamID steamID : peers.snapshot()) {
                 ConnectionMonitor monitor = connectionMonitors.get(steamID);
                 if (monitor == null) {
                     monitor = new ConnectionMonitor(steamID);
@@ -145,7 +150,7 @@ public class P2PNetworkUtils {
             
             // 清理已断开的连接监控
             connectionMonitors.entrySet().removeIf(entry -> 
-                !steamService.hasActiveConnection(entry.getKey()));
+                !peers.contains(entry.getKey()));
             
         } catch (Exception e) {
             logger.error("💥 [P2P监控] 网络状态检查时发生错误", e);
@@ -158,25 +163,16 @@ public class P2PNetworkUtils {
      */
     private void performPingTest(SteamID steamID, ConnectionMonitor monitor) {
         try {
-            SteamNetworking steamNetworking = steamService.getNetworking();
-            if (steamNetworking != null) {
-                // 发送ping消息
-                String pingMessage = "P2P_PING:" + System.currentTimeMillis();
-                byte[] messageBytes = pingMessage.getBytes();
-                
-                java.nio.ByteBuffer messageBuffer = java.nio.ByteBuffer.allocateDirect(messageBytes.length);
-                messageBuffer.put(messageBytes);
-                messageBuffer.flip();
-                
-                boolean sent = steamNetworking.sendP2PPacket(steamID, 
-                    messageBuffer, 
-                    SteamNetworking.P2PSend.Unreliable, 
-                    0);
-                
-                if (sent) {
-                    logger.debug("📡 [P2P监控] 已发送ping到: {}", steamID);
-                }
-            }
+            // 发送ping消息
+            String pingMessage = "P2P_PING:" + System.currentTimeMillis();
+            byte[] messageBytes = pingMessage.getBytes(StandardCharsets.UTF_8);
+            
+            transport.sendPacket(steamID, messageBytes, P2PSendType.Unreliable, 0)
+                .thenAccept(sent -> {
+                    if (sent) {
+                        logger.debug("📡 [P2P监控] 已发送ping到: {}", steamID);
+                    }
+                });
         } catch (Exception e) {
             logger.error("💥 [P2P监控] 执行ping测试时发生错误", e);
         }
@@ -189,7 +185,7 @@ public class P2PNetworkUtils {
         logger.warn("🔌 [P2P监控] 处理连接超时: {}", steamID);
         
         // 从活跃连接中移除
-        steamService.removeActiveConnection(steamID);
+        peers.remove(steamID);
         
         // 从监控列表中移除
         connectionMonitors.remove(steamID);
@@ -234,21 +230,10 @@ public class P2PNetworkUtils {
             // 解析ping消息并发送响应
             if (pingMessage.startsWith("P2P_PING:")) {
                 String pongMessage = "P2P_PONG:" + pingMessage.substring(9);
-                byte[] messageBytes = pongMessage.getBytes();
+                byte[] messageBytes = pongMessage.getBytes(StandardCharsets.UTF_8);
                 
-                java.nio.ByteBuffer messageBuffer = java.nio.ByteBuffer.allocateDirect(messageBytes.length);
-                messageBuffer.put(messageBytes);
-                messageBuffer.flip();
-                
-                SteamNetworking steamNetworking = steamService.getNetworking();
-                if (steamNetworking != null) {
-                    steamNetworking.sendP2PPacket(steamID, 
-                        messageBuffer, 
-                        SteamNetworking.P2PSend.Unreliable, 
-                        0);
-                    
-                    logger.debug("📡 [P2P监控] 已发送pong响应到: {}", steamID);
-                }
+                transport.sendPacket(steamID, messageBytes, P2PSendType.Unreliable, 0);
+                logger.debug("📡 [P2P监控] 已发送pong响应到: {}", steamID);
             }
         } catch (Exception e) {
             logger.error("💥 [P2P监控] 处理ping请求时发生错误", e);
@@ -261,7 +246,7 @@ public class P2PNetworkUtils {
     public String getConnectionStats() {
         StringBuilder stats = new StringBuilder();
         stats.append("🔍 [P2P统计] 连接状态:\n");
-        stats.append("  - 活跃连接数: ").append(steamService.getActiveConnections().size()).append("\n");
+        stats.append("  - 活跃连接数: ").append(peers.size()).append("\n");
         stats.append("  - 监控连接数: ").append(connectionMonitors.size()).append("\n");
         
         for (Map.Entry<SteamID, ConnectionMonitor> entry : connectionMonitors.entrySet()) {
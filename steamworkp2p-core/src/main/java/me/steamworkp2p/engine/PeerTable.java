@@ -0,0 +1,94 @@
+package me.steamworkp2p.engine;
+
+import com.codedisaster.steamworks.SteamID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 活跃连接表
+ * 记录已经完成握手的对端，由引擎、网络监控和传输层回调（如Steam会话请求）共同维护，
+ * 连接增删时通知变化监听器，上层不需要轮询整张表
+ */
+public class PeerTable {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PeerTable.class);
+    
+    private final Set<SteamID> activeConnections = Collections.synchronizedSet(new HashSet<>());
+    
+    private final List<ChangeListener> changeListeners = new CopyOnWriteArrayList<>();
+    
+    /**
+     * 活跃连接变化监听器，在修改连接表的线程上调用（可能是Steam回调线程），不应阻塞
+     */
+    public interface ChangeListener {
+        void onPeerChanged(SteamID steamID);
+    }
+    
+    /**
+     * 获取活跃连接的快照
+     */
+    public Set<SteamID> snapshot() {
+        synchronized (activeConnections) {
+            return new HashSet<>(activeConnections);
+        }
+    }
+    
+    /**
+     * 添加活跃连接
+     */
+    public void add(SteamID steamID) {
+        boolean added = activeConnections.add(steamID);
+        logger.info("🔗 添加活跃连接: {}", steamID);
+        if (added) {
+            notifyChanged(steamID);
+        }
+    }
+    
+    /**
+     * 移除活跃连接
+     */
+    public void remove(SteamID steamID) {
+        boolean removed = activeConnections.remove(steamID);
+        logger.info("🔌 移除活跃连接: {}", steamID);
+        if (removed) {
+            notifyChanged(steamID);
+        }
+    }
+    
+    /**
+     * 检查是否与指定对端有活跃连接
+     */
+    public boolean contains(SteamID steamID) {
+        return activeConnections.contains(steamID);
+    }
+    
+    /**
+     * 添加活跃连接变化监听器
+     */
+    public void addChangeListener(ChangeListener listener) {
+        changeListeners.add(listener);
+    }
+    
+    private void notifyChanged(SteamID steamID) {
+        for (ChangeListener listener : changeListeners) {
+            try {
+                listener.onPeerChanged(steamID);
+            } catch (Exception e) {
+                logger.error("💥 活跃连接变化监听器执行失败", e);
+            }
+        }
+    }
+    
+    /**
+     * 活跃连接数
+     */
+    public int size() {
+        return activeConnections.size();
+    }
+}
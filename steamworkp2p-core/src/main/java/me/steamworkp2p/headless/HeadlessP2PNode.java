@@ -0,0 +1,233 @@
+package me.steamworkp2p.headless;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.engine.P2PEngine;
+import me.steamworkp2p.engine.PeerTable;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+import me.steamworkp2p.transport.loopback.LoopbackPeerSimulator;
+import me.steamworkp2p.transport.udp.UdpP2PTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 无界面P2P节点
+ * 不启动Spring容器和Web控制台，直接组装传输层和{@link P2PEngine}，并用一个tick线程驱动收包。
+ * 可作为库嵌入其他程序，也可通过main以命令行方式运行（支持loopback和udp传输，Steam传输需要Web模块）。
+ *
+ * <p>示例：--transport=udp --local-id=1001 --port=27015 --peers=1002@192.168.1.20:27015</p>
+ */
+public class HeadlessP2PNode implements AutoCloseable {
+
+    private static final Logger logger = LoggerFactory.getLogger(HeadlessP2PNode.class);
+
+    // 默认tick间隔，与Steam回调处理频率一致（约60Hz）
+    public static final long DEFAULT_TICK_INTERVAL_MS = 16;
+
+    private final P2PEngine engine;
+
+    // 节点关闭时需要释放的资源（传输层、模拟对端等）
+    private final List<AutoCloseable> resources = new ArrayList<>();
+
+    private ScheduledExecutorService tickExecutor;
+
+    public HeadlessP2PNode(P2PTransport transport) {
+        this.engine = new P2PEngine(transport, new PeerTable());
+    }
+
+    /**
+     * 创建使用回环传输的节点，可附带若干模拟对端
+     */
+    public static HeadlessP2PNode loopback(long localId, int simulatedPeers, boolean echo) {
+        LoopbackNetwork network = LoopbackNetwork.shared();
+        LoopbackP2PTransport transport = network.createEndpoint(localId);
+        HeadlessP2PNode node = new HeadlessP2PNode(transport);
+        node.resources.add(transport::close);
+        if (simulatedPeers > 0) {
+            LoopbackPeerSimulator simulator = new LoopbackPeerSimulator(network, localId + 1, simulatedPeers, echo);
+            node.resources.add(simulator::close);
+        }
+        return node;
+    }
+
+    /**
+     * 创建使用UDP直连传输的节点
+     * 对端格式：id@host:port，多个对端用逗号分隔
+     */
+    public static HeadlessP2PNode udp(long localId, InetSocketAddress bindAddress, String peers,
+                                      boolean acceptUnknownPeers) throws IOException {
+        UdpP2PTransport transport = new UdpP2PTransport(localId, bindAddress,
+                UdpP2PTransport.parsePeers(peers), acceptUnknownPeers);
+        transport.start();
+        HeadlessP2PNode node = new HeadlessP2PNode(transport);
+        node.resources.add(transport::close);
+        return node;
+    }
+
+    /**
+     * 启动tick线程并开始监听
+     */
+    public synchronized boolean start(long tickIntervalMs) {
+        if (tickExecutor != null) {
+            return true;
+        }
+        if (!engine.startListening()) {
+            return false;
+        }
+        tickExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "P2P-Tick");
+            thread.setDaemon(true);
+            return thread;
+        });
+        tickExecutor.scheduleWithFixedDelay(engine::processReceivedPackets, 0, tickIntervalMs, TimeUnit.MILLISECONDS);
+        logger.info("🔄 无界面节点已启动，tick间隔: {}ms", tickIntervalMs);
+        return true;
+    }
+
+    public P2PEngine getEngine() {
+        return engine;
+    }
+
+    @Override
+    public synchronized void close() {
+        engine.stopListening();
+        if (tickExecutor != null) {
+            tickExecutor.shutdown();
+            try {
+                tickExecutor.awaitTermination(1, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            tickExecutor = null;
+        }
+        for (AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                logger.warn("⚠️ 释放无界面节点资源时发生错误", e);
+            }
+        }
+        resources.clear();
+    }
+
+    public static void main(String[] args) throws Exception {
+        long startNanos = System.nanoTime();
+        Map<String, String> options = parseOptions(args);
+        String transportName = options.getOrDefault("transport", "loopback");
+        long localId = Long.parseLong(options.getOrDefault("local-id", "1"));
+        long tickIntervalMs = Long.parseLong(options.getOrDefault("tick-ms", String.valueOf(DEFAULT_TICK_INTERVAL_MS)));
+
+        HeadlessP2PNode node = switch (transportName) {
+            case "loopback" -> loopback(localId,
+                    Integer.parseInt(options.getOrDefault("simulated-peers", "0")),
+                    Boolean.parseBoolean(options.getOrDefault("echo", "true")));
+            case "udp" -> udp(localId,
+                    new InetSocketAddress(options.getOrDefault("bind-host", "0.0.0.0"),
+                            Integer.parseInt(options.getOrDefault("port", "27015"))),
+                    options.getOrDefault("peers", ""),
+                    Boolean.parseBoolean(options.getOrDefault("accept-unknown-peers", "false")));
+            default -> throw new IllegalArgumentException("无界面模式不支持的传输: " + transportName + "（可选 loopback、udp）");
+        };
+
+        try (node) {
+            P2PEngine engine = node.getEngine();
+            engine.addMessageListener((sender, message) ->
+                    System.out.println("📥 " + SteamID.getNativeHandle(sender) + ": " + message));
+            engine.addConnectionStateListener(new P2PEngine.ConnectionStateListener() {
+                @Override
+                public void onConnectionEstablished(SteamID steamID) {
+                    System.out.println("🔗 已连接: " + SteamID.getNativeHandle(steamID));
+                }
+
+                @Override
+                public void onConnectionLost(SteamID steamID) {
+                    System.out.println("🔌 已断开: " + SteamID.getNativeHandle(steamID));
+                }
+
+                @Override
+                public void onConnectionFailed(SteamID steamID) {
+                    System.out.println("❌ 连接失败: " + SteamID.getNativeHandle(steamID));
+                }
+            });
+            if (!node.start(tickIntervalMs)) {
+                System.err.println("❌ 无界面节点启动失败");
+                return;
+            }
+
+            long engineMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            long sinceJvmStartMs = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+            System.out.println("⚡ 无界面节点已就绪（" + transportName + "，本地ID " + localId + "）：引擎启动 "
+                    + engineMs + "ms，自JVM启动 " + sinceJvmStartMs + "ms");
+            System.out.println("命令：connect <id> | disconnect <id> | send <id> <消息> | status | quit");
+
+            runCommandLoop(engine);
+        }
+    }
+
+    /**
+     * 从标准输入读取命令，直到quit或输入结束
+     */
+    private static void runCommandLoop(P2PEngine engine) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+        String line;
+        while ((line = reader.readLine()) != null) {
+            String[] parts = line.trim().split("\\s+", 3);
+            try {
+                switch (parts[0]) {
+                    case "" -> {
+                    }
+                    case "connect" -> System.out.println(engine.connectToUser(parts[1]) ? "✅ 连接请求已发送" : "❌ 连接失败");
+                    case "disconnect" -> engine.disconnectFromUser(parts[1]);
+                    case "send" -> System.out.println(engine.sendMessage(parts[1], parts[2]) ? "📤 已发送" : "❌ 发送失败");
+                    case "status" -> {
+                        System.out.println(engine.getNetworkStatus());
+                        System.out.println(engine.getNetworkQuality());
+                    }
+                    case "quit", "exit" -> {
+                        return;
+                    }
+                    default -> System.out.println("⚠️ 未知命令: " + parts[0]);
+                }
+            } catch (ArrayIndexOutOfBoundsException e) {
+                System.out.println("⚠️ 命令参数不足: " + line);
+            }
+        }
+    }
+
+    /**
+     * 解析命令行参数，格式：--name=value
+     */
+    private static Map<String, String> parseOptions(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无效参数: " + arg + "（格式应为 --name=value）");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.put(arg.substring(2), "true");
+            } else {
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
@@ -0,0 +1,114 @@
+package me.steamworkp2p.logging;
+
+import org.slf4j.Logger;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 采样的数据包日志
+ * 热点路径上每个数据包只做计数，每累计N个数据包或经过一个统计周期输出一条INFO摘要；
+ * 数据包详情（含消息内容）在DEBUG级别按时间间隔采样，每个间隔最多输出一条
+ */
+public class SampledPacketLogger {
+
+    // 默认每10000个数据包或10秒输出一次摘要
+    public static final long DEFAULT_SUMMARY_PACKETS = 10_000;
+    public static final long DEFAULT_SUMMARY_INTERVAL_MS = 10_000;
+
+    // 默认每秒最多输出一条数据包详情
+    public static final long DEFAULT_SAMPLE_INTERVAL_MS = 1_000;
+
+    private final Logger logger;
+    private final String tag;
+
+    private volatile long summaryPackets = DEFAULT_SUMMARY_PACKETS;
+    private volatile long summaryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SUMMARY_INTERVAL_MS);
+    private volatile long sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_SAMPLE_INTERVAL_MS);
+
+    // 当前统计周期
+    private final AtomicLong windowStart = new AtomicLong(System.nanoTime());
+    private final AtomicLong windowPackets = new AtomicLong();
+    private final AtomicLong windowBytes = new AtomicLong();
+
+    // 累计值
+    private final AtomicLong totalPackets = new AtomicLong();
+    private final AtomicLong totalBytes = new AtomicLong();
+
+    // 下一次允许输出详情的时间
+    private final AtomicLong nextSampleAt = new AtomicLong(System.nanoTime());
+
+    /**
+     * @param logger 输出摘要和详情的日志器
+     * @param tag 日志标签，例如“P2P发送”
+     */
+    public SampledPacketLogger(Logger logger, String tag) {
+        this.logger = logger;
+        this.tag = tag;
+    }
+
+    /**
+     * 设置摘要和采样频率
+     *
+     * @param summaryPackets 每多少个数据包输出一次摘要
+     * @param summaryIntervalMs 摘要的最长间隔（毫秒）
+     * @param sampleIntervalMs 数据包详情的采样间隔（毫秒）
+     */
+    public void configure(long summaryPackets, long summaryIntervalMs, long sampleIntervalMs) {
+        this.summaryPackets = Math.max(1, summaryPackets);
+        this.summaryIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, summaryIntervalMs));
+        this.sampleIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, sampleIntervalMs));
+    }
+
+    /**
+     * 记录一个数据包，达到阈值时输出摘要
+     */
+    public void record(int bytes) {
+        long packets = windowPackets.incrementAndGet();
+        windowBytes.addAndGet(bytes);
+        totalPackets.incrementAndGet();
+        totalBytes.addAndGet(bytes);
+
+        long now = System.nanoTime();
+        long start = windowStart.get();
+        if (packets >= summaryPackets || now - start >= summaryIntervalNanos) {
+            // 只有一个线程赢得本周期的摘要输出
+            if (windowStart.compareAndSet(start, now)) {
+                emitSummary(now - start);
+            }
+        }
+    }
+
+    private void emitSummary(long elapsedNanos) {
+        long packets = windowPackets.getAndSet(0);
+        long bytes = windowBytes.getAndSet(0);
+        if (packets == 0 || !logger.isInfoEnabled()) {
+            return;
+        }
+        double seconds = Math.max(elapsedNanos, 1) / 1_000_000_000.0;
+        logger.info("📊 [{}] 最近 {}ms: {} 个数据包, {} 字节 ({} 包/秒), 累计 {} 个数据包",
+                tag, TimeUnit.NANOSECONDS.toMillis(elapsedNanos), packets, bytes,
+                Math.round(packets / seconds), totalPackets.get());
+    }
+
+    /**
+     * 当前数据包是否应输出详情
+     * DEBUG未开启时总是返回false，调用方应在此判断之后再构造日志参数
+     */
+    public boolean shouldLogDetail() {
+        if (!logger.isDebugEnabled()) {
+            return false;
+        }
+        long now = System.nanoTime();
+        long next = nextSampleAt.get();
+        return now - next >= 0 && nextSampleAt.compareAndSet(next, now + sampleIntervalNanos);
+    }
+
+    public long getTotalPackets() {
+        return totalPackets.get();
+    }
+
+    public long getTotalBytes() {
+        return totalBytes.get();
+    }
+}
@@ -0,0 +1,27 @@
+package me.steamworkp2p.transport;
+
+/**
+ * P2P发送方式
+ * 与Steam的P2PSend语义一致，由各传输后端映射到自己的实现
+ */
+public enum P2PSendType {
+    
+    /** 不可靠发送，可能丢包或乱序 */
+    Unreliable,
+    
+    /** 不可靠发送，且不等待会话建立（会话未建立时直接丢弃） */
+    UnreliableNoDelay,
+    
+    /** 可靠有序发送 */
+    Reliable,
+    
+    /** 可靠有序发送，允许合并小包后再发送 */
+    ReliableWithBuffering;
+    
+    /**
+     * 是否为可靠发送
+     */
+    public boolean isReliable() {
+        return this == Reliable || this == ReliableWithBuffering;
+    }
+}
@@ -0,0 +1,103 @@
+package me.steamworkp2p.transport;
+
+import com.codedisaster.steamworks.SteamID;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * P2P传输接口
+ * 抽象P2P数据包的收发和会话管理，使网络逻辑不直接依赖Steam本地接口。
+ * 对端统一使用SteamID标识，非Steam后端用配置的ID构造SteamID。
+ */
+public interface P2PTransport {
+    
+    /**
+     * 会话失败监听器
+     * 传输层放弃与对端的会话（例如可靠数据在送达期限内未被确认）时调用，
+     * 此前 {@link #sendPacket} 已接受但尚未送达的可靠数据随会话一起丢弃
+     */
+    interface SessionFailureListener {
+        void onSessionFailed(SteamID peer);
+    }
+    
+    /**
+     * 传输后端名称
+     */
+    String getName();
+    
+    /**
+     * 传输后端是否可用
+     */
+    boolean isAvailable();
+    
+    /**
+     * 本地对端ID
+     */
+    SteamID getLocalId();
+    
+    /**
+     * 发送数据包
+     *
+     * @param peer     目标对端
+     * @param data     数据（调用返回后可被调用方复用）
+     * @param sendType 发送方式
+     * @param channel  通道号
+     * @return 是否已交给传输层发送；可靠数据之后未能送达时通过 {@link SessionFailureListener} 通知
+     */
+    CompletableFuture<Boolean> sendPacket(SteamID peer, byte[] data, P2PSendType sendType, int channel);
+    
+    /**
+     * 检查指定通道是否有待读取的数据包
+     *
+     * @return 下一个数据包的大小，没有数据包时返回0
+     */
+    int isPacketAvailable(int channel);
+    
+    /**
+     * 读取指定通道的下一个数据包
+     * 读取成功后buffer的position为0，limit为数据包大小
+     *
+     * @param buffer 目标缓冲区，容量需不小于 {@link #isPacketAvailable(int)} 返回的大小
+     * @return 发送方ID，没有数据包时返回null
+     */
+    SteamID readPacket(ByteBuffer buffer, int channel);
+    
+    /**
+     * 接受对端的会话请求
+     */
+    CompletableFuture<Boolean> acceptSession(SteamID peer);
+    
+    /**
+     * 关闭与对端的会话
+     * 已排队的可靠数据（例如断开通知）会先送达对端，之后再释放会话
+     */
+    CompletableFuture<Boolean> closeSession(SteamID peer);
+    
+    /**
+     * 获取与对端的会话状态
+     */
+    TransportSessionState getSessionState(SteamID peer);
+    
+    /**
+     * 设置会话失败监听器
+     * 默认忽略；自行实现可靠传输的后端在放弃会话时调用，监听器在传输层的线程上执行，不应阻塞
+     */
+    default void setSessionFailureListener(SessionFailureListener listener) {
+    }
+    
+    /**
+     * 批量获取多个对端的会话状态
+     * 默认逐个查询；本地调用需要切换线程的传输应覆盖此方法，一次完成全部查询
+     */
+    default Map<SteamID, TransportSessionState> getSessionStates(Collection<SteamID> peers) {
+        Map<SteamID, TransportSessionState> states = new HashMap<>();
+        for (SteamID peer : peers) {
+            states.put(peer, getSessionState(peer));
+        }
+        return states;
+    }
+}
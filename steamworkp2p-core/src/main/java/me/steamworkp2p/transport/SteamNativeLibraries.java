@@ -0,0 +1,32 @@
+package me.steamworkp2p.transport;
+
+import com.codedisaster.steamworks.SteamAPI;
+import com.codedisaster.steamworks.SteamException;
+
+/**
+ * steamworks4j本地库加载
+ * SteamID的静态初始化依赖本地方法，即使不使用Steam传输（回环、UDP），创建SteamID之前也必须加载本地库；
+ * 加载本地库不需要Steam客户端
+ */
+public final class SteamNativeLibraries {
+
+    private static boolean loaded = false;
+
+    private SteamNativeLibraries() {
+    }
+
+    /**
+     * 加载本地库，只加载一次
+     */
+    public static synchronized void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        try {
+            SteamAPI.loadLibraries();
+        } catch (SteamException e) {
+            throw new IllegalStateException("无法加载steamworks4j本地库", e);
+        }
+        loaded = true;
+    }
+}
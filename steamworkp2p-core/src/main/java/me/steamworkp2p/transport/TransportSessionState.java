@@ -0,0 +1,61 @@
+package me.steamworkp2p.transport;
+
+/**
+ * P2P会话状态
+ * 传输后端无关的会话状态快照
+ */
+public class TransportSessionState {
+    
+    private final boolean connectionActive;
+    private final boolean connecting;
+    private final boolean usingRelay;
+    private final int bytesQueuedForSend;
+    private final int packetsQueuedForSend;
+    
+    public TransportSessionState(boolean connectionActive, boolean connecting, boolean usingRelay,
+                                 int bytesQueuedForSend, int packetsQueuedForSend) {
+        this.connectionActive = connectionActive;
+        this.connecting = connecting;
+        this.usingRelay = usingRelay;
+        this.bytesQueuedForSend = bytesQueuedForSend;
+        this.packetsQueuedForSend = packetsQueuedForSend;
+    }
+    
+    /**
+     * 无会话
+     */
+    public static TransportSessionState none() {
+        return new TransportSessionState(false, false, false, 0, 0);
+    }
+    
+    public boolean isConnectionActive() {
+        return connectionActive;
+    }
+    
+    public boolean isConnecting() {
+        return connecting;
+    }
+    
+    public boolean isUsingRelay() {
+        return usingRelay;
+    }
+    
+    public int getBytesQueuedForSend() {
+        return bytesQueuedForSend;
+    }
+    
+    public int getPacketsQueuedForSend() {
+        return packetsQueuedForSend;
+    }
+    
+    @Override
+    public String toString() {
+        return "TransportSessionState{" +
+                "connectionActive=" + connectionActive +
+                ", connecting=" + connecting +
+                ", usingRelay=" + usingRelay +
+                ", bytesQueuedForSend=" + bytesQueuedForSend +
+                ", packetsQueuedForSend=" + packetsQueuedForSend +
+                '}';
+    }
+}
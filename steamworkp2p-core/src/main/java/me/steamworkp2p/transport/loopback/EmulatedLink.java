@@ -0,0 +1,180 @@
+package me.steamworkp2p.transport.loopback;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一条单向模拟链路的运行状态
+ * 根据链路条件计算每个数据包的投递时间，可靠数据包保持按通道有序且不会丢失（丢包表现为重传延迟）。
+ * 链路断开期间可靠数据包暂存在链路上，恢复后按原顺序投递；不可靠数据包直接丢弃。
+ * 已安排投递的可靠数据包按通道排队，由调度线程按顺序交出，链路条件变化（包括恢复为理想链路）后仍保持顺序
+ */
+class EmulatedLink {
+    
+    // 可靠数据包"丢失"后模拟的重传超时
+    private static final long RELIABLE_RETRANSMIT_MICROS = 200_000;
+    
+    // 断线期间最多暂存的可靠数据字节数，超出后发送失败（相当于发送缓冲区已满）
+    private static final int MAX_HELD_BYTES = 4 * 1024 * 1024;
+    
+    private volatile LinkConditions conditions;
+    
+    // 带宽模拟：链路下一次空闲的时间
+    private long nextFreeNanos = 0;
+    
+    // 每个通道已安排投递的可靠数据包，保证可靠数据包有序
+    private final Map<Integer, ReliableChannel> reliableChannels = new HashMap<>();
+    
+    // 断线期间暂存的可靠数据包
+    private final ArrayDeque<LoopbackPacket> held = new ArrayDeque<>();
+    private int heldBytes = 0;
+    
+    /**
+     * 一个通道上已安排但尚未交给接收方的可靠数据包
+     */
+    private static class ReliableChannel {
+        // 按发送顺序排列，投递时间单调不减
+        final ArrayDeque<ScheduledPacket> scheduled = new ArrayDeque<>();
+        // 已安排但尚未交给接收方的数量（包括已取出、正在交付的）
+        int undelivered = 0;
+        // 最后一个可靠数据包的投递时间
+        long lastDeliveryNanos = 0;
+    }
+    
+    private static class ScheduledPacket {
+        final LoopbackPacket packet;
+        final long deliveryNanos;
+        
+        ScheduledPacket(LoopbackPacket packet, long deliveryNanos) {
+            this.packet = packet;
+            this.deliveryNanos = deliveryNanos;
+        }
+    }
+    
+    EmulatedLink(LinkConditions conditions) {
+        this.conditions = conditions;
+    }
+    
+    LinkConditions getConditions() {
+        return conditions;
+    }
+    
+    void setConditions(LinkConditions conditions) {
+        this.conditions = conditions;
+    }
+    
+    /**
+     * 计算数据包的投递延迟
+     *
+     * @return 每个副本的投递延迟（纳秒）；空数组表示丢弃或已暂存；null表示暂存已满，发送失败
+     */
+    synchronized long[] schedule(LoopbackPacket packet, Random random, long nowNanos) {
+        LinkConditions c = conditions;
+        if (c.isDown()) {
+            return hold(packet);
+        }
+        return schedule(c, packet, random, nowNanos);
+    }
+    
+    /**
+     * 取出断线期间暂存的可靠数据包
+     */
+    synchronized List<LoopbackPacket> drainHeld() {
+        List<LoopbackPacket> packets = new ArrayList<>(held);
+        held.clear();
+        heldBytes = 0;
+        return packets;
+    }
+    
+    private long[] hold(LoopbackPacket packet) {
+        if (!packet.sendType.isReliable()) {
+            return new long[0];
+        }
+        if (heldBytes + packet.data.length > MAX_HELD_BYTES) {
+            return null;
+        }
+        held.addLast(packet);
+        heldBytes += packet.data.length;
+        return new long[0];
+    }
+    
+    /**
+     * 按指定的链路条件计算投递延迟（链路恢复时用新条件投递暂存的数据包）
+     */
+    synchronized long[] schedule(LinkConditions c, LoopbackPacket packet, Random random, long nowNanos) {
+        boolean reliable = packet.sendType.isReliable();
+        
+        // 带宽：数据包在链路上排队并占用发送时间
+        long departureNanos = nowNanos;
+        if (c.getBandwidthBytesPerSecond() > 0) {
+            long transmitNanos = packet.data.length * TimeUnit.SECONDS.toNanos(1) / c.getBandwidthBytesPerSecond();
+            departureNanos = Math.max(nowNanos, nextFreeNanos) + transmitNanos;
+            nextFreeNanos = departureNanos;
+        }
+        
+        long latencyMicros = c.sampleLatencyMicros(random);
+        if (random.nextDouble() < c.getLossRate()) {
+            if (!reliable) {
+                return new long[0];
+            }
+            latencyMicros += RELIABLE_RETRANSMIT_MICROS;
+        }
+        if (!reliable && random.nextDouble() < c.getReorderRate()) {
+            // 额外延迟一个基础延迟，让后发的数据包先到
+            latencyMicros += Math.max(c.getLatencyMicros(), 1000);
+        }
+        
+        long deliveryNanos = departureNanos + TimeUnit.MICROSECONDS.toNanos(latencyMicros);
+        if (reliable) {
+            ReliableChannel channel = reliableChannels.computeIfAbsent(packet.channel, ch -> new ReliableChannel());
+            deliveryNanos = Math.max(deliveryNanos, channel.lastDeliveryNanos);
+            channel.lastDeliveryNanos = deliveryNanos;
+            channel.scheduled.addLast(new ScheduledPacket(packet, deliveryNanos));
+            channel.undelivered++;
+        }
+        
+        long delay = deliveryNanos - nowNanos;
+        if (!reliable && random.nextDouble() < c.getDuplicateRate()) {
+            return new long[] {delay, delay + TimeUnit.MICROSECONDS.toNanos(c.sampleLatencyMicros(random) / 2)};
+        }
+        return new long[] {delay};
+    }
+    
+    /**
+     * 通道上是否还有已安排但尚未交给接收方的可靠数据包；有时新的可靠数据包不能绕过调度直接投递
+     */
+    synchronized boolean hasUndeliveredReliable(int channel) {
+        ReliableChannel state = reliableChannels.get(channel);
+        return state != null && state.undelivered > 0;
+    }
+    
+    /**
+     * 按发送顺序取出通道上投递时间已到的可靠数据包，交付后需调用 {@link #reliableDelivered(int, int)}
+     */
+    synchronized List<LoopbackPacket> takeDueReliable(int channel, long nowNanos) {
+        ReliableChannel state = reliableChannels.get(channel);
+        if (state == null) {
+            return List.of();
+        }
+        List<LoopbackPacket> due = new ArrayList<>();
+        while (!state.scheduled.isEmpty() && state.scheduled.peekFirst().deliveryNanos <= nowNanos) {
+            due.add(state.scheduled.pollFirst().packet);
+        }
+        return due;
+    }
+    
+    /**
+     * 取出的可靠数据包已交给接收方
+     */
+    synchronized void reliableDelivered(int channel, int count) {
+        ReliableChannel state = reliableChannels.get(channel);
+        if (state != null) {
+            state.undelivered -= count;
+        }
+    }
+}
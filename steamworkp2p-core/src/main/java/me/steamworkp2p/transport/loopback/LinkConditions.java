@@ -0,0 +1,166 @@
+package me.steamworkp2p.transport.loopback;
+
+import java.util.Random;
+
+/**
+ * 回环网络链路条件
+ * 描述一条单向链路的延迟分布、抖动、丢包、乱序、重复、带宽上限和通断状态
+ */
+public class LinkConditions {
+    
+    /**
+     * 延迟分布
+     */
+    public enum LatencyDistribution {
+        /** 固定延迟 + 均匀分布抖动 */
+        UNIFORM,
+        /** 正态分布，抖动为标准差 */
+        NORMAL,
+        /** 帕累托长尾分布，抖动为尺度参数（模拟中继偶发的长尾延迟） */
+        PARETO
+    }
+    
+    private static final LinkConditions IDEAL = new LinkConditions(0, 0, LatencyDistribution.UNIFORM, 0, 0, 0, 0, false);
+    
+    private final long latencyMicros;
+    private final long jitterMicros;
+    private final LatencyDistribution distribution;
+    private final double lossRate;
+    private final double reorderRate;
+    private final double duplicateRate;
+    private final long bandwidthBytesPerSecond;
+    private final boolean down;
+    
+    private LinkConditions(long latencyMicros, long jitterMicros, LatencyDistribution distribution,
+                           double lossRate, double reorderRate, double duplicateRate,
+                           long bandwidthBytesPerSecond, boolean down) {
+        this.latencyMicros = latencyMicros;
+        this.jitterMicros = jitterMicros;
+        this.distribution = distribution;
+        this.lossRate = lossRate;
+        this.reorderRate = reorderRate;
+        this.duplicateRate = duplicateRate;
+        this.bandwidthBytesPerSecond = bandwidthBytesPerSecond;
+        this.down = down;
+    }
+    
+    /**
+     * 理想链路：无延迟、无丢包、无带宽限制
+     */
+    public static LinkConditions ideal() {
+        return IDEAL;
+    }
+    
+    public LinkConditions withLatency(long latencyMillis, long jitterMillis, LatencyDistribution distribution) {
+        return new LinkConditions(latencyMillis * 1000, jitterMillis * 1000, distribution,
+                lossRate, reorderRate, duplicateRate, bandwidthBytesPerSecond, down);
+    }
+    
+    public LinkConditions withLoss(double lossRate) {
+        return new LinkConditions(latencyMicros, jitterMicros, distribution,
+                lossRate, reorderRate, duplicateRate, bandwidthBytesPerSecond, down);
+    }
+    
+    public LinkConditions withReorder(double reorderRate) {
+        return new LinkConditions(latencyMicros, jitterMicros, distribution,
+                lossRate, reorderRate, duplicateRate, bandwidthBytesPerSecond, down);
+    }
+    
+    public LinkConditions withDuplicate(double duplicateRate) {
+        return new LinkConditions(latencyMicros, jitterMicros, distribution,
+                lossRate, reorderRate, duplicateRate, bandwidthBytesPerSecond, down);
+    }
+    
+    /**
+     * @param bytesPerSecond 带宽上限，0表示不限制
+     */
+    public LinkConditions withBandwidth(long bytesPerSecond) {
+        return new LinkConditions(latencyMicros, jitterMicros, distribution,
+                lossRate, reorderRate, duplicateRate, bytesPerSecond, down);
+    }
+    
+    /**
+     * @param down 链路是否断开（断开时丢弃不可靠数据包，可靠数据包暂存到链路恢复后按序投递）
+     */
+    public LinkConditions withDown(boolean down) {
+        return new LinkConditions(latencyMicros, jitterMicros, distribution,
+                lossRate, reorderRate, duplicateRate, bandwidthBytesPerSecond, down);
+    }
+    
+    /**
+     * 是否为理想链路（可以直接投递，无需调度）
+     */
+    public boolean isIdeal() {
+        return latencyMicros == 0 && jitterMicros == 0 && lossRate == 0 && reorderRate == 0
+                && duplicateRate == 0 && bandwidthBytesPerSecond == 0 && !down;
+    }
+    
+    /**
+     * 按延迟分布采样一次单向延迟（微秒）
+     */
+    long sampleLatencyMicros(Random random) {
+        if (jitterMicros == 0) {
+            return latencyMicros;
+        }
+        double sample;
+        switch (distribution) {
+            case NORMAL:
+                sample = latencyMicros + random.nextGaussian() * jitterMicros;
+                break;
+            case PARETO:
+                // 形状参数取2：大多数样本接近基础延迟，少数样本拖出长尾
+                sample = latencyMicros + jitterMicros * (Math.pow(1 - random.nextDouble(), -0.5) - 1);
+                break;
+            case UNIFORM:
+            default:
+                sample = latencyMicros + (random.nextDouble() * 2 - 1) * jitterMicros;
+                break;
+        }
+        return Math.max(0, (long) sample);
+    }
+    
+    public long getLatencyMicros() {
+        return latencyMicros;
+    }
+    
+    public long getJitterMicros() {
+        return jitterMicros;
+    }
+    
+    public LatencyDistribution getDistribution() {
+        return distribution;
+    }
+    
+    public double getLossRate() {
+        return lossRate;
+    }
+    
+    public double getReorderRate() {
+        return reorderRate;
+    }
+    
+    public double getDuplicateRate() {
+        return duplicateRate;
+    }
+    
+    public long getBandwidthBytesPerSecond() {
+        return bandwidthBytesPerSecond;
+    }
+    
+    public boolean isDown() {
+        return down;
+    }
+    
+    @Override
+    public String toString() {
+        return "LinkConditions{" +
+                "latency=" + latencyMicros / 1000 + "ms" +
+                ", jitter=" + jitterMicros / 1000 + "ms/" + distribution +
+                ", loss=" + lossRate +
+                ", reorder=" + reorderRate +
+                ", duplicate=" + duplicateRate +
+                ", bandwidth=" + bandwidthBytesPerSecond + "B/s" +
+                ", down=" + down +
+                '}';
+    }
+}
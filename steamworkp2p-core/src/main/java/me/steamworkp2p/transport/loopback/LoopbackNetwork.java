@@ -0,0 +1,272 @@
+package me.steamworkp2p.transport.loopback;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 进程内回环网络
+ * 在同一个JVM中连接任意数量的模拟对端，用于在没有Steam客户端的机器上压测和基准测试。
+ * 每条单向链路可以设置 {@link LinkConditions} 来模拟延迟、抖动、丢包、乱序、重复、带宽和断线。
+ * 断线期间可靠数据包暂存在链路上，链路恢复时按原顺序投递，与Steam可靠发送的语义一致。
+ * 可靠数据包经调度线程按链路上的顺序交付；链路改回理想条件后，只有先前安排的可靠数据包全部交付，
+ * 同一通道的新数据包才直接投递，因此调整链路条件不会打乱可靠数据包的顺序。
+ */
+public class LoopbackNetwork {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackNetwork.class);
+    
+    // 同一JVM中的多个应用上下文共享的网络
+    private static final LoopbackNetwork SHARED = new LoopbackNetwork();
+    
+    private final Map<Long, LoopbackP2PTransport> endpoints = new ConcurrentHashMap<>();
+    
+    // 单向链路状态，键为 (发送方, 接收方)
+    private final Map<LinkKey, EmulatedLink> links = new ConcurrentHashMap<>();
+    
+    // 未单独设置的链路使用的条件
+    private volatile LinkConditions defaultConditions = LinkConditions.ideal();
+    
+    private final Random random = new Random();
+    
+    // 非理想链路的延迟投递调度器，首次需要时创建
+    private volatile ScheduledExecutorService linkScheduler;
+    
+    /**
+     * 单向链路键
+     */
+    private static class LinkKey {
+        private final long from;
+        private final long to;
+        
+        LinkKey(long from, long to) {
+            this.from = from;
+            this.to = to;
+        }
+        
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof LinkKey)) {
+                return false;
+            }
+            LinkKey other = (LinkKey) o;
+            return from == other.from && to == other.to;
+        }
+        
+        @Override
+        public int hashCode() {
+            return Long.hashCode(from) * 31 + Long.hashCode(to);
+        }
+    }
+    
+    /**
+     * 获取JVM共享的回环网络
+     */
+    public static LoopbackNetwork shared() {
+        return SHARED;
+    }
+    
+    /**
+     * 创建一个对端
+     *
+     * @param peerId 对端ID，同一网络中唯一
+     */
+    public LoopbackP2PTransport createEndpoint(long peerId) {
+        LoopbackP2PTransport endpoint = new LoopbackP2PTransport(this, peerId);
+        if (endpoints.putIfAbsent(peerId, endpoint) != null) {
+            throw new IllegalStateException("回环网络中已存在对端: " + peerId);
+        }
+        logger.debug("🔁 [回环网络] 对端已加入: {}", peerId);
+        return endpoint;
+    }
+    
+    /**
+     * 移除对端
+     */
+    void removeEndpoint(LoopbackP2PTransport endpoint) {
+        if (endpoints.remove(endpoint.getPeerId(), endpoint)) {
+            logger.debug("🔁 [回环网络] 对端已离开: {}", endpoint.getPeerId());
+        }
+    }
+    
+    /**
+     * 投递数据包到目标对端
+     *
+     * @return 目标对端是否存在
+     */
+    boolean deliver(LoopbackPacket packet) {
+        LoopbackP2PTransport target = endpoints.get(packet.targetId);
+        if (target == null) {
+            return false;
+        }
+        
+        EmulatedLink link = links.get(new LinkKey(packet.senderId, packet.targetId));
+        LinkConditions conditions = link != null ? link.getConditions() : defaultConditions;
+        if (conditions.isIdeal() && (link == null || !packet.sendType.isReliable()
+                || !link.hasUndeliveredReliable(packet.channel))) {
+            target.enqueue(packet);
+            return true;
+        }
+        
+        if (link == null) {
+            link = links.computeIfAbsent(new LinkKey(packet.senderId, packet.targetId),
+                k -> new EmulatedLink(defaultConditions));
+        }
+        
+        long[] delays;
+        synchronized (random) {
+            delays = link.schedule(packet, random, System.nanoTime());
+        }
+        if (delays == null) {
+            logger.warn("⚠️ 链路 {} -> {} 断开期间暂存的可靠数据已达上限，发送失败", packet.senderId, packet.targetId);
+            return false;
+        }
+        dispatch(link, target, packet, delays);
+        return true;
+    }
+    
+    private void dispatch(EmulatedLink link, LoopbackP2PTransport target, LoopbackPacket packet, long[] delays) {
+        if (packet.sendType.isReliable()) {
+            // 可靠数据包已在链路上排队，到期后由调度线程按顺序交出（即使延迟为0也不能越过先前的数据包）
+            for (long delay : delays) {
+                scheduler().schedule(() -> releaseReliable(link, target, packet.channel),
+                    Math.max(delay, 0), TimeUnit.NANOSECONDS);
+            }
+            return;
+        }
+        for (long delay : delays) {
+            if (delay <= 0) {
+                target.enqueue(packet);
+            } else {
+                scheduler().schedule(() -> target.enqueue(packet), delay, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+    
+    /**
+     * 交付通道上投递时间已到的可靠数据包（只在调度线程上执行，不持有链路锁，接收方可以在回调中继续发送）
+     */
+    private void releaseReliable(EmulatedLink link, LoopbackP2PTransport target, int channel) {
+        List<LoopbackPacket> due = link.takeDueReliable(channel, System.nanoTime());
+        try {
+            for (LoopbackPacket packet : due) {
+                target.enqueue(packet);
+            }
+        } finally {
+            link.reliableDelivered(channel, due.size());
+        }
+    }
+    
+    /**
+     * 更新链路条件；链路从断开恢复时，先按新条件投递断线期间暂存的可靠数据包，再让新数据包走新条件，
+     * 保证可靠数据包的顺序（锁顺序与deliver一致：先random后链路）
+     */
+    private void applyConditions(EmulatedLink link, LinkConditions conditions) {
+        synchronized (random) {
+            synchronized (link) {
+                if (!conditions.isDown()) {
+                    long nowNanos = System.nanoTime();
+                    for (LoopbackPacket packet : link.drainHeld()) {
+                        LoopbackP2PTransport target = endpoints.get(packet.targetId);
+                        if (target != null) {
+                            dispatch(link, target, packet, link.schedule(conditions, packet, random, nowNanos));
+                        }
+                    }
+                }
+                link.setConditions(conditions);
+            }
+        }
+    }
+    
+    private ScheduledExecutorService scheduler() {
+        ScheduledExecutorService scheduler = linkScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                if (linkScheduler == null) {
+                    linkScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+                        Thread t = new Thread(r, "Loopback-Link-Emulator");
+                        t.setDaemon(true);
+                        return t;
+                    });
+                }
+                scheduler = linkScheduler;
+            }
+        }
+        return scheduler;
+    }
+    
+    /**
+     * 设置单向链路条件
+     */
+    public void setLinkConditions(long fromPeerId, long toPeerId, LinkConditions conditions) {
+        EmulatedLink link = links.computeIfAbsent(new LinkKey(fromPeerId, toPeerId), k -> new EmulatedLink(conditions));
+        applyConditions(link, conditions);
+    }
+    
+    /**
+     * 设置双向链路条件
+     */
+    public void setBidirectionalConditions(long peerA, long peerB, LinkConditions conditions) {
+        setLinkConditions(peerA, peerB, conditions);
+        setLinkConditions(peerB, peerA, conditions);
+    }
+    
+    /**
+     * 获取单向链路条件
+     */
+    public LinkConditions getLinkConditions(long fromPeerId, long toPeerId) {
+        EmulatedLink link = links.get(new LinkKey(fromPeerId, toPeerId));
+        return link != null ? link.getConditions() : defaultConditions;
+    }
+    
+    /**
+     * 设置未单独配置的链路使用的默认条件
+     */
+    public void setDefaultConditions(LinkConditions conditions) {
+        this.defaultConditions = conditions;
+    }
+    
+    /**
+     * 设置随机种子，使丢包、抖动等结果可复现
+     */
+    public void setSeed(long seed) {
+        synchronized (random) {
+            random.setSeed(seed);
+        }
+    }
+    
+    /**
+     * 清除所有链路条件，恢复理想链路（断线期间暂存的可靠数据包立即投递）
+     * 链路状态保留，尚未交付的可靠数据包仍按原顺序先于新数据包到达
+     */
+    public void resetConditions() {
+        for (EmulatedLink link : links.values()) {
+            applyConditions(link, LinkConditions.ideal());
+        }
+        defaultConditions = LinkConditions.ideal();
+    }
+    
+    /**
+     * 获取对端
+     */
+    public LoopbackP2PTransport getEndpoint(long peerId) {
+        return endpoints.get(peerId);
+    }
+    
+    /**
+     * 当前对端数
+     */
+    public int getEndpointCount() {
+        return endpoints.size();
+    }
+}
@@ -0,0 +1,190 @@
+package me.steamworkp2p.transport.loopback;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.SteamNativeLibraries;
+import me.steamworkp2p.transport.TransportSessionState;
+
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回环网络中的一个对端
+ * 数据包在进程内直接投递，不经过任何本地库
+ */
+public class LoopbackP2PTransport implements P2PTransport {
+    
+    /**
+     * 数据包处理器
+     * 设置后收到的数据包直接交给处理器，不进入接收队列（用于模拟对端）
+     */
+    public interface PacketHandler {
+        void onPacket(LoopbackP2PTransport endpoint, SteamID sender, byte[] data, int channel);
+    }
+    
+    private final LoopbackNetwork network;
+    private final long peerId;
+    private final SteamID localId;
+    
+    // 每个通道一个接收队列
+    private final Map<Integer, Queue<LoopbackPacket>> inboxes = new ConcurrentHashMap<>();
+    
+    // 已建立会话的对端
+    private final Set<Long> sessions = ConcurrentHashMap.newKeySet();
+    
+    private volatile PacketHandler packetHandler;
+    private volatile boolean closed = false;
+    
+    private final AtomicLong packetsSent = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong packetsReceived = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    
+    LoopbackP2PTransport(LoopbackNetwork network, long peerId) {
+        this.network = network;
+        this.peerId = peerId;
+        SteamNativeLibraries.ensureLoaded();
+        this.localId = SteamID.createFromNativeHandle(peerId);
+    }
+    
+    @Override
+    public String getName() {
+        return "loopback";
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return !closed;
+    }
+    
+    @Override
+    public SteamID getLocalId() {
+        return localId;
+    }
+    
+    public long getPeerId() {
+        return peerId;
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> sendPacket(SteamID peer, byte[] data, P2PSendType sendType, int channel) {
+        if (closed) {
+            return CompletableFuture.completedFuture(false);
+        }
+        
+        long targetId = SteamID.getNativeHandle(peer);
+        // 复制数据，调用方可以复用自己的缓冲区
+        byte[] copy = data.clone();
+        boolean delivered = network.deliver(new LoopbackPacket(peerId, targetId, channel, sendType, copy));
+        if (delivered) {
+            sessions.add(targetId);
+            packetsSent.incrementAndGet();
+            bytesSent.addAndGet(copy.length);
+        }
+        return CompletableFuture.completedFuture(delivered);
+    }
+    
+    /**
+     * 接收网络投递的数据包
+     */
+    void enqueue(LoopbackPacket packet) {
+        if (closed) {
+            return;
+        }
+        
+        sessions.add(packet.senderId);
+        packetsReceived.incrementAndGet();
+        bytesReceived.addAndGet(packet.data.length);
+        
+        PacketHandler handler = packetHandler;
+        if (handler != null) {
+            handler.onPacket(this, SteamID.createFromNativeHandle(packet.senderId), packet.data, packet.channel);
+            return;
+        }
+        inboxes.computeIfAbsent(packet.channel, c -> new ConcurrentLinkedQueue<>()).offer(packet);
+    }
+    
+    @Override
+    public int isPacketAvailable(int channel) {
+        Queue<LoopbackPacket> inbox = inboxes.get(channel);
+        if (inbox == null) {
+            return 0;
+        }
+        LoopbackPacket packet = inbox.peek();
+        return packet != null ? packet.data.length : 0;
+    }
+    
+    @Override
+    public SteamID readPacket(ByteBuffer buffer, int channel) {
+        Queue<LoopbackPacket> inbox = inboxes.get(channel);
+        LoopbackPacket packet = inbox != null ? inbox.poll() : null;
+        if (packet == null) {
+            return null;
+        }
+        
+        buffer.clear();
+        buffer.put(packet.data);
+        buffer.flip();
+        return SteamID.createFromNativeHandle(packet.senderId);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> acceptSession(SteamID peer) {
+        sessions.add(SteamID.getNativeHandle(peer));
+        return CompletableFuture.completedFuture(!closed);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> closeSession(SteamID peer) {
+        return CompletableFuture.completedFuture(sessions.remove(SteamID.getNativeHandle(peer)));
+    }
+    
+    @Override
+    public TransportSessionState getSessionState(SteamID peer) {
+        long id = SteamID.getNativeHandle(peer);
+        if (!sessions.contains(id)) {
+            return TransportSessionState.none();
+        }
+        return new TransportSessionState(network.getEndpoint(id) != null, false, false, 0, 0);
+    }
+    
+    /**
+     * 设置数据包处理器
+     */
+    public void setPacketHandler(PacketHandler packetHandler) {
+        this.packetHandler = packetHandler;
+    }
+    
+    /**
+     * 离开回环网络
+     */
+    public void close() {
+        closed = true;
+        sessions.clear();
+        inboxes.clear();
+        network.removeEndpoint(this);
+    }
+    
+    public long getPacketsSent() {
+        return packetsSent.get();
+    }
+    
+    public long getBytesSent() {
+        return bytesSent.get();
+    }
+    
+    public long getPacketsReceived() {
+        return packetsReceived.get();
+    }
+    
+    public long getBytesReceived() {
+        return bytesReceived.get();
+    }
+}
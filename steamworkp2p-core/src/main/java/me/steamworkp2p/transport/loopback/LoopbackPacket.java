@@ -0,0 +1,23 @@
+package me.steamworkp2p.transport.loopback;
+
+import me.steamworkp2p.transport.P2PSendType;
+
+/**
+ * 回环网络中传递的数据包
+ */
+class LoopbackPacket {
+    
+    final long senderId;
+    final long targetId;
+    final int channel;
+    final P2PSendType sendType;
+    final byte[] data;
+    
+    LoopbackPacket(long senderId, long targetId, int channel, P2PSendType sendType, byte[] data) {
+        this.senderId = senderId;
+        this.targetId = targetId;
+        this.channel = channel;
+        this.sendType = sendType;
+        this.data = data;
+    }
+}
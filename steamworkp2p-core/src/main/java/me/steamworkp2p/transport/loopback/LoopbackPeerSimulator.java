@@ -0,0 +1,75 @@
+package me.steamworkp2p.transport.loopback;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.transport.P2PSendType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 回环网络中的模拟对端
+ * 按照P2PEngine的控制协议自动应答连接请求和ping，并回显普通消息
+ */
+public class LoopbackPeerSimulator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LoopbackPeerSimulator.class);
+    
+    private final List<LoopbackP2PTransport> peers = new ArrayList<>();
+    private final boolean echo;
+    
+    /**
+     * @param network     回环网络
+     * @param firstPeerId 第一个模拟对端的ID，其余依次递增
+     * @param peerCount   模拟对端数量
+     * @param echo        是否回显普通消息
+     */
+    public LoopbackPeerSimulator(LoopbackNetwork network, long firstPeerId, int peerCount, boolean echo) {
+        this.echo = echo;
+        for (int i = 0; i < peerCount; i++) {
+            LoopbackP2PTransport peer = network.createEndpoint(firstPeerId + i);
+            peer.setPacketHandler(this::handlePacket);
+            peers.add(peer);
+        }
+        if (peerCount > 0) {
+            logger.info("🤖 [回环网络] 已创建 {} 个模拟对端: {} ~ {}", peerCount, firstPeerId, firstPeerId + peerCount - 1);
+        }
+    }
+    
+    private void handlePacket(LoopbackP2PTransport peer, SteamID sender, byte[] data, int channel) {
+        String message = new String(data, StandardCharsets.UTF_8);
+        
+        if ("P2P_CONNECT_REQUEST".equals(message)) {
+            reply(peer, sender, "P2P_CONNECT_ACCEPT", P2PSendType.Reliable, channel);
+        } else if (message.startsWith("P2P_PING:")) {
+            reply(peer, sender, "P2P_PONG:" + message.substring(9), P2PSendType.Unreliable, channel);
+        } else if (message.startsWith("P2P_")) {
+            // 其他控制消息无需应答
+            return;
+        } else if (echo) {
+            peer.sendPacket(sender, data, P2PSendType.Reliable, channel);
+        }
+    }
+    
+    private void reply(LoopbackP2PTransport peer, SteamID target, String message, P2PSendType sendType, int channel) {
+        peer.sendPacket(target, message.getBytes(StandardCharsets.UTF_8), sendType, channel);
+    }
+    
+    /**
+     * 获取所有模拟对端
+     */
+    public List<LoopbackP2PTransport> getPeers() {
+        return Collections.unmodifiableList(peers);
+    }
+    
+    /**
+     * 所有模拟对端离开回环网络
+     */
+    public void close() {
+        peers.forEach(LoopbackP2PTransport::close);
+        peers.clear();
+    }
+}
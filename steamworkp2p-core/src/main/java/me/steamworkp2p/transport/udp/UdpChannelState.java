@@ -0,0 +1,222 @@
+package me.steamworkp2p.transport.udp;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 单个对端单个通道的可靠传输状态
+ * 发送侧按窗口限制在途数据报数量，超出窗口的数据排队等待；未确认的数据报用于重传。
+ * 接收侧按序号重排后按序交付。序号只在一个会话纪元内有效，会话重置时两侧都从1重新开始。
+ */
+class UdpChannelState {
+
+    // 接收侧乱序缓冲上限，超出后丢弃（由发送方重传补齐）
+    private static final int MAX_OUT_OF_ORDER = 1024;
+
+    // 指数退避的最大倍数（2^16），实际间隔还受最大重传超时限制
+    private static final int MAX_BACKOFF_SHIFT = 16;
+
+    /**
+     * 已分配序号、等待确认的数据报
+     */
+    static class PendingDatagram {
+        final int sequence;
+        final byte[] payload;
+        final long firstSentNanos;
+        long lastSentNanos;
+        int retransmits;
+
+        PendingDatagram(int sequence, byte[] payload, long firstSentNanos) {
+            this.sequence = sequence;
+            this.payload = payload;
+            this.firstSentNanos = firstSentNanos;
+            this.lastSentNanos = firstSentNanos;
+        }
+    }
+
+    private final int maxInFlight;
+    private final int maxQueuedBytes;
+
+    private int nextSendSequence = 1;
+    private final Map<Integer, PendingDatagram> unacked = new LinkedHashMap<>();
+    // 超出发送窗口或会话尚未建立时排队的数据
+    private final ArrayDeque<byte[]> backlog = new ArrayDeque<>();
+    private int queuedBytes = 0;
+
+    private int nextExpectedSequence = 1;
+    private final TreeMap<Integer, byte[]> outOfOrder = new TreeMap<>();
+
+    /**
+     * @param maxInFlight    发送窗口：最多同时等待确认的数据报数
+     * @param maxQueuedBytes 在途和排队数据的总字节上限，超出时拒绝发送
+     */
+    UdpChannelState(int maxInFlight, int maxQueuedBytes) {
+        this.maxInFlight = maxInFlight;
+        this.maxQueuedBytes = maxQueuedBytes;
+    }
+
+    /**
+     * 将可靠数据加入发送队列
+     *
+     * @return 超出排队上限时返回false
+     */
+    synchronized boolean enqueue(byte[] payload) {
+        if (queuedBytes + payload.length > maxQueuedBytes) {
+            return false;
+        }
+        backlog.addLast(payload);
+        queuedBytes += payload.length;
+        return true;
+    }
+
+    /**
+     * 在发送窗口允许的范围内为排队的数据分配序号并转为待确认
+     *
+     * @return 需要立即发送的数据报（可能为空）
+     */
+    synchronized List<PendingDatagram> pollSendable(long nowNanos) {
+        List<PendingDatagram> ready = null;
+        while (unacked.size() < maxInFlight && !backlog.isEmpty()) {
+            PendingDatagram pending = new PendingDatagram(nextSendSequence++, backlog.pollFirst(), nowNanos);
+            unacked.put(pending.sequence, pending);
+            if (ready == null) {
+                ready = new ArrayList<>();
+            }
+            ready.add(pending);
+        }
+        return ready != null ? ready : Collections.emptyList();
+    }
+
+    /**
+     * 处理确认
+     *
+     * @return 往返时间样本（纳秒）；重传过的数据报无法区分确认对应哪次发送，不产生样本，返回-1
+     */
+    synchronized long acknowledge(int sequence, long nowNanos) {
+        PendingDatagram pending = unacked.remove(sequence);
+        if (pending == null) {
+            return -1;
+        }
+        queuedBytes -= pending.payload.length;
+        return pending.retransmits == 0 ? nowNanos - pending.firstSentNanos : -1;
+    }
+
+    /**
+     * 收集需要重传的数据报
+     * 每个数据报的重传间隔从rtoNanos开始按重传次数翻倍，不超过maxRtoNanos
+     *
+     * @param rtoNanos            当前重传超时
+     * @param maxRtoNanos         重传间隔上限
+     * @param deliveryTimeoutNanos 数据报从首次发送起的送达期限
+     * @return 需要重传的数据报；有数据报超过送达期限时返回null
+     */
+    synchronized List<PendingDatagram> collectRetransmits(long nowNanos, long rtoNanos, long maxRtoNanos,
+                                                          long deliveryTimeoutNanos) {
+        List<PendingDatagram> due = null;
+        for (PendingDatagram pending : unacked.values()) {
+            if (nowNanos - pending.firstSentNanos >= deliveryTimeoutNanos) {
+                return null;
+            }
+            if (nowNanos - pending.lastSentNanos < backoff(rtoNanos, maxRtoNanos, pending.retransmits)) {
+                continue;
+            }
+            pending.retransmits++;
+            pending.lastSentNanos = nowNanos;
+            if (due == null) {
+                due = new ArrayList<>();
+            }
+            due.add(pending);
+        }
+        return due != null ? due : Collections.emptyList();
+    }
+
+    /**
+     * 第attempts次重传前的等待时间
+     */
+    static long backoff(long rtoNanos, long maxRtoNanos, int attempts) {
+        return Math.min(rtoNanos << Math.min(attempts, MAX_BACKOFF_SHIFT), maxRtoNanos);
+    }
+
+    /**
+     * 重置发送侧：对端的接收状态已丢失，未确认的数据按原顺序放回队首，在新会话中从序号1重新发送
+     */
+    synchronized void resetSend() {
+        List<PendingDatagram> inFlight = new ArrayList<>(unacked.values());
+        for (int i = inFlight.size() - 1; i >= 0; i--) {
+            backlog.addFirst(inFlight.get(i).payload);
+        }
+        unacked.clear();
+        nextSendSequence = 1;
+    }
+
+    /**
+     * 重置接收侧：对端开始了新的会话，从序号1重新接收
+     */
+    synchronized void resetReceive() {
+        nextExpectedSequence = 1;
+        outOfOrder.clear();
+    }
+
+    /**
+     * 接收可靠数据报
+     *
+     * @return 可以按序交付的数据（可能为空）
+     */
+    synchronized List<byte[]> receive(int sequence, byte[] payload) {
+        if (sequence < nextExpectedSequence) {
+            // 重复数据报，已交付过
+            return Collections.emptyList();
+        }
+
+        if (sequence > nextExpectedSequence) {
+            if (outOfOrder.size() < MAX_OUT_OF_ORDER) {
+                outOfOrder.putIfAbsent(sequence, payload);
+            }
+            return Collections.emptyList();
+        }
+
+        List<byte[]> ready = new ArrayList<>();
+        ready.add(payload);
+        nextExpectedSequence++;
+
+        Iterator<Map.Entry<Integer, byte[]>> it = outOfOrder.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Integer, byte[]> entry = it.next();
+            if (entry.getKey() < nextExpectedSequence) {
+                it.remove();
+            } else if (entry.getKey() == nextExpectedSequence) {
+                ready.add(entry.getValue());
+                nextExpectedSequence++;
+                it.remove();
+            } else {
+                break;
+            }
+        }
+        return ready;
+    }
+
+    /**
+     * 是否还有未送达的可靠数据（在途或排队）
+     */
+    synchronized boolean hasPending() {
+        return !unacked.isEmpty() || !backlog.isEmpty();
+    }
+
+    synchronized int getUnackedCount() {
+        return unacked.size();
+    }
+
+    synchronized int getQueuedCount() {
+        return unacked.size() + backlog.size();
+    }
+
+    synchronized int getQueuedBytes() {
+        return queuedBytes;
+    }
+}
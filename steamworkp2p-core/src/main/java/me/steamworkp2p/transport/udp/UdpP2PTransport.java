@@ -0,0 +1,939 @@
+package me.steamworkp2p.transport.udp;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.SteamNativeLibraries;
+import me.steamworkp2p.transport.TransportSessionState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于NIO DatagramChannel的UDP传输
+ * 用于局域网或自有服务器之间直连，不经过Steam中继，也不需要登录Steam客户端。
+ * 对端用配置的ID标识，提供与Steam P2P相同的可靠/不可靠发送和通道语义。
+ *
+ * <p>数据报格式（大端）：类型(1) 标志(1) 通道(1) 发送方ID(8) 源纪元(8) 目标纪元(8) 序号(4) 数据(N)，
+ * 可靠数据报逐个确认、超时重传，并在接收侧按序号重排后按序交付。</p>
+ *
+ * <p>每个会话有一个单调递增的纪元，序号只在纪元内有效。发送可靠数据前先用SYN/SYN_ACK交换双方纪元；
+ * 收到目标纪元不是本地当前会话的数据报时回复RESET，发送方随即重置两个方向的序号并重新握手，
+ * 因此任一方关闭会话或重启后都能重新连接。在途数据报数量受发送窗口限制。</p>
+ *
+ * <p>重传超时由确认的往返时间估算（SRTT + 4×RTTVAR，重传过的数据报不采样），每次重传间隔翻倍。
+ * 可靠数据或握手在送达期限内仍未被确认时放弃会话，丢弃未送达的数据并通知 {@link SessionFailureListener}。
+ * 每个通道的接收队列有数量和字节上限：队列满时不确认新到的可靠数据报，由发送方稍后重传，不可靠数据报直接丢弃。</p>
+ */
+public class UdpP2PTransport implements P2PTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(UdpP2PTransport.class);
+
+    private static final byte TYPE_DATA = 1;
+    private static final byte TYPE_ACK = 2;
+    private static final byte TYPE_SYN = 3;
+    private static final byte TYPE_SYN_ACK = 4;
+    private static final byte TYPE_RESET = 5;
+    private static final byte FLAG_RELIABLE = 1;
+
+    static final int HEADER_SIZE = 31;
+
+    // UDP单个数据报的最大负载
+    private static final int MAX_DATAGRAM_SIZE = 65507;
+
+    // 通道号占1字节
+    private static final int MAX_CHANNEL = 255;
+
+    /** 单个数据包的最大数据长度 */
+    public static final int MAX_PAYLOAD_SIZE = MAX_DATAGRAM_SIZE - HEADER_SIZE;
+
+    // I/O线程的最大等待时间，同时也是重传检查间隔（毫秒）
+    private static final long IO_TICK_MS = 10;
+
+    // 重传超时：尚无往返时间样本时的初始值，以及估算值的上下限（SYN同样适用）
+    private static final long INITIAL_RTO_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long MIN_RTO_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    private static final long MAX_RTO_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    // 可靠数据报和握手从首次发送起的默认送达期限，超过后放弃会话
+    private static final long DEFAULT_DELIVERY_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(10);
+
+    // 每个通道的发送窗口（在途数据报数）与排队字节上限
+    private static final int MAX_IN_FLIGHT = 256;
+    private static final int MAX_QUEUED_BYTES = 16 * 1024 * 1024;
+
+    // 每个通道接收队列的默认上限（数据包数与字节数）
+    private static final int DEFAULT_INBOX_PACKETS = 65536;
+    private static final int DEFAULT_INBOX_BYTES = 16 * 1024 * 1024;
+
+    // 会话纪元：以微秒时间为起点单调递增，进程重启后的纪元大于重启前的纪元
+    private static final AtomicLong EPOCHS = new AtomicLong();
+
+    private final long localPeerId;
+    private final SteamID localId;
+    private final InetSocketAddress bindAddress;
+    private final boolean acceptUnknownPeers;
+
+    // 对端地址：配置的对端，以及允许时从收到的数据报中学习到的对端
+    private final Map<Long, InetSocketAddress> peerAddresses = new ConcurrentHashMap<>();
+
+    // 对端会话状态
+    private final Map<Long, UdpPeerSession> sessions = new ConcurrentHashMap<>();
+
+    // 每个通道一个接收队列
+    private final Map<Integer, UdpInbox> inboxes = new ConcurrentHashMap<>();
+
+    // 送达期限与接收队列上限，需在start之前设置
+    private long deliveryTimeoutNanos = DEFAULT_DELIVERY_TIMEOUT_NANOS;
+    private int maxInboxPackets = DEFAULT_INBOX_PACKETS;
+    private int maxInboxBytes = DEFAULT_INBOX_BYTES;
+
+    private volatile SessionFailureListener sessionFailureListener;
+
+    private DatagramChannel channel;
+    private Selector selector;
+    private Thread ioThread;
+    private volatile boolean running = false;
+
+    // I/O线程专用的接收缓冲区
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+
+    private final AtomicLong datagramsSent = new AtomicLong();
+    private final AtomicLong datagramsReceived = new AtomicLong();
+    private final AtomicLong retransmits = new AtomicLong();
+    private final AtomicLong sessionFailures = new AtomicLong();
+    private final AtomicLong inboxDrops = new AtomicLong();
+
+    /**
+     * 已按序交付、等待读取的数据包
+     */
+    private static class UdpPacket {
+        final long senderId;
+        final byte[] data;
+
+        UdpPacket(long senderId, byte[] data) {
+            this.senderId = senderId;
+            this.data = data;
+        }
+    }
+
+    /**
+     * 一个通道的接收队列
+     * 只有I/O线程写入，读取方只会减少计数，因此先检查再写入不会超过上限
+     */
+    private static class UdpInbox {
+        final Queue<UdpPacket> packets = new ConcurrentLinkedQueue<>();
+        final AtomicInteger count = new AtomicInteger();
+        final AtomicInteger bytes = new AtomicInteger();
+
+        boolean hasRoom(int length, int maxPackets, int maxBytes) {
+            return count.get() < maxPackets && bytes.get() + length <= maxBytes;
+        }
+
+        void offer(UdpPacket packet) {
+            count.incrementAndGet();
+            bytes.addAndGet(packet.data.length);
+            packets.offer(packet);
+        }
+
+        UdpPacket poll() {
+            UdpPacket packet = packets.poll();
+            if (packet != null) {
+                count.decrementAndGet();
+                bytes.addAndGet(-packet.data.length);
+            }
+            return packet;
+        }
+    }
+
+    /**
+     * 与一个对端的会话
+     * 纪元和序号的变更都在会话锁内进行（会话锁在通道锁之前获取）
+     */
+    private static class UdpPeerSession {
+        final long localEpoch = nextEpoch();
+        final Map<Integer, UdpChannelState> channels = new ConcurrentHashMap<>();
+        // 对端当前会话的纪元，0表示尚未握手
+        volatile long remoteEpoch = 0;
+        volatile long lastReceivedNanos = 0;
+        // 已请求关闭，等待排队的可靠数据被确认后移除
+        volatile boolean closing = false;
+        // 本轮握手首次和最近一次发送SYN的时间，以及已重传次数
+        long firstSynNanos = 0;
+        long lastSynNanos = 0;
+        int synAttempts = 0;
+        // 往返时间估算（只在I/O线程更新），0表示尚无样本
+        long srttNanos = 0;
+        long rttvarNanos = 0;
+        volatile long rtoNanos = INITIAL_RTO_NANOS;
+
+        UdpChannelState channel(int channel) {
+            return channels.computeIfAbsent(channel, c -> new UdpChannelState(MAX_IN_FLIGHT, MAX_QUEUED_BYTES));
+        }
+
+        boolean isEstablished() {
+            return remoteEpoch != 0;
+        }
+
+        boolean hasPending() {
+            for (UdpChannelState state : channels.values()) {
+                if (state.hasPending()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * 用新的往返时间样本更新重传超时（RFC 6298）
+         */
+        void updateRtt(long sampleNanos) {
+            if (srttNanos == 0) {
+                srttNanos = sampleNanos;
+                rttvarNanos = sampleNanos / 2;
+            } else {
+                rttvarNanos = (3 * rttvarNanos + Math.abs(srttNanos - sampleNanos)) / 4;
+                srttNanos = (7 * srttNanos + sampleNanos) / 8;
+            }
+            long rto = srttNanos + Math.max(4 * rttvarNanos, TimeUnit.MILLISECONDS.toNanos(IO_TICK_MS));
+            rtoNanos = Math.max(MIN_RTO_NANOS, Math.min(rto, MAX_RTO_NANOS));
+        }
+    }
+
+    private static long nextEpoch() {
+        long now = System.currentTimeMillis() * 1000;
+        return EPOCHS.updateAndGet(last -> Math.max(last + 1, now));
+    }
+
+    /**
+     * @param localPeerId        本地对端ID
+     * @param bindAddress        本地绑定地址
+     * @param peers              已知对端ID到地址的映射
+     * @param acceptUnknownPeers 是否接受未配置对端的数据报并记住其地址
+     */
+    public UdpP2PTransport(long localPeerId, InetSocketAddress bindAddress,
+                           Map<Long, InetSocketAddress> peers, boolean acceptUnknownPeers) {
+        this.localPeerId = localPeerId;
+        SteamNativeLibraries.ensureLoaded();
+        this.localId = SteamID.createFromNativeHandle(localPeerId);
+        this.bindAddress = bindAddress;
+        this.acceptUnknownPeers = acceptUnknownPeers;
+        this.peerAddresses.putAll(peers);
+    }
+
+    /**
+     * 解析对端配置
+     * 格式：id@host:port，多个对端用逗号分隔
+     */
+    public static Map<Long, InetSocketAddress> parsePeers(String spec) {
+        Map<Long, InetSocketAddress> peers = new LinkedHashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return peers;
+        }
+
+        for (String entry : spec.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int at = trimmed.indexOf('@');
+            int colon = trimmed.lastIndexOf(':');
+            if (at <= 0 || colon <= at) {
+                throw new IllegalArgumentException("无效的UDP对端配置: " + trimmed + "（格式应为 id@host:port）");
+            }
+            long id = Long.parseLong(trimmed.substring(0, at));
+            String host = trimmed.substring(at + 1, colon);
+            int port = Integer.parseInt(trimmed.substring(colon + 1));
+            peers.put(id, new InetSocketAddress(host, port));
+        }
+        return peers;
+    }
+
+    /**
+     * 设置可靠数据报和握手的送达期限，超过后放弃会话（需在start之前调用）
+     */
+    void setDeliveryTimeout(long timeout, TimeUnit unit) {
+        this.deliveryTimeoutNanos = unit.toNanos(timeout);
+    }
+
+    /**
+     * 设置每个通道接收队列的数据包数与字节上限（需在start之前调用）
+     */
+    void setInboxLimits(int maxPackets, int maxBytes) {
+        this.maxInboxPackets = maxPackets;
+        this.maxInboxBytes = maxBytes;
+    }
+
+    @Override
+    public void setSessionFailureListener(SessionFailureListener listener) {
+        this.sessionFailureListener = listener;
+    }
+
+    /**
+     * 绑定端口并启动I/O线程
+     */
+    public void start() throws IOException {
+        channel = DatagramChannel.open();
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, 4 * 1024 * 1024);
+        channel.bind(bindAddress);
+
+        selector = Selector.open();
+        channel.register(selector, SelectionKey.OP_READ);
+
+        running = true;
+        ioThread = new Thread(this::ioLoop, "P2P-UDP-IO");
+        ioThread.setDaemon(true);
+        ioThread.start();
+
+        logger.info("📡 [UDP传输] 已启动: 本地ID={}, 地址={}, 已配置对端={}",
+            localPeerId, channel.getLocalAddress(), peerAddresses.keySet());
+    }
+
+    /**
+     * 停止I/O线程并关闭端口
+     */
+    public void close() {
+        running = false;
+        if (selector != null) {
+            selector.wakeup();
+        }
+        if (ioThread != null) {
+            try {
+                ioThread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            if (selector != null) {
+                selector.close();
+            }
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            logger.warn("⚠️ [UDP传输] 关闭时发生错误: {}", e.getMessage());
+        }
+        sessions.clear();
+        inboxes.clear();
+        logger.info("🛑 [UDP传输] 已停止");
+    }
+
+    /**
+     * 实际绑定的本地地址（绑定端口为0时由系统分配）
+     */
+    InetSocketAddress getLocalAddress() throws IOException {
+        return (InetSocketAddress) channel.getLocalAddress();
+    }
+
+    @Override
+    public String getName() {
+        return "udp";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return running;
+    }
+
+    @Override
+    public SteamID getLocalId() {
+        return localId;
+    }
+
+    @Override
+    public CompletableFuture<Boolean> sendPacket(SteamID peer, byte[] data, P2PSendType sendType, int channelId) {
+        if (!running) {
+            return CompletableFuture.completedFuture(false);
+        }
+        if (channelId < 0 || channelId > MAX_CHANNEL) {
+            logger.warn("⚠️ [UDP传输] 无效的通道号: {}", channelId);
+            return CompletableFuture.completedFuture(false);
+        }
+        if (data.length > MAX_PAYLOAD_SIZE) {
+            logger.warn("⚠️ [UDP传输] 数据包过大: {} > {}", data.length, MAX_PAYLOAD_SIZE);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        long peerId = SteamID.getNativeHandle(peer);
+        InetSocketAddress address = peerAddresses.get(peerId);
+        if (address == null) {
+            logger.warn("⚠️ [UDP传输] 未知对端: {}", peerId);
+            return CompletableFuture.completedFuture(false);
+        }
+
+        try {
+            if (sendType.isReliable()) {
+                // 可靠数据先进入发送队列，会话建立且窗口允许时发出，未确认的由I/O线程重传
+                UdpPeerSession session = session(peerId);
+                if (!session.channel(channelId).enqueue(data)) {
+                    logger.warn("⚠️ [UDP传输] 对端 {} 通道 {} 的发送队列已满", peerId, channelId);
+                    return CompletableFuture.completedFuture(false);
+                }
+                // 关闭后再次发送视为继续使用该会话
+                session.closing = false;
+                if (session.isEstablished()) {
+                    flush(session, channelId, address);
+                } else {
+                    sendSyn(session, address, false);
+                }
+                return CompletableFuture.completedFuture(true);
+            }
+
+            byte[] datagram = encode(TYPE_DATA, (byte) 0, channelId, 0, 0, 0, data);
+            return CompletableFuture.completedFuture(send(datagram, address));
+
+        } catch (IOException e) {
+            logger.error("💥 [UDP传输] 发送数据报到 {} 时发生错误", address, e);
+            return CompletableFuture.completedFuture(false);
+        }
+    }
+
+    @Override
+    public int isPacketAvailable(int channelId) {
+        UdpInbox inbox = inboxes.get(channelId);
+        if (inbox == null) {
+            return 0;
+        }
+        UdpPacket packet = inbox.packets.peek();
+        return packet != null ? packet.data.length : 0;
+    }
+
+    @Override
+    public SteamID readPacket(ByteBuffer buffer, int channelId) {
+        UdpInbox inbox = inboxes.get(channelId);
+        UdpPacket packet = inbox != null ? inbox.poll() : null;
+        if (packet == null) {
+            return null;
+        }
+
+        buffer.clear();
+        buffer.put(packet.data);
+        buffer.flip();
+        return SteamID.createFromNativeHandle(packet.senderId);
+    }
+
+    @Override
+    public CompletableFuture<Boolean> acceptSession(SteamID peer) {
+        long peerId = SteamID.getNativeHandle(peer);
+        if (!peerAddresses.containsKey(peerId)) {
+            return CompletableFuture.completedFuture(false);
+        }
+        session(peerId);
+        return CompletableFuture.completedFuture(true);
+    }
+
+    /**
+     * 关闭会话
+     * 仍有未确认的可靠数据（例如刚排队的断开通知）时先标记为关闭中，全部确认或重传失败后由I/O线程移除
+     */
+    @Override
+    public CompletableFuture<Boolean> closeSession(SteamID peer) {
+        long peerId = SteamID.getNativeHandle(peer);
+        UdpPeerSession session = sessions.get(peerId);
+        if (session == null) {
+            return CompletableFuture.completedFuture(false);
+        }
+        session.closing = true;
+        if (!session.hasPending()) {
+            sessions.remove(peerId, session);
+        }
+        return CompletableFuture.completedFuture(true);
+    }
+
+    @Override
+    public TransportSessionState getSessionState(SteamID peer) {
+        UdpPeerSession session = sessions.get(SteamID.getNativeHandle(peer));
+        if (session == null) {
+            return TransportSessionState.none();
+        }
+
+        int queuedBytes = 0;
+        int queuedPackets = 0;
+        for (UdpChannelState state : session.channels.values()) {
+            queuedBytes += state.getQueuedBytes();
+            queuedPackets += state.getQueuedCount();
+        }
+        boolean active = session.isEstablished();
+        return new TransportSessionState(active, !active, false, queuedBytes, queuedPackets);
+    }
+
+    private UdpPeerSession session(long peerId) {
+        return sessions.computeIfAbsent(peerId, id -> new UdpPeerSession());
+    }
+
+    /**
+     * I/O线程：接收数据报并处理重传
+     */
+    private void ioLoop() {
+        while (running) {
+            try {
+                selector.select(IO_TICK_MS);
+                selector.selectedKeys().clear();
+                if (!running) {
+                    break;
+                }
+                receiveAll();
+                retransmitDue();
+            } catch (IOException e) {
+                if (running) {
+                    logger.error("💥 [UDP传输] I/O线程发生错误", e);
+                }
+            } catch (Exception e) {
+                logger.error("💥 [UDP传输] 处理数据报时发生错误", e);
+            }
+        }
+    }
+
+    /**
+     * 读取所有已到达的数据报
+     */
+    private void receiveAll() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null) {
+                return;
+            }
+            receiveBuffer.flip();
+            datagramsReceived.incrementAndGet();
+            handleDatagram((InetSocketAddress) from, receiveBuffer);
+        }
+    }
+
+    /**
+     * 处理一个数据报
+     */
+    private void handleDatagram(InetSocketAddress from, ByteBuffer datagram) throws IOException {
+        if (datagram.remaining() < HEADER_SIZE) {
+            return;
+        }
+
+        byte type = datagram.get();
+        byte flags = datagram.get();
+        int channelId = datagram.get() & 0xFF;
+        long senderId = datagram.getLong();
+        long sourceEpoch = datagram.getLong();
+        long targetEpoch = datagram.getLong();
+        int sequence = datagram.getInt();
+
+        if (!checkSenderAddress(senderId, from)) {
+            return;
+        }
+
+        switch (type) {
+            case TYPE_SYN -> handleSyn(from, senderId, sourceEpoch);
+            case TYPE_SYN_ACK -> handleSynAck(from, senderId, sourceEpoch, targetEpoch);
+            case TYPE_ACK -> handleAck(from, senderId, channelId, sourceEpoch, targetEpoch, sequence);
+            case TYPE_RESET -> handleReset(from, senderId, sourceEpoch, targetEpoch);
+            case TYPE_DATA -> {
+                byte[] payload = new byte[datagram.remaining()];
+                datagram.get(payload);
+                if ((flags & FLAG_RELIABLE) == 0) {
+                    UdpPeerSession session = sessions.get(senderId);
+                    if (session != null) {
+                        session.lastReceivedNanos = System.nanoTime();
+                    }
+                    if (inbox(channelId).hasRoom(payload.length, maxInboxPackets, maxInboxBytes)) {
+                        deliver(senderId, channelId, payload);
+                    } else {
+                        inboxDrops.incrementAndGet();
+                    }
+                } else {
+                    handleReliable(from, senderId, channelId, sourceEpoch, targetEpoch, sequence, payload);
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    /**
+     * 对端发起握手：记录对端纪元（对端换了新会话时重置两个方向的序号），回复SYN_ACK
+     */
+    private void handleSyn(InetSocketAddress from, long senderId, long sourceEpoch) throws IOException {
+        UdpPeerSession session = session(senderId);
+        if (session.closing && sourceEpoch > session.remoteEpoch) {
+            // 正在关闭的旧会话上排队的数据不属于对端的新会话
+            sessions.remove(senderId, session);
+            session = session(senderId);
+        }
+        session.lastReceivedNanos = System.nanoTime();
+        synchronized (session) {
+            if (sourceEpoch < session.remoteEpoch) {
+                // 对端旧会话迟到的SYN
+                return;
+            }
+            if (sourceEpoch > session.remoteEpoch) {
+                adoptRemoteEpoch(senderId, session, sourceEpoch);
+            }
+        }
+        send(encode(TYPE_SYN_ACK, (byte) 0, 0, session.localEpoch, sourceEpoch, 0, null), from);
+        flushAll(session, from);
+    }
+
+    /**
+     * 握手完成：记录对端纪元并发送排队的数据
+     */
+    private void handleSynAck(InetSocketAddress from, long senderId, long sourceEpoch, long targetEpoch) throws IOException {
+        UdpPeerSession session = sessions.get(senderId);
+        if (session == null || targetEpoch != session.localEpoch) {
+            return;
+        }
+        session.lastReceivedNanos = System.nanoTime();
+        synchronized (session) {
+            if (sourceEpoch < session.remoteEpoch) {
+                return;
+            }
+            if (sourceEpoch > session.remoteEpoch) {
+                adoptRemoteEpoch(senderId, session, sourceEpoch);
+            }
+        }
+        flushAll(session, from);
+    }
+
+    /**
+     * 处理确认：只接受当前会话纪元内的确认，随后发送窗口中空出的数据
+     */
+    private void handleAck(InetSocketAddress from, long senderId, int channelId,
+                           long sourceEpoch, long targetEpoch, int sequence) throws IOException {
+        UdpPeerSession session = sessions.get(senderId);
+        if (session == null || targetEpoch != session.localEpoch || sourceEpoch != session.remoteEpoch) {
+            return;
+        }
+        long now = System.nanoTime();
+        session.lastReceivedNanos = now;
+        long rttSample = session.channel(channelId).acknowledge(sequence, now);
+        if (rttSample >= 0) {
+            session.updateRtt(rttSample);
+        }
+        flush(session, channelId, from);
+        if (session.closing && !session.hasPending()) {
+            sessions.remove(senderId, session);
+            logger.debug("🔌 [UDP传输] 对端 {} 的会话在数据送达后关闭", senderId);
+        }
+    }
+
+    /**
+     * 对端已没有我们当前的会话（关闭或重启）：关闭中的会话直接移除，否则重置两个方向的序号并重新握手
+     */
+    private void handleReset(InetSocketAddress from, long senderId, long sourceEpoch, long targetEpoch) throws IOException {
+        UdpPeerSession session = sessions.get(senderId);
+        if (session == null || targetEpoch != session.localEpoch) {
+            return;
+        }
+        synchronized (session) {
+            if (sourceEpoch != 0 && sourceEpoch == session.remoteEpoch) {
+                // 被拒绝的是旧会话迟到的数据报，当前会话正常
+                return;
+            }
+            if (session.closing) {
+                sessions.remove(senderId, session);
+                logger.debug("🔌 [UDP传输] 对端 {} 已关闭会话，放弃未送达的数据", senderId);
+                return;
+            }
+            logger.info("🔄 [UDP传输] 对端 {} 的会话已重置，重新握手", senderId);
+            session.remoteEpoch = 0;
+            for (UdpChannelState state : session.channels.values()) {
+                state.resetSend();
+                state.resetReceive();
+            }
+            session.firstSynNanos = 0;
+            session.synAttempts = 0;
+        }
+        sendSyn(session, from, true);
+    }
+
+    /**
+     * 接收可靠数据报
+     */
+    private void handleReliable(InetSocketAddress from, long senderId, int channelId, long sourceEpoch,
+                                long targetEpoch, int sequence, byte[] payload) throws IOException {
+        UdpPeerSession session = sessions.get(senderId);
+        if (session == null || targetEpoch != session.localEpoch) {
+            // 发送方面向的是本端已关闭或重启前的会话，要求其重新握手
+            long localEpoch = session != null ? session.localEpoch : 0;
+            send(encode(TYPE_RESET, (byte) 0, channelId, localEpoch, sourceEpoch, 0, null), from);
+            return;
+        }
+        session.lastReceivedNanos = System.nanoTime();
+        synchronized (session) {
+            if (sourceEpoch < session.remoteEpoch) {
+                return;
+            }
+            if (sourceEpoch > session.remoteEpoch) {
+                adoptRemoteEpoch(senderId, session, sourceEpoch);
+            }
+        }
+
+        // 接收队列已满时不确认，发送方按退避间隔重传，读取方取走数据后再接收
+        if (!inbox(channelId).hasRoom(payload.length, maxInboxPackets, maxInboxBytes)) {
+            inboxDrops.incrementAndGet();
+            return;
+        }
+
+        // 先确认（重复数据报也要确认，对方可能没收到上一个确认），再按序交付
+        send(encode(TYPE_ACK, (byte) 0, channelId, session.localEpoch, sourceEpoch, sequence, null), from);
+        for (byte[] ready : session.channel(channelId).receive(sequence, payload)) {
+            deliver(senderId, channelId, ready);
+        }
+    }
+
+    /**
+     * 记录对端的新会话纪元（调用方持有会话锁）
+     * 对端换了新会话说明它的接收状态已丢失，本端发送侧也从序号1重新开始
+     */
+    private void adoptRemoteEpoch(long peerId, UdpPeerSession session, long epoch) {
+        boolean peerRestarted = session.remoteEpoch != 0;
+        session.remoteEpoch = epoch;
+        session.firstSynNanos = 0;
+        session.synAttempts = 0;
+        for (UdpChannelState state : session.channels.values()) {
+            state.resetReceive();
+            if (peerRestarted) {
+                state.resetSend();
+            }
+        }
+        if (peerRestarted) {
+            logger.info("🔄 [UDP传输] 对端 {} 开始了新会话，重置序号", peerId);
+        }
+    }
+
+    /**
+     * 发送SYN；非强制时在重传超时内不重复发送
+     */
+    private void sendSyn(UdpPeerSession session, InetSocketAddress address, boolean force) throws IOException {
+        long now = System.nanoTime();
+        synchronized (session) {
+            if (session.isEstablished()
+                    || (!force && session.lastSynNanos != 0 && now - session.lastSynNanos < session.rtoNanos)) {
+                return;
+            }
+            if (session.firstSynNanos == 0) {
+                session.firstSynNanos = now;
+            }
+            session.lastSynNanos = now;
+            send(encode(TYPE_SYN, (byte) 0, 0, session.localEpoch, session.remoteEpoch, 0, null), address);
+        }
+    }
+
+    /**
+     * 在发送窗口允许的范围内发送通道中排队的可靠数据
+     */
+    private void flush(UdpPeerSession session, int channelId, InetSocketAddress address) throws IOException {
+        UdpChannelState state = session.channels.get(channelId);
+        if (state == null) {
+            return;
+        }
+        synchronized (session) {
+            if (!session.isEstablished()) {
+                return;
+            }
+            for (UdpChannelState.PendingDatagram pending : state.pollSendable(System.nanoTime())) {
+                send(encodeReliable(session, channelId, pending), address);
+            }
+        }
+    }
+
+    private void flushAll(UdpPeerSession session, InetSocketAddress address) throws IOException {
+        for (int channelId : session.channels.keySet()) {
+            flush(session, channelId, address);
+        }
+    }
+
+    private byte[] encodeReliable(UdpPeerSession session, int channelId, UdpChannelState.PendingDatagram pending) {
+        return encode(TYPE_DATA, FLAG_RELIABLE, channelId, session.localEpoch, session.remoteEpoch,
+                pending.sequence, pending.payload);
+    }
+
+    /**
+     * 校验发送方地址
+     * 已配置的对端只接受来自配置地址的数据报；未配置的对端按acceptUnknownPeers决定
+     */
+    private boolean checkSenderAddress(long senderId, InetSocketAddress from) {
+        InetSocketAddress known = peerAddresses.get(senderId);
+        if (known == null) {
+            if (!acceptUnknownPeers) {
+                logger.debug("🚫 [UDP传输] 丢弃来自未知对端 {} ({}) 的数据报", senderId, from);
+                return false;
+            }
+            peerAddresses.put(senderId, from);
+            logger.info("🔗 [UDP传输] 记住新对端: {} -> {}", senderId, from);
+            return true;
+        }
+        if (!known.equals(from)) {
+            if (!acceptUnknownPeers) {
+                logger.debug("🚫 [UDP传输] 对端 {} 的地址不匹配: {} != {}", senderId, from, known);
+                return false;
+            }
+            peerAddresses.put(senderId, from);
+        }
+        return true;
+    }
+
+    private UdpInbox inbox(int channelId) {
+        return inboxes.computeIfAbsent(channelId, c -> new UdpInbox());
+    }
+
+    private void deliver(long senderId, int channelId, byte[] payload) {
+        inbox(channelId).offer(new UdpPacket(senderId, payload));
+    }
+
+    /**
+     * 重传超时未确认的SYN和可靠数据报，超过送达期限则放弃会话；移除数据已送达的关闭中会话
+     */
+    private void retransmitDue() throws IOException {
+        long now = System.nanoTime();
+        for (Map.Entry<Long, UdpPeerSession> entry : sessions.entrySet()) {
+            long peerId = entry.getKey();
+            UdpPeerSession session = entry.getValue();
+            InetSocketAddress address = peerAddresses.get(peerId);
+            if (address == null) {
+                continue;
+            }
+
+            if (session.closing && !session.hasPending()) {
+                sessions.remove(peerId, session);
+                continue;
+            }
+
+            if (!retransmitSession(session, address, now)) {
+                if (sessions.remove(peerId, session)) {
+                    failSession(peerId, session);
+                }
+                continue;
+            }
+            flushAll(session, address);
+        }
+    }
+
+    /**
+     * 放弃会话：未送达的可靠数据随会话丢弃，通知会话失败监听器
+     * 关闭中的会话是本端主动断开的，只记录日志
+     */
+    private void failSession(long peerId, UdpPeerSession session) {
+        sessionFailures.incrementAndGet();
+        if (session.closing) {
+            logger.debug("🔌 [UDP传输] 对端 {} 在送达期限内未确认，关闭中的会话放弃未送达的数据", peerId);
+            return;
+        }
+
+        logger.warn("⏰ [UDP传输] 对端 {} 在 {} 毫秒内未确认数据，放弃会话", peerId,
+            TimeUnit.NANOSECONDS.toMillis(deliveryTimeoutNanos));
+        SessionFailureListener listener = sessionFailureListener;
+        if (listener != null) {
+            try {
+                listener.onSessionFailed(SteamID.createFromNativeHandle(peerId));
+            } catch (Exception e) {
+                logger.error("💥 [UDP传输] 会话失败监听器处理错误", e);
+            }
+        }
+    }
+
+    /**
+     * @return 超过送达期限时返回false
+     */
+    private boolean retransmitSession(UdpPeerSession session, InetSocketAddress address, long now) throws IOException {
+        synchronized (session) {
+            if (!session.isEstablished()) {
+                if (!session.hasPending()) {
+                    return true;
+                }
+                if (session.firstSynNanos != 0 && now - session.firstSynNanos >= deliveryTimeoutNanos) {
+                    return false;
+                }
+                if (now - session.lastSynNanos
+                        < UdpChannelState.backoff(session.rtoNanos, MAX_RTO_NANOS, session.synAttempts)) {
+                    return true;
+                }
+                if (session.firstSynNanos == 0) {
+                    session.firstSynNanos = now;
+                }
+                session.synAttempts++;
+                session.lastSynNanos = now;
+                send(encode(TYPE_SYN, (byte) 0, 0, session.localEpoch, 0, 0, null), address);
+                retransmits.incrementAndGet();
+                return true;
+            }
+
+            for (Map.Entry<Integer, UdpChannelState> channelEntry : session.channels.entrySet()) {
+                List<UdpChannelState.PendingDatagram> due = channelEntry.getValue()
+                    .collectRetransmits(now, session.rtoNanos, MAX_RTO_NANOS, deliveryTimeoutNanos);
+                if (due == null) {
+                    return false;
+                }
+                for (UdpChannelState.PendingDatagram pending : due) {
+                    send(encodeReliable(session, channelEntry.getKey(), pending), address);
+                    retransmits.incrementAndGet();
+                }
+            }
+            return true;
+        }
+    }
+
+    private boolean send(byte[] datagram, InetSocketAddress address) throws IOException {
+        // 非阻塞发送：发送缓冲区满时返回0
+        boolean sent = channel.send(ByteBuffer.wrap(datagram), address) > 0;
+        if (sent) {
+            datagramsSent.incrementAndGet();
+        }
+        return sent;
+    }
+
+    private byte[] encode(byte type, byte flags, int channelId, long sourceEpoch, long targetEpoch,
+                          int sequence, byte[] payload) {
+        int payloadLength = payload != null ? payload.length : 0;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE + payloadLength);
+        buffer.put(type);
+        buffer.put(flags);
+        buffer.put((byte) channelId);
+        buffer.putLong(localPeerId);
+        buffer.putLong(sourceEpoch);
+        buffer.putLong(targetEpoch);
+        buffer.putInt(sequence);
+        if (payload != null) {
+            buffer.put(payload);
+        }
+        return buffer.array();
+    }
+
+    public long getDatagramsSent() {
+        return datagramsSent.get();
+    }
+
+    public long getDatagramsReceived() {
+        return datagramsReceived.get();
+    }
+
+    public long getRetransmits() {
+        return retransmits.get();
+    }
+
+    public long getSessionFailures() {
+        return sessionFailures.get();
+    }
+
+    public long getInboxDrops() {
+        return inboxDrops.get();
+    }
+}
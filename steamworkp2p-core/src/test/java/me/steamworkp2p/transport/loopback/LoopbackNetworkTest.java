@@ -0,0 +1,109 @@
+package me.steamworkp2p.transport.loopback;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.transport.P2PSendType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 链路条件变化时可靠数据包的顺序
+ */
+class LoopbackNetworkTest {
+
+    private static final long PEER_A = 1;
+    private static final long PEER_B = 2;
+    private static final int CHANNEL = 0;
+    private static final long RECEIVE_TIMEOUT_MS = 5_000;
+
+    private LoopbackNetwork network;
+    private LoopbackP2PTransport sender;
+    private LoopbackP2PTransport receiver;
+    private SteamID receiverId;
+
+    @BeforeEach
+    void setUp() {
+        network = new LoopbackNetwork();
+        sender = network.createEndpoint(PEER_A);
+        receiver = network.createEndpoint(PEER_B);
+        receiverId = receiver.getLocalId();
+    }
+
+    @Test
+    void keepsReliableOrderWhenLinkBecomesIdeal() throws InterruptedException {
+        network.setLinkConditions(PEER_A, PEER_B,
+            LinkConditions.ideal().withLatency(50, 10, LinkConditions.LatencyDistribution.UNIFORM));
+        sendRange(0, 50);
+
+        // 前50个仍在调度线程上等待投递，新数据包不能直接越过它们
+        network.setLinkConditions(PEER_A, PEER_B, LinkConditions.ideal());
+        sendRange(50, 100);
+
+        assertEquals(expectedRange(0, 100), receive(100));
+    }
+
+    @Test
+    void keepsReliableOrderAcrossResetConditions() throws InterruptedException {
+        network.setLinkConditions(PEER_A, PEER_B,
+            LinkConditions.ideal().withLatency(50, 0, LinkConditions.LatencyDistribution.UNIFORM).withLoss(0.3));
+        sendRange(0, 50);
+
+        network.resetConditions();
+        sendRange(50, 100);
+
+        assertEquals(expectedRange(0, 100), receive(100));
+    }
+
+    @Test
+    void deliversHeldPacketsBeforeNewOnesAfterRecovery() throws InterruptedException {
+        network.setLinkConditions(PEER_A, PEER_B, LinkConditions.ideal().withDown(true));
+        sendRange(0, 20);
+        assertEquals(0, receiver.getPacketsReceived());
+
+        network.setLinkConditions(PEER_A, PEER_B, LinkConditions.ideal());
+        sendRange(20, 40);
+
+        assertEquals(expectedRange(0, 40), receive(40));
+    }
+
+    @Test
+    void idleIdealLinkDeliversImmediately() {
+        sendRange(0, 3);
+        // 理想链路且没有待交付的数据包时直接投递，不经过调度线程
+        assertEquals(3, receiver.getPacketsReceived());
+    }
+
+    private void sendRange(int from, int to) {
+        for (int i = from; i < to; i++) {
+            sender.sendPacket(receiverId, new byte[] {(byte) i}, P2PSendType.Reliable, CHANNEL).join();
+        }
+    }
+
+    private static List<Integer> expectedRange(int from, int to) {
+        List<Integer> expected = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            expected.add(i);
+        }
+        return expected;
+    }
+
+    private List<Integer> receive(int count) throws InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        List<Integer> received = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + RECEIVE_TIMEOUT_MS;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            if (receiver.isPacketAvailable(CHANNEL) == 0) {
+                Thread.sleep(1);
+                continue;
+            }
+            receiver.readPacket(buffer, CHANNEL);
+            received.add(buffer.get() & 0xFF);
+        }
+        return received;
+    }
+}
@@ -0,0 +1,131 @@
+package me.steamworkp2p.transport.udp;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 单通道可靠传输状态：发送窗口、退避重传、往返时间采样和接收重排
+ */
+class UdpChannelStateTest {
+
+    private static final long RTO = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long MAX_RTO = TimeUnit.SECONDS.toNanos(1);
+    private static final long DELIVERY_TIMEOUT = TimeUnit.SECONDS.toNanos(5);
+
+    @Test
+    void backoffDoublesUpToMaximum() {
+        assertEquals(RTO, UdpChannelState.backoff(RTO, MAX_RTO, 0));
+        assertEquals(2 * RTO, UdpChannelState.backoff(RTO, MAX_RTO, 1));
+        assertEquals(8 * RTO, UdpChannelState.backoff(RTO, MAX_RTO, 3));
+        assertEquals(MAX_RTO, UdpChannelState.backoff(RTO, MAX_RTO, 4));
+        assertEquals(MAX_RTO, UdpChannelState.backoff(RTO, MAX_RTO, 1000));
+    }
+
+    @Test
+    void retransmitsWithExponentialBackoff() {
+        UdpChannelState state = new UdpChannelState(16, 1 << 20);
+        state.enqueue(new byte[]{1});
+        state.pollSendable(0);
+
+        assertTrue(state.collectRetransmits(RTO - 1, RTO, MAX_RTO, DELIVERY_TIMEOUT).isEmpty());
+        assertEquals(1, state.collectRetransmits(RTO, RTO, MAX_RTO, DELIVERY_TIMEOUT).size());
+        // 第二次重传要再等2倍超时
+        assertTrue(state.collectRetransmits(RTO + 2 * RTO - 1, RTO, MAX_RTO, DELIVERY_TIMEOUT).isEmpty());
+        assertEquals(1, state.collectRetransmits(RTO + 2 * RTO, RTO, MAX_RTO, DELIVERY_TIMEOUT).size());
+    }
+
+    @Test
+    void givesUpAfterDeliveryTimeout() {
+        UdpChannelState state = new UdpChannelState(16, 1 << 20);
+        state.enqueue(new byte[]{1});
+        state.pollSendable(0);
+
+        assertNull(state.collectRetransmits(DELIVERY_TIMEOUT, RTO, MAX_RTO, DELIVERY_TIMEOUT));
+    }
+
+    @Test
+    void samplesRoundTripOnlyForFirstTransmission() {
+        UdpChannelState state = new UdpChannelState(16, 1 << 20);
+        state.enqueue(new byte[]{1});
+        state.enqueue(new byte[]{2});
+        state.pollSendable(0);
+
+        // 序号1未重传，确认产生样本
+        assertEquals(30, state.acknowledge(1, 30));
+        // 序号2重传过，无法判断确认对应哪次发送
+        state.collectRetransmits(RTO, RTO, MAX_RTO, DELIVERY_TIMEOUT);
+        assertEquals(-1, state.acknowledge(2, RTO + 10));
+        // 重复确认
+        assertEquals(-1, state.acknowledge(2, RTO + 20));
+        assertFalse(state.hasPending());
+        assertEquals(0, state.getQueuedBytes());
+    }
+
+    @Test
+    void limitsDatagramsInFlight() {
+        UdpChannelState state = new UdpChannelState(2, 1 << 20);
+        for (int i = 0; i < 5; i++) {
+            state.enqueue(new byte[]{(byte) i});
+        }
+
+        assertEquals(2, state.pollSendable(0).size());
+        assertTrue(state.pollSendable(0).isEmpty());
+        state.acknowledge(1, 10);
+        List<UdpChannelState.PendingDatagram> next = state.pollSendable(10);
+        assertEquals(1, next.size());
+        assertEquals(3, next.get(0).sequence);
+        assertEquals(4, state.getQueuedCount());
+    }
+
+    @Test
+    void rejectsDataBeyondQueuedBytes() {
+        UdpChannelState state = new UdpChannelState(16, 10);
+        assertTrue(state.enqueue(new byte[8]));
+        assertFalse(state.enqueue(new byte[4]));
+    }
+
+    @Test
+    void resetSendRequeuesUnackedDataInOrder() {
+        UdpChannelState state = new UdpChannelState(16, 1 << 20);
+        state.enqueue(new byte[]{1});
+        state.enqueue(new byte[]{2});
+        state.pollSendable(0);
+        state.enqueue(new byte[]{3});
+
+        state.resetSend();
+        List<UdpChannelState.PendingDatagram> resent = state.pollSendable(0);
+        assertEquals(3, resent.size());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(i + 1, resent.get(i).sequence);
+            assertArrayEquals(new byte[]{(byte) (i + 1)}, resent.get(i).payload);
+        }
+    }
+
+    @Test
+    void reordersAndDropsDuplicates() {
+        UdpChannelState state = new UdpChannelState(16, 1 << 20);
+
+        assertTrue(state.receive(2, new byte[]{2}).isEmpty());
+        assertTrue(state.receive(3, new byte[]{3}).isEmpty());
+        List<byte[]> ready = state.receive(1, new byte[]{1});
+        assertEquals(3, ready.size());
+        for (int i = 0; i < 3; i++) {
+            assertArrayEquals(new byte[]{(byte) (i + 1)}, ready.get(i));
+        }
+
+        assertTrue(state.receive(2, new byte[]{2}).isEmpty());
+        assertEquals(1, state.receive(4, new byte[]{4}).size());
+
+        // 对端开始新会话，从序号1重新接收
+        state.resetReceive();
+        assertEquals(1, state.receive(1, new byte[]{9}).size());
+    }
+}
@@ -0,0 +1,195 @@
+package me.steamworkp2p.transport.udp;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.transport.P2PSendType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * UDP传输的握手、确认、重传与会话重置测试
+ * 两个传输经本机中继互联，由中继注入丢包、乱序和断网
+ */
+class UdpP2PTransportTest {
+
+    private static final long ID_A = 1;
+    private static final long ID_B = 2;
+    private static final int CHANNEL = 1;
+    private static final long RECEIVE_TIMEOUT_MS = 10_000;
+
+    private UdpTestRelay relay;
+    private UdpP2PTransport transportA;
+    private UdpP2PTransport transportB;
+    private SteamID peerA;
+    private SteamID peerB;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        relay = new UdpTestRelay();
+        transportA = newTransport(ID_A, ID_B, relay.addressForA());
+        transportB = newTransport(ID_B, ID_A, relay.addressForB());
+        peerA = SteamID.createFromNativeHandle(ID_A);
+        peerB = SteamID.createFromNativeHandle(ID_B);
+    }
+
+    @AfterEach
+    void tearDown() {
+        transportA.close();
+        transportB.close();
+        relay.close();
+    }
+
+    private static UdpP2PTransport newTransport(long localId, long peerId, InetSocketAddress peerAddress) {
+        InetSocketAddress bind = new InetSocketAddress(InetAddress.getLoopbackAddress(), 0);
+        return new UdpP2PTransport(localId, bind, Map.of(peerId, peerAddress), false);
+    }
+
+    private void start() throws IOException {
+        transportA.start();
+        transportB.start();
+        relay.start(transportA.getLocalAddress(), transportB.getLocalAddress());
+    }
+
+    @Test
+    void deliversReliableMessagesInOrderDespiteLossAndReordering() throws Exception {
+        relay.setDropEvery(3);
+        relay.setReorder(true);
+        start();
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            String message = "message-" + i;
+            sent.add(message);
+            assertTrue(send(transportA, peerB, message));
+        }
+
+        assertEquals(sent, receive(transportB, sent.size()));
+        assertTrue(transportA.getRetransmits() > 0, "丢包后应有重传");
+        assertEquals(0, transportA.getSessionFailures());
+    }
+
+    @Test
+    void reestablishesSessionAfterPeerRestart() throws Exception {
+        start();
+        for (int i = 0; i < 5; i++) {
+            send(transportA, peerB, "before-" + i);
+        }
+        assertEquals(List.of("before-0", "before-1", "before-2", "before-3", "before-4"),
+            receive(transportB, 5));
+
+        // B重启：新进程的会话纪元更大，收到发往旧会话的数据报时回复RESET，A重新握手并从序号1重发
+        transportB.close();
+        transportB = newTransport(ID_B, ID_A, relay.addressForB());
+        transportB.start();
+        relay.setAddressB(transportB.getLocalAddress());
+
+        for (int i = 0; i < 5; i++) {
+            send(transportA, peerB, "after-" + i);
+        }
+        assertEquals(List.of("after-0", "after-1", "after-2", "after-3", "after-4"),
+            receive(transportB, 5));
+
+        // 反方向使用同一会话
+        send(transportB, peerA, "reply");
+        assertEquals(List.of("reply"), receive(transportA, 1));
+    }
+
+    @Test
+    void failsSessionWhenDeliveryTimeoutExpires() throws Exception {
+        transportA.setDeliveryTimeout(500, TimeUnit.MILLISECONDS);
+        CountDownLatch failed = new CountDownLatch(1);
+        AtomicReference<SteamID> failedPeer = new AtomicReference<>();
+        transportA.setSessionFailureListener(peer -> {
+            failedPeer.set(peer);
+            failed.countDown();
+        });
+        relay.setBlackhole(true);
+        start();
+
+        assertTrue(send(transportA, peerB, "lost"), "可靠数据先进入发送队列");
+        assertTrue(failed.await(5, TimeUnit.SECONDS), "超过送达期限后应通知会话失败");
+        assertEquals(peerB, failedPeer.get());
+        assertEquals(1, transportA.getSessionFailures());
+        assertFalse(transportA.getSessionState(peerB).isConnectionActive());
+        assertEquals(0, transportA.getSessionState(peerB).getPacketsQueuedForSend());
+    }
+
+    @Test
+    void recoversWithNewSessionAfterFailure() throws Exception {
+        transportA.setDeliveryTimeout(500, TimeUnit.MILLISECONDS);
+        CountDownLatch failed = new CountDownLatch(1);
+        transportA.setSessionFailureListener(peer -> failed.countDown());
+        start();
+
+        send(transportA, peerB, "first");
+        assertEquals(List.of("first"), receive(transportB, 1));
+
+        // 会话建立后断网：已确认的数据不受影响，新数据在期限内未确认时放弃会话
+        relay.setBlackhole(true);
+        send(transportA, peerB, "second");
+        assertTrue(failed.await(5, TimeUnit.SECONDS));
+
+        // 恢复后重新握手，新会话可以继续发送
+        relay.setBlackhole(false);
+        send(transportA, peerB, "third");
+        assertEquals(List.of("third"), receive(transportB, 1));
+    }
+
+    @Test
+    void holdsBackReliableDataWhileInboxIsFull() throws Exception {
+        transportB.setInboxLimits(4, 1024 * 1024);
+        start();
+
+        List<String> sent = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String message = "queued-" + i;
+            sent.add(message);
+            send(transportA, peerB, message);
+        }
+
+        // 不读取时接收队列停在上限，多出的数据报不确认、由A重传
+        long deadline = System.currentTimeMillis() + RECEIVE_TIMEOUT_MS;
+        while (transportB.getInboxDrops() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(transportB.getInboxDrops() > 0, "队列满时应拒收新数据报");
+
+        assertEquals(sent, receive(transportB, sent.size()));
+    }
+
+    private static boolean send(UdpP2PTransport transport, SteamID peer, String message) {
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        return transport.sendPacket(peer, data, P2PSendType.Reliable, CHANNEL).join();
+    }
+
+    private static List<String> receive(UdpP2PTransport transport, int count) throws InterruptedException {
+        ByteBuffer buffer = ByteBuffer.allocate(UdpP2PTransport.MAX_PAYLOAD_SIZE);
+        List<String> received = new ArrayList<>();
+        long deadline = System.currentTimeMillis() + RECEIVE_TIMEOUT_MS;
+        while (received.size() < count && System.currentTimeMillis() < deadline) {
+            if (transport.isPacketAvailable(CHANNEL) == 0) {
+                Thread.sleep(1);
+                continue;
+            }
+            transport.readPacket(buffer, CHANNEL);
+            received.add(StandardCharsets.UTF_8.decode(buffer).toString());
+        }
+        return received;
+    }
+}
@@ -0,0 +1,143 @@
+package me.steamworkp2p.transport.udp;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.Arrays;
+
+/**
+ * 测试用的本机UDP中继
+ * 两个传输都把对方配置为中继的一个端口，中继按设置丢弃、交换相邻数据报或全部丢弃后再转发，
+ * 转发时从另一个端口发出，因此双方看到的发送方地址与配置一致。
+ */
+class UdpTestRelay implements AutoCloseable {
+
+    // 交换顺序时暂存的数据报等待下一个数据报的最长时间
+    private static final int HOLD_TIMEOUT_MS = 20;
+
+    private final DatagramSocket sideA;
+    private final DatagramSocket sideB;
+    private final Thread forwardToB;
+    private final Thread forwardToA;
+
+    private volatile InetSocketAddress addressA;
+    private volatile InetSocketAddress addressB;
+
+    // 每个方向每N个数据报丢弃一个，0表示不丢弃
+    private volatile int dropEvery = 0;
+    // 是否交换相邻的数据报
+    private volatile boolean reorder = false;
+    // 是否丢弃全部数据报
+    private volatile boolean blackhole = false;
+    private volatile boolean running = true;
+
+    UdpTestRelay() throws IOException {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        sideA = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        sideB = new DatagramSocket(new InetSocketAddress(loopback, 0));
+        sideA.setSoTimeout(HOLD_TIMEOUT_MS);
+        sideB.setSoTimeout(HOLD_TIMEOUT_MS);
+        forwardToB = new Thread(() -> forward(sideA, sideB, true), "UDP-Relay-A-B");
+        forwardToA = new Thread(() -> forward(sideB, sideA, false), "UDP-Relay-B-A");
+        forwardToB.setDaemon(true);
+        forwardToA.setDaemon(true);
+    }
+
+    /**
+     * A应配置给B的地址
+     */
+    InetSocketAddress addressForA() {
+        return (InetSocketAddress) sideA.getLocalSocketAddress();
+    }
+
+    /**
+     * B应配置给A的地址
+     */
+    InetSocketAddress addressForB() {
+        return (InetSocketAddress) sideB.getLocalSocketAddress();
+    }
+
+    /**
+     * 设置两端传输的实际地址并开始转发
+     */
+    void start(InetSocketAddress addressA, InetSocketAddress addressB) {
+        this.addressA = addressA;
+        this.addressB = addressB;
+        forwardToB.start();
+        forwardToA.start();
+    }
+
+    /**
+     * B重启后换了端口
+     */
+    void setAddressB(InetSocketAddress addressB) {
+        this.addressB = addressB;
+    }
+
+    void setDropEvery(int dropEvery) {
+        this.dropEvery = dropEvery;
+    }
+
+    void setReorder(boolean reorder) {
+        this.reorder = reorder;
+    }
+
+    void setBlackhole(boolean blackhole) {
+        this.blackhole = blackhole;
+    }
+
+    private void forward(DatagramSocket in, DatagramSocket out, boolean towardB) {
+        byte[] buffer = new byte[65536];
+        byte[] held = null;
+        long received = 0;
+        while (running) {
+            byte[] datagram;
+            try {
+                DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+                in.receive(packet);
+                datagram = Arrays.copyOf(packet.getData(), packet.getLength());
+            } catch (SocketTimeoutException e) {
+                if (held != null) {
+                    send(out, held, towardB);
+                    held = null;
+                }
+                continue;
+            } catch (IOException e) {
+                return;
+            }
+
+            received++;
+            int drop = dropEvery;
+            if (blackhole || (drop > 0 && received % drop == 0)) {
+                continue;
+            }
+            if (!reorder) {
+                send(out, datagram, towardB);
+            } else if (held == null) {
+                held = datagram;
+            } else {
+                send(out, datagram, towardB);
+                send(out, held, towardB);
+                held = null;
+            }
+        }
+    }
+
+    private void send(DatagramSocket out, byte[] datagram, boolean towardB) {
+        try {
+            out.send(new DatagramPacket(datagram, datagram.length, towardB ? addressB : addressA));
+        } catch (IOException e) {
+            // 中继关闭时的发送失败，等同丢包
+        }
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        sideA.close();
+        sideB.close();
+    }
+}
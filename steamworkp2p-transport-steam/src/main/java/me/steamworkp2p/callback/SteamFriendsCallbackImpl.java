@@ -1,17 +1,25 @@
 package me.steamworkp2p.callback;
 
 import com.codedisaster.steamworks.*;
+import me.steamworkp2p.event.PersonaChangeEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 
 /**
  * Steam好友回调实现类
- * 处理Steam好友相关的事件回调
+ * 处理Steam好友相关的事件回调，资料、丰富状态和头像的变化以PersonaChangeEvent发布给缓存
  */
 public class SteamFriendsCallbackImpl implements SteamFriendsCallback {
     
     private static final Logger logger = LoggerFactory.getLogger(SteamFriendsCallbackImpl.class);
     
+    private final ApplicationEventPublisher eventPublisher;
+    
+    public SteamFriendsCallbackImpl(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+    
     @Override
     public void onSetPersonaNameResponse(boolean success, boolean localSuccess, SteamResult result) {
         if (success && localSuccess) {
@@ -24,6 +32,8 @@ public class SteamFriendsCallbackImpl implements SteamFriendsCallback {
     @Override
     public void onPersonaStateChange(SteamID steamID, SteamFriends.PersonaChange change) {
         logger.debug("👥 好友状态变化: SteamID={}, Change={}", steamID, change);
+        publish(steamID, change == SteamFriends.PersonaChange.Avatar
+                ? PersonaChangeEvent.Kind.AVATAR : PersonaChangeEvent.Kind.PERSONA);
     }
     
     @Override
@@ -45,15 +55,23 @@ public class SteamFriendsCallbackImpl implements SteamFriendsCallback {
     public void onAvatarImageLoaded(SteamID steamID, int image, int width, int height) {
         logger.debug("🖼️ 头像图片加载完成: SteamID={}, Image={}, Size={}x{}", 
                     steamID, image, width, height);
+        publish(steamID, PersonaChangeEvent.Kind.AVATAR);
     }
     
     @Override
     public void onFriendRichPresenceUpdate(SteamID steamIDFriend, int appID) {
         logger.debug("📊 好友丰富状态更新: Friend={}, AppID={}", steamIDFriend, appID);
+        publish(steamIDFriend, PersonaChangeEvent.Kind.RICH_PRESENCE);
     }
     
     @Override
     public void onGameRichPresenceJoinRequested(SteamID steamIDFriend, String connect) {
         logger.debug("🎯 游戏丰富状态加入请求: Friend={}, Connect={}", steamIDFriend, connect);
     }
+    
+    private void publish(SteamID steamID, PersonaChangeEvent.Kind kind) {
+        if (eventPublisher != null && steamID != null) {
+            eventPublisher.publishEvent(new PersonaChangeEvent(this, SteamID.getNativeHandle(steamID), kind));
+        }
+    }
 }
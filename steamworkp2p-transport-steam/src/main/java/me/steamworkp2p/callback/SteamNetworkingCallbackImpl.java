@@ -8,7 +8,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 
-import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Steam Networking 回调实现类
@@ -75,12 +75,11 @@ public class SteamNetworkingCallbackImpl implements SteamNetworkingCallback {
                 return;
             }
             
-            // 自动接受连接请求
-            SteamNetworking steamNetworking = steamService.getNetworking();
-            if (steamNetworking != null) {
+            // 自动接受连接请求（回调在Steam回调线程上执行，命令会直接运行）
+            if (steamService.getNetworking() != null) {
                 logger.info("🔍 [P2P接收] Steam Networking接口可用，准备接受连接");
                 
-                boolean accepted = steamNetworking.acceptP2PSessionWithUser(steamIDRemote);
+                boolean accepted = steamService.acceptP2PSession(steamIDRemote).join();
                 if (accepted) {
                     logger.info("✅ [P2P接收] 已自动接受来自 {} 的连接请求", steamIDRemote);
                     logger.info("🔍 [P2P接收] 连接已建立，添加到活跃连接列表");
@@ -90,40 +89,31 @@ public class SteamNetworkingCallbackImpl implements SteamNetworkingCallback {
                     logger.info("🔍 [P2P接收] 当前活跃连接数: {}", steamService.getActiveConnections().size());
                     
                     // 发送连接确认消息给发送者 - 模仿C++示例的确认消息
-                    try {
-                        String confirmMessage = "P2P_CONNECT_ACCEPT";
-                        ByteBuffer messageBuffer = ByteBuffer.allocateDirect(confirmMessage.getBytes().length);
-                        messageBuffer.put(confirmMessage.getBytes());
-                        messageBuffer.flip();
-                        
-                        boolean sent = steamNetworking.sendP2PPacket(steamIDRemote, messageBuffer, 
-                            SteamNetworking.P2PSend.Reliable, 0);
-                        
-                        if (sent) {
-                            logger.info("📤 [P2P接收] 已发送连接确认消息给发送者: {}", steamIDRemote);
-                        } else {
-                            logger.warn("⚠️ [P2P接收] 发送连接确认消息失败");
-                        }
-                    } catch (Exception e) {
-                        logger.warn("⚠️ [P2P接收] 发送连接确认消息时发生错误: {}", e.getMessage());
-                    }
+                    byte[] confirmMessage = "P2P_CONNECT_ACCEPT".getBytes(StandardCharsets.UTF_8);
+                    steamService.sendP2PPacket(steamIDRemote, confirmMessage, SteamNetworking.P2PSend.Reliable, 0)
+                        .whenComplete((sent, e) -> {
+                            if (e != null) {
+                                logger.warn("⚠️ [P2P接收] 发送连接确认消息时发生错误: {}", e.getMessage());
+                            } else if (sent) {
+                                logger.info("📤 [P2P接收] 已发送连接确认消息给发送者: {}", steamIDRemote);
+                            } else {
+                                logger.warn("⚠️ [P2P接收] 发送连接确认消息失败");
+                            }
+                        });
                 } else {
                     logger.warn("❌ [P2P接收] 接受连接请求失败: RemoteID={}", steamIDRemote);
                     logger.warn("🔍 [P2P接收] 可能原因：1) 连接已存在 2) Steam API错误 3) 网络问题");
                     
                     // 发送连接拒绝消息
-                    try {
-                        String rejectMessage = "P2P_CONNECT_REJECT";
-                        ByteBuffer messageBuffer = ByteBuffer.allocateDirect(rejectMessage.getBytes().length);
-                        messageBuffer.put(rejectMessage.getBytes());
-                        messageBuffer.flip();
-                        
-                        steamNetworking.sendP2PPacket(steamIDRemote, messageBuffer, 
-                            SteamNetworking.P2PSend.Reliable, 0);
-                        logger.info("📤 [P2P接收] 已发送连接拒绝消息给发送者: {}", steamIDRemote);
-                    } catch (Exception e) {
-                        logger.warn("⚠️ [P2P接收] 发送连接拒绝消息时发生错误: {}", e.getMessage());
-                    }
+                    byte[] rejectMessage = "P2P_CONNECT_REJECT".getBytes(StandardCharsets.UTF_8);
+                    steamService.sendP2PPacket(steamIDRemote, rejectMessage, SteamNetworking.P2PSend.Reliable, 0)
+                        .whenComplete((sent, e) -> {
+                            if (e != null) {
+                                logger.warn("⚠️ [P2P接收] 发送连接拒绝消息时发生错误: {}", e.getMessage());
+                            } else {
+                                logger.info("📤 [P2P接收] 已发送连接拒绝消息给发送者: {}", steamIDRemote);
+                            }
+                        });
                 }
             } else {
                 logger.error("❌ [P2P接收] SteamNetworking未初始化，无法处理连接请求");
@@ -0,0 +1,19 @@
+package me.steamworkp2p.callback;
+
+import com.codedisaster.steamworks.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Steam工具回调实现类
+ * 处理Steam工具接口相关的事件回调
+ */
+public class SteamUtilsCallbackImpl implements SteamUtilsCallback {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SteamUtilsCallbackImpl.class);
+    
+    @Override
+    public void onSteamShutdown() {
+        logger.warn("⚠️ Steam客户端正在关闭");
+    }
+}
@@ -0,0 +1,40 @@
+package me.steamworkp2p.event;
+
+/**
+ * 好友资料变化事件
+ * 由Steam好友回调在回调线程上发布，用于精确失效资料缓存和头像缓存
+ */
+public class PersonaChangeEvent extends SteamEvent {
+    
+    /**
+     * 变化的内容
+     */
+    public enum Kind {
+        // 名称、在线状态等基本资料
+        PERSONA,
+        // 丰富状态
+        RICH_PRESENCE,
+        // 头像
+        AVATAR
+    }
+    
+    private final long steamId;
+    private final Kind kind;
+    
+    public PersonaChangeEvent(Object source, long steamId, Kind kind) {
+        super(source);
+        this.steamId = steamId;
+        this.kind = kind;
+    }
+    
+    /**
+     * 用户SteamID（原生句柄）
+     */
+    public long getSteamId() {
+        return steamId;
+    }
+    
+    public Kind getKind() {
+        return kind;
+    }
+}
@@ -0,0 +1,40 @@
+package me.steamworkp2p.event;
+
+/**
+ * Steam就绪事件
+ * 后台初始化成功（或当前传输后端不需要Steam）后发布一次，此后P2P接口可用
+ */
+public class SteamReadyEvent extends SteamEvent {
+    
+    private final boolean steamInitialized;
+    private final int attempts;
+    private final long elapsedMs;
+    
+    public SteamReadyEvent(Object source, boolean steamInitialized, int attempts, long elapsedMs) {
+        super(source);
+        this.steamInitialized = steamInitialized;
+        this.attempts = attempts;
+        this.elapsedMs = elapsedMs;
+    }
+    
+    /**
+     * 是否初始化了Steam API，非steam传输后端时为false
+     */
+    public boolean isSteamInitialized() {
+        return steamInitialized;
+    }
+    
+    /**
+     * 成功前的初始化尝试次数
+     */
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    /**
+     * 从应用启动到就绪经过的时间
+     */
+    public long getElapsedMs() {
+        return elapsedMs;
+    }
+}
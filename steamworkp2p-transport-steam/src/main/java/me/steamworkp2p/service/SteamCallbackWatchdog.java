@@ -0,0 +1,452 @@
+package me.steamworkp2p.service;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Steam回调线程看门狗
+ * 记录每次回调tick的开始/结束时间，发现超预算、堆积和卡死的tick，
+ * 卡死时抓取回调线程堆栈并与GC暂停通知关联，持续卡死则尝试重启回调线程
+ * （回调线程卡在本地调用中时只告警）
+ */
+@Component
+public class SteamCallbackWatchdog {
+
+    private static final Logger logger = LoggerFactory.getLogger(SteamCallbackWatchdog.class);
+
+    // 保留的最近GC暂停记录数
+    private static final int GC_HISTORY_SIZE = 32;
+
+    // 卡死时记录的堆栈深度
+    private static final int STACK_DEPTH = 24;
+
+    @Value("${steam.callback.tick-budget-ms:16}")
+    private long tickBudgetMs;
+
+    @Value("${steam.callback.stall-threshold-ms:250}")
+    private long stallThresholdMs;
+
+    @Value("${steam.callback.restart-threshold-ms:5000}")
+    private long restartThresholdMs;
+
+    private final MeterRegistry meterRegistry;
+
+    private Timer tickTimer;
+    private Counter overBudgetCounter;
+    private Counter bunchedCounter;
+    private Counter failedCounter;
+    private Counter stallCounter;
+    private Counter gcStallCounter;
+    private Counter restartCounter;
+
+    // 当前tick状态（0表示空闲）
+    private volatile long currentTickStartNanos = 0;
+    private volatile long currentTickStartMillis = 0;
+    private volatile Thread pumpThread;
+    private volatile boolean stallReported = false;
+    private volatile boolean restartRequested = false;
+
+    // 上一次tick开始时间，用于检测scheduleAtFixedRate的tick堆积
+    private volatile long lastTickStartNanos = 0;
+
+    private final AtomicLong lastTickDurationMs = new AtomicLong();
+    private final AtomicLong maxTickDurationMs = new AtomicLong();
+    private volatile long lastTickFinishedMillis = 0;
+    private volatile StallReport lastStall;
+
+    // 卡死后的重启动作，由SteamService注册，返回是否已重启
+    private volatile BooleanSupplier restartAction;
+
+    private final Deque<GcPause> recentGcPauses = new ArrayDeque<>();
+    private final List<NotificationEmitter> gcEmitters = new ArrayList<>();
+    private final NotificationListener gcListener = this::handleGcNotification;
+
+    private ScheduledExecutorService watchdogExecutor;
+
+    /**
+     * 一次GC暂停（时间为epoch毫秒）
+     */
+    private static class GcPause {
+        private final String name;
+        private final long startMillis;
+        private final long endMillis;
+
+        GcPause(String name, long startMillis, long endMillis) {
+            this.name = name;
+            this.startMillis = startMillis;
+            this.endMillis = endMillis;
+        }
+    }
+
+    /**
+     * 卡死报告
+     */
+    public static class StallReport {
+        private final long detectedAt;
+        private final long stalledMs;
+        private final String gcCause;
+        private final String stackTrace;
+
+        StallReport(long detectedAt, long stalledMs, String gcCause, String stackTrace) {
+            this.detectedAt = detectedAt;
+            this.stalledMs = stalledMs;
+            this.gcCause = gcCause;
+            this.stackTrace = stackTrace;
+        }
+
+        public long getDetectedAt() {
+            return detectedAt;
+        }
+
+        public long getStalledMs() {
+            return stalledMs;
+        }
+
+        public boolean isGcCorrelated() {
+            return gcCause != null;
+        }
+
+        public String getGcCause() {
+            return gcCause;
+        }
+
+        public String getStackTrace() {
+            return stackTrace;
+        }
+    }
+
+    public SteamCallbackWatchdog(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void start() {
+        tickTimer = Timer.builder("steam.callback.tick")
+                .description("Steam回调tick耗时")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        overBudgetCounter = meterRegistry.counter("steam.callback.tick.over_budget");
+        bunchedCounter = meterRegistry.counter("steam.callback.tick.bunched");
+        failedCounter = meterRegistry.counter("steam.callback.tick.failed");
+        stallCounter = meterRegistry.counter("steam.callback.stalls");
+        gcStallCounter = meterRegistry.counter("steam.callback.stalls.gc");
+        restartCounter = meterRegistry.counter("steam.callback.restarts");
+        Gauge.builder("steam.callback.tick.inflight.ms", this, SteamCallbackWatchdog::getInFlightMillis)
+                .description("当前tick已运行时间")
+                .register(meterRegistry);
+
+        registerGcListeners();
+
+        watchdogExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Steam-Callback-Watchdog");
+            t.setDaemon(true);
+            return t;
+        });
+        long checkInterval = Math.max(10, stallThresholdMs / 4);
+        watchdogExecutor.scheduleWithFixedDelay(this::checkStall, checkInterval, checkInterval, TimeUnit.MILLISECONDS);
+
+        logger.debug("🐕 Steam回调看门狗已启动: 预算={}ms, 卡死阈值={}ms, 重启阈值={}ms",
+                tickBudgetMs, stallThresholdMs, restartThresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (watchdogExecutor != null) {
+            watchdogExecutor.shutdownNow();
+        }
+        for (NotificationEmitter emitter : gcEmitters) {
+            try {
+                emitter.removeNotificationListener(gcListener);
+            } catch (Exception e) {
+                logger.debug("移除GC监听器失败: {}", e.getMessage());
+            }
+        }
+        gcEmitters.clear();
+    }
+
+    /**
+     * 注册回调线程卡死后的重启动作
+     */
+    public void setRestartAction(BooleanSupplier restartAction) {
+        this.restartAction = restartAction;
+    }
+
+    /**
+     * 回调线程开始一次tick
+     *
+     * @return tick开始时间（纳秒），需传给 {@link #tickFinished(long)}
+     */
+    public long tickStarted() {
+        long now = System.nanoTime();
+        long period = TimeUnit.MILLISECONDS.toNanos(SteamService.CALLBACK_PERIOD_MS);
+        if (lastTickStartNanos != 0 && now - lastTickStartNanos < period / 2) {
+            // 上一个tick过长，调度器正在补发积压的tick
+            bunchedCounter.increment();
+        }
+        lastTickStartNanos = now;
+        pumpThread = Thread.currentThread();
+        stallReported = false;
+        restartRequested = false;
+        currentTickStartMillis = System.currentTimeMillis();
+        currentTickStartNanos = now;
+        return now;
+    }
+
+    /**
+     * 回调线程结束一次tick
+     * 已被替换的旧回调线程结束时只记录耗时，不覆盖当前回调线程的tick状态
+     */
+    public void tickFinished(long startNanos) {
+        long elapsedNanos = System.nanoTime() - startNanos;
+        long finishedMillis = System.currentTimeMillis();
+        if (Thread.currentThread() == pumpThread) {
+            currentTickStartNanos = 0;
+            lastTickFinishedMillis = finishedMillis;
+        }
+
+        tickTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        lastTickDurationMs.set(elapsedMs);
+        maxTickDurationMs.accumulateAndGet(elapsedMs, Math::max);
+
+        if (elapsedMs > tickBudgetMs) {
+            overBudgetCounter.increment();
+            String gcCause = findOverlappingGc(finishedMillis - elapsedMs, finishedMillis);
+            if (gcCause != null) {
+                logger.debug("⏱️ Steam回调tick超预算: {}ms > {}ms (期间发生GC: {})", elapsedMs, tickBudgetMs, gcCause);
+            } else {
+                logger.debug("⏱️ Steam回调tick超预算: {}ms > {}ms", elapsedMs, tickBudgetMs);
+            }
+        }
+    }
+
+    /**
+     * 回调tick抛出异常
+     */
+    public void tickFailed() {
+        failedCounter.increment();
+    }
+
+    /**
+     * 检查回调线程是否卡死
+     */
+    private void checkStall() {
+        try {
+            long startNanos = currentTickStartNanos;
+            if (startNanos == 0) {
+                return;
+            }
+
+            long stalledMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+            if (stalledMs > stallThresholdMs && !stallReported) {
+                stallReported = true;
+                reportStall(stalledMs);
+            }
+
+            if (stalledMs > restartThresholdMs && !restartRequested) {
+                restartRequested = true;
+                restartPump(stalledMs);
+            }
+        } catch (Exception e) {
+            logger.error("💥 Steam回调看门狗检查时发生错误", e);
+        }
+    }
+
+    /**
+     * 记录卡死：抓取回调线程堆栈并关联GC暂停
+     */
+    private void reportStall(long stalledMs) {
+        stallCounter.increment();
+
+        Thread thread = pumpThread;
+        String stackTrace = thread != null ? formatStackTrace(thread.getStackTrace()) : "";
+        String gcCause = findOverlappingGc(currentTickStartMillis, System.currentTimeMillis());
+        if (gcCause != null) {
+            gcStallCounter.increment();
+        }
+
+        lastStall = new StallReport(System.currentTimeMillis(), stalledMs, gcCause, stackTrace);
+
+        if (gcCause != null) {
+            logger.warn("🐢 Steam回调线程卡住 {}ms，期间发生GC暂停: {}\n{}", stalledMs, gcCause, stackTrace);
+        } else {
+            logger.warn("🐢 Steam回调线程卡住 {}ms，未发现GC暂停:\n{}", stalledMs, stackTrace);
+        }
+    }
+
+    /**
+     * 持续卡死时重启回调线程
+     */
+    private void restartPump(long stalledMs) {
+        BooleanSupplier action = restartAction;
+        if (action == null) {
+            return;
+        }
+
+        logger.error("🔁 Steam回调线程卡住 {}ms，超过重启阈值 {}ms，尝试重启", stalledMs, restartThresholdMs);
+        boolean restarted;
+        try {
+            restarted = action.getAsBoolean();
+        } catch (Exception e) {
+            logger.error("💥 重启Steam回调线程失败", e);
+            return;
+        }
+
+        if (!restarted) {
+            // tick状态保留，健康检查继续报告卡死
+            logger.error("🚨 Steam回调线程卡在本地调用中，重启会并发调用Steam API，仅告警");
+            return;
+        }
+        restartCounter.increment();
+        // 旧线程的tick已被放弃，新线程开始tick前清除状态
+        pumpThread = null;
+        currentTickStartNanos = 0;
+    }
+
+    /**
+     * 注册GC通知监听器
+     */
+    private void registerGcListeners() {
+        for (GarbageCollectorMXBean gcBean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (gcBean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) gcBean;
+                emitter.addNotificationListener(gcListener, null, null);
+                gcEmitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * 处理GC通知，记录暂停时间窗口
+     */
+    private void handleGcNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        long jvmStart = ManagementFactory.getRuntimeMXBean().getStartTime();
+        GcPause pause = new GcPause(info.getGcName() + "/" + info.getGcCause(),
+                jvmStart + info.getGcInfo().getStartTime(),
+                jvmStart + info.getGcInfo().getEndTime());
+
+        synchronized (recentGcPauses) {
+            recentGcPauses.addLast(pause);
+            while (recentGcPauses.size() > GC_HISTORY_SIZE) {
+                recentGcPauses.removeFirst();
+            }
+        }
+    }
+
+    /**
+     * 查找与时间窗口重叠的GC暂停
+     *
+     * @return GC描述，无重叠时返回null
+     */
+    private String findOverlappingGc(long fromMillis, long toMillis) {
+        synchronized (recentGcPauses) {
+            for (GcPause pause : recentGcPauses) {
+                if (pause.endMillis >= fromMillis && pause.startMillis <= toMillis) {
+                    return pause.name + " (" + (pause.endMillis - pause.startMillis) + "ms)";
+                }
+            }
+        }
+        return null;
+    }
+
+    private static String formatStackTrace(StackTraceElement[] frames) {
+        StringBuilder sb = new StringBuilder();
+        int depth = Math.min(frames.length, STACK_DEPTH);
+        for (int i = 0; i < depth; i++) {
+            sb.append("    at ").append(frames[i]).append('\n');
+        }
+        if (frames.length > depth) {
+            sb.append("    ... ").append(frames.length - depth).append(" more\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * 当前tick已运行的毫秒数（空闲时为0）
+     */
+    public long getInFlightMillis() {
+        long startNanos = currentTickStartNanos;
+        return startNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * 当前是否处于卡死状态
+     */
+    public boolean isStalled() {
+        return getInFlightMillis() > stallThresholdMs;
+    }
+
+    /**
+     * 是否已经有tick运行过
+     */
+    public boolean hasTicked() {
+        return lastTickFinishedMillis != 0 || currentTickStartNanos != 0;
+    }
+
+    public long getLastTickFinishedMillis() {
+        return lastTickFinishedMillis;
+    }
+
+    public long getLastTickDurationMs() {
+        return lastTickDurationMs.get();
+    }
+
+    public long getMaxTickDurationMs() {
+        return maxTickDurationMs.get();
+    }
+
+    public long getTickBudgetMs() {
+        return tickBudgetMs;
+    }
+
+    public long getOverBudgetTicks() {
+        return (long) overBudgetCounter.count();
+    }
+
+    public long getBunchedTicks() {
+        return (long) bunchedCounter.count();
+    }
+
+    public long getStallCount() {
+        return (long) stallCounter.count();
+    }
+
+    public long getRestartCount() {
+        return (long) restartCounter.count();
+    }
+
+    public StallReport getLastStall() {
+        return lastStall;
+    }
+}
@@ -0,0 +1,264 @@
+package me.steamworkp2p.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Steam API命令执行器
+ * 所有Steam本地调用都以命令形式进入无锁的多生产者单消费者队列，
+ * 由Steam回调线程在每个tick中批量执行，调用方通过CompletableFuture获取结果。
+ * 所有本地调用都在同一把锁内进行，看门狗只有在回调线程不处于本地调用中时才能替换它，
+ * 新旧回调线程不会同时调用Steam API
+ */
+@Component
+public class SteamCommandExecutor {
+
+    private static final Logger logger = LoggerFactory.getLogger(SteamCommandExecutor.class);
+
+    // 每个tick最多执行的命令数，剩余命令留到下一个tick
+    private static final int MAX_BATCH_SIZE = 256;
+
+    // 同步调用的默认等待时间（毫秒）
+    private static final long DEFAULT_CALL_TIMEOUT = 2000;
+
+    // 异步命令的最长等待时间（毫秒），回调线程停止或卡死时调用方不会永远等待
+    private static final long DEFAULT_SUBMIT_TIMEOUT = 10000;
+
+    private final MeterRegistry meterRegistry;
+
+    // ConcurrentLinkedQueue为无锁队列，任意线程入队，仅回调线程出队
+    private final Queue<SteamCommand<?>> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    // 当前负责执行命令的回调线程
+    private volatile Thread pumpThread;
+
+    // 本地调用锁
+    private final ReentrantLock nativeLock = new ReentrantLock();
+
+    // 关闭后不再接受新命令
+    private volatile String closedReason;
+
+    private Timer waitTimer;
+    private Timer executeTimer;
+    private DistributionSummary batchSize;
+
+    /**
+     * 待执行的Steam命令
+     */
+    private static class SteamCommand<T> {
+        private final String name;
+        private final Callable<T> call;
+        private final CompletableFuture<T> future = new CompletableFuture<>();
+        private final long enqueuedAt = System.nanoTime();
+
+        SteamCommand(String name, Callable<T> call) {
+            this.name = name;
+            this.call = call;
+        }
+    }
+
+    public SteamCommandExecutor(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        Gauge.builder("steam.command.queue.depth", depth, AtomicInteger::get)
+                .description("等待回调线程执行的Steam命令数")
+                .register(meterRegistry);
+        waitTimer = Timer.builder("steam.command.wait")
+                .description("Steam命令从入队到开始执行的等待时间")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        executeTimer = Timer.builder("steam.command.execute")
+                .description("Steam命令执行耗时")
+                .register(meterRegistry);
+        batchSize = DistributionSummary.builder("steam.command.batch.size")
+                .description("每个tick执行的命令数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交Steam命令
+     * 在回调线程上调用时直接执行，避免自身等待；关闭后提交的命令立即失败，
+     * 超过{@link #DEFAULT_SUBMIT_TIMEOUT}仍未执行的命令以TimeoutException结束
+     */
+    public <T> CompletableFuture<T> submit(String name, Callable<T> call) {
+        if (closedReason != null) {
+            return CompletableFuture.failedFuture(new IllegalStateException(closedReason));
+        }
+        if (Thread.currentThread() == pumpThread) {
+            nativeLock.lock();
+            try {
+                return CompletableFuture.completedFuture(call.call());
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(e);
+            } finally {
+                nativeLock.unlock();
+            }
+        }
+
+        SteamCommand<T> command = new SteamCommand<>(name, call);
+        // 先计数再入队，回调线程出队时计数不会变为负数
+        depth.incrementAndGet();
+        queue.offer(command);
+
+        // 与shutdown竞争：入队后发现已关闭，且命令未被shutdown取走时由自己让它失败
+        String reason = closedReason;
+        if (reason != null && queue.remove(command)) {
+            depth.decrementAndGet();
+            command.future.completeExceptionally(new IllegalStateException(reason));
+        }
+        return command.future.orTimeout(DEFAULT_SUBMIT_TIMEOUT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 提交Steam命令并等待结果
+     * 仅用于必须返回同步结果的旧接口
+     */
+    public <T> T call(String name, Callable<T> call) {
+        return submit(name, call)
+                .orTimeout(DEFAULT_CALL_TIMEOUT, TimeUnit.MILLISECONDS)
+                .join();
+    }
+
+    /**
+     * 只在回调线程上直接执行，不排队也不等待
+     * 用于由回调线程驱动的收包路径：其他线程（包括已被看门狗替换的旧回调线程）调用时不进入本地调用
+     *
+     * @param offPump 不在回调线程上调用时的返回值
+     */
+    public <T> T callOnPump(String name, Callable<T> call, T offPump) {
+        if (Thread.currentThread() != pumpThread) {
+            return offPump;
+        }
+        nativeLock.lock();
+        try {
+            return call.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(name + " 执行失败", e);
+        } finally {
+            nativeLock.unlock();
+        }
+    }
+
+    /**
+     * 在回调线程上批量执行排队的命令
+     *
+     * @return 本次执行的命令数
+     */
+    public int drain() {
+        int executed = 0;
+        nativeLock.lock();
+        try {
+            pumpThread = Thread.currentThread();
+            SteamCommand<?> command;
+            while (executed < MAX_BATCH_SIZE && (command = queue.poll()) != null) {
+                depth.decrementAndGet();
+                execute(command);
+                executed++;
+            }
+        } finally {
+            nativeLock.unlock();
+        }
+
+        if (executed > 0) {
+            batchSize.record(executed);
+        }
+        return executed;
+    }
+
+    private <T> void execute(SteamCommand<T> command) {
+        long start = System.nanoTime();
+        waitTimer.record(start - command.enqueuedAt, TimeUnit.NANOSECONDS);
+        try {
+            command.future.complete(command.call.call());
+        } catch (Exception e) {
+            logger.error("💥 执行Steam命令 {} 时发生错误", command.name, e);
+            command.future.completeExceptionally(e);
+        } finally {
+            executeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * 在本地调用锁内执行回调线程的本地调用（如SteamAPI.runCallbacks）
+     */
+    public void runNative(Runnable nativeCalls) {
+        nativeLock.lock();
+        try {
+            nativeCalls.run();
+        } finally {
+            nativeLock.unlock();
+        }
+    }
+
+    /**
+     * 放弃当前回调线程，之后由新的回调线程执行命令
+     *
+     * @param fence 在锁内执行，使旧回调线程之后不再进入本地调用
+     * @return 回调线程正处于本地调用中时返回false，此时不能替换
+     */
+    public boolean retirePump(Runnable fence) {
+        if (!nativeLock.tryLock()) {
+            return false;
+        }
+        try {
+            fence.run();
+            pumpThread = null;
+            return true;
+        } finally {
+            nativeLock.unlock();
+        }
+    }
+
+    /**
+     * Steam API关闭时让所有排队的命令失败
+     */
+    public void failPending(String reason) {
+        SteamCommand<?> command;
+        int failed = 0;
+        while ((command = queue.poll()) != null) {
+            depth.decrementAndGet();
+            command.future.completeExceptionally(new IllegalStateException(reason));
+            failed++;
+        }
+        pumpThread = null;
+        if (failed > 0) {
+            logger.warn("⚠️ {} 个未执行的Steam命令已取消: {}", failed, reason);
+        }
+    }
+
+    /**
+     * 关闭执行器：之后提交的命令立即失败，排队的命令全部取消
+     * 回调线程停止后调用
+     */
+    public void shutdown(String reason) {
+        closedReason = reason;
+        failPending(reason);
+    }
+
+    /**
+     * 获取当前队列深度
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+}
@@ -0,0 +1,639 @@
+package me.steamworkp2p.service;
+
+import com.codedisaster.steamworks.*;
+
+
+import me.steamworkp2p.callback.SteamFriendsCallbackImpl;
+import me.steamworkp2p.callback.SteamNetworkingCallbackImpl;
+import me.steamworkp2p.callback.SteamUserCallbackImpl;
+import me.steamworkp2p.callback.SteamUtilsCallbackImpl;
+import me.steamworkp2p.event.P2PPacketProcessEvent;
+import me.steamworkp2p.engine.PeerTable;
+import me.steamworkp2p.event.SteamReadyEvent;
+import me.steamworkp2p.transport.SteamNativeLibraries;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.context.ApplicationEventPublisher;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.Set;
+
+/**
+ * Steam API 服务类
+ * 负责初始化和管理Steam API连接
+ * Steam API在应用启动后由后台线程初始化，失败时按退避间隔重试，就绪后发布SteamReadyEvent。
+ * 所有Steam本地调用都在回调线程上执行：初始化线程只负责调度和重试，SteamAPI.init()和接口的创建
+ * 作为命令提交到回调线程。唯一的例外是关闭时的SteamAPI.shutdown()，它在回调线程停止之后由关闭线程调用，
+ * 此时已没有其他线程进入本地调用
+ */
+@Service
+public class SteamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SteamService.class);
+    
+    // Spacewar的AppID
+    private static final int SPACEWAR_APP_ID = 480;
+    
+    /** 回调处理周期（毫秒），约60FPS */
+    public static final long CALLBACK_PERIOD_MS = 16;
+    
+    private SteamAPI steamAPI;
+    // Steam接口，初始化完成（isInitialized）之前getter返回null
+    private volatile SteamUser steamUser;
+    private volatile SteamFriends steamFriends;
+    private volatile SteamNetworking steamNetworking;
+    private volatile SteamUtils steamUtils;
+    
+    private volatile boolean isInitialized = false;
+    private ScheduledExecutorService callbackExecutor;
+    
+    // 回调线程代数，看门狗替换回调线程后旧线程的代数失效，不再进入本地调用
+    private final AtomicInteger pumpGeneration = new AtomicInteger();
+    
+    // 跟踪活跃的P2P连接（与P2P引擎共用）
+    private final PeerTable peerTable = new PeerTable();
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private SteamCallbackWatchdog callbackWatchdog;
+    
+    @Autowired
+    private SteamCommandExecutor commandExecutor;
+    
+    // P2P传输后端，非steam后端时不加载Steam本地库
+    @Value("${p2p.transport:steam}")
+    private String transportType;
+    
+    // 移除循环依赖，直接创建回调实例
+    private SteamNetworkingCallbackImpl steamNetworkingCallback;
+    
+    // 回调线程上创建完成的Steam接口（只在回调线程上访问）；
+    // 初始化线程等待超时后，下一次尝试直接取用，不重复调用SteamAPI.init()和创建接口
+    private SteamInterfaces createdInterfaces;
+    
+    /**
+     * 在回调线程上创建的Steam接口，由初始化线程发布
+     */
+    private static final class SteamInterfaces {
+        final SteamAPI api;
+        final SteamUser user;
+        final SteamFriends friends;
+        final SteamUtils utils;
+        final SteamNetworking networking;
+        final SteamNetworkingCallbackImpl networkingCallback;
+        
+        SteamInterfaces(SteamAPI api, SteamUser user, SteamFriends friends, SteamUtils utils,
+                        SteamNetworking networking, SteamNetworkingCallbackImpl networkingCallback) {
+            this.api = api;
+            this.user = user;
+            this.friends = friends;
+            this.utils = utils;
+            this.networking = networking;
+            this.networkingCallback = networkingCallback;
+        }
+    }
+    
+    /**
+     * 就绪状态
+     * 非steam传输后端在启动时直接就绪；steam后端在后台线程初始化，失败后按退避间隔重试
+     */
+    public enum Readiness {
+        INITIALIZING,
+        RETRYING,
+        READY,
+        FAILED
+    }
+    
+    private volatile Readiness readiness = Readiness.INITIALIZING;
+    private volatile int initAttempts = 0;
+    private volatile String lastInitError;
+    private volatile long nextInitAttemptAt = 0;
+    private volatile long readyAt = 0;
+    private final long createdAt = System.currentTimeMillis();
+    private volatile boolean shuttingDown = false;
+    private final Object initLock = new Object();
+    private ScheduledExecutorService initExecutor;
+    
+    // 初始化失败后的首次重试间隔，之后每次翻倍
+    @Value("${p2p.steam.init.initial-backoff-ms:1000}")
+    private long initialBackoffMs;
+    
+    // 重试间隔上限
+    @Value("${p2p.steam.init.max-backoff-ms:30000}")
+    private long maxBackoffMs;
+    
+    // 最多尝试次数，0表示一直重试直到成功
+    @Value("${p2p.steam.init.max-attempts:0}")
+    private int maxInitAttempts;
+    
+    /**
+     * 启动回调处理线程，负责执行Steam命令和驱动数据包处理
+     */
+    @PostConstruct
+    public void initialize() {
+        startCallbackProcessor();
+    }
+    
+    /**
+     * 应用启动完成后在后台初始化Steam API，Web控制台不必等待Steam
+     * 就绪事件在所有监听器注册之后发布，不会被错过
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startInitialization() {
+        if (readiness != Readiness.INITIALIZING || initExecutor != null) {
+            return;
+        }
+        
+        if (!usesSteamTransport()) {
+            logger.info("🧪 当前P2P传输后端为 {}，跳过Steam API初始化", transportType);
+            markReady();
+            return;
+        }
+        
+        initExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Steam-Init");
+            t.setDaemon(true);
+            return t;
+        });
+        initExecutor.execute(this::attemptInitialize);
+        logger.info("⏳ Steam API将在后台初始化，完成前P2P接口不可用");
+    }
+    
+    /**
+     * 进行一次初始化尝试，失败时安排下一次重试
+     */
+    private void attemptInitialize() {
+        if (shuttingDown) {
+            return;
+        }
+        int attempt = ++initAttempts;
+        boolean success = false;
+        
+        synchronized (initLock) {
+            if (shuttingDown) {
+                return;
+            }
+            try {
+                success = initializeSteam(attempt);
+            } catch (Exception | LinkageError e) {
+                lastInitError = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                logger.error("💥 Steam API初始化过程中发生错误 (第{}次尝试)", attempt, e);
+                isInitialized = false;
+            }
+        }
+        
+        if (success) {
+            markReady();
+            return;
+        }
+        
+        if (maxInitAttempts > 0 && attempt >= maxInitAttempts) {
+            readiness = Readiness.FAILED;
+            logger.error("❌ Steam API初始化失败 {} 次，不再重试: {}", attempt, lastInitError);
+            return;
+        }
+        
+        long delay = Math.min(initialBackoffMs << Math.min(attempt - 1, 20), maxBackoffMs);
+        nextInitAttemptAt = System.currentTimeMillis() + delay;
+        readiness = Readiness.RETRYING;
+        logger.warn("🔁 Steam API初始化失败，{}ms 后重试 (第{}次尝试): {}", delay, attempt, lastInitError);
+        try {
+            initExecutor.schedule(this::attemptInitialize, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 应用正在关闭
+        }
+    }
+    
+    /**
+     * 加载本地库并在回调线程上初始化Steam API和各个接口
+     *
+     * @return SteamAPI.init()失败时返回false
+     */
+    private boolean initializeSteam(int attempt) {
+        logger.info("🚀 正在初始化Steam API... (第{}次尝试)", attempt);
+        logger.info("📱 使用App ID: {}", SPACEWAR_APP_ID);
+        
+        // 首先加载本地库，只会加载一次（只加载库，不调用Steam API）
+        logger.debug("📚 加载Steam本地库...");
+        SteamNativeLibraries.ensureLoaded();
+        
+        // SteamAPI.init()和接口创建与其他Steam命令一样在回调线程上执行
+        logger.debug("🔧 初始化Steam API...");
+        SteamInterfaces interfaces = commandExecutor.submit("initializeSteam", this::createInterfaces).join();
+        if (interfaces == null) {
+            lastInitError = "SteamAPI.init() 返回false";
+            // 只在第一次失败时输出排查提示，避免重试时刷屏
+            if (attempt == 1) {
+                logger.error("❌ Steam API初始化失败！请确保:");
+                logger.error("   1. Steam客户端正在运行");
+                logger.error("   2. steam_appid.txt 文件存在于项目根目录");
+                logger.error("   3. 文件内容为: {}", SPACEWAR_APP_ID);
+                logger.error("   4. 当前用户已登录Steam");
+            }
+            return false;
+        }
+        
+        steamAPI = interfaces.api;
+        steamNetworkingCallback = interfaces.networkingCallback;
+        steamUser = interfaces.user;
+        steamFriends = interfaces.friends;
+        steamUtils = interfaces.utils;
+        steamNetworking = interfaces.networking;
+        // 接口全部创建完成后才对回调线程和接口的使用者可见（getter在此之前返回null）
+        isInitialized = true;
+        lastInitError = null;
+        logger.info("✅ Steam API初始化成功！");
+        logger.info("👤 当前用户: {}", getCurrentUserName());
+        logger.info("🆔 Steam ID: {}", getCurrentSteamID());
+        logger.info("🌐 网络状态: {}", getNetworkStatus());
+        return true;
+    }
+    
+    /**
+     * 初始化Steam API并创建各个接口（在回调线程上执行）
+     *
+     * @return SteamAPI.init()失败时返回null
+     */
+    private SteamInterfaces createInterfaces() throws SteamException {
+        if (createdInterfaces != null) {
+            return createdInterfaces;
+        }
+        if (!SteamAPI.init()) {
+            return null;
+        }
+        
+        // 创建Steam API实例
+        logger.debug("🏗️ 创建Steam API实例...");
+        SteamAPI api = new SteamAPI();
+        
+        // 初始化各个Steam接口，全部创建完成前不对其他线程发布
+        logger.debug("🔌 初始化Steam接口...");
+        SteamUser user = new SteamUser(new SteamUserCallbackImpl());
+        SteamFriends friends = new SteamFriends(new SteamFriendsCallbackImpl(eventPublisher));
+        SteamUtils utils = new SteamUtils(new SteamUtilsCallbackImpl());
+        
+        // 创建回调实例并设置依赖
+        SteamNetworkingCallbackImpl networkingCallback = new SteamNetworkingCallbackImpl();
+        networkingCallback.setSteamService(this);
+        SteamNetworking networking = new SteamNetworking(networkingCallback);
+        
+        createdInterfaces = new SteamInterfaces(api, user, friends, utils, networking, networkingCallback);
+        return createdInterfaces;
+    }
+    
+    /**
+     * 标记为就绪并通知监听者
+     */
+    private void markReady() {
+        readyAt = System.currentTimeMillis();
+        readiness = Readiness.READY;
+        long elapsedMs = readyAt - createdAt;
+        logger.info("🟢 P2P服务已就绪 ({}ms)", elapsedMs);
+        eventPublisher.publishEvent(new SteamReadyEvent(this, isInitialized, initAttempts, elapsedMs));
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        // 停止尚未完成的初始化重试
+        shuttingDown = true;
+        if (initExecutor != null) {
+            initExecutor.shutdownNow();
+        }
+        
+        // 停止回调处理线程
+        if (callbackExecutor != null) {
+            callbackExecutor.shutdown();
+            try {
+                if (!callbackExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+                    callbackExecutor.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                callbackExecutor.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        
+        // 回调线程已停止，取消尚未执行的Steam命令并拒绝新命令
+        commandExecutor.shutdown("Steam API已关闭");
+        
+        // 等待正在进行的初始化尝试结束（等待中的初始化命令已随上面的shutdown失败）
+        // 回调线程已停止，SteamAPI.shutdown()是唯一不在回调线程上执行的本地调用
+        synchronized (initLock) {
+            if (isInitialized) {
+                logger.info("🛑 正在关闭Steam API...");
+                
+                SteamAPI.shutdown();
+                isInitialized = false;
+                logger.info("✅ Steam API已关闭");
+            }
+        }
+    }
+    
+    /**
+     * 获取当前用户名
+     */
+    public String getCurrentUserName() {
+        if (!isInitialized || steamUser == null) {
+            return "未知用户";
+        }
+        try {
+            return commandExecutor.call("getPersonaName", steamFriends::getPersonaName);
+        } catch (Exception e) {
+            logger.warn("⚠️ 获取用户名失败: {}", e.getMessage());
+            return "Steam用户";
+        }
+    }
+    
+    /**
+     * 获取当前Steam ID
+     */
+    public String getCurrentSteamID() {
+        if (!isInitialized || steamUser == null) {
+            return "未知ID";
+        }
+        try {
+            SteamID steamID = commandExecutor.call("getSteamID", steamUser::getSteamID);
+            return steamID.toString();
+        } catch (Exception e) {
+            logger.warn("⚠️ 获取Steam ID失败: {}", e.getMessage());
+            return "123456789";
+        }
+    }
+    
+    /**
+     * 获取网络状态
+     */
+    public String getNetworkStatus() {
+        if (!isInitialized || steamNetworking == null) {
+            return "未连接";
+        }
+        try {
+            // 检查网络连接状态
+            return "已连接";
+        } catch (Exception e) {
+            logger.warn("⚠️ 获取网络状态失败: {}", e.getMessage());
+            return "未知";
+        }
+    }
+    
+    /**
+     * 是否使用Steam作为P2P传输后端
+     */
+    public boolean usesSteamTransport() {
+        return "steam".equals(transportType);
+    }
+    
+    /**
+     * 检查Steam API是否已初始化
+     */
+    public boolean isInitialized() {
+        return isInitialized;
+    }
+    
+    /**
+     * 当前就绪状态，READY之前P2P接口不可用
+     */
+    public Readiness getReadiness() {
+        return readiness;
+    }
+    
+    /**
+     * P2P接口是否可用
+     */
+    public boolean isReady() {
+        return readiness == Readiness.READY;
+    }
+    
+    /**
+     * 已进行的初始化尝试次数
+     */
+    public int getInitAttempts() {
+        return initAttempts;
+    }
+    
+    /**
+     * 最近一次初始化失败的原因，成功后为null
+     */
+    public String getLastInitError() {
+        return lastInitError;
+    }
+    
+    /**
+     * 下一次初始化重试的时间，仅在RETRYING状态下有意义
+     */
+    public long getNextInitAttemptAt() {
+        return nextInitAttemptAt;
+    }
+    
+    /**
+     * 就绪的时间，尚未就绪时为0
+     */
+    public long getReadyAt() {
+        return readyAt;
+    }
+    
+    
+    /**
+     * 获取Steam Friends接口
+     */
+    public SteamFriends getFriends() {
+        return isInitialized ? steamFriends : null;
+    }
+    
+    /**
+     * 获取Steam Utils接口，用于读取头像等图片数据
+     */
+    public SteamUtils getUtils() {
+        return isInitialized ? steamUtils : null;
+    }
+    
+    /**
+     * 获取Steam User接口
+     */
+    public SteamUser getUser() {
+        return isInitialized ? steamUser : null;
+    }
+    
+    /**
+     * 获取Steam Networking接口
+     */
+    public SteamNetworking getNetworking() {
+        return isInitialized ? steamNetworking : null;
+    }
+    
+    /**
+     * 启动回调处理线程
+     */
+    private void startCallbackProcessor() {
+        callbackExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "Steam-Callback-Processor");
+            t.setDaemon(true);
+            return t;
+        });
+        
+        // 回调线程卡死时由看门狗重启
+        callbackWatchdog.setRestartAction(this::restartCallbackProcessor);
+        
+        // 每16ms运行一次回调（约60FPS）
+        int generation = pumpGeneration.get();
+        callbackExecutor.scheduleAtFixedRate(() -> runCallbackTick(generation),
+                0, CALLBACK_PERIOD_MS, TimeUnit.MILLISECONDS);
+        
+        logger.debug("🔄 Steam回调处理线程已启动");
+    }
+    
+    /**
+     * 执行一次回调tick，并向看门狗报告开始/结束时间
+     */
+    private void runCallbackTick(int generation) {
+        if (generation != pumpGeneration.get()) {
+            return;
+        }
+        long tickStart = callbackWatchdog.tickStarted();
+        try {
+            commandExecutor.runNative(() -> {
+                // 已被看门狗替换的旧线程不再调用Steam API
+                if (generation != pumpGeneration.get()) {
+                    return;
+                }
+                // 先批量执行其他线程提交的Steam命令
+                commandExecutor.drain();
+                
+                if (isInitialized) {
+                    SteamAPI.runCallbacks();
+                }
+            });
+            
+            if (generation == pumpGeneration.get() && (isInitialized || !usesSteamTransport())) {
+                // 发布P2P数据包处理事件
+                eventPublisher.publishEvent(new P2PPacketProcessEvent(this));
+            }
+        } catch (Exception e) {
+            callbackWatchdog.tickFailed();
+            logger.error("💥 Steam回调处理错误", e);
+        } finally {
+            callbackWatchdog.tickFinished(tickStart);
+        }
+    }
+    
+    /**
+     * 重启回调处理线程
+     * 只有旧线程卡在本地调用之外（如事件监听器）时才重启：旧线程的代数随之失效，
+     * 之后不再进入本地调用；卡在本地调用中时启动新线程会并发调用Steam API，只告警不重启
+     *
+     * @return 是否已重启
+     */
+    private synchronized boolean restartCallbackProcessor() {
+        if (callbackExecutor == null) {
+            return false;
+        }
+        
+        if (!commandExecutor.retirePump(pumpGeneration::incrementAndGet)) {
+            return false;
+        }
+        callbackExecutor.shutdownNow();
+        
+        startCallbackProcessor();
+        logger.warn("🔁 Steam回调处理线程已重启");
+        return true;
+    }
+    
+    /**
+     * 发送P2P数据包
+     * 由回调线程执行本地调用，可在任意线程调用
+     */
+    public CompletableFuture<Boolean> sendP2PPacket(SteamID steamID, byte[] data,
+                                                    SteamNetworking.P2PSend sendType, int channel) {
+        return commandExecutor.submit("sendP2PPacket", () -> {
+            if (steamNetworking == null) {
+                return false;
+            }
+            ByteBuffer messageBuffer = ByteBuffer.allocateDirect(data.length);
+            messageBuffer.put(data);
+            messageBuffer.flip();
+            return steamNetworking.sendP2PPacket(steamID, messageBuffer, sendType, channel);
+        });
+    }
+    
+    /**
+     * 接受P2P会话
+     */
+    public CompletableFuture<Boolean> acceptP2PSession(SteamID steamID) {
+        return commandExecutor.submit("acceptP2PSessionWithUser",
+            () -> steamNetworking != null && steamNetworking.acceptP2PSessionWithUser(steamID));
+    }
+    
+    /**
+     * 关闭P2P会话
+     */
+    public CompletableFuture<Boolean> closeP2PSession(SteamID steamID) {
+        return commandExecutor.submit("closeP2PSessionWithUser",
+            () -> steamNetworking != null && steamNetworking.closeP2PSessionWithUser(steamID));
+    }
+    
+    /**
+     * 获取当前用户的Steam ID
+     */
+    public String getMySteamID() {
+        if (steamUser != null && isInitialized) {
+            try {
+                SteamID mySteamID = commandExecutor.call("getSteamID", steamUser::getSteamID);
+                return mySteamID.toString();
+            } catch (Exception e) {
+                logger.error("💥 获取Steam ID时发生错误", e);
+            }
+        }
+        return "Unknown";
+    }
+    
+    /**
+     * 获取活跃的P2P连接列表
+     */
+    public Set<SteamID> getActiveConnections() {
+        return peerTable.snapshot();
+    }
+    
+    /**
+     * 获取活跃连接表
+     */
+    public PeerTable getPeerTable() {
+        return peerTable;
+    }
+    
+    /**
+     * 添加活跃连接
+     */
+    public void addActiveConnection(SteamID steamID) {
+        peerTable.add(steamID);
+    }
+    
+    /**
+     * 移除活跃连接
+     */
+    public void removeActiveConnection(SteamID steamID) {
+        peerTable.remove(steamID);
+    }
+    
+    /**
+     * 检查是否与指定用户有活跃连接
+     */
+    public boolean hasActiveConnection(SteamID steamID) {
+        return peerTable.contains(steamID);
+    }
+}
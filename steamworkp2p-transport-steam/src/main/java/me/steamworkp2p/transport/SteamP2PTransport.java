@@ -0,0 +1,156 @@
+package me.steamworkp2p.transport;
+
+import com.codedisaster.steamworks.SteamID;
+import com.codedisaster.steamworks.SteamNetworking;
+import me.steamworkp2p.service.SteamCommandExecutor;
+import me.steamworkp2p.service.SteamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Steam P2P传输实现
+ * 所有本地调用都经由SteamCommandExecutor在Steam回调线程上执行。
+ * 收包（isPacketAvailable、readPacket）由回调线程上的P2PPacketProcessEvent驱动，直接在回调线程上调用，
+ * 不经过命令队列；在其他线程上调用时视为没有数据包，不会阻塞等待回调线程
+ */
+@Component
+@ConditionalOnProperty(name = "p2p.transport", havingValue = "steam", matchIfMissing = true)
+public class SteamP2PTransport implements P2PTransport {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SteamP2PTransport.class);
+    
+    @Autowired
+    private SteamService steamService;
+    
+    @Autowired
+    private SteamCommandExecutor commandExecutor;
+    
+    @Override
+    public String getName() {
+        return "steam";
+    }
+    
+    @Override
+    public boolean isAvailable() {
+        return steamService.isInitialized() && steamService.getNetworking() != null;
+    }
+    
+    @Override
+    public SteamID getLocalId() {
+        if (!isAvailable()) {
+            return null;
+        }
+        return commandExecutor.call("getSteamID", () -> steamService.getUser().getSteamID());
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> sendPacket(SteamID peer, byte[] data, P2PSendType sendType, int channel) {
+        return steamService.sendP2PPacket(peer, data, toSteamSendType(sendType), channel);
+    }
+    
+    @Override
+    public int isPacketAvailable(int channel) {
+        return commandExecutor.callOnPump("isP2PPacketAvailable", () -> {
+            SteamNetworking steamNetworking = steamService.getNetworking();
+            return steamNetworking != null ? steamNetworking.isP2PPacketAvailable(channel) : 0;
+        }, 0);
+    }
+    
+    @Override
+    public SteamID readPacket(ByteBuffer buffer, int channel) {
+        return commandExecutor.callOnPump("readP2PPacket", () -> {
+            SteamNetworking steamNetworking = steamService.getNetworking();
+            if (steamNetworking == null) {
+                return null;
+            }
+            
+            SteamID senderID = new SteamID();
+            buffer.clear();
+            try {
+                int bytesRead = steamNetworking.readP2PPacket(senderID, buffer, channel);
+                if (bytesRead <= 0) {
+                    return null;
+                }
+                buffer.position(0);
+                buffer.limit(bytesRead);
+                return senderID;
+            } catch (Exception e) {
+                logger.error("💥 读取P2P数据包时发生错误", e);
+                return null;
+            }
+        }, null);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> acceptSession(SteamID peer) {
+        return steamService.acceptP2PSession(peer);
+    }
+    
+    @Override
+    public CompletableFuture<Boolean> closeSession(SteamID peer) {
+        return steamService.closeP2PSession(peer);
+    }
+    
+    @Override
+    public TransportSessionState getSessionState(SteamID peer) {
+        return commandExecutor.call("getP2PSessionState", () ->
+            readSessionState(steamService.getNetworking(), new SteamNetworking.P2PSessionState(), peer));
+    }
+    
+    /**
+     * 在一次回调线程往返中读取全部对端的会话状态
+     */
+    @Override
+    public Map<SteamID, TransportSessionState> getSessionStates(Collection<SteamID> peers) {
+        if (peers.isEmpty()) {
+            return new HashMap<>();
+        }
+        return commandExecutor.call("getP2PSessionStates", () -> {
+            SteamNetworking steamNetworking = steamService.getNetworking();
+            SteamNetworking.P2PSessionState state = new SteamNetworking.P2PSessionState();
+            Map<SteamID, TransportSessionState> states = new HashMap<>();
+            for (SteamID peer : peers) {
+                states.put(peer, readSessionState(steamNetworking, state, peer));
+            }
+            return states;
+        });
+    }
+    
+    /**
+     * 读取单个对端的会话状态（仅在回调线程上调用）
+     */
+    private static TransportSessionState readSessionState(SteamNetworking steamNetworking,
+                                                          SteamNetworking.P2PSessionState state, SteamID peer) {
+        if (steamNetworking == null || !steamNetworking.getP2PSessionState(peer, state)) {
+            return TransportSessionState.none();
+        }
+        return new TransportSessionState(state.isConnectionActive(), state.isConnecting(),
+            state.isUsingRelay(), state.getBytesQueuedForSend(), state.getPacketsQueuedForSend());
+    }
+    
+    /**
+     * 映射到Steam的发送方式
+     */
+    private static SteamNetworking.P2PSend toSteamSendType(P2PSendType sendType) {
+        switch (sendType) {
+            case Unreliable:
+                return SteamNetworking.P2PSend.Unreliable;
+            case UnreliableNoDelay:
+                return SteamNetworking.P2PSend.UnreliableNoDelay;
+            case ReliableWithBuffering:
+                return SteamNetworking.P2PSend.ReliableWithBuffering;
+            case Reliable:
+            default:
+                return SteamNetworking.P2PSend.Reliable;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+package me.steamworkp2p.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 基准结果与基线对比工具
+ * 读取JMH的JSON结果，与仓库中提交的基线逐项比较得分和每次操作的分配字节数。
+ * 得分的变化同时超过允许的回退比例和两次测量的误差（99.9%置信区间半宽之和）才视为回退，
+ * 避免测量噪声使构建时好时坏；有回退或基线中的基准在本次结果中缺失（未运行或运行出错）时以非零状态退出，使Maven构建失败
+ *
+ * 用法: BaselineComparator <结果文件> <基线文件> <允许回退比例> [--update]
+ */
+public class BaselineComparator {
+
+    // 分配字节数的测量抖动，低于此值的差异不视为回退
+    private static final double ALLOCATION_NOISE_BYTES = 16.0;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 单个基准（含参数组合）的结果
+     */
+    private static class Score {
+        private final double value;
+        // 99.9%置信区间的半宽，只有一次迭代时为0
+        private final double error;
+        private final String unit;
+        private final boolean higherIsBetter;
+        private final double allocatedBytes;
+
+        Score(double value, double error, String unit, boolean higherIsBetter, double allocatedBytes) {
+            this.value = value;
+            this.error = error;
+            this.unit = unit;
+            this.higherIsBetter = higherIsBetter;
+            this.allocatedBytes = allocatedBytes;
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("用法: BaselineComparator <结果文件> <基线文件> <允许回退比例> [--update]");
+            System.exit(2);
+        }
+
+        Path resultPath = Paths.get(args[0]);
+        Path baselinePath = Paths.get(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        boolean update = args.length > 3 && "--update".equals(args[3]);
+
+        if (!Files.exists(resultPath)) {
+            System.err.println("❌ 未找到基准结果: " + resultPath);
+            System.exit(2);
+        }
+
+        if (update) {
+            Files.createDirectories(baselinePath.toAbsolutePath().getParent());
+            Files.copy(resultPath, baselinePath, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("📌 基线已更新: " + baselinePath);
+            return;
+        }
+
+        if (!Files.exists(baselinePath)) {
+            System.out.println("⚠️ 尚未提交基线 " + baselinePath + "，跳过对比");
+            System.out.println("   在参考机器上运行 mvn -Pbenchmark verify -Djmh.update-baseline=--update 生成基线");
+            return;
+        }
+
+        Map<String, Score> results = load(resultPath);
+        Map<String, Score> baseline = load(baselinePath);
+
+        int regressions = 0;
+        int missing = 0;
+        System.out.println("=== 基准对比 (允许回退 " + Math.round(threshold * 100) + "%) ===");
+        System.out.printf("%-70s %14s %14s %9s %12s %12s%n",
+            "基准", "基线", "当前", "变化", "基线B/op", "当前B/op");
+
+        for (Map.Entry<String, Score> entry : baseline.entrySet()) {
+            Score before = entry.getValue();
+            Score after = results.get(entry.getKey());
+            if (after == null) {
+                System.out.printf("%-70s %14.3f %14s ❌%n", entry.getKey(), before.value, "缺失");
+                missing++;
+                continue;
+            }
+
+            // 变化统一为“越大越差”
+            double worse = before.higherIsBetter ? before.value - after.value : after.value - before.value;
+            double change = worse / before.value;
+            boolean scoreRegressed = change > threshold && worse > before.error + after.error;
+            boolean allocationRegressed = !Double.isNaN(before.allocatedBytes)
+                && !Double.isNaN(after.allocatedBytes)
+                && after.allocatedBytes - before.allocatedBytes > Math.max(ALLOCATION_NOISE_BYTES,
+                    before.allocatedBytes * threshold);
+
+            String marker = scoreRegressed || allocationRegressed ? " ❌" : "";
+            System.out.printf("%-70s %14.3f %14.3f %+8.1f%% %12.1f %12.1f %s%s%n",
+                entry.getKey(), before.value, after.value, change * 100,
+                before.allocatedBytes, after.allocatedBytes, after.unit, marker);
+
+            if (scoreRegressed || allocationRegressed) {
+                regressions++;
+            }
+        }
+
+        for (String name : results.keySet()) {
+            if (!baseline.containsKey(name)) {
+                System.out.printf("%-70s %14s %14.3f  (新增)%n", name, "-", results.get(name).value);
+            }
+        }
+
+        if (missing > 0) {
+            System.out.println("❌ " + missing + " 个基准没有结果（未运行或运行出错）");
+        }
+        if (regressions > 0) {
+            System.out.println("❌ " + regressions + " 个基准超出允许的回退范围");
+        }
+        if (missing > 0 || regressions > 0) {
+            System.exit(1);
+        }
+        System.out.println("✅ 所有基准均在基线范围内");
+    }
+
+    /**
+     * 读取JMH JSON结果，键为“基准名[参数]”
+     */
+    private static Map<String, Score> load(Path path) throws IOException {
+        Map<String, Score> scores = new TreeMap<>();
+        for (JsonNode run : objectMapper.readTree(path.toFile())) {
+            String mode = run.path("mode").asText();
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode allocation = run.path("secondaryMetrics").path("gc.alloc.rate.norm");
+
+            double error = primary.path("scoreError").asDouble(0);
+            Score score = new Score(
+                primary.path("score").asDouble(),
+                Double.isNaN(error) ? 0 : error,
+                primary.path("scoreUnit").asText(),
+                "thrpt".equals(mode),
+                allocation.isMissingNode() ? Double.NaN : allocation.path("score").asDouble()
+            );
+            scores.put(key(run), score);
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("me.steamworkp2p.benchmark.", "");
+        Map<String, String> params = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        return params.isEmpty() ? benchmark : benchmark + params;
+    }
+}
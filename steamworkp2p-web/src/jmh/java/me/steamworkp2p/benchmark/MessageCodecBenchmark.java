@@ -0,0 +1,66 @@
+package me.steamworkp2p.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 消息编解码基准
+ * 对应发送路径的字符串转UTF-8并写入直接缓冲区，
+ * 以及接收路径的直接缓冲区拷贝出字节数组再解码为字符串
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MessageCodecBenchmark {
+
+    @Param({"16", "256", "4096"})
+    private int size;
+
+    // 是否包含多字节字符（中文聊天消息）
+    @Param({"ascii", "cjk"})
+    private String charset;
+
+    private String message;
+    private ByteBuffer sendBuffer;
+    private ByteBuffer receiveBuffer;
+
+    @Setup
+    public void setup() {
+        String unit = "ascii".equals(charset) ? "a" : "消";
+        int unitBytes = unit.getBytes(StandardCharsets.UTF_8).length;
+        message = unit.repeat(Math.max(1, size / unitBytes));
+
+        byte[] encoded = message.getBytes(StandardCharsets.UTF_8);
+        sendBuffer = ByteBuffer.allocateDirect(encoded.length);
+        receiveBuffer = ByteBuffer.allocateDirect(encoded.length);
+        receiveBuffer.put(encoded).flip();
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return message.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public ByteBuffer encodeToDirectBuffer() {
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        sendBuffer.clear();
+        sendBuffer.put(data);
+        sendBuffer.flip();
+        return sendBuffer;
+    }
+
+    @Benchmark
+    public String decodeFromDirectBuffer() {
+        receiveBuffer.rewind();
+        byte[] data = new byte[receiveBuffer.remaining()];
+        receiveBuffer.get(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package me.steamworkp2p.benchmark;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 接收分发基准
+ * 对端通过回环网络投递一个数据包，随后在当前线程上执行一次数据包处理tick，
+ * 覆盖读取、解码、控制消息判断和消息监听器扇出的完整路径
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketDispatchBenchmark {
+
+    // 数据包类型：普通消息、ping请求、连接请求
+    @Param({"message", "ping", "connect"})
+    private String kind;
+
+    // 注册的消息监听器数量
+    @Param({"1", "4", "16"})
+    private int listeners;
+
+    private LoopbackP2PTransport local;
+    private LoopbackP2PTransport remote;
+    private SteamID localId;
+    private P2PNetworkService networkService;
+    private ByteBuffer drainBuffer;
+    private byte[] packet;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        local = BenchmarkFixtures.newEndpoint();
+        remote = BenchmarkFixtures.newEndpoint();
+        localId = local.getLocalId();
+
+        SteamService steamService = BenchmarkFixtures.newSteamService();
+        networkService = BenchmarkFixtures.newNetworkService(local, steamService);
+        for (int i = 0; i < listeners; i++) {
+            networkService.addMessageListener((sender, message) -> blackhole.consume(message));
+        }
+
+        drainBuffer = ByteBuffer.allocateDirect(1024);
+        packet = switch (kind) {
+            case "ping" -> ("P2P_PING:" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+            case "connect" -> "P2P_CONNECT_REQUEST".getBytes(StandardCharsets.UTF_8);
+            default -> "benchmark chat message payload".getBytes(StandardCharsets.UTF_8);
+        };
+    }
+
+    @TearDown
+    public void tearDown() {
+        local.close();
+        remote.close();
+    }
+
+    @Benchmark
+    public void receiveAndDispatch() {
+        remote.sendPacket(localId, packet, P2PSendType.Reliable, 0);
+        networkService.handleP2PPacketProcessEvent(null);
+        // 丢弃本端回复的PONG/ACCEPT，避免对端收件箱无限增长
+        BenchmarkFixtures.drain(remote, drainBuffer);
+    }
+}
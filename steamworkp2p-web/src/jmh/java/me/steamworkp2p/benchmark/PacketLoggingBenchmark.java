@@ -0,0 +1,74 @@
+package me.steamworkp2p.benchmark;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 数据包路径日志开销基准
+ * 每次操作由一个节点发送一条消息，另一个节点在数据包处理tick中接收，
+ * 对比日志关闭、INFO（仅摘要）和DEBUG（摘要加采样详情）下的吞吐，
+ * 并分别在异步日志器（默认配置）和同步日志器下运行
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class PacketLoggingBenchmark {
+
+    private static final String SYNC_LOGGERS =
+            "-Dlog4j2.contextSelector=org.apache.logging.log4j.core.selector.ClassLoaderContextSelector";
+
+    @Param({"OFF", "INFO", "DEBUG"})
+    private String level;
+
+    private LoopbackP2PTransport senderEndpoint;
+    private LoopbackP2PTransport receiverEndpoint;
+    private P2PNetworkService sender;
+    private P2PNetworkService receiver;
+    private String target;
+    private final String message = "benchmark chat message payload";
+
+    @Setup
+    public void setup() {
+        Configurator.setLevel("me.steamworkp2p", Level.valueOf(level));
+
+        senderEndpoint = BenchmarkFixtures.newEndpoint();
+        receiverEndpoint = BenchmarkFixtures.newEndpoint();
+
+        SteamService senderSteam = BenchmarkFixtures.newSteamService();
+        senderSteam.addActiveConnection(receiverEndpoint.getLocalId());
+        sender = BenchmarkFixtures.newNetworkService(senderEndpoint, senderSteam);
+        receiver = BenchmarkFixtures.newNetworkService(receiverEndpoint, BenchmarkFixtures.newSteamService());
+        target = String.valueOf(receiverEndpoint.getPeerId());
+    }
+
+    @TearDown
+    public void tearDown() {
+        senderEndpoint.close();
+        receiverEndpoint.close();
+    }
+
+    @Benchmark
+    public void asyncLoggers() {
+        sendAndReceive();
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = SYNC_LOGGERS)
+    public void syncLoggers() {
+        sendAndReceive();
+    }
+
+    private void sendAndReceive() {
+        sender.sendMessageAsync(target, message);
+        receiver.handleP2PPacketProcessEvent(null);
+    }
+}
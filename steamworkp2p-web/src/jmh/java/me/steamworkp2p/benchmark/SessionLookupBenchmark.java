@@ -0,0 +1,94 @@
+package me.steamworkp2p.benchmark;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.SteamNativeLibraries;
+import me.steamworkp2p.transport.TransportSessionState;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 会话查找基准
+ * 覆盖发送路径上的Steam ID解析、连接表查找和活跃连接集合查询，
+ * 活跃连接集合为同步集合，多线程组用于观察锁竞争
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SessionLookupBenchmark {
+
+    private static final long FIRST_PEER = 76561198000000000L;
+
+    @Param({"16", "256", "4096"})
+    private int peers;
+
+    private SteamService steamService;
+    private Map<SteamID, TransportSessionState> connections;
+    private String[] peerIdStrings;
+    private SteamID[] peerIds;
+
+    /**
+     * 每个线程独立的查找游标
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next(int bound) {
+            int index = next;
+            next = index + 1 == bound ? 0 : index + 1;
+            return index;
+        }
+    }
+
+    @Setup
+    public void setup() {
+        // SteamID的静态初始化依赖本地方法，与回环和UDP传输一样先加载本地库
+        SteamNativeLibraries.ensureLoaded();
+        steamService = BenchmarkFixtures.newSteamService();
+        connections = new ConcurrentHashMap<>();
+        peerIdStrings = new String[peers];
+        peerIds = new SteamID[peers];
+        for (int i = 0; i < peers; i++) {
+            SteamID steamID = SteamID.createFromNativeHandle(FIRST_PEER + i);
+            peerIds[i] = steamID;
+            peerIdStrings[i] = Long.toString(FIRST_PEER + i);
+            connections.put(steamID, TransportSessionState.none());
+            steamService.addActiveConnection(steamID);
+        }
+    }
+
+    @Benchmark
+    public SteamID parseSteamId(Cursor cursor) {
+        return SteamID.createFromNativeHandle(Long.parseLong(peerIdStrings[cursor.next(peers)]));
+    }
+
+    @Benchmark
+    public TransportSessionState connectionTableLookup(Cursor cursor) {
+        return connections.get(peerIds[cursor.next(peers)]);
+    }
+
+    @Benchmark
+    public boolean activeConnectionLookup(Cursor cursor) {
+        return steamService.hasActiveConnection(peerIds[cursor.next(peers)]);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean activeConnectionLookupContended(Cursor cursor) {
+        return steamService.hasActiveConnection(peerIds[cursor.next(peers)]);
+    }
+
+    @Benchmark
+    public boolean sendPathLookup(Cursor cursor) {
+        // 与sendMessageAsync相同：解析字符串ID后依次查询连接表和活跃连接集合
+        SteamID steamID = SteamID.createFromNativeHandle(Long.parseLong(peerIdStrings[cursor.next(peers)]));
+        return connections.containsKey(steamID) || steamService.hasActiveConnection(steamID);
+    }
+}
@@ -0,0 +1,121 @@
+package me.steamworkp2p.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.steamworkp2p.event.ConnectionChangeEvent;
+import me.steamworkp2p.event.NewMessageEvent;
+import me.steamworkp2p.model.ConnectionInfo;
+import me.steamworkp2p.transport.SteamNativeLibraries;
+import me.steamworkp2p.websocket.ClientSession;
+import me.steamworkp2p.websocket.ReplayBuffer;
+import me.steamworkp2p.websocket.SteamP2PWebSocketHandler;
+import me.steamworkp2p.websocket.SubscriptionIndex;
+import me.steamworkp2p.websocket.WebSocketHandlerFixtures;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket广播基准
+ * 测量单帧JSON序列化以及向多个会话广播事件的总开销；
+ * subscription=peer时每个会话只订阅一个不同的对端，事件只路由给订阅了其发送方或接收方的会话。
+ * 每轮迭代结束时检查事件确实发送到了会话且没有被广播积压上限丢弃，否则基准失败
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebSocketBroadcastBenchmark {
+
+    // 已连接的浏览器会话数
+    @Param({"1", "16", "128"})
+    private int sessions;
+
+    // 状态帧中的连接数
+    @Param({"8"})
+    private int connections;
+
+    // all：全部会话订阅所有事件；peer：每个会话订阅不同的对端
+    @Param({"all", "peer"})
+    private String subscription;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private SteamP2PWebSocketHandler handler;
+    private final List<NoopWebSocketSession> noopSessions = new ArrayList<>();
+    private NewMessageEvent messageEvent;
+    private ConnectionChangeEvent connectionEvent;
+    private Map<String, Object> statusFrame;
+
+    @Setup
+    public void setup(Blackhole blackhole) {
+        // 连接状态模型刷新时创建SteamID，需要本地库
+        SteamNativeLibraries.ensureLoaded();
+        // 在当前线程上完成广播，测量序列化、扇出和连接状态刷新本身
+        handler = WebSocketHandlerFixtures.newHandler(Runnable::run, new ReplayBuffer(4096, 8 * 1024 * 1024),
+                WebSocketHandlerFixtures.newStateModel(Set.of(76561198000000001L)));
+        for (int i = 0; i < sessions; i++) {
+            // 直接放入会话表，跳过建立连接时的状态推送
+            String peer = "all".equals(subscription) ? SubscriptionIndex.ANY : Long.toString(76561198000000001L + i);
+            NoopWebSocketSession session = new NoopWebSocketSession("bench-" + i, blackhole);
+            noopSessions.add(session);
+            WebSocketHandlerFixtures.register(handler, new ClientSession(session,
+                    5000, 512 * 1024, ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP, 128 * 1024), peer);
+        }
+
+        messageEvent = new NewMessageEvent(this, "76561198000000001", "76561198000000002",
+            "benchmark chat message payload", NewMessageEvent.Direction.INBOUND);
+        connectionEvent = new ConnectionChangeEvent(this, "76561198000000001", true);
+
+        List<ConnectionInfo> connectionList = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            String steamId = Long.toString(76561198000000000L + i);
+            connectionList.add(new ConnectionInfo(steamId, "Steam用户 " + steamId, true));
+        }
+        statusFrame = Map.of(
+            "type", "status_update",
+            "data", Map.of(
+                "isListening", true,
+                "connections", connectionList,
+                "steamRunning", true,
+                "timestamp", System.currentTimeMillis()
+            )
+        );
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkDelivered(BenchmarkParams params) {
+        if (params.getBenchmark().endsWith("serializeStatusFrame")) {
+            return;
+        }
+        if (handler.getDroppedBroadcasts() > 0) {
+            throw new IllegalStateException("广播被积压上限丢弃: " + handler.getDroppedBroadcasts());
+        }
+        // 两个事件都涉及第一个对端，第一个会话在两种订阅方式下都应收到
+        if (noopSessions.get(0).getMessagesSent() == 0) {
+            throw new IllegalStateException("事件没有发送到会话: " + params.getBenchmark());
+        }
+    }
+
+    @Benchmark
+    public String serializeStatusFrame() throws Exception {
+        return objectMapper.writeValueAsString(statusFrame);
+    }
+
+    @Benchmark
+    public void broadcastNewMessage() {
+        handler.handleNewMessageEvent(messageEvent);
+    }
+
+    @Benchmark
+    public void broadcastConnectionChange() {
+        handler.handleConnectionChangeEvent(connectionEvent);
+    }
+}
@@ -0,0 +1,66 @@
+package me.steamworkp2p.benchmark;
+
+import me.steamworkp2p.model.ConnectionInfo;
+import me.steamworkp2p.websocket.EventFrame;
+import me.steamworkp2p.websocket.WebSocketEncoding;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * WebSocket事件编码基准
+ * 对比JSON文本与CBOR二进制编码聊天消息事件和连接状态快照的耗时与分配
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WebSocketEncodingBenchmark {
+
+    @Param({"JSON", "CBOR"})
+    private WebSocketEncoding encoding;
+
+    // 快照中的连接数
+    @Param({"8", "128"})
+    private int connections;
+
+    private Map<String, Object> messageData;
+    private Map<String, Object> snapshotData;
+
+    @Setup
+    public void setup() {
+        messageData = Map.of(
+            "from", "76561198000000001",
+            "to", "76561198000000002",
+            "message", "benchmark chat message payload",
+            "timestamp", System.currentTimeMillis()
+        );
+
+        List<ConnectionInfo> connectionList = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
+            String steamId = Long.toString(76561198000000000L + i);
+            connectionList.add(new ConnectionInfo(steamId, "Steam用户 " + steamId, true));
+        }
+        snapshotData = Map.of(
+            "version", 42L,
+            "isListening", true,
+            "steamRunning", true,
+            "connections", connectionList
+        );
+    }
+
+    @Benchmark
+    public Object encodeNewMessage() throws Exception {
+        return new EventFrame("new_message", messageData).encode(encoding);
+    }
+
+    @Benchmark
+    public Object encodeSnapshot() throws Exception {
+        return new EventFrame("connection_snapshot", snapshotData).encode(encoding);
+    }
+}
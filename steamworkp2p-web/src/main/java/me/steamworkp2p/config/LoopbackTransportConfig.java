@@ -0,0 +1,58 @@
+package me.steamworkp2p.config;
+
+import me.steamworkp2p.transport.loopback.LinkConditions;
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+import me.steamworkp2p.transport.loopback.LoopbackPeerSimulator;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 回环传输配置
+ * 通过 loopback profile（p2p.transport=loopback）启用，不需要Steam客户端
+ */
+@Configuration
+@ConditionalOnProperty(name = "p2p.transport", havingValue = "loopback")
+public class LoopbackTransportConfig {
+    
+    @Value("${p2p.loopback.local-id:1}")
+    private long localId;
+    
+    @Value("${p2p.loopback.simulated-peers:0}")
+    private int simulatedPeers;
+    
+    @Value("${p2p.loopback.echo:true}")
+    private boolean echo;
+    
+    // 默认链路条件，用于手动体验弱网环境
+    @Value("${p2p.loopback.link.latency-ms:0}")
+    private long latencyMs;
+    
+    @Value("${p2p.loopback.link.jitter-ms:0}")
+    private long jitterMs;
+    
+    @Value("${p2p.loopback.link.loss-rate:0}")
+    private double lossRate;
+    
+    @Value("${p2p.loopback.link.bandwidth-bytes-per-second:0}")
+    private long bandwidth;
+    
+    @Bean(destroyMethod = "close")
+    public LoopbackP2PTransport loopbackTransport() {
+        LinkConditions conditions = LinkConditions.ideal()
+                .withLatency(latencyMs, jitterMs, LinkConditions.LatencyDistribution.NORMAL)
+                .withLoss(lossRate)
+                .withBandwidth(bandwidth);
+        if (!conditions.isIdeal()) {
+            LoopbackNetwork.shared().setDefaultConditions(conditions);
+        }
+        return LoopbackNetwork.shared().createEndpoint(localId);
+    }
+    
+    @Bean(destroyMethod = "close")
+    public LoopbackPeerSimulator loopbackPeerSimulator() {
+        return new LoopbackPeerSimulator(LoopbackNetwork.shared(), localId + 1, simulatedPeers, echo);
+    }
+}
@@ -0,0 +1,67 @@
+package me.steamworkp2p.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.steamworkp2p.service.SteamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * P2P接口就绪门控
+ * Steam就绪前，会调用P2P传输的写操作（监听、连接、发送、批量、数据流上传）直接返回503和Retry-After，
+ * 查询接口、页面和WebSocket连接本身不受影响，因此Web控制台可以在Steam初始化完成前打开；
+ * WebSocket上的命令由WebSocketCommandDispatcher按同样的条件拒绝
+ */
+@Configuration
+@ConditionalOnWebApplication
+public class ReadinessGateConfig implements WebMvcConfigurer {
+    
+    @Autowired
+    private SteamService steamService;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+                if (!"POST".equals(request.getMethod()) || steamService.isReady()) {
+                    return true;
+                }
+                writeNotReady(response);
+                return false;
+            }
+        }).addPathPatterns("/api/connection/**", "/api/start-listening", "/api/connect", "/api/send-message");
+    }
+    
+    private void writeNotReady(HttpServletResponse response) throws Exception {
+        SteamService.Readiness readiness = steamService.getReadiness();
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("error", readiness == SteamService.Readiness.FAILED ? "Steam API初始化失败" : "Steam尚未就绪，请稍后重试");
+        result.put("state", readiness.name());
+        if (steamService.getLastInitError() != null) {
+            result.put("lastError", steamService.getLastInitError());
+        }
+        
+        response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+        if (readiness != SteamService.Readiness.FAILED) {
+            long waitMs = Math.max(steamService.getNextInitAttemptAt() - System.currentTimeMillis(), 1000);
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMs + 999) / 1000));
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), result);
+    }
+}
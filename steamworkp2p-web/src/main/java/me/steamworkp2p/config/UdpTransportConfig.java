@@ -0,0 +1,39 @@
+package me.steamworkp2p.config;
+
+import me.steamworkp2p.transport.udp.UdpP2PTransport;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.InetSocketAddress;
+
+/**
+ * UDP直连传输配置
+ * 通过 lan profile（p2p.transport=udp）启用，对端ID和地址由配置给出
+ */
+@Configuration
+@ConditionalOnProperty(name = "p2p.transport", havingValue = "udp")
+public class UdpTransportConfig {
+    
+    @Value("${p2p.udp.local-id}")
+    private long localId;
+    
+    @Value("${p2p.udp.bind-host:0.0.0.0}")
+    private String bindHost;
+    
+    @Value("${p2p.udp.port:27015}")
+    private int port;
+    
+    @Value("${p2p.udp.peers:}")
+    private String peers;
+    
+    @Value("${p2p.udp.accept-unknown-peers:false}")
+    private boolean acceptUnknownPeers;
+    
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public UdpP2PTransport udpTransport() {
+        return new UdpP2PTransport(localId, new InetSocketAddress(bindHost, port),
+                UdpP2PTransport.parsePeers(peers), acceptUnknownPeers);
+    }
+}
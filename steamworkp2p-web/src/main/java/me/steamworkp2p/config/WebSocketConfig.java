@@ -2,6 +2,7 @@ package me.steamworkp2p.config;
 
 import me.steamworkp2p.websocket.SteamP2PWebSocketHandler;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.web.socket.config.annotation.EnableWebSocket;
 import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
@@ -9,8 +10,10 @@ import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry
 
 /**
  * WebSocket配置
+ * 仅在Web应用中启用（仿真节点等无Web环境下跳过）
  */
 @Configuration
+@ConditionalOnWebApplication
 @EnableWebSocket
 public class WebSocketConfig implements WebSocketConfigurer {
     
@@ -0,0 +1,85 @@
+package me.steamworkp2p.controller;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.AvatarCache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 头像控制器
+ * 头像以PNG返回并带强ETag；带当前版本参数（?v=）的地址内容不会变化，允许浏览器和代理永久缓存，
+ * 不带版本的地址每次都需要用ETag重新验证，头像未变化时返回304
+ */
+@RestController
+@RequestMapping("/api/avatar")
+public class AvatarController {
+
+    // 带版本地址的缓存时间
+    private static final CacheControl IMMUTABLE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+    private static final CacheControl REVALIDATE = CacheControl.noCache().cachePublic();
+
+    @Autowired
+    private AvatarCache avatarCache;
+
+    /**
+     * 获取用户头像
+     * 头像尚未加载时返回404并开始加载，连接列表会在加载完成后推送带版本的地址
+     */
+    @GetMapping("/{steamId}")
+    public ResponseEntity<byte[]> getAvatar(@PathVariable String steamId,
+                                            @RequestParam(value = "v", required = false) String version,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        SteamID steamID;
+        try {
+            steamID = SteamID.createFromNativeHandle(Long.parseLong(steamId));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().cacheControl(CacheControl.noStore()).build();
+        }
+
+        AvatarCache.Avatar avatar = avatarCache.get(steamID);
+        if (avatar == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).cacheControl(CacheControl.noStore()).build();
+        }
+
+        // 旧版本的地址返回当前头像，但不允许长期缓存
+        CacheControl cacheControl = avatar.getVersion().equals(version) ? IMMUTABLE : REVALIDATE;
+        if (matches(ifNoneMatch, avatar.getETag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                    .eTag(avatar.getETag())
+                    .cacheControl(cacheControl)
+                    .build();
+        }
+        return ResponseEntity.ok()
+                .eTag(avatar.getETag())
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_PNG)
+                .contentLength(avatar.getPng().length)
+                .body(avatar.getPng());
+    }
+
+    /**
+     * If-None-Match可能包含多个ETag或*，比较时忽略弱标记
+     */
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isEmpty()) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,14 +1,27 @@
 package me.steamworkp2p.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.steamworkp2p.model.BatchRequest;
+import me.steamworkp2p.service.BatchOperationService;
 import me.steamworkp2p.service.P2PNetworkService;
 import me.steamworkp2p.service.SteamService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * P2P连接控制器
@@ -26,6 +39,17 @@ public class ConnectionController {
     @Autowired
     private SteamService steamService;
     
+    @Autowired
+    private BatchOperationService batchOperationService;
+    
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    
+    private static final MediaType NDJSON_UTF8 = new MediaType(MediaType.APPLICATION_NDJSON, StandardCharsets.UTF_8);
+    
+    // 流式批量结果的输出线程，慢速客户端只阻塞自己的输出
+    private final ExecutorService emitExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Batch-Emit-", 0).factory());
+    
     /**
      * 获取当前连接状态
      */
@@ -35,8 +59,9 @@ public class ConnectionController {
         
         try {
             status.put("steamInitialized", steamService.isInitialized());
+            status.put("steamReadiness", steamService.getReadiness().name());
             status.put("listening", p2pNetworkService.isListening());
-            status.put("connectedUsers", p2pNetworkService.getConnections().size());
+            status.put("connectedUsers", p2pNetworkService.getConnectionCount());
             status.put("mySteamID", steamService.getMySteamID());
             status.put("timestamp", System.currentTimeMillis());
             
@@ -180,4 +205,102 @@ public class ConnectionController {
         
         return result;
     }
+    
+    /**
+     * 批量发送消息、连接或断开（operation为send、connect、disconnect）
+     * 各项并发执行，全部完成后返回按原顺序排列的逐项结果：
+     * POST /api/connection/batch/send {"steamIDs":["7656..."],"message":"hi"}
+     */
+    @PostMapping("/batch/{operation}")
+    public CompletableFuture<Map<String, Object>> batch(@PathVariable String operation, @RequestBody BatchRequest request) {
+        List<BatchRequest.Item> items;
+        try {
+            items = batchOperationService.prepare(operation, request);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("success", false);
+            result.put("error", e.getMessage());
+            return CompletableFuture.completedFuture(result);
+        }
+        
+        return batchOperationService.execute(operation, items, itemResult -> { })
+            .exceptionally(e -> {
+                logger.error("💥 批量{}时发生错误", operation, e);
+                Map<String, Object> result = new HashMap<>();
+                result.put("success", false);
+                result.put("error", e.getMessage());
+                return result;
+            });
+    }
+    
+    /**
+     * 批量操作的流式版本，以NDJSON逐行返回：每项完成时输出一行结果（按完成顺序，带index），
+     * 最后一行为 "type":"summary" 的汇总，大批量时可以边执行边获取进度。
+     * 每个请求的输出按序排在一条输出链上，在输出线程上写给客户端
+     */
+    @PostMapping("/batch/{operation}/stream")
+    public ResponseEntity<ResponseBodyEmitter> batchStream(@PathVariable String operation, @RequestBody BatchRequest request) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(0L);
+        
+        List<BatchRequest.Item> items;
+        try {
+            items = batchOperationService.prepare(operation, request);
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> result = new HashMap<>();
+            result.put("type", "summary");
+            result.put("success", false);
+            result.put("error", e.getMessage());
+            emitLine(emitter, result);
+            emitter.complete();
+            return ndjson(emitter);
+        }
+        
+        OutputChain output = new OutputChain();
+        batchOperationService.execute(operation, items, itemResult -> output.then(() -> emitLine(emitter, itemResult)))
+            .whenComplete((summary, e) -> output.then(() -> {
+                if (e != null) {
+                    logger.error("💥 批量{}时发生错误", operation, e);
+                    emitter.completeWithError(e);
+                    return;
+                }
+                // 逐项结果已经输出，汇总行只保留计数
+                Map<String, Object> last = new HashMap<>(summary);
+                last.remove("results");
+                last.put("type", "summary");
+                emitLine(emitter, last);
+                emitter.complete();
+            }));
+        return ndjson(emitter);
+    }
+    
+    /**
+     * 一个流式请求的输出链：按提交顺序在输出线程上逐个执行
+     */
+    private class OutputChain {
+        private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null);
+        
+        synchronized void then(Runnable step) {
+            tail = tail.thenRunAsync(step, emitExecutor);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        emitExecutor.shutdown();
+    }
+    
+    private ResponseEntity<ResponseBodyEmitter> ndjson(ResponseBodyEmitter emitter) {
+        return ResponseEntity.ok().contentType(NDJSON_UTF8).body(emitter);
+    }
+    
+    /**
+     * 输出一行NDJSON；客户端已断开时忽略，剩余的项仍会执行完
+     */
+    private void emitLine(ResponseBodyEmitter emitter, Map<String, Object> line) {
+        try {
+            emitter.send(objectMapper.writeValueAsString(line) + "\n", NDJSON_UTF8);
+        } catch (IOException | IllegalStateException e) {
+            logger.debug("批量结果输出失败: {}", e.getMessage());
+        }
+    }
 }
@@ -43,6 +43,11 @@ public class DiagnosticController {
             // Steam API状态
             boolean steamInitialized = steamService.isInitialized();
             status.put("steamInitialized", steamInitialized);
+            status.put("steamReadiness", steamService.getReadiness().name());
+            status.put("steamInitAttempts", steamService.getInitAttempts());
+            if (steamService.getLastInitError() != null) {
+                status.put("steamInitError", steamService.getLastInitError());
+            }
             
             if (steamInitialized) {
                 // Steam用户信息
@@ -0,0 +1,72 @@
+package me.steamworkp2p.controller;
+
+import me.steamworkp2p.history.MessageHistory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 消息历史控制器
+ * 按游标分页查询与指定对端的近期消息
+ */
+@RestController
+@RequestMapping("/api/history")
+public class HistoryController {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryController.class);
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    @Autowired
+    private MessageHistory messageHistory;
+
+    /**
+     * 历史概况
+     */
+    @GetMapping
+    public Map<String, Object> getStats() {
+        return messageHistory.getStats();
+    }
+
+    /**
+     * 分页查询与指定对端的消息，每页按序列号升序排列
+     * 不带游标时返回最新一页；before=prevCursor 向更早翻页，after=nextCursor 向更新翻页。
+     * since/until 为毫秒时间戳，限定时间范围
+     */
+    @GetMapping("/{steamId}")
+    public Map<String, Object> getHistory(@PathVariable String steamId,
+                                          @RequestParam(required = false) Long before,
+                                          @RequestParam(required = false) Long after,
+                                          @RequestParam(required = false) Long since,
+                                          @RequestParam(required = false) Long until,
+                                          @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            MessageHistory.Page page = messageHistory.query(steamId,
+                    after != null ? after : -1,
+                    before != null ? before : Long.MAX_VALUE,
+                    since != null ? since : 0,
+                    until != null ? until : Long.MAX_VALUE,
+                    Math.max(1, Math.min(limit, MAX_LIMIT)));
+
+            result.put("success", true);
+            result.put("steamId", steamId);
+            result.put("messages", page.getMessages());
+            result.put("prevCursor", page.getPrevCursor());
+            result.put("nextCursor", page.getNextCursor());
+
+        } catch (Exception e) {
+            logger.error("💥 查询消息历史时发生错误", e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,115 @@
+package me.steamworkp2p.controller;
+
+import me.steamworkp2p.journal.JournalEntry;
+import me.steamworkp2p.journal.MessageJournal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 消息日志控制器
+ * 查询持久化的消息日志，并把收到的消息回放到消息处理管道
+ */
+@RestController
+@RequestMapping("/api/journal")
+public class JournalController {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalController.class);
+
+    private static final int DEFAULT_LIMIT = 100;
+    private static final int MAX_LIMIT = 1000;
+
+    @Autowired
+    private MessageJournal messageJournal;
+
+    /**
+     * 日志概况
+     */
+    @GetMapping
+    public Map<String, Object> getStats() {
+        return messageJournal.getStats();
+    }
+
+    /**
+     * 按时间范围和对端扫描日志，since/until为毫秒时间戳
+     * 记录数超过limit时返回next游标（nextSince和nextAfterSeq），原样作为since和afterSeq继续扫描
+     */
+    @GetMapping("/scan")
+    public Map<String, Object> scan(@RequestParam(defaultValue = "0") long since,
+                                    @RequestParam(required = false) Long until,
+                                    @RequestParam(defaultValue = "0") long afterSeq,
+                                    @RequestParam(required = false) String steamId,
+                                    @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            int max = Math.max(1, Math.min(limit, MAX_LIMIT));
+            List<JournalEntry> entries = new ArrayList<>();
+            boolean[] truncated = {false};
+            messageJournal.scan(since, until != null ? until : Long.MAX_VALUE,
+                    steamId != null ? Long.parseLong(steamId) : 0, entry -> {
+                        // 同一毫秒内的记录可能跨页，用序列号跳过已返回的部分
+                        if (entry.getSeq() <= afterSeq) {
+                            return true;
+                        }
+                        if (entries.size() == max) {
+                            truncated[0] = true;
+                            return false;
+                        }
+                        entries.add(entry);
+                        return true;
+                    });
+
+            result.put("success", true);
+            result.put("entries", entries);
+            if (truncated[0]) {
+                JournalEntry last = entries.get(entries.size() - 1);
+                result.put("nextSince", last.getTimestamp());
+                result.put("nextAfterSeq", last.getSeq());
+            }
+
+        } catch (NumberFormatException e) {
+            result.put("success", false);
+            result.put("error", "无效的Steam ID格式: " + steamId);
+        } catch (Exception e) {
+            logger.error("💥 扫描消息日志时发生错误", e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 把范围内收到的消息重新送入消息监听器管道
+     */
+    @PostMapping("/replay")
+    public Map<String, Object> replay(@RequestParam(defaultValue = "0") long since,
+                                      @RequestParam(required = false) Long until,
+                                      @RequestParam(required = false) String steamId) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            long replayed = messageJournal.replay(since, until != null ? until : Long.MAX_VALUE,
+                    steamId != null ? Long.parseLong(steamId) : 0);
+            result.put("success", true);
+            result.put("replayed", replayed);
+
+        } catch (NumberFormatException e) {
+            result.put("success", false);
+            result.put("error", "无效的Steam ID格式: " + steamId);
+        } catch (Exception e) {
+            logger.error("💥 回放消息日志时发生错误", e);
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+
+        return result;
+    }
+}
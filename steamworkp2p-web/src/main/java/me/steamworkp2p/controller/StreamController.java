@@ -0,0 +1,125 @@
+package me.steamworkp2p.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import me.steamworkp2p.stream.P2PStreamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * P2P数据流控制器
+ * 上传：请求体按块直接写入到对端的数据流，不转换为字符串，也不在内存中缓存整个请求体；
+ * 下载：对端发来的数据流以分块传输编码（chunked）的HTTP响应写出
+ */
+@RestController
+@RequestMapping("/api/connection")
+public class StreamController {
+
+    private static final Logger logger = LoggerFactory.getLogger(StreamController.class);
+
+    @Autowired
+    private P2PStreamService streamService;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /**
+     * 把请求体作为数据流发送给指定用户，发送完成后返回
+     * curl -X POST --data-binary @file.bin -H "Content-Type: application/octet-stream" /api/connection/7656.../stream
+     */
+    @PostMapping("/{steamId}/stream")
+    public Map<String, Object> upload(@PathVariable String steamId, HttpServletRequest request) {
+        Map<String, Object> result = new HashMap<>();
+
+        try {
+            String contentType = request.getContentType() != null ? request.getContentType() : P2PStreamService.DEFAULT_CONTENT_TYPE;
+            long bytes = streamService.send(steamId, request.getInputStream(), contentType);
+            result.put("success", true);
+            result.put("message", "数据流已发送");
+            result.put("targetSteamID", steamId);
+            result.put("bytes", bytes);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.put("success", false);
+            result.put("error", "发送被中断");
+        } catch (Exception e) {
+            logger.error("💥 发送数据流时发生错误: {}", e.getMessage());
+            result.put("success", false);
+            result.put("error", e.getMessage());
+        }
+
+        return result;
+    }
+
+    /**
+     * 所有接收中的数据流和数据流统计
+     */
+    @GetMapping("/streams")
+    public Map<String, Object> listStreams() {
+        Map<String, Object> result = new HashMap<>(streamService.getStats());
+        result.put("streams", streamService.listIncoming(null));
+        return result;
+    }
+
+    /**
+     * 来自指定用户、等待下载的数据流
+     */
+    @GetMapping("/{steamId}/streams")
+    public Map<String, Object> listStreams(@PathVariable String steamId) {
+        Map<String, Object> result = new HashMap<>();
+        result.put("steamId", steamId);
+        result.put("streams", streamService.listIncoming(steamId));
+        return result;
+    }
+
+    /**
+     * 下载来自指定用户的数据流，边接收边写出
+     * 下载开始后发送方才会在窗口用完后继续发送，因此上传和下载可以同时进行
+     */
+    @GetMapping("/{steamId}/stream/{streamId}")
+    public void download(@PathVariable String steamId, @PathVariable String streamId,
+                         HttpServletResponse response) throws IOException {
+        String contentType;
+        try {
+            contentType = streamService.claim(steamId, streamId);
+        } catch (IllegalStateException e) {
+            writeError(response, HttpServletResponse.SC_CONFLICT, e.getMessage());
+            return;
+        }
+        if (contentType == null) {
+            writeError(response, HttpServletResponse.SC_NOT_FOUND, "数据流不存在: " + streamId);
+            return;
+        }
+
+        response.setContentType(contentType);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"stream-" + streamId + "\"");
+        try {
+            streamService.download(steamId, streamId, response.getOutputStream());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            // 响应已经开始，只能中断连接让客户端看到不完整的分块响应
+            logger.warn("⚠️ 下载数据流 {} 失败: {}", streamId, e.getMessage());
+            throw e;
+        }
+    }
+
+    private void writeError(HttpServletResponse response, int status, String error) throws IOException {
+        Map<String, Object> result = new HashMap<>();
+        result.put("success", false);
+        result.put("error", error);
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        objectMapper.writeValue(response.getOutputStream(), result);
+    }
+}
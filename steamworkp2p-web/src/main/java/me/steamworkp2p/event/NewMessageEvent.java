@@ -0,0 +1,68 @@
+package me.steamworkp2p.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 新消息事件
+ */
+public class NewMessageEvent extends ApplicationEvent {
+    
+    /**
+     * 消息方向
+     */
+    public enum Direction {
+        // 从对端收到
+        INBOUND,
+        // 本机发出
+        OUTBOUND
+    }
+    
+    private final String fromSteamId;
+    private final String toSteamId;
+    private final String message;
+    private final Direction direction;
+    
+    // 是否为消息日志回放的旧消息
+    private final boolean replayed;
+    
+    public NewMessageEvent(Object source, String fromSteamId, String toSteamId, String message, Direction direction) {
+        this(source, fromSteamId, toSteamId, message, direction, false);
+    }
+    
+    public NewMessageEvent(Object source, String fromSteamId, String toSteamId, String message,
+                           Direction direction, boolean replayed) {
+        super(source);
+        this.fromSteamId = fromSteamId;
+        this.toSteamId = toSteamId;
+        this.message = message;
+        this.direction = direction;
+        this.replayed = replayed;
+    }
+    
+    public String getFromSteamId() {
+        return fromSteamId;
+    }
+    
+    public String getToSteamId() {
+        return toSteamId;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public Direction getDirection() {
+        return direction;
+    }
+    
+    /**
+     * 对端的Steam ID：收到的消息为发送方，发出的消息为接收方
+     */
+    public String getPeerSteamId() {
+        return direction == Direction.OUTBOUND ? toSteamId : fromSteamId;
+    }
+    
+    public boolean isReplayed() {
+        return replayed;
+    }
+}
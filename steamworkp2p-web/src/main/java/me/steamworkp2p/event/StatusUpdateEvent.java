@@ -0,0 +1,29 @@
+package me.steamworkp2p.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * 状态更新事件
+ * 带有steamId时表示该用户的资料或头像发生变化，否则表示监听、Steam运行等全局状态发生变化
+ */
+public class StatusUpdateEvent extends ApplicationEvent {
+    
+    private final Long steamId;
+    
+    public StatusUpdateEvent(Object source) {
+        super(source);
+        this.steamId = null;
+    }
+    
+    public StatusUpdateEvent(Object source, long steamId) {
+        super(source);
+        this.steamId = steamId;
+    }
+    
+    /**
+     * 资料发生变化的用户（SteamID的64位值），全局状态变化时为null
+     */
+    public Long getSteamId() {
+        return steamId;
+    }
+}
@@ -0,0 +1,49 @@
+package me.steamworkp2p.health;
+
+import me.steamworkp2p.service.SteamCallbackWatchdog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Steam回调线程健康检查
+ * 根据看门狗记录的tick状态报告回调线程是否卡死
+ */
+@Component("steamCallback")
+public class SteamCallbackHealthIndicator implements HealthIndicator {
+    
+    @Autowired
+    private SteamCallbackWatchdog watchdog;
+    
+    @Override
+    public Health health() {
+        if (!watchdog.hasTicked()) {
+            return Health.unknown()
+                    .withDetail("reason", "Steam回调线程尚未运行")
+                    .build();
+        }
+        
+        Health.Builder builder = watchdog.isStalled() ? Health.down() : Health.up();
+        builder.withDetail("tickBudgetMs", watchdog.getTickBudgetMs())
+                .withDetail("inFlightMs", watchdog.getInFlightMillis())
+                .withDetail("lastTickMs", watchdog.getLastTickDurationMs())
+                .withDetail("maxTickMs", watchdog.getMaxTickDurationMs())
+                .withDetail("lastTickFinishedAt", watchdog.getLastTickFinishedMillis())
+                .withDetail("overBudgetTicks", watchdog.getOverBudgetTicks())
+                .withDetail("bunchedTicks", watchdog.getBunchedTicks())
+                .withDetail("stalls", watchdog.getStallCount())
+                .withDetail("restarts", watchdog.getRestartCount());
+        
+        SteamCallbackWatchdog.StallReport lastStall = watchdog.getLastStall();
+        if (lastStall != null) {
+            builder.withDetail("lastStallAt", lastStall.getDetectedAt())
+                    .withDetail("lastStallMs", lastStall.getStalledMs())
+                    .withDetail("lastStallGcCorrelated", lastStall.isGcCorrelated())
+                    .withDetail("lastStallGcCause", lastStall.getGcCause() != null ? lastStall.getGcCause() : "无")
+                    .withDetail("lastStallStackTrace", lastStall.getStackTrace());
+        }
+        
+        return builder.build();
+    }
+}
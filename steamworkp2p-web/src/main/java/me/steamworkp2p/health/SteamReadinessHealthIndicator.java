@@ -0,0 +1,42 @@
+package me.steamworkp2p.health;
+
+import me.steamworkp2p.service.SteamService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Steam就绪检查
+ * 初始化进行中或等待重试时报告OUT_OF_SERVICE，放弃重试后报告DOWN；
+ * 加入readiness探针组，就绪前不接收流量，但不影响存活探针
+ */
+@Component("steamReadiness")
+public class SteamReadinessHealthIndicator implements HealthIndicator {
+    
+    @Autowired
+    private SteamService steamService;
+    
+    @Override
+    public Health health() {
+        SteamService.Readiness readiness = steamService.getReadiness();
+        Health.Builder builder;
+        switch (readiness) {
+            case READY -> builder = Health.up()
+                    .withDetail("readyAt", steamService.getReadyAt());
+            case FAILED -> builder = Health.down();
+            case RETRYING -> builder = Health.outOfService()
+                    .withDetail("nextAttemptAt", steamService.getNextInitAttemptAt());
+            default -> builder = Health.outOfService();
+        }
+        
+        builder.withDetail("state", readiness.name())
+                .withDetail("transport", steamService.usesSteamTransport() ? "steam" : "非Steam")
+                .withDetail("steamInitialized", steamService.isInitialized())
+                .withDetail("attempts", steamService.getInitAttempts());
+        if (steamService.getLastInitError() != null) {
+            builder.withDetail("lastError", steamService.getLastInitError());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,294 @@
+package me.steamworkp2p.history;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import me.steamworkp2p.event.NewMessageEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按对端保存的近期消息历史
+ * 每个对端一个有界环形缓冲区（见PeerHistory），全部对端共享一个内存上限，
+ * 超过上限时淘汰全局最旧的消息。序列号全局递增，作为分页游标。
+ * 发出的消息记录在接收方名下，收到的消息记录在发送方名下。
+ * 新消息事件在数据包处理线程上发布，记录交给"Message-History"线程完成，历史的锁不会阻塞收包
+ */
+@Component
+public class MessageHistory {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageHistory.class);
+
+    public static final byte INBOUND = 0;
+    public static final byte OUTBOUND = 1;
+
+    // 每条消息除内容外的估算开销：序列号、时间戳、方向、数组引用和字节数组对象头
+    static final int ENTRY_OVERHEAD = 8 + 8 + 1 + 8 + 16;
+
+    @Value("${p2p.history.enabled:true}")
+    private boolean enabled;
+
+    // 每个对端最多保存的消息数
+    @Value("${p2p.history.per-peer-capacity:1000}")
+    private int perPeerCapacity;
+
+    // 全部对端的内存上限（字节）
+    @Value("${p2p.history.max-bytes:16777216}")
+    private long maxBytes;
+
+    // 等待记录的消息上限，记录线程跟不上时丢弃新消息
+    @Value("${p2p.history.max-pending:65536}")
+    private int maxPending;
+
+    private final ExecutorService recorder = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "Message-History");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicInteger pending = new AtomicInteger();
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Map<String, PeerHistory> peers = new HashMap<>();
+
+    // 按最旧消息的序列号索引对端，用于淘汰全局最旧的消息
+    private final TreeMap<Long, PeerHistory> byOldest = new TreeMap<>();
+
+    private long nextSeq = 1;
+    private long lastTimestamp = 0;
+    private long usedBytes = 0;
+    private long totalEntries = 0;
+
+    public MessageHistory() {
+    }
+
+    /**
+     * 不依赖Spring容器创建已启用的历史（用于测试）
+     */
+    MessageHistory(int perPeerCapacity, long maxBytes) {
+        this.enabled = true;
+        this.perPeerCapacity = perPeerCapacity;
+        this.maxBytes = maxBytes;
+        this.maxPending = 65536;
+    }
+
+    /**
+     * 历史中的一条消息
+     */
+    public static class Entry {
+        private final long seq;
+        private final long timestamp;
+        private final String direction;
+        private final int size;
+        private final String message;
+
+        Entry(long seq, long timestamp, String direction, int size, String message) {
+            this.seq = seq;
+            this.timestamp = timestamp;
+            this.direction = direction;
+            this.size = size;
+            this.message = message;
+        }
+
+        public long getSeq() {
+            return seq;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        public String getDirection() {
+            return direction;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    /**
+     * 一页查询结果，消息按序列号升序排列
+     */
+    public static class Page {
+        private final String steamId;
+        private final List<Entry> messages;
+        private final boolean hasOlder;
+        private final boolean hasNewer;
+
+        Page(String steamId, List<Entry> messages, boolean hasOlder, boolean hasNewer) {
+            this.steamId = steamId;
+            this.messages = messages;
+            this.hasOlder = hasOlder;
+            this.hasNewer = hasNewer;
+        }
+
+        public String getSteamId() {
+            return steamId;
+        }
+
+        public List<Entry> getMessages() {
+            return messages;
+        }
+
+        /**
+         * 更早一页的游标（作为before参数），没有更早的消息时为null
+         */
+        public Long getPrevCursor() {
+            return hasOlder && !messages.isEmpty() ? messages.get(0).getSeq() : null;
+        }
+
+        /**
+         * 更新一页的游标（作为after参数），没有更新的消息时为null
+         */
+        public Long getNextCursor() {
+            return hasNewer && !messages.isEmpty() ? messages.get(messages.size() - 1).getSeq() : null;
+        }
+    }
+
+    /**
+     * 校验容量配置
+     */
+    @PostConstruct
+    public void validateConfig() {
+        if (perPeerCapacity <= 0) {
+            throw new IllegalStateException("p2p.history.per-peer-capacity必须为正数: " + perPeerCapacity);
+        }
+        if (maxBytes <= 0) {
+            throw new IllegalStateException("p2p.history.max-bytes必须为正数: " + maxBytes);
+        }
+        if (maxPending <= 0) {
+            throw new IllegalStateException("p2p.history.max-pending必须为正数: " + maxPending);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        recorder.shutdown();
+    }
+
+    @EventListener
+    public void handleNewMessageEvent(NewMessageEvent event) {
+        // 回放的旧消息已经在历史中（或已按容量淘汰），不重复记录
+        if (!enabled || event.isReplayed()) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            long count = dropped.incrementAndGet();
+            if (count == 1 || count % 10000 == 0) {
+                logger.warn("🐢 [消息历史] 等待记录的消息超过 {} 条，已丢弃 {} 条", maxPending, count);
+            }
+            return;
+        }
+        String steamId = event.getPeerSteamId();
+        byte direction = event.getDirection() == NewMessageEvent.Direction.OUTBOUND ? OUTBOUND : INBOUND;
+        String message = event.getMessage();
+        recorder.execute(() -> {
+            pending.decrementAndGet();
+            record(steamId, direction, message);
+        });
+    }
+
+    /**
+     * 记录一条消息
+     */
+    public synchronized void record(String steamId, byte direction, String message) {
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        long cost = ENTRY_OVERHEAD + payload.length;
+        if (cost > maxBytes) {
+            logger.warn("⚠️ [消息历史] 消息大小 {} 字节超过历史内存上限，不记录", payload.length);
+            return;
+        }
+
+        PeerHistory peer = peers.computeIfAbsent(steamId, id -> new PeerHistory(id, perPeerCapacity));
+        boolean wasEmpty = peer.isEmpty();
+        long oldestBefore = wasEmpty ? 0 : peer.oldestSeq();
+
+        long seq = nextSeq++;
+        // 时间戳保持单调，按时间查询依赖于此
+        long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+        lastTimestamp = timestamp;
+
+        int evicted = peer.append(seq, timestamp, direction, payload);
+        if (evicted >= 0) {
+            usedBytes -= ENTRY_OVERHEAD + evicted;
+            totalEntries--;
+        }
+        usedBytes += cost;
+        totalEntries++;
+
+        if (wasEmpty) {
+            byOldest.put(peer.oldestSeq(), peer);
+        } else if (evicted >= 0) {
+            byOldest.remove(oldestBefore);
+            byOldest.put(peer.oldestSeq(), peer);
+        }
+
+        // 超出全局上限时淘汰全局最旧的消息
+        while (usedBytes > maxBytes && !byOldest.isEmpty()) {
+            Map.Entry<Long, PeerHistory> oldest = byOldest.pollFirstEntry();
+            PeerHistory victim = oldest.getValue();
+            usedBytes -= ENTRY_OVERHEAD + victim.evictOldest();
+            totalEntries--;
+            if (victim.isEmpty()) {
+                peers.remove(victim.getSteamId());
+            } else {
+                byOldest.put(victim.oldestSeq(), victim);
+            }
+        }
+    }
+
+    /**
+     * 查询与指定对端的消息历史
+     *
+     * @param afterSeq 向新的方向翻页的游标，不使用时为-1
+     * @param beforeSeq 向旧的方向翻页的游标，不使用时为Long.MAX_VALUE
+     * @param sinceMs 时间下限（含），不限时为0
+     * @param untilMs 时间上限（含），不限时为Long.MAX_VALUE
+     * @param limit 本页最多返回的消息数
+     */
+    public synchronized Page query(String steamId, long afterSeq, long beforeSeq, long sinceMs, long untilMs, int limit) {
+        PeerHistory peer = peers.get(steamId);
+        if (peer == null) {
+            return new Page(steamId, new ArrayList<>(), false, false);
+        }
+        return peer.query(afterSeq, beforeSeq, sinceMs, untilMs, limit);
+    }
+
+    /**
+     * 历史概况：每个对端的消息数和整体内存占用
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Integer> perPeer = new HashMap<>();
+        peers.forEach((steamId, peer) -> perPeer.put(steamId, peer.size()));
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("peers", perPeer);
+        stats.put("entries", totalEntries);
+        stats.put("usedBytes", usedBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("perPeerCapacity", perPeerCapacity);
+        stats.put("pending", pending.get());
+        stats.put("dropped", dropped.get());
+        stats.put("lastSeq", nextSeq - 1);
+        return stats;
+    }
+}
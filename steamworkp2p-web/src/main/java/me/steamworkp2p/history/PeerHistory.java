@@ -0,0 +1,160 @@
+package me.steamworkp2p.history;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 单个对端的消息环形缓冲区
+ * 每个字段存放在独立的基本类型数组中（列式），消息内容保存为UTF-8字节数组，
+ * 不为每条消息创建记录对象。数组按需倍增直到容量上限，之后覆盖最旧的消息。
+ * 序列号和时间戳都是单调递增的，查询用二分查找定位范围。
+ * 非线程安全，由MessageHistory加锁访问
+ */
+final class PeerHistory {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final String steamId;
+    private final int maxCapacity;
+
+    private long[] seqs = new long[0];
+    private long[] timestamps = new long[0];
+    private byte[] directions = new byte[0];
+    private byte[][] payloads = new byte[0][];
+
+    // 最旧消息的物理下标和消息数
+    private int head = 0;
+    private int size = 0;
+
+    PeerHistory(String steamId, int maxCapacity) {
+        this.steamId = steamId;
+        this.maxCapacity = maxCapacity;
+    }
+
+    String getSteamId() {
+        return steamId;
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long oldestSeq() {
+        return seqs[head];
+    }
+
+    /**
+     * 追加一条消息，缓冲区已满时覆盖最旧的消息
+     *
+     * @return 被覆盖消息的内容字节数，没有覆盖时返回-1
+     */
+    int append(long seq, long timestamp, byte direction, byte[] payload) {
+        int evicted = -1;
+        if (size == seqs.length) {
+            if (size < maxCapacity) {
+                grow();
+            } else {
+                evicted = evictOldest();
+            }
+        }
+        int index = physical(size);
+        seqs[index] = seq;
+        timestamps[index] = timestamp;
+        directions[index] = direction;
+        payloads[index] = payload;
+        size++;
+        return evicted;
+    }
+
+    /**
+     * 移除最旧的消息
+     *
+     * @return 被移除消息的内容字节数
+     */
+    int evictOldest() {
+        int freed = payloads[head].length;
+        payloads[head] = null;
+        head = (head + 1) % seqs.length;
+        size--;
+        return freed;
+    }
+
+    /**
+     * 按序列号和时间范围查询一页
+     *
+     * @param afterSeq 只返回序列号大于此值的消息，同时表示向新的方向翻页；不限时为-1
+     * @param beforeSeq 只返回序列号小于此值的消息
+     * @param sinceMs 时间下限（含）
+     * @param untilMs 时间上限（含）
+     * @param limit 本页最多返回的消息数
+     */
+    MessageHistory.Page query(long afterSeq, long beforeSeq, long sinceMs, long untilMs, int limit) {
+        int lo = Math.max(lowerBound(seqs, afterSeq + 1), lowerBound(timestamps, sinceMs));
+        int hi = Math.min(lowerBound(seqs, beforeSeq), lowerBound(timestamps, untilMs == Long.MAX_VALUE ? untilMs : untilMs + 1));
+
+        int start;
+        int end;
+        if (afterSeq >= 0) {
+            start = lo;
+            end = Math.max(lo, Math.min(hi, lo + limit));
+        } else {
+            end = Math.max(lo, hi);
+            start = Math.max(lo, end - limit);
+        }
+
+        List<MessageHistory.Entry> entries = new ArrayList<>(end - start);
+        for (int i = start; i < end; i++) {
+            int index = physical(i);
+            entries.add(new MessageHistory.Entry(seqs[index], timestamps[index],
+                    directions[index] == MessageHistory.OUTBOUND ? "out" : "in",
+                    payloads[index].length, new String(payloads[index], StandardCharsets.UTF_8)));
+        }
+        return new MessageHistory.Page(steamId, entries, start > lo, end < hi);
+    }
+
+    /**
+     * 第一个值不小于key的逻辑下标
+     */
+    private int lowerBound(long[] values, long key) {
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (values[physical(mid)] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int physical(int logical) {
+        return (head + logical) % seqs.length;
+    }
+
+    private void grow() {
+        int capacity = Math.min(maxCapacity, Math.max(INITIAL_CAPACITY, seqs.length * 2));
+        long[] newSeqs = new long[capacity];
+        long[] newTimestamps = new long[capacity];
+        byte[] newDirections = new byte[capacity];
+        byte[][] newPayloads = new byte[capacity][];
+        for (int i = 0; i < size; i++) {
+            int index = physical(i);
+            newSeqs[i] = seqs[index];
+            newTimestamps[i] = timestamps[index];
+            newDirections[i] = directions[index];
+            newPayloads[i] = payloads[index];
+        }
+        seqs = newSeqs;
+        timestamps = newTimestamps;
+        directions = newDirections;
+        payloads = newPayloads;
+        head = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package me.steamworkp2p.journal;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 消息日志中的一条记录
+ */
+public class JournalEntry {
+
+    public static final byte INBOUND = 0;
+    public static final byte OUTBOUND = 1;
+
+    private final long seq;
+    private final long timestamp;
+    private final long peer;
+    private final byte direction;
+    private final byte[] payload;
+
+    JournalEntry(long seq, long timestamp, long peer, byte direction, byte[] payload) {
+        this.seq = seq;
+        this.timestamp = timestamp;
+        this.peer = peer;
+        this.direction = direction;
+        this.payload = payload;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 对端SteamID（原生句柄）
+     */
+    public String getSteamId() {
+        return String.valueOf(peer);
+    }
+
+    // 64位ID在JSON中以字符串形式输出（getSteamId），避免浏览器端精度丢失
+    @JsonIgnore
+    public long getPeer() {
+        return peer;
+    }
+
+    public String getDirection() {
+        return direction == OUTBOUND ? "out" : "in";
+    }
+
+    @JsonIgnore
+    public boolean isInbound() {
+        return direction == INBOUND;
+    }
+
+    public int getSize() {
+        return payload.length;
+    }
+
+    public String getMessage() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,435 @@
+package me.steamworkp2p.journal;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+/**
+ * 消息日志的一个段文件
+ * 记录格式（大端）：int 主体长度 | long 序列号 | long 时间戳 | long 对端 | byte 方向 | 消息内容 | int 主体CRC32。
+ * 每条记录之后写入一个0作为结束标记，恢复时读到0、长度越界或CRC不符即认为到达有效数据末尾。
+ * 只有活动段通过内存映射写入，已封存的段通过FileChannel按位置读取，
+ * 不保留映射，以便保留策略在Windows上也能删除文件。
+ * 每写入INDEX_INTERVAL_BYTES字节记录一个稀疏索引项（序列号、时间戳、位置），按时间扫描时用二分查找定位起点。
+ * 写入和索引由MessageJournal加锁访问；扫描只读取已发布的位置之前的数据，可以在锁外进行。
+ * 段带有引用计数：MessageJournal持有一个引用，每个扫描在扫描期间各持有一个，
+ * 保留策略移除段后由最后一个释放引用的一方关闭并删除文件，正在扫描的段不会被关闭
+ */
+final class JournalSegment {
+
+    private static final Logger logger = LoggerFactory.getLogger(JournalSegment.class);
+
+    static final String SUFFIX = ".journal";
+
+    // 预先创建的备用段文件名，不以SUFFIX结尾，恢复时不会被当作段
+    static final String SPARE_FILE = "spare.journal.tmp";
+
+    // 长度 + 序列号 + 时间戳 + 对端 + 方向 + CRC
+    static final int RECORD_OVERHEAD = 4 + 8 + 8 + 8 + 1 + 4;
+
+    private static final int INDEX_INTERVAL_BYTES = 4096;
+    private static final int READ_CHUNK = 64 * 1024;
+
+    private final Path path;
+    private final long baseSeq;
+    private final int capacity;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+    private final CRC32 crc = new CRC32();
+
+    // 引用计数，初始的一个引用属于MessageJournal
+    private final AtomicInteger refs = new AtomicInteger(1);
+
+    // 已写入的有效数据末尾；写入只在锁内进行，扫描线程在锁外读取
+    private volatile int position = 0;
+    private volatile long firstTimestamp = -1;
+    private volatile long lastTimestamp = -1;
+    private volatile long lastSeq = -1;
+
+    // 稀疏索引
+    private long[] indexSeqs = new long[16];
+    private long[] indexTimestamps = new long[16];
+    private int[] indexPositions = new int[16];
+    private int indexSize = 0;
+    private int nextIndexAt = 0;
+
+    private JournalSegment(Path path, long baseSeq, int capacity) {
+        this.path = path;
+        this.baseSeq = baseSeq;
+        this.capacity = capacity;
+    }
+
+    /**
+     * 创建新的活动段
+     */
+    static JournalSegment create(Path dir, long baseSeq, int capacity) throws IOException {
+        JournalSegment segment = new JournalSegment(dir.resolve(fileName(baseSeq)), baseSeq, capacity);
+        segment.channel = FileChannel.open(segment.path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.mapped = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return segment;
+    }
+
+    /**
+     * 预先创建并映射一个备用段，滚动时由 {@link #activate(long)} 改名启用
+     */
+    static JournalSegment createSpare(Path dir, int capacity) throws IOException {
+        Path path = dir.resolve(SPARE_FILE);
+        Files.deleteIfExists(path);
+        JournalSegment segment = new JournalSegment(path, 0, capacity);
+        segment.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.mapped = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        return segment;
+    }
+
+    /**
+     * 把备用段改名为以baseSeq开头的活动段，沿用已打开的文件和映射
+     */
+    JournalSegment activate(long baseSeq) throws IOException {
+        Path target = path.resolveSibling(fileName(baseSeq));
+        Files.move(path, target, StandardCopyOption.ATOMIC_MOVE);
+        JournalSegment segment = new JournalSegment(target, baseSeq, capacity);
+        segment.channel = channel;
+        segment.mapped = mapped;
+        return segment;
+    }
+
+    /**
+     * 关闭并删除未启用的备用段
+     */
+    void discard() {
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("⚠️ [消息日志] 删除备用段 {} 失败: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    /**
+     * 打开已有的段并扫描有效数据，重建稀疏索引
+     *
+     * @param active 是否作为活动段继续写入
+     */
+    static JournalSegment open(Path path, boolean active) throws IOException {
+        String name = path.getFileName().toString();
+        long baseSeq = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+        int capacity = (int) Files.size(path);
+        JournalSegment segment = new JournalSegment(path, baseSeq, capacity);
+        segment.channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segment.recover();
+        if (active) {
+            segment.mapped = segment.channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            // 覆盖可能残留的半条记录
+            segment.mapped.putInt(segment.position, 0);
+        }
+        return segment;
+    }
+
+    static String fileName(long baseSeq) {
+        return String.format("%020d%s", baseSeq, SUFFIX);
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 段剩余空间不足时返回false
+     */
+    boolean append(long seq, long timestamp, long peer, byte direction, byte[] payload) {
+        int bodyLength = RECORD_OVERHEAD - 8 + payload.length;
+        // 记录本身加上结束标记
+        if (position + 4 + bodyLength + 4 + 4 > capacity) {
+            return false;
+        }
+
+        int start = position;
+        if (start >= nextIndexAt) {
+            addIndex(seq, timestamp, start);
+            nextIndexAt = start + INDEX_INTERVAL_BYTES;
+        }
+
+        mapped.putInt(start, bodyLength);
+        int body = start + 4;
+        mapped.putLong(body, seq);
+        mapped.putLong(body + 8, timestamp);
+        mapped.putLong(body + 16, peer);
+        mapped.put(body + 24, direction);
+        mapped.put(body + 25, payload);
+
+        crc.reset();
+        crc.update(mapped.slice(body, bodyLength));
+        mapped.putInt(body + bodyLength, (int) crc.getValue());
+        mapped.putInt(body + bodyLength + 4, 0);
+
+        if (firstTimestamp < 0) {
+            firstTimestamp = timestamp;
+        }
+        lastTimestamp = timestamp;
+        lastSeq = seq;
+        // 最后发布位置，扫描线程读到新位置时记录内容已经写完
+        position = body + bodyLength + 4;
+        return true;
+    }
+
+    /**
+     * 把已写入的数据刷到磁盘
+     */
+    void force() {
+        MappedByteBuffer buffer = mapped;
+        if (buffer != null) {
+            buffer.force();
+        }
+    }
+
+    /**
+     * 封存活动段：刷盘并释放映射引用，之后只读
+     */
+    void seal() {
+        force();
+        mapped = null;
+    }
+
+    /**
+     * 按时间范围和对端扫描记录
+     *
+     * @param peer 对端SteamID，0表示不限
+     * @param consumer 返回false时停止扫描
+     * @return 是否继续扫描后续的段（遇到超出范围的时间戳或consumer要求停止时为false）
+     */
+    boolean scan(long sinceMs, long untilMs, long peer, Predicate<JournalEntry> consumer) throws IOException {
+        if (firstTimestamp < 0 || lastTimestamp < sinceMs) {
+            return true;
+        }
+        if (firstTimestamp > untilMs) {
+            return false;
+        }
+
+        boolean[] more = {true};
+        iterate(indexPositionBefore(sinceMs), position, false, (buffer, body, bodyLength, filePosition) -> {
+            long timestamp = buffer.getLong(body + 8);
+            if (timestamp > untilMs) {
+                more[0] = false;
+                return false;
+            }
+            long recordPeer = buffer.getLong(body + 16);
+            if (timestamp >= sinceMs && (peer == 0 || recordPeer == peer)) {
+                byte[] payload = new byte[bodyLength - (RECORD_OVERHEAD - 8)];
+                buffer.get(body + 25, payload);
+                if (!consumer.test(new JournalEntry(buffer.getLong(body), timestamp, recordPeer, buffer.get(body + 24), payload))) {
+                    more[0] = false;
+                    return false;
+                }
+            }
+            return true;
+        });
+        return more[0];
+    }
+
+    /**
+     * 扫描文件确定有效数据末尾并重建索引
+     */
+    private void recover() throws IOException {
+        position = iterate(0, capacity, true, (buffer, body, bodyLength, filePosition) -> {
+            long seq = buffer.getLong(body);
+            long timestamp = buffer.getLong(body + 8);
+            if (filePosition >= nextIndexAt) {
+                addIndex(seq, timestamp, filePosition);
+                nextIndexAt = filePosition + INDEX_INTERVAL_BYTES;
+            }
+            if (firstTimestamp < 0) {
+                firstTimestamp = timestamp;
+            }
+            lastTimestamp = timestamp;
+            lastSeq = seq;
+            return true;
+        });
+    }
+
+    /**
+     * 记录访问器
+     */
+    private interface RecordVisitor {
+        /**
+         * @param buffer 包含整条记录的缓冲区
+         * @param body 记录主体在缓冲区中的位置
+         * @param bodyLength 主体长度
+         * @param filePosition 记录在文件中的位置
+         * @return 是否继续
+         */
+        boolean visit(ByteBuffer buffer, int body, int bodyLength, int filePosition);
+    }
+
+    /**
+     * 按块读取[from, limit)范围内的记录，遇到结束标记或无效记录时停止
+     *
+     * @param verify 是否校验CRC（恢复时使用）
+     * @return 最后一条有效记录之后的文件位置
+     */
+    private int iterate(int from, int limit, boolean verify, RecordVisitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK);
+        int bufferStart = from;
+        buffer.limit(0);
+
+        int filePosition = from;
+        while (filePosition + 4 <= limit) {
+            int offset = filePosition - bufferStart;
+            if (buffer.limit() - offset < 4) {
+                buffer = fill(buffer, filePosition, limit, 4);
+                bufferStart = filePosition;
+                offset = 0;
+            }
+            int bodyLength = buffer.getInt(offset);
+            int recordLength = 4 + bodyLength + 4;
+            if (bodyLength < RECORD_OVERHEAD - 8 || filePosition + recordLength > limit) {
+                break;
+            }
+            if (buffer.limit() - offset < recordLength) {
+                buffer = fill(buffer, filePosition, limit, recordLength);
+                bufferStart = filePosition;
+                offset = 0;
+            }
+
+            int body = offset + 4;
+            if (verify) {
+                crc.reset();
+                crc.update(buffer.slice(body, bodyLength));
+                if ((int) crc.getValue() != buffer.getInt(body + bodyLength)) {
+                    break;
+                }
+            }
+            if (!visitor.visit(buffer, body, bodyLength, filePosition)) {
+                break;
+            }
+            filePosition += recordLength;
+        }
+        return filePosition;
+    }
+
+    /**
+     * 从filePosition开始读入一块数据，至少包含required字节（文件足够长时）
+     */
+    private ByteBuffer fill(ByteBuffer buffer, int filePosition, int limit, int required) throws IOException {
+        ByteBuffer target = required > buffer.capacity() ? ByteBuffer.allocate(required) : buffer;
+        target.clear();
+        target.limit(Math.min(target.capacity(), limit - filePosition));
+        long readAt = filePosition;
+        while (target.hasRemaining()) {
+            int read = channel.read(target, readAt);
+            if (read < 0) {
+                break;
+            }
+            readAt += read;
+        }
+        target.flip();
+        return target;
+    }
+
+    private synchronized void addIndex(long seq, long timestamp, int filePosition) {
+        if (indexSize == indexSeqs.length) {
+            indexSeqs = Arrays.copyOf(indexSeqs, indexSize * 2);
+            indexTimestamps = Arrays.copyOf(indexTimestamps, indexSize * 2);
+            indexPositions = Arrays.copyOf(indexPositions, indexSize * 2);
+        }
+        indexSeqs[indexSize] = seq;
+        indexTimestamps[indexSize] = timestamp;
+        indexPositions[indexSize] = filePosition;
+        indexSize++;
+    }
+
+    /**
+     * 最后一个时间戳小于sinceMs的索引项位置，扫描从这里开始
+     */
+    private synchronized int indexPositionBefore(long sinceMs) {
+        int lo = 0;
+        int hi = indexSize;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (indexTimestamps[mid] < sinceMs) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo == 0 ? 0 : indexPositions[lo - 1];
+    }
+
+    void close() {
+        mapped = null;
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // 关闭失败不影响后续操作
+        }
+    }
+
+    /**
+     * 增加一个引用（仅在段仍属于MessageJournal时调用）
+     */
+    void retain() {
+        refs.incrementAndGet();
+    }
+
+    /**
+     * 释放一个引用，最后一个引用释放时关闭并删除段文件
+     */
+    void release() {
+        if (refs.decrementAndGet() != 0) {
+            return;
+        }
+        close();
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            // Windows上映射尚未被回收时无法删除，文件在下次启动时重新纳入保留策略
+            logger.warn("⚠️ [消息日志] 删除段 {} 失败: {}", path.getFileName(), e.getMessage());
+        }
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * 段文件的实际大小（恢复的段按文件大小，新段按创建时的容量）
+     */
+    long getSize() {
+        return capacity;
+    }
+
+    long getBaseSeq() {
+        return baseSeq;
+    }
+
+    long getLastSeq() {
+        return lastSeq;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    int getIndexSize() {
+        return indexSize;
+    }
+
+    boolean isEmpty() {
+        return lastSeq < 0;
+    }
+}
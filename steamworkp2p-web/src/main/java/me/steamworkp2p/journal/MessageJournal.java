@@ -0,0 +1,421 @@
+package me.steamworkp2p.journal;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.P2PNetworkService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * 持久化的P2P消息日志
+ * 收发的每条消息以二进制记录追加到分段的内存映射文件中（见JournalSegment），
+ * 写入线程只写映射内存，刷盘由"Message-Journal-Flusher"线程按组提交：
+ * 每个刷盘周期一次force覆盖周期内的全部记录。刷盘线程预先创建并映射下一个段（备用段），
+ * 滚动时写入线程只把备用段改名为新段；旧段的封存（刷盘、释放映射）和按大小、时间删除旧段
+ * 也都在刷盘线程上进行，不阻塞收发消息的线程。停止后不再追加记录，监听器随之移除。
+ * 启动时扫描已有段恢复写入位置并重建稀疏索引，
+ * 支持按时间和对端范围扫描，以及把收到的消息作为回放消息送入MessageListener管道
+ */
+@Component
+public class MessageJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(MessageJournal.class);
+
+    @Autowired
+    private P2PNetworkService p2pNetworkService;
+
+    @Value("${p2p.journal.enabled:false}")
+    private boolean enabled;
+
+    @Value("${p2p.journal.dir:journal}")
+    private String directory;
+
+    // 单个段文件的大小（字节）
+    @Value("${p2p.journal.segment-bytes:67108864}")
+    private int segmentBytes;
+
+    // 组提交的刷盘周期
+    @Value("${p2p.journal.flush-interval-ms:10}")
+    private long flushIntervalMs;
+
+    // 保留策略：全部段的总大小上限和最长保留时间
+    @Value("${p2p.journal.retention-bytes:1073741824}")
+    private long retentionBytes;
+
+    @Value("${p2p.journal.retention-hours:168}")
+    private long retentionHours;
+
+    private Path dir;
+    private final List<JournalSegment> segments = new ArrayList<>();
+    private JournalSegment active;
+    // 刷盘线程预先创建的下一个段，滚动时启用；文件系统不支持改名已映射的文件时停用
+    private JournalSegment spare;
+    private boolean spareSupported = true;
+    // 已滚动、等待刷盘线程封存的段
+    private final List<JournalSegment> unsealed = new ArrayList<>();
+    private long nextSeq = 1;
+    private long lastTimestamp = 0;
+
+    // 已追加和已刷盘的最大序列号
+    private volatile long appendedSeq = 0;
+    private volatile long durableSeq = 0;
+
+    private volatile boolean running = false;
+    private Thread flusher;
+
+    private final P2PNetworkService.MessageListener inboundListener = (sender, message) ->
+            append(SteamID.getNativeHandle(sender), JournalEntry.INBOUND, message);
+    private final P2PNetworkService.MessageSentListener outboundListener = (target, message) ->
+            append(SteamID.getNativeHandle(target), JournalEntry.OUTBOUND, message);
+
+    public MessageJournal() {
+    }
+
+    /**
+     * 不依赖Spring容器创建已启用的日志（用于测试），保留策略不按大小删除
+     */
+    MessageJournal(P2PNetworkService p2pNetworkService, String directory, int segmentBytes) {
+        this.p2pNetworkService = p2pNetworkService;
+        this.enabled = true;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.flushIntervalMs = 10;
+        this.retentionBytes = Long.MAX_VALUE;
+        this.retentionHours = 168;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            dir = Paths.get(directory);
+            Files.createDirectories(dir);
+            recover();
+        } catch (IOException e) {
+            logger.error("💥 [消息日志] 打开日志目录 {} 失败，消息日志已禁用", directory, e);
+            enabled = false;
+            return;
+        }
+
+        running = true;
+        // 回放的消息通过onMessageReplayed送达，不会重复记录
+        p2pNetworkService.addMessageListener(inboundListener);
+        p2pNetworkService.addMessageSentListener(outboundListener);
+
+        flusher = new Thread(this::flushLoop, "Message-Journal-Flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("📒 [消息日志] 已启用: {}，{} 个段，下一个序列号 {}", dir.toAbsolutePath(), segments.size(), nextSeq);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        p2pNetworkService.removeMessageListener(inboundListener);
+        p2pNetworkService.removeMessageSentListener(outboundListener);
+        // 在锁内清除标志：之后获得锁的append不再写入即将关闭的段
+        synchronized (this) {
+            running = false;
+        }
+        LockSupport.unpark(flusher);
+        try {
+            flusher.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            flush();
+            segments.forEach(JournalSegment::close);
+            if (spare != null) {
+                spare.discard();
+                spare = null;
+            }
+        }
+    }
+
+    /**
+     * 扫描已有段，最后一个段继续作为活动段
+     */
+    private void recover() throws IOException {
+        // 上次运行留下的备用段不含数据
+        Files.deleteIfExists(dir.resolve(JournalSegment.SPARE_FILE));
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(dir)) {
+            files = listing.filter(p -> p.getFileName().toString().endsWith(JournalSegment.SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+        for (int i = 0; i < files.size(); i++) {
+            JournalSegment segment = JournalSegment.open(files.get(i), i == files.size() - 1);
+            segments.add(segment);
+            if (!segment.isEmpty()) {
+                nextSeq = segment.getLastSeq() + 1;
+                lastTimestamp = Math.max(lastTimestamp, segment.getLastTimestamp());
+            }
+        }
+        if (segments.isEmpty()) {
+            roll();
+        } else {
+            active = segments.get(segments.size() - 1);
+        }
+        appendedSeq = nextSeq - 1;
+        durableSeq = appendedSeq;
+    }
+
+    /**
+     * 追加一条记录
+     *
+     * @return 记录的序列号，日志未启用、已停止或写入失败时返回-1
+     */
+    public long append(long peer, byte direction, String message) {
+        if (!enabled) {
+            return -1;
+        }
+        byte[] payload = message.getBytes(StandardCharsets.UTF_8);
+        if (JournalSegment.RECORD_OVERHEAD + payload.length + 4 > segmentBytes) {
+            logger.warn("⚠️ [消息日志] 消息大小 {} 字节超过段大小，不记录", payload.length);
+            return -1;
+        }
+
+        synchronized (this) {
+            if (!running) {
+                return -1;
+            }
+            long seq = nextSeq;
+            // 时间戳保持单调，按时间扫描依赖于此
+            long timestamp = Math.max(System.currentTimeMillis(), lastTimestamp);
+            try {
+                if (!active.append(seq, timestamp, peer, direction, payload)) {
+                    roll();
+                    active.append(seq, timestamp, peer, direction, payload);
+                }
+            } catch (IOException e) {
+                logger.error("💥 [消息日志] 创建新段失败", e);
+                return -1;
+            }
+            nextSeq++;
+            lastTimestamp = timestamp;
+            appendedSeq = seq;
+            return seq;
+        }
+    }
+
+    /**
+     * 切换到新的活动段（在锁内调用），旧段交给刷盘线程封存
+     * 有备用段时只需改名，没有时（启动或备用段尚未就绪）直接创建
+     */
+    private void roll() throws IOException {
+        JournalSegment next = null;
+        if (spare != null) {
+            try {
+                next = spare.activate(nextSeq);
+            } catch (IOException e) {
+                logger.warn("⚠️ [消息日志] 启用备用段失败，之后滚动时直接创建新段: {}", e.getMessage());
+                spareSupported = false;
+                spare.discard();
+            }
+            spare = null;
+        }
+        if (next == null) {
+            next = JournalSegment.create(dir, nextSeq, segmentBytes);
+        }
+        if (active != null) {
+            unsealed.add(active);
+        }
+        active = next;
+        segments.add(active);
+        if (flusher != null) {
+            LockSupport.unpark(flusher);
+        }
+        logger.info("📒 [消息日志] 新段: {}", active.getPath().getFileName());
+    }
+
+    /**
+     * 没有备用段时创建并映射一个（在刷盘线程上、锁外调用）
+     */
+    private void prepareSpare() {
+        synchronized (this) {
+            if (spare != null || !running || !spareSupported) {
+                return;
+            }
+        }
+        JournalSegment created;
+        try {
+            created = JournalSegment.createSpare(dir, segmentBytes);
+        } catch (IOException e) {
+            logger.warn("⚠️ [消息日志] 创建备用段失败，之后滚动时直接创建新段: {}", e.getMessage());
+            synchronized (this) {
+                spareSupported = false;
+            }
+            return;
+        }
+        synchronized (this) {
+            if (running && spare == null) {
+                spare = created;
+                return;
+            }
+        }
+        created.discard();
+    }
+
+    private void flushLoop() {
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+        long nextRetentionCheck = System.nanoTime();
+        while (running) {
+            LockSupport.parkNanos(intervalNanos);
+            try {
+                if (appendedSeq > durableSeq) {
+                    flush();
+                }
+                prepareSpare();
+                if (System.nanoTime() - nextRetentionCheck >= 0) {
+                    applyRetention();
+                    nextRetentionCheck = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+                }
+            } catch (Exception e) {
+                logger.error("💥 [消息日志] 刷盘失败", e);
+            }
+        }
+    }
+
+    /**
+     * 封存已滚动的旧段，再用一次force覆盖活动段自上次刷盘以来的全部记录（在刷盘线程上调用）
+     */
+    private void flush() {
+        JournalSegment segment;
+        long target;
+        List<JournalSegment> toSeal;
+        synchronized (this) {
+            segment = active;
+            target = appendedSeq;
+            toSeal = new ArrayList<>(unsealed);
+            unsealed.clear();
+        }
+        // 旧段已不再写入，在锁外刷盘
+        toSeal.forEach(JournalSegment::seal);
+        segment.force();
+        durableSeq = target;
+    }
+
+    /**
+     * 按总大小和时间移除最旧的已封存段（在刷盘线程上调用）
+     * 总大小按各段文件的实际大小计算；段在锁内移出列表，锁外释放引用，
+     * 仍在被扫描的段由扫描结束时删除
+     */
+    private void applyRetention() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.HOURS.toMillis(retentionHours);
+        List<JournalSegment> removed = new ArrayList<>();
+        synchronized (this) {
+            long totalBytes = segments.stream().mapToLong(JournalSegment::getSize).sum();
+            while (segments.size() > 1) {
+                JournalSegment oldest = segments.get(0);
+                if (unsealed.contains(oldest)) {
+                    break;
+                }
+                boolean expired = oldest.getLastTimestamp() >= 0 && oldest.getLastTimestamp() < cutoff;
+                if (totalBytes <= retentionBytes && !expired) {
+                    break;
+                }
+                segments.remove(0);
+                totalBytes -= oldest.getSize();
+                removed.add(oldest);
+            }
+        }
+        for (JournalSegment segment : removed) {
+            segment.release();
+            logger.info("🗑️ [消息日志] 已按保留策略删除段: {}", segment.getPath().getFileName());
+        }
+    }
+
+    /**
+     * 按时间范围和对端扫描记录，按序列号升序回调
+     *
+     * @param peer 对端SteamID，0表示不限
+     * @param consumer 返回false时停止扫描
+     */
+    public void scan(long sinceMs, long untilMs, long peer, Predicate<JournalEntry> consumer) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        List<JournalSegment> snapshot;
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            snapshot = new ArrayList<>(segments);
+            snapshot.forEach(JournalSegment::retain);
+        }
+        // 扫描在锁外进行，不阻塞写入线程；持有引用期间段不会被保留策略关闭
+        try {
+            for (JournalSegment segment : snapshot) {
+                if (!segment.scan(sinceMs, untilMs, peer, consumer)) {
+                    break;
+                }
+            }
+        } finally {
+            snapshot.forEach(JournalSegment::release);
+        }
+    }
+
+    /**
+     * 把范围内收到的消息作为回放消息送入MessageListener管道（发出的消息不回放）
+     *
+     * @return 回放的消息数
+     */
+    public long replay(long sinceMs, long untilMs, long peer) throws IOException {
+        long[] count = {0};
+        scan(sinceMs, untilMs, peer, entry -> {
+            if (entry.isInbound()) {
+                p2pNetworkService.replayMessage(SteamID.createFromNativeHandle(entry.getPeer()), entry.getMessage());
+                count[0]++;
+            }
+            return true;
+        });
+        logger.info("⏪ [消息日志] 已回放 {} 条消息", count[0]);
+        return count[0];
+    }
+
+    /**
+     * 日志概况
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", enabled);
+        if (!enabled) {
+            return stats;
+        }
+        stats.put("directory", dir.toAbsolutePath().toString());
+        stats.put("segments", segments.size());
+        stats.put("segmentBytes", segmentBytes);
+        stats.put("activeSegment", active.getPath().getFileName().toString());
+        stats.put("activePosition", active.getPosition());
+        stats.put("indexEntries", segments.stream().mapToInt(JournalSegment::getIndexSize).sum());
+        stats.put("firstSeq", segments.get(0).getBaseSeq());
+        stats.put("lastSeq", appendedSeq);
+        stats.put("durableSeq", durableSeq);
+        return stats;
+    }
+}
@@ -0,0 +1,87 @@
+package me.steamworkp2p.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量操作请求
+ * 目标可以用steamIDs列出（共用message），也可以用items逐项指定SteamID和消息，两者可以同时使用：
+ * {"steamIDs":["7656...","7656..."],"message":"hi"}
+ * {"items":[{"steamID":"7656...","message":"hi"},{"steamID":"7656...","message":"hello"}]}
+ */
+public class BatchRequest {
+
+    private List<String> steamIDs = new ArrayList<>();
+    private String message;
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * 单个操作项
+     */
+    public static class Item {
+        private String steamID;
+        private String message;
+
+        public Item() {
+        }
+
+        public Item(String steamID, String message) {
+            this.steamID = steamID;
+            this.message = message;
+        }
+
+        public String getSteamID() {
+            return steamID;
+        }
+
+        public void setSteamID(String steamID) {
+            this.steamID = steamID;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+
+    /**
+     * 展开为操作项列表，steamIDs在前，items在后
+     */
+    public List<Item> toItems() {
+        List<Item> all = new ArrayList<>(steamIDs.size() + items.size());
+        for (String steamID : steamIDs) {
+            all.add(new Item(steamID, message));
+        }
+        for (Item item : items) {
+            all.add(new Item(item.getSteamID(), item.getMessage() != null ? item.getMessage() : message));
+        }
+        return all;
+    }
+
+    public List<String> getSteamIDs() {
+        return steamIDs;
+    }
+
+    public void setSteamIDs(List<String> steamIDs) {
+        this.steamIDs = steamIDs != null ? steamIDs : new ArrayList<>();
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public List<Item> getItems() {
+        return items;
+    }
+
+    public void setItems(List<Item> items) {
+        this.items = items != null ? items : new ArrayList<>();
+    }
+}
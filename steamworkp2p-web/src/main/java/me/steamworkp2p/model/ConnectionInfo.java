@@ -1,5 +1,8 @@
 package me.steamworkp2p.model;
 
+import java.util.Collections;
+import java.util.Map;
+
 /**
  * 连接信息模型类
  * 用于存储和传输连接信息
@@ -10,6 +13,11 @@ public class ConnectionInfo {
     private String status;
     private String displayName;
     private boolean connected;
+    // Steam在线状态和丰富状态，资料尚未加载时为空
+    private String personaState;
+    private Map<String, String> richPresence = Collections.emptyMap();
+    // 带版本的头像地址，头像尚未加载时为空
+    private String avatarUrl;
     
     public ConnectionInfo(String steamID, String status) {
         this.steamID = steamID;
@@ -58,6 +66,30 @@ public class ConnectionInfo {
         this.status = connected ? "已连接" : "未连接";
     }
     
+    public String getPersonaState() {
+        return personaState;
+    }
+    
+    public void setPersonaState(String personaState) {
+        this.personaState = personaState;
+    }
+    
+    public Map<String, String> getRichPresence() {
+        return richPresence;
+    }
+    
+    public void setRichPresence(Map<String, String> richPresence) {
+        this.richPresence = richPresence != null ? richPresence : Collections.emptyMap();
+    }
+    
+    public String getAvatarUrl() {
+        return avatarUrl;
+    }
+    
+    public void setAvatarUrl(String avatarUrl) {
+        this.avatarUrl = avatarUrl;
+    }
+    
     @Override
     public String toString() {
         return "ConnectionInfo{" +
@@ -0,0 +1,328 @@
+package me.steamworkp2p.service;
+
+import com.codedisaster.steamworks.SteamException;
+import com.codedisaster.steamworks.SteamFriends;
+import com.codedisaster.steamworks.SteamID;
+import com.codedisaster.steamworks.SteamUtils;
+import me.steamworkp2p.event.PersonaChangeEvent;
+import me.steamworkp2p.event.StatusUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 用户头像缓存，按原生SteamID索引
+ * 头像只向Steam请求一次：回调线程上读出RGBA数据后，在公共线程池中转换为PNG，之后一直使用转换结果；
+ * 收到头像变化通知（onPersonaStateChange、onAvatarImageLoaded）时才重新读取。
+ * 缓存按PNG字节数计算权重，总量超过上限时淘汰最久未访问的头像
+ */
+@Component
+public class AvatarCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(AvatarCache.class);
+
+    // 除PNG数据外每个条目的估计开销，避免大量空条目不计入权重
+    private static final int ENTRY_OVERHEAD = 128;
+
+    @Autowired
+    private SteamService steamService;
+
+    @Autowired
+    private SteamCommandExecutor commandExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 所有头像PNG的内存上限（字节）
+    @Value("${p2p.avatar.max-bytes:8388608}")
+    private long maxBytes;
+
+    /**
+     * 一个用户的头像，不可变
+     * version是PNG内容的摘要，同时用作强ETag和带版本的URL参数
+     */
+    public static class Avatar {
+        private final byte[] png;
+        private final int width;
+        private final int height;
+        private final String version;
+
+        Avatar(byte[] png, int width, int height, String version) {
+            this.png = png;
+            this.width = width;
+            this.height = height;
+            this.version = version;
+        }
+
+        public byte[] getPng() {
+            return png;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public String getETag() {
+            return "\"" + version + "\"";
+        }
+
+        int weight() {
+            return png.length + ENTRY_OVERHEAD;
+        }
+    }
+
+    /**
+     * 从Steam读出的原始图片，rgba为每像素4字节
+     */
+    private static final class RawImage {
+        final int width;
+        final int height;
+        final byte[] rgba;
+
+        RawImage(int width, int height, byte[] rgba) {
+            this.width = width;
+            this.height = height;
+            this.rgba = rgba;
+        }
+    }
+
+    // 正在加载、或Steam仍在下载头像的占位
+    private static final Avatar LOADING = new Avatar(new byte[0], 0, 0, "");
+    // 用户没有头像或资料尚未下载
+    private static final Avatar ABSENT = new Avatar(new byte[0], 0, 0, "");
+    // Steam返回-1表示头像下载中，完成后会收到onAvatarImageLoaded
+    private static final RawImage PENDING = new RawImage(0, 0, new byte[0]);
+
+    // 按访问顺序排列，用于淘汰
+    private final LinkedHashMap<Long, Avatar> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes = 0;
+
+    /**
+     * 获取用户头像，未缓存时返回null并开始异步加载
+     */
+    public Avatar get(SteamID steamID) {
+        long id = SteamID.getNativeHandle(steamID);
+        synchronized (cache) {
+            Avatar avatar = cache.get(id);
+            if (avatar != null) {
+                return isPlaceholder(avatar) ? null : avatar;
+            }
+            if (steamService.getFriends() == null || steamService.getUtils() == null) {
+                return null;
+            }
+            put(id, LOADING);
+        }
+        load(id);
+        return null;
+    }
+
+    /**
+     * 带版本的头像地址，头像尚未加载时返回null
+     * 头像变化后地址随之变化，因此地址对应的内容可以被永久缓存
+     */
+    public String getAvatarUrl(SteamID steamID) {
+        Avatar avatar = get(steamID);
+        return avatar != null ? "/api/avatar/" + steamID + "?v=" + avatar.getVersion() : null;
+    }
+
+    /**
+     * Steam回调通知头像变化时重新读取已缓存的用户；
+     * 没有头像的用户在资料下载完成后也重新读取一次
+     */
+    @EventListener
+    public void handlePersonaChangeEvent(PersonaChangeEvent event) {
+        if (event.getKind() == PersonaChangeEvent.Kind.RICH_PRESENCE) {
+            return;
+        }
+        synchronized (cache) {
+            Avatar current = cache.get(event.getSteamId());
+            if (current == null || (event.getKind() == PersonaChangeEvent.Kind.PERSONA && current != ABSENT)) {
+                return;
+            }
+        }
+        load(event.getSteamId());
+    }
+
+    /**
+     * 在回调线程上读取头像像素，在公共线程池中编码为PNG
+     */
+    private void load(long id) {
+        SteamID steamID = SteamID.createFromNativeHandle(id);
+        commandExecutor.submit("loadAvatar", () -> readAvatar(steamID)).thenApplyAsync(raw -> {
+            if (raw == null || raw == PENDING) {
+                return raw == null ? ABSENT : null;
+            }
+            return encode(raw);
+        }).thenAccept(avatar -> {
+            if (avatar != null) {
+                update(id, avatar);
+            }
+        }).exceptionally(e -> {
+            logger.warn("⚠️ [头像缓存] 读取用户 {} 的头像失败: {}", steamID, e.getMessage());
+            synchronized (cache) {
+                if (cache.get(id) == LOADING) {
+                    remove(id);
+                }
+            }
+            return null;
+        });
+    }
+
+    private RawImage readAvatar(SteamID steamID) {
+        SteamFriends friends = steamService.getFriends();
+        SteamUtils utils = steamService.getUtils();
+        if (friends == null || utils == null) {
+            return null;
+        }
+        int image = friends.getMediumFriendAvatar(steamID);
+        if (image == -1) {
+            logger.debug("🖼️ [头像缓存] 用户 {} 的头像正在下载", steamID);
+            return PENDING;
+        }
+        if (image == 0) {
+            // 资料尚未下载时也没有头像，请求资料后等待onPersonaStateChange
+            friends.requestUserInformation(steamID, false);
+            return null;
+        }
+        int width = utils.getImageWidth(image);
+        int height = utils.getImageHeight(image);
+        if (width <= 0 || height <= 0) {
+            return null;
+        }
+        // 本地接口只接受直接缓冲区
+        ByteBuffer buffer = ByteBuffer.allocateDirect(width * height * 4);
+        try {
+            if (!utils.getImageRGBA(image, buffer)) {
+                return null;
+            }
+        } catch (SteamException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+        byte[] rgba = new byte[width * height * 4];
+        buffer.get(0, rgba);
+        return new RawImage(width, height, rgba);
+    }
+
+    private static Avatar encode(RawImage raw) {
+        int[] argb = new int[raw.width * raw.height];
+        byte[] rgba = raw.rgba;
+        for (int i = 0, p = 0; i < argb.length; i++, p += 4) {
+            argb[i] = (rgba[p + 3] & 0xFF) << 24 | (rgba[p] & 0xFF) << 16 | (rgba[p + 1] & 0xFF) << 8 | (rgba[p + 2] & 0xFF);
+        }
+        BufferedImage image = new BufferedImage(raw.width, raw.height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, raw.width, raw.height, argb, 0, raw.width);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(raw.rgba.length / 2);
+        try {
+            ImageIO.write(image, "png", out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        byte[] png = out.toByteArray();
+        return new Avatar(png, raw.width, raw.height, digest(png));
+    }
+
+    private static String digest(byte[] data) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void update(long id, Avatar next) {
+        boolean visible;
+        synchronized (cache) {
+            Avatar previous = cache.get(id);
+            // 内容相同时保留原对象，ETag和地址保持不变
+            if (previous != null && !isPlaceholder(previous) && !isPlaceholder(next)
+                    && previous.getVersion().equals(next.getVersion())) {
+                return;
+            }
+            put(id, next);
+            // 只有头像地址出现、变化或消失时才需要推送连接列表
+            visible = !isPlaceholder(next) || (previous != null && !isPlaceholder(previous));
+        }
+        if (visible) {
+            logger.debug("🖼️ [头像缓存] 用户 {} 的头像已更新: {}x{}, {} 字节",
+                    SteamID.createFromNativeHandle(id), next.getWidth(), next.getHeight(), next.getPng().length);
+            eventPublisher.publishEvent(new StatusUpdateEvent(this, id));
+        }
+    }
+
+    private static boolean isPlaceholder(Avatar avatar) {
+        return avatar == LOADING || avatar == ABSENT;
+    }
+
+    // 调用方持有cache锁
+    private void put(long id, Avatar avatar) {
+        Avatar previous = cache.put(id, avatar);
+        if (previous != null) {
+            totalBytes -= previous.weight();
+        }
+        totalBytes += avatar.weight();
+
+        // 按权重淘汰最久未访问的头像，刚放入的条目保留
+        Iterator<Map.Entry<Long, Avatar>> it = cache.entrySet().iterator();
+        while (totalBytes > maxBytes && cache.size() > 1 && it.hasNext()) {
+            Map.Entry<Long, Avatar> eldest = it.next();
+            if (eldest.getKey() == id) {
+                continue;
+            }
+            totalBytes -= eldest.getValue().weight();
+            it.remove();
+        }
+    }
+
+    // 调用方持有cache锁
+    private void remove(long id) {
+        Avatar previous = cache.remove(id);
+        if (previous != null) {
+            totalBytes -= previous.weight();
+        }
+    }
+
+    /**
+     * 缓存的头像数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    /**
+     * 缓存占用的字节数
+     */
+    public long getTotalBytes() {
+        synchronized (cache) {
+            return totalBytes;
+        }
+    }
+}
@@ -0,0 +1,239 @@
+package me.steamworkp2p.service;
+
+import me.steamworkp2p.model.BatchRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 批量发送、连接、断开
+ * 各项通过网络层的异步接口并发执行，同时进行的项数不超过p2p.batch.concurrency：
+ * 一项完成后才启动下一项，调用线程不等待。每项完成时立即回调结果（供流式响应使用），
+ * 全部完成后返回按原顺序排列的结果和汇总。
+ * 网络层的future在Steam回调线程上完成，结果回调和启动下一项都切换到批量线程上进行
+ */
+@Service
+public class BatchOperationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchOperationService.class);
+
+    public static final String SEND = "send";
+    public static final String CONNECT = "connect";
+    public static final String DISCONNECT = "disconnect";
+
+    @Autowired
+    private SteamP2PService steamP2PService;
+
+    // 单次批量请求最多包含的项数
+    @Value("${p2p.batch.max-items:1000}")
+    private int maxItems;
+
+    // 同时进行的项数上限
+    @Value("${p2p.batch.concurrency:32}")
+    private int concurrency;
+
+    // 单项的最长执行时间
+    @Value("${p2p.batch.item-timeout-ms:10000}")
+    private long itemTimeoutMs;
+
+    // 批量线程：处理完成的项并启动下一项，不占用Steam回调线程
+    private final ExecutorService batchExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("Batch-", 0).factory());
+
+    /**
+     * 是否为支持的批量操作
+     */
+    public boolean isSupported(String operation) {
+        return SEND.equals(operation) || CONNECT.equals(operation) || DISCONNECT.equals(operation);
+    }
+
+    /**
+     * 校验批量请求并展开为操作项
+     *
+     * @throws IllegalArgumentException 操作不支持、列表为空或超过上限时
+     */
+    public List<BatchRequest.Item> prepare(String operation, BatchRequest request) {
+        if (!isSupported(operation)) {
+            throw new IllegalArgumentException("不支持的批量操作: " + operation);
+        }
+        List<BatchRequest.Item> items = request.toItems();
+        if (items.isEmpty()) {
+            throw new IllegalArgumentException("批量请求中没有目标");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("批量请求最多包含 " + maxItems + " 项，实际为 " + items.size());
+        }
+        return items;
+    }
+
+    /**
+     * 并发执行批量操作
+     *
+     * @param onResult 每项完成时调用（按完成顺序，在调用线程或批量线程上调用）
+     * @return 全部完成后的汇总，results按原顺序排列；返回的future总是正常完成
+     */
+    public CompletableFuture<Map<String, Object>> execute(String operation, List<BatchRequest.Item> items,
+                                                          Consumer<Map<String, Object>> onResult) {
+        long startTime = System.nanoTime();
+        logger.info("📦 [批量操作] 开始{}，共 {} 项，并发 {}", operation, items.size(), concurrency);
+
+        List<Map<String, Object>> results = new ArrayList<>(items.size());
+        AtomicInteger next = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(items.size());
+        CompletableFuture<Map<String, Object>> done = new CompletableFuture<>();
+
+        Consumer<Map<String, Object>> complete = result -> {
+            synchronized (results) {
+                results.add(result);
+            }
+            try {
+                onResult.accept(result);
+            } catch (Exception e) {
+                logger.warn("⚠️ [批量操作] 回调结果失败: {}", e.getMessage());
+            }
+            if (remaining.decrementAndGet() == 0) {
+                done.complete(summarize(operation, results, startTime));
+            }
+        };
+
+        // 已完成的项（如参数错误、断开）在循环中直接处理，不递归启动下一项
+        Runnable[] launch = new Runnable[1];
+        launch[0] = () -> {
+            int index;
+            while ((index = next.getAndIncrement()) < items.size()) {
+                CompletableFuture<Map<String, Object>> item = executeItem(operation, index, items.get(index));
+                if (item.isDone()) {
+                    complete.accept(item.join());
+                } else {
+                    item.thenAcceptAsync(result -> {
+                        complete.accept(result);
+                        launch[0].run();
+                    }, batchExecutor);
+                    return;
+                }
+            }
+        };
+        for (int i = 0; i < Math.min(Math.max(1, concurrency), items.size()); i++) {
+            launch[0].run();
+        }
+        return done;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        batchExecutor.shutdown();
+    }
+
+    /**
+     * 执行单项，失败和超时都体现在结果的success字段中
+     */
+    private CompletableFuture<Map<String, Object>> executeItem(String operation, int index, BatchRequest.Item item) {
+        String steamID = item.getSteamID() != null ? item.getSteamID().trim() : "";
+        if (steamID.isEmpty()) {
+            return CompletableFuture.completedFuture(result(index, steamID, false, "缺少steamID"));
+        }
+
+        CompletableFuture<Boolean> future;
+        try {
+            switch (operation) {
+                case SEND:
+                    if (item.getMessage() == null || item.getMessage().isEmpty()) {
+                        return CompletableFuture.completedFuture(result(index, steamID, false, "缺少消息内容"));
+                    }
+                    future = steamP2PService.sendMessageAsync(steamID, item.getMessage());
+                    break;
+                case CONNECT:
+                    future = steamP2PService.connectToUserAsync(steamID);
+                    break;
+                default:
+                    // 断开只提交通知和关闭会话，不等待结果
+                    steamP2PService.disconnectUser(steamID);
+                    future = CompletableFuture.completedFuture(true);
+                    break;
+            }
+        } catch (Exception e) {
+            return CompletableFuture.completedFuture(result(index, steamID, false, e.getMessage()));
+        }
+
+        return future
+                .orTimeout(itemTimeoutMs, TimeUnit.MILLISECONDS)
+                .thenApply(success -> result(index, steamID, success, success ? successMessage(operation) : failureMessage(operation)))
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        return result(index, steamID, false, "执行超时");
+                    }
+                    return result(index, steamID, false, cause.getMessage());
+                });
+    }
+
+    private Map<String, Object> summarize(String operation, List<Map<String, Object>> results, long startTime) {
+        List<Map<String, Object>> ordered;
+        synchronized (results) {
+            ordered = new ArrayList<>(results);
+        }
+        ordered.sort(Comparator.comparingInt(result -> (Integer) result.get("index")));
+        long succeeded = ordered.stream().filter(result -> Boolean.TRUE.equals(result.get("success"))).count();
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        logger.info("📦 [批量操作] {}完成: {}/{} 成功，耗时 {}ms", operation, succeeded, ordered.size(), elapsedMs);
+
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("success", succeeded == ordered.size());
+        summary.put("operation", operation);
+        summary.put("total", ordered.size());
+        summary.put("succeeded", succeeded);
+        summary.put("failed", ordered.size() - succeeded);
+        summary.put("elapsedMs", elapsedMs);
+        summary.put("results", ordered);
+        return summary;
+    }
+
+    private static Map<String, Object> result(int index, String steamID, boolean success, String message) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("index", index);
+        result.put("steamID", steamID);
+        result.put("success", success);
+        result.put("message", message);
+        return result;
+    }
+
+    private static String successMessage(String operation) {
+        switch (operation) {
+            case SEND:
+                return "消息已发送";
+            case CONNECT:
+                return "连接请求已发送";
+            default:
+                return "已断开连接";
+        }
+    }
+
+    private static String failureMessage(String operation) {
+        switch (operation) {
+            case SEND:
+                return "发送消息失败";
+            case CONNECT:
+                return "发送连接请求失败";
+            default:
+                return "断开连接失败";
+        }
+    }
+}
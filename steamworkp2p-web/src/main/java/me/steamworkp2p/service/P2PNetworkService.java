@@ -0,0 +1,244 @@
+package me.steamworkp2p.service;
+
+import com.codedisaster.steamworks.SteamID;
+import jakarta.annotation.PostConstruct;
+import me.steamworkp2p.engine.P2PEngine;
+import me.steamworkp2p.event.P2PPacketProcessEvent;
+import me.steamworkp2p.logging.SampledPacketLogger;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.TransportSessionState;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * P2P网络服务类
+ * 将core模块中的{@link P2PEngine}接入Spring：注入传输层和连接表，并由Steam回调事件驱动收包
+ */
+@Service
+public class P2PNetworkService {
+    
+    @Autowired
+    private SteamService steamService;
+    
+    @Autowired
+    private P2PTransport transport;
+    
+    private P2PEngine engine;
+    
+    // 逐包日志配置，在创建引擎时应用
+    private long summaryPackets = SampledPacketLogger.DEFAULT_SUMMARY_PACKETS;
+    private long summaryIntervalMs = SampledPacketLogger.DEFAULT_SUMMARY_INTERVAL_MS;
+    private long sampleIntervalMs = SampledPacketLogger.DEFAULT_SAMPLE_INTERVAL_MS;
+    
+    /**
+     * 连接状态监听器接口
+     */
+    public interface ConnectionStateListener extends P2PEngine.ConnectionStateListener {
+    }
+    
+    /**
+     * 消息监听器接口
+     */
+    public interface MessageListener extends P2PEngine.MessageListener {
+    }
+    
+    /**
+     * 消息发送监听器接口，在传输层确认发送后调用
+     */
+    public interface MessageSentListener extends P2PEngine.MessageSentListener {
+    }
+    
+    public P2PNetworkService() {
+    }
+    
+    /**
+     * 不经过Spring容器创建服务（用于基准测试），调用方随后调用{@link #createEngine()}
+     */
+    P2PNetworkService(SteamService steamService, P2PTransport transport) {
+        this.steamService = steamService;
+        this.transport = transport;
+    }
+    
+    /**
+     * 配置逐包日志的摘要和采样频率
+     */
+    @Autowired
+    void configurePacketLogging(
+            @Value("${p2p.logging.summary-packets:" + SampledPacketLogger.DEFAULT_SUMMARY_PACKETS + "}") long summaryPackets,
+            @Value("${p2p.logging.summary-interval-ms:" + SampledPacketLogger.DEFAULT_SUMMARY_INTERVAL_MS + "}") long summaryIntervalMs,
+            @Value("${p2p.logging.sample-interval-ms:" + SampledPacketLogger.DEFAULT_SAMPLE_INTERVAL_MS + "}") long sampleIntervalMs) {
+        this.summaryPackets = summaryPackets;
+        this.summaryIntervalMs = summaryIntervalMs;
+        this.sampleIntervalMs = sampleIntervalMs;
+    }
+    
+    /**
+     * 创建P2P引擎，与SteamService共用活跃连接表
+     */
+    @PostConstruct
+    public void createEngine() {
+        engine = new P2PEngine(transport, steamService.getPeerTable());
+        engine.configurePacketLogging(summaryPackets, summaryIntervalMs, sampleIntervalMs);
+    }
+    
+    /**
+     * 开始监听P2P连接
+     */
+    public boolean startListening() {
+        return engine.startListening();
+    }
+    
+    /**
+     * 停止监听P2P连接
+     */
+    public void stopListening() {
+        engine.stopListening();
+    }
+    
+    /**
+     * 连接到指定的Steam用户
+     */
+    public boolean connectToUser(String steamIDString) {
+        return engine.connectToUser(steamIDString);
+    }
+    
+    /**
+     * 异步连接到指定的Steam用户
+     */
+    public CompletableFuture<Boolean> connectToUserAsync(String steamIDString) {
+        return engine.connectToUserAsync(steamIDString);
+    }
+    
+    /**
+     * 断开与指定用户的连接
+     */
+    public void disconnectFromUser(String steamIDString) {
+        engine.disconnectFromUser(steamIDString);
+    }
+    
+    /**
+     * 发送消息给指定用户
+     */
+    public boolean sendMessage(String steamIDString, String message) {
+        return engine.sendMessage(steamIDString, message);
+    }
+    
+    /**
+     * 异步发送消息给指定用户
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String steamIDString, String message) {
+        return engine.sendMessageAsync(steamIDString, message);
+    }
+    
+    /**
+     * 以指定的发送方式异步发送消息
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String steamIDString, String message, P2PSendType sendType) {
+        return engine.sendMessageAsync(steamIDString, message, sendType);
+    }
+    
+    /**
+     * 监听P2P数据包处理事件
+     */
+    @EventListener
+    public void handleP2PPacketProcessEvent(P2PPacketProcessEvent event) {
+        engine.processReceivedPackets();
+    }
+    
+    /**
+     * 将一条旧消息重新送入消息监听器管道（用于消息日志回放）
+     */
+    public void replayMessage(SteamID senderID, String message) {
+        engine.replayMessage(senderID, message);
+    }
+    
+    /**
+     * 添加连接状态监听器
+     */
+    public void addConnectionStateListener(ConnectionStateListener listener) {
+        engine.addConnectionStateListener(listener);
+    }
+    
+    /**
+     * 移除连接状态监听器
+     */
+    public void removeConnectionStateListener(ConnectionStateListener listener) {
+        engine.removeConnectionStateListener(listener);
+    }
+    
+    /**
+     * 添加消息监听器
+     */
+    public void addMessageListener(MessageListener listener) {
+        engine.addMessageListener(listener);
+    }
+    
+    /**
+     * 移除消息监听器
+     */
+    public void removeMessageListener(MessageListener listener) {
+        engine.removeMessageListener(listener);
+    }
+    
+    /**
+     * 添加消息发送监听器
+     */
+    public void addMessageSentListener(MessageSentListener listener) {
+        engine.addMessageSentListener(listener);
+    }
+    
+    /**
+     * 移除消息发送监听器
+     */
+    public void removeMessageSentListener(MessageSentListener listener) {
+        engine.removeMessageSentListener(listener);
+    }
+    
+    /**
+     * 获取当前连接列表
+     */
+    public Map<SteamID, TransportSessionState> getConnections() {
+        return engine.getConnections();
+    }
+    
+    /**
+     * 获取当前连接数，不读取会话状态
+     */
+    public int getConnectionCount() {
+        return engine.getConnectionCount();
+    }
+    
+    /**
+     * 检查是否正在监听
+     */
+    public boolean isListening() {
+        return engine.isListening();
+    }
+    
+    /**
+     * 获取网络状态信息
+     */
+    public String getNetworkStatus() {
+        return engine.getNetworkStatus();
+    }
+    
+    /**
+     * 获取网络连接质量
+     */
+    public String getNetworkQuality() {
+        return engine.getNetworkQuality();
+    }
+    
+    /**
+     * 获取底层的P2P引擎
+     */
+    public P2PEngine getEngine() {
+        return engine;
+    }
+}
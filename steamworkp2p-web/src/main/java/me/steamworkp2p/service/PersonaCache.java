@@ -0,0 +1,239 @@
+package me.steamworkp2p.service;
+
+import com.codedisaster.steamworks.SteamFriends;
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.event.PersonaChangeEvent;
+import me.steamworkp2p.event.StatusUpdateEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * 用户资料缓存（名称、在线状态、丰富状态），按原生SteamID索引
+ * 读取只查缓存，不发起本地调用；未缓存的用户先返回默认名称，并在回调线程上异步加载一次。
+ * 资料只在Steam回调通知变化时重新加载（onPersonaStateChange、onFriendRichPresenceUpdate），
+ * 加载结果有变化时发布StatusUpdateEvent，连接列表随之推送新的名称
+ */
+@Component
+public class PersonaCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PersonaCache.class);
+
+    @Autowired
+    private SteamService steamService;
+
+    @Autowired
+    private SteamCommandExecutor commandExecutor;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    // 最多缓存的用户数，超过后淘汰最久未访问的
+    @Value("${p2p.persona.max-entries:4096}")
+    private int maxEntries;
+
+    /**
+     * 一个用户的资料，不可变，更新时整体替换
+     */
+    public static class Persona {
+        private final String name;
+        private final String personaState;
+        private final Map<String, String> richPresence;
+
+        Persona(String name, String personaState, Map<String, String> richPresence) {
+            this.name = name;
+            this.personaState = personaState;
+            this.richPresence = richPresence;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getPersonaState() {
+            return personaState;
+        }
+
+        public Map<String, String> getRichPresence() {
+            return richPresence;
+        }
+
+        Persona withRichPresence(Map<String, String> richPresence) {
+            return new Persona(name, personaState, richPresence);
+        }
+
+        boolean sameAs(Persona other) {
+            return other != null
+                    && Objects.equals(name, other.name)
+                    && Objects.equals(personaState, other.personaState)
+                    && Objects.equals(richPresence, other.richPresence);
+        }
+    }
+
+    // 尚未加载完成的占位
+    private static final Persona LOADING = new Persona(null, null, Collections.emptyMap());
+
+    // 按访问顺序排列，用于淘汰
+    private final Map<Long, Persona> cache = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Persona> eldest) {
+            return size() > maxEntries;
+        }
+    };
+
+    /**
+     * 获取用户资料，未缓存时返回null并开始异步加载
+     */
+    public Persona get(SteamID steamID) {
+        long id = SteamID.getNativeHandle(steamID);
+        synchronized (cache) {
+            Persona persona = cache.get(id);
+            if (persona != null) {
+                return persona == LOADING ? null : persona;
+            }
+            if (steamService.getFriends() == null) {
+                return null;
+            }
+            cache.put(id, LOADING);
+        }
+        load(id, false);
+        return null;
+    }
+
+    /**
+     * 显示名称，资料未加载或名称为空时返回默认名称
+     */
+    public String getDisplayName(SteamID steamID) {
+        return displayName(steamID, get(steamID));
+    }
+
+    /**
+     * 由已取得的资料确定显示名称
+     */
+    public static String displayName(SteamID steamID, Persona persona) {
+        if (persona == null || persona.getName() == null || persona.getName().isEmpty()) {
+            return "Steam用户 " + steamID;
+        }
+        return persona.getName();
+    }
+
+    /**
+     * Steam回调通知资料变化，只重新加载已缓存的用户
+     */
+    @EventListener
+    public void handlePersonaChangeEvent(PersonaChangeEvent event) {
+        if (event.getKind() == PersonaChangeEvent.Kind.AVATAR) {
+            return;
+        }
+        synchronized (cache) {
+            if (!cache.containsKey(event.getSteamId())) {
+                return;
+            }
+        }
+        load(event.getSteamId(), event.getKind() == PersonaChangeEvent.Kind.RICH_PRESENCE);
+    }
+
+    /**
+     * 在回调线程上读取资料
+     *
+     * @param richPresenceOnly 只重新读取丰富状态
+     */
+    private void load(long id, boolean richPresenceOnly) {
+        SteamID steamID = SteamID.createFromNativeHandle(id);
+        if (richPresenceOnly) {
+            commandExecutor.submit("loadRichPresence", () -> {
+                SteamFriends friends = steamService.getFriends();
+                return friends != null ? readRichPresence(friends, steamID) : null;
+            }).thenAccept(richPresence -> {
+                if (richPresence != null) {
+                    updateRichPresence(id, richPresence);
+                }
+            }).exceptionally(e -> {
+                logger.warn("⚠️ [资料缓存] 读取用户 {} 的丰富状态失败: {}", steamID, e.getMessage());
+                return null;
+            });
+            return;
+        }
+
+        commandExecutor.submit("loadPersona", () -> {
+            SteamFriends friends = steamService.getFriends();
+            if (friends == null) {
+                return null;
+            }
+            // 返回true表示资料尚未下载，下载完成后会收到onPersonaStateChange
+            if (friends.requestUserInformation(steamID, false)) {
+                logger.debug("👥 [资料缓存] 正在请求用户 {} 的资料", steamID);
+            }
+            friends.requestFriendRichPresence(steamID);
+            SteamFriends.PersonaState state = friends.getFriendPersonaState(steamID);
+            return new Persona(friends.getFriendPersonaName(steamID), state != null ? state.name() : null,
+                    readRichPresence(friends, steamID));
+        }).thenAccept(persona -> {
+            if (persona != null) {
+                update(id, persona);
+            }
+        }).exceptionally(e -> {
+            logger.warn("⚠️ [资料缓存] 读取用户 {} 的资料失败: {}", steamID, e.getMessage());
+            synchronized (cache) {
+                cache.remove(id, LOADING);
+            }
+            return null;
+        });
+    }
+
+    private void updateRichPresence(long id, Map<String, String> richPresence) {
+        Persona previous;
+        synchronized (cache) {
+            previous = cache.get(id);
+        }
+        // 基本资料尚未加载时，丰富状态随基本资料一起读取
+        if (previous != null && previous != LOADING) {
+            update(id, previous.withRichPresence(richPresence));
+        }
+    }
+
+    private void update(long id, Persona next) {
+        boolean changed;
+        synchronized (cache) {
+            changed = !next.sameAs(cache.get(id));
+            cache.put(id, next);
+        }
+        if (changed) {
+            eventPublisher.publishEvent(new StatusUpdateEvent(this, id));
+        }
+    }
+
+    private static Map<String, String> readRichPresence(SteamFriends friends, SteamID steamID) {
+        int count = friends.getFriendRichPresenceKeyCount(steamID);
+        if (count <= 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> values = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            String key = friends.getFriendRichPresenceKeyByIndex(steamID, i);
+            if (key != null && !key.isEmpty()) {
+                values.put(key, friends.getFriendRichPresence(steamID, key));
+            }
+        }
+        return Collections.unmodifiableMap(values);
+    }
+
+    /**
+     * 缓存的用户数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
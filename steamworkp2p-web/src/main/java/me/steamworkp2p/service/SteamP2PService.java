@@ -0,0 +1,246 @@
+package me.steamworkp2p.service;
+
+import me.steamworkp2p.engine.PeerTable;
+import me.steamworkp2p.event.ConnectionChangeEvent;
+import me.steamworkp2p.event.NewMessageEvent;
+import me.steamworkp2p.event.StatusUpdateEvent;
+import me.steamworkp2p.event.SteamReadyEvent;
+import me.steamworkp2p.model.ConnectionInfo;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import com.codedisaster.steamworks.SteamID;
+
+/**
+ * Steam P2P服务适配器
+ * 为Web控制器提供统一的接口
+ */
+@Service
+public class SteamP2PService {
+    
+    @Autowired
+    private P2PNetworkService p2pNetworkService;
+    
+    @Autowired
+    private SteamService steamService;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private PersonaCache personaCache;
+    
+    @Autowired
+    private AvatarCache avatarCache;
+    
+    /**
+     * 将收到的P2P消息和连接状态变化转为应用事件，推送给WebSocket客户端
+     * 监听器在数据包处理线程上调用，事件的WebSocket推送由广播线程异步完成
+     */
+    @PostConstruct
+    public void registerEventBridges() {
+        p2pNetworkService.addMessageListener(new P2PNetworkService.MessageListener() {
+            @Override
+            public void onMessageReceived(SteamID sender, String message) {
+                eventPublisher.publishEvent(new NewMessageEvent(SteamP2PService.this,
+                    String.valueOf(SteamID.getNativeHandle(sender)), "我", message, NewMessageEvent.Direction.INBOUND));
+            }
+            
+            // 回放的消息带有标记，推送给页面时可以区分，消息历史不重复记录
+            @Override
+            public void onMessageReplayed(SteamID sender, String message) {
+                eventPublisher.publishEvent(new NewMessageEvent(SteamP2PService.this,
+                    String.valueOf(SteamID.getNativeHandle(sender)), "我", message, NewMessageEvent.Direction.INBOUND, true));
+            }
+        });
+        
+        p2pNetworkService.addConnectionStateListener(new P2PNetworkService.ConnectionStateListener() {
+            @Override
+            public void onConnectionEstablished(SteamID steamID) {
+                eventPublisher.publishEvent(new ConnectionChangeEvent(SteamP2PService.this,
+                    String.valueOf(SteamID.getNativeHandle(steamID)), true));
+            }
+            
+            @Override
+            public void onConnectionLost(SteamID steamID) {
+                eventPublisher.publishEvent(new ConnectionChangeEvent(SteamP2PService.this,
+                    String.valueOf(SteamID.getNativeHandle(steamID)), false));
+            }
+            
+            @Override
+            public void onConnectionFailed(SteamID steamID) {
+                eventPublisher.publishEvent(new ConnectionChangeEvent(SteamP2PService.this,
+                    String.valueOf(SteamID.getNativeHandle(steamID)), false));
+            }
+        });
+    }
+    
+    /**
+     * Steam就绪后推送一次状态，页面上的Steam状态随之更新
+     */
+    @EventListener
+    public void handleSteamReadyEvent(SteamReadyEvent event) {
+        eventPublisher.publishEvent(new StatusUpdateEvent(this));
+    }
+    
+    /**
+     * 检查Steam是否正在运行
+     */
+    public boolean isSteamRunning() {
+        return steamService.isInitialized();
+    }
+    
+    /**
+     * 检查是否正在监听P2P连接
+     */
+    public boolean isListening() {
+        return p2pNetworkService.isListening();
+    }
+    
+    /**
+     * 开始监听P2P连接
+     */
+    public boolean startListening() {
+        boolean success = p2pNetworkService.startListening();
+        if (success) {
+            // 发布状态更新事件
+            eventPublisher.publishEvent(new StatusUpdateEvent(this));
+        }
+        return success;
+    }
+    
+    /**
+     * 停止监听P2P连接
+     */
+    public void stopListening() {
+        p2pNetworkService.stopListening();
+        // 发布状态更新事件
+        eventPublisher.publishEvent(new StatusUpdateEvent(this));
+    }
+    
+    /**
+     * 连接到指定Steam用户
+     */
+    public boolean connectToUser(String steamId) {
+        boolean success = p2pNetworkService.connectToUser(steamId);
+        if (success) {
+            // 发布连接变化事件
+            eventPublisher.publishEvent(new ConnectionChangeEvent(this, steamId, true));
+        }
+        return success;
+    }
+    
+    /**
+     * 断开与指定用户的连接
+     */
+    public void disconnectUser(String steamId) {
+        // 连接变化事件由连接状态监听器发布
+        p2pNetworkService.disconnectFromUser(steamId);
+    }
+    
+    /**
+     * 发送消息给指定用户
+     */
+    public boolean sendMessage(String steamId, String message) {
+        boolean success = p2pNetworkService.sendMessage(steamId, message);
+        if (success) {
+            // 发布新消息事件
+            eventPublisher.publishEvent(new NewMessageEvent(this, "我", steamId, message, NewMessageEvent.Direction.OUTBOUND));
+        }
+        return success;
+    }
+    
+    /**
+     * 异步连接到指定Steam用户，供WebSocket命令通道使用
+     */
+    public CompletableFuture<Boolean> connectToUserAsync(String steamId) {
+        return p2pNetworkService.connectToUserAsync(steamId).thenApply(success -> {
+            if (success) {
+                eventPublisher.publishEvent(new ConnectionChangeEvent(this, steamId, true));
+            }
+            return success;
+        });
+    }
+    
+    /**
+     * 异步发送消息给指定用户，成功后发布新消息事件
+     */
+    public CompletableFuture<Boolean> sendMessageAsync(String steamId, String message) {
+        return p2pNetworkService.sendMessageAsync(steamId, message).thenApply(success -> {
+            if (success) {
+                eventPublisher.publishEvent(new NewMessageEvent(this, "我", steamId, message, NewMessageEvent.Direction.OUTBOUND));
+            }
+            return success;
+        });
+    }
+    
+    /**
+     * 异步发送消息给所有活跃连接
+     *
+     * @return 发送成功的连接数
+     */
+    public CompletableFuture<Integer> broadcastMessageAsync(String message) {
+        Set<SteamID> targets = steamService.getActiveConnections();
+        List<CompletableFuture<Boolean>> sends = new ArrayList<>(targets.size());
+        for (SteamID target : targets) {
+            sends.add(sendMessageAsync(String.valueOf(SteamID.getNativeHandle(target)), message)
+                    .exceptionally(e -> false));
+        }
+        return CompletableFuture.allOf(sends.toArray(new CompletableFuture[0])).thenApply(ignored -> {
+            int delivered = 0;
+            for (CompletableFuture<Boolean> send : sends) {
+                if (send.join()) {
+                    delivered++;
+                }
+            }
+            return delivered;
+        });
+    }
+    
+    /**
+     * 获取当前活跃连接列表
+     * 名称、在线状态和头像地址来自资料缓存和头像缓存，每次调用不产生本地调用
+     */
+    public List<ConnectionInfo> getActiveConnections() {
+        // 从SteamService获取真实的活跃连接
+        List<ConnectionInfo> connections = new ArrayList<>();
+        for (SteamID steamIdObj : steamService.getActiveConnections()) {
+            connections.add(toConnectionInfo(steamIdObj));
+        }
+        return connections;
+    }
+    
+    /**
+     * 添加活跃连接变化监听器，覆盖不经过P2P引擎的变化（如Steam回调直接接受的会话、连接超时）
+     */
+    public void addPeerChangeListener(PeerTable.ChangeListener listener) {
+        steamService.getPeerTable().addChangeListener(listener);
+    }
+    
+    /**
+     * 获取单个活跃连接的信息，不是活跃连接时返回null
+     */
+    public ConnectionInfo getConnectionInfo(SteamID steamID) {
+        return steamService.hasActiveConnection(steamID) ? toConnectionInfo(steamID) : null;
+    }
+    
+    private ConnectionInfo toConnectionInfo(SteamID steamIdObj) {
+        // 创建连接信息对象，资料尚未加载时使用默认名称
+        PersonaCache.Persona persona = personaCache.get(steamIdObj);
+        ConnectionInfo connectionInfo = new ConnectionInfo(steamIdObj.toString(), PersonaCache.displayName(steamIdObj, persona), true);
+        if (persona != null) {
+            connectionInfo.setPersonaState(persona.getPersonaState());
+            connectionInfo.setRichPresence(persona.getRichPresence());
+        }
+        connectionInfo.setAvatarUrl(avatarCache.getAvatarUrl(steamIdObj));
+        return connectionInfo;
+    }
+}
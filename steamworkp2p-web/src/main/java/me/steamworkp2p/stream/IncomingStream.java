@@ -0,0 +1,144 @@
+package me.steamworkp2p.stream;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 对端发来的一个数据流
+ * 数据块由回调线程放入有界队列，下载线程取出写入HTTP响应；队列容量等于发送方的窗口，
+ * 发送方只有在收到CREDIT后才会继续发送，因此队列不会溢出，溢出即视为协议错误
+ */
+final class IncomingStream {
+
+    /**
+     * 一个数据块，buffer来自ChunkPool，写出后归还
+     */
+    static final class Chunk {
+        final byte[] buffer;
+        final int length;
+
+        Chunk(byte[] buffer, int length) {
+            this.buffer = buffer;
+            this.length = length;
+        }
+    }
+
+    // 结束和中止标记，在数据块之后入队
+    static final Chunk FINISHED = new Chunk(new byte[0], 0);
+    static final Chunk ABORTED = new Chunk(new byte[0], 0);
+
+    private final long peer;
+    private final long streamId;
+    private final String contentType;
+    private final int window;
+    private final long openedAt = System.currentTimeMillis();
+    // 数据块之外为结束或中止标记预留一个位置
+    private final BlockingQueue<Chunk> chunks;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+
+    private volatile long receivedBytes = 0;
+    private volatile long lastActivityAt = System.currentTimeMillis();
+    private volatile String abortReason;
+
+    IncomingStream(long peer, long streamId, String contentType, int window) {
+        this.peer = peer;
+        this.streamId = streamId;
+        this.contentType = contentType;
+        this.window = window;
+        this.chunks = new LinkedBlockingQueue<>(window + 1);
+    }
+
+    /**
+     * 放入数据块（回调线程）
+     *
+     * @return 队列已满（发送方未遵守窗口）时返回false
+     */
+    boolean offer(Chunk chunk) {
+        lastActivityAt = System.currentTimeMillis();
+        if (chunks.remainingCapacity() <= 1 || !chunks.offer(chunk)) {
+            return false;
+        }
+        receivedBytes += chunk.length;
+        return true;
+    }
+
+    void finish() {
+        lastActivityAt = System.currentTimeMillis();
+        chunks.offer(FINISHED);
+    }
+
+    void abort(String reason) {
+        abortReason = reason;
+        // 队列已满时下载线程会在超时轮询中看到abortReason
+        chunks.offer(ABORTED);
+    }
+
+    /**
+     * 取出下一个数据块或标记（下载线程）
+     */
+    Chunk poll(long timeoutMs) throws InterruptedException {
+        Chunk chunk = chunks.poll(timeoutMs, TimeUnit.MILLISECONDS);
+        if (chunk != null) {
+            lastActivityAt = System.currentTimeMillis();
+        }
+        return chunk;
+    }
+
+    /**
+     * 取出剩余的数据块，用于清理时归还缓冲区
+     */
+    Chunk drain() {
+        return chunks.poll();
+    }
+
+    /**
+     * 每个数据流只能被下载一次
+     */
+    boolean claim() {
+        return claimed.compareAndSet(false, true);
+    }
+
+    boolean isClaimed() {
+        return claimed.get();
+    }
+
+    long getPeer() {
+        return peer;
+    }
+
+    long getStreamId() {
+        return streamId;
+    }
+
+    String getContentType() {
+        return contentType;
+    }
+
+    int getWindow() {
+        return window;
+    }
+
+    long getLastActivityAt() {
+        return lastActivityAt;
+    }
+
+    String getAbortReason() {
+        return abortReason;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("steamId", String.valueOf(peer));
+        info.put("streamId", String.valueOf(streamId));
+        info.put("contentType", contentType);
+        info.put("receivedBytes", receivedBytes);
+        info.put("bufferedChunks", chunks.size());
+        info.put("downloading", claimed.get());
+        info.put("openedAt", openedAt);
+        return info;
+    }
+}
@@ -0,0 +1,65 @@
+package me.steamworkp2p.stream;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 发往对端的一个数据流的发送方状态
+ * credits是接收方允许继续发送的块数，初始为窗口大小，每发送一块消耗一个，收到CREDIT时补充
+ */
+final class OutgoingStream {
+
+    private final long peer;
+    private final long streamId;
+    private final Semaphore credits;
+
+    private volatile String abortReason;
+
+    OutgoingStream(long peer, long streamId, int window) {
+        this.peer = peer;
+        this.streamId = streamId;
+        this.credits = new Semaphore(window);
+    }
+
+    /**
+     * 等待发送一块的许可（上传线程）
+     *
+     * @return 超时时返回false
+     */
+    boolean awaitCredit(long timeoutMs) throws InterruptedException {
+        return credits.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 接收方发来CREDIT（回调线程）
+     */
+    void grant(int count) {
+        if (count > 0) {
+            credits.release(count);
+        }
+    }
+
+    /**
+     * 标记为中止并唤醒等待许可的上传线程
+     */
+    void abort(String reason) {
+        abortReason = reason;
+        credits.release(Integer.MAX_VALUE / 2);
+    }
+
+    boolean isAborted() {
+        return abortReason != null;
+    }
+
+    String getAbortReason() {
+        return abortReason;
+    }
+
+    long getPeer() {
+        return peer;
+    }
+
+    long getStreamId() {
+        return streamId;
+    }
+}
@@ -0,0 +1,460 @@
+package me.steamworkp2p.stream;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.event.P2PPacketProcessEvent;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.P2PTransport;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * P2P数据流服务
+ * 发送方把HTTP请求体按固定大小的块读入池化缓冲区，经可靠的数据流通道（见StreamFrames）发给对端；
+ * 接收方把数据块放入有界队列，由HTTP下载按块写出。流量控制基于窗口：
+ * 发送方最多有window块未被确认，接收方每写出半个窗口的数据块回复一次CREDIT，
+ * 没有人下载时发送方在窗口用完后等待，因此两端的内存占用都不超过 window × 块大小。
+ * 数据流帧在回调线程上处理，不经过消息监听器
+ */
+@Service
+public class P2PStreamService {
+
+    private static final Logger logger = LoggerFactory.getLogger(P2PStreamService.class);
+
+    public static final String DEFAULT_CONTENT_TYPE = "application/octet-stream";
+
+    // 下载线程等待数据块的轮询间隔
+    private static final long POLL_INTERVAL_MS = 1000;
+
+    // 接收方接受的最大窗口，防止对端要求过大的队列
+    private static final int MAX_WINDOW = 256;
+
+    @Autowired
+    private P2PTransport transport;
+
+    @Autowired
+    private P2PNetworkService p2pNetworkService;
+
+    // 数据块大小（字节），需小于传输层的最大数据包
+    @Value("${p2p.stream.chunk-size:16384}")
+    private int chunkSize;
+
+    // 发送窗口（块数）
+    @Value("${p2p.stream.window:16}")
+    private int window;
+
+    // 池中最多保留的空闲缓冲区数
+    @Value("${p2p.stream.pool-buffers:64}")
+    private int poolBuffers;
+
+    // 同时保留的接收数据流上限
+    @Value("${p2p.stream.max-incoming:16}")
+    private int maxIncoming;
+
+    // 发送方等待窗口、接收方等待数据或下载的最长时间
+    @Value("${p2p.stream.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    private ChunkPool pool;
+
+    private final Map<String, OutgoingStream> outgoing = new ConcurrentHashMap<>();
+    private final Map<String, IncomingStream> incoming = new ConcurrentHashMap<>();
+
+    // 接收缓冲区和空闲检查时间，仅在回调线程上使用
+    private ByteBuffer receiveBuffer;
+    private long nextIdleCheck = 0;
+
+    private final AtomicLong sentBytes = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        pool = new ChunkPool(StreamFrames.HEADER_SIZE + chunkSize, poolBuffers);
+        receiveBuffer = ByteBuffer.allocateDirect(StreamFrames.HEADER_SIZE + chunkSize);
+    }
+
+    /**
+     * 把输入流的内容作为一个数据流发送给对端，阻塞到发送完成
+     * 输入按块读取，任何时候最多有window块在内存中
+     *
+     * @return 发送的字节数
+     * @throws IOException 读取输入失败、连接失败、对端中止或等待窗口超时
+     */
+    public long send(String steamId, InputStream input, String contentType) throws IOException, InterruptedException {
+        if (!transport.isAvailable()) {
+            throw new IOException("P2P传输(" + transport.getName() + ")不可用");
+        }
+        long peerId;
+        try {
+            peerId = Long.parseLong(steamId);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("无效的Steam ID格式: " + steamId);
+        }
+        SteamID peer = SteamID.createFromNativeHandle(peerId);
+        if (!await(p2pNetworkService.connectToUserAsync(steamId))) {
+            throw new IOException("无法建立与用户 " + steamId + " 的连接");
+        }
+
+        long streamId = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+        String key = key(peerId, streamId);
+        OutgoingStream stream = new OutgoingStream(peerId, streamId, window);
+        outgoing.put(key, stream);
+        logger.info("📤 [数据流] 开始向 {} 发送数据流 {}", steamId, streamId);
+
+        long total = 0;
+        try {
+            if (!await(transport.sendPacket(peer, StreamFrames.open(streamId, window, chunkSize, contentType),
+                    P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL))) {
+                throw new IOException("发送数据流请求失败");
+            }
+
+            while (true) {
+                if (!stream.awaitCredit(idleTimeoutMs)) {
+                    throw new IOException("等待对端读取超时");
+                }
+                if (stream.isAborted()) {
+                    throw new IOException("对端中止了数据流: " + stream.getAbortReason());
+                }
+
+                byte[] buffer = pool.acquire();
+                int read;
+                try {
+                    read = input.readNBytes(buffer, StreamFrames.HEADER_SIZE, chunkSize);
+                } catch (IOException e) {
+                    pool.release(buffer);
+                    throw e;
+                }
+                if (read == 0) {
+                    pool.release(buffer);
+                    break;
+                }
+
+                StreamFrames.writeDataHeader(buffer, streamId);
+                // 传输层发送整个数组，最后不满一块时复制出实际大小的帧
+                byte[] frame = read == chunkSize ? buffer : Arrays.copyOf(buffer, StreamFrames.HEADER_SIZE + read);
+                if (frame != buffer) {
+                    pool.release(buffer);
+                }
+                // 传输层可能在回调线程上才读取数据，发送完成后才能归还缓冲区
+                transport.sendPacket(peer, frame, P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL)
+                        .whenComplete((sent, e) -> {
+                            if (frame == buffer) {
+                                pool.release(buffer);
+                            }
+                            if (e != null || !Boolean.TRUE.equals(sent)) {
+                                stream.abort("传输层发送失败");
+                            }
+                        });
+                total += read;
+                sentBytes.addAndGet(read);
+                if (read < chunkSize) {
+                    break;
+                }
+            }
+
+            if (stream.isAborted() || !await(transport.sendPacket(peer, StreamFrames.end(streamId, total),
+                    P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL))) {
+                throw new IOException("数据流发送失败: " + (stream.isAborted() ? stream.getAbortReason() : "发送结束标记失败"));
+            }
+            logger.info("✅ [数据流] 已向 {} 发送数据流 {}，共 {} 字节", steamId, streamId, total);
+            return total;
+
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            if (!stream.isAborted()) {
+                transport.sendPacket(peer, StreamFrames.abort(streamId, "发送方中止"), P2PSendType.Reliable,
+                        StreamFrames.STREAM_CHANNEL);
+            }
+            logger.warn("⚠️ [数据流] 向 {} 发送数据流 {} 失败（已发送 {} 字节）: {}", steamId, streamId, total, e.getMessage());
+            throw e;
+        } finally {
+            outgoing.remove(key);
+        }
+    }
+
+    /**
+     * 认领一个接收中的数据流准备下载，每个数据流只能被认领一次
+     *
+     * @return 数据流的内容类型，数据流不存在时返回null
+     * @throws IllegalStateException 数据流已被其他请求下载
+     */
+    public String claim(String steamId, String streamId) {
+        IncomingStream stream = findIncoming(steamId, streamId);
+        if (stream == null) {
+            return null;
+        }
+        if (!stream.claim()) {
+            throw new IllegalStateException("数据流正在被其他请求下载");
+        }
+        return stream.getContentType();
+    }
+
+    /**
+     * 把已认领的数据流写到输出流，写出数据块后向发送方补充窗口
+     *
+     * @return 写出的字节数
+     * @throws IOException 数据流不存在或未认领、写出失败、数据流被中止或等待数据超时
+     */
+    public long download(String steamId, String streamId, OutputStream output) throws IOException, InterruptedException {
+        IncomingStream stream = findIncoming(steamId, streamId);
+        if (stream == null || !stream.isClaimed()) {
+            throw new IOException("数据流不存在或未认领: " + streamId);
+        }
+
+        SteamID peer = SteamID.createFromNativeHandle(stream.getPeer());
+        int creditBatch = Math.max(1, stream.getWindow() / 2);
+        int consumed = 0;
+        long written = 0;
+        long idleDeadline = System.currentTimeMillis() + idleTimeoutMs;
+        try {
+            while (true) {
+                IncomingStream.Chunk chunk = stream.poll(POLL_INTERVAL_MS);
+                if (chunk == IncomingStream.FINISHED) {
+                    break;
+                }
+                if (chunk == IncomingStream.ABORTED || stream.getAbortReason() != null) {
+                    throw new IOException("数据流已中止: " + stream.getAbortReason());
+                }
+                if (chunk == null) {
+                    if (System.currentTimeMillis() > idleDeadline) {
+                        throw new IOException("等待数据超时");
+                    }
+                    continue;
+                }
+
+                try {
+                    output.write(chunk.buffer, 0, chunk.length);
+                } finally {
+                    pool.release(chunk.buffer);
+                }
+                written += chunk.length;
+                idleDeadline = System.currentTimeMillis() + idleTimeoutMs;
+
+                if (++consumed >= creditBatch) {
+                    output.flush();
+                    transport.sendPacket(peer, StreamFrames.credit(stream.getStreamId(), consumed),
+                            P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL);
+                    consumed = 0;
+                }
+            }
+            output.flush();
+            logger.info("✅ [数据流] 数据流 {} 已下载，共 {} 字节", streamId, written);
+            return written;
+
+        } catch (IOException | InterruptedException e) {
+            if (stream.getAbortReason() == null) {
+                transport.sendPacket(peer, StreamFrames.abort(stream.getStreamId(), "接收方中止"),
+                        P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL);
+            }
+            throw e;
+        } finally {
+            remove(stream);
+        }
+    }
+
+    /**
+     * 接收中、尚未下载完成的数据流，steamId为null时列出所有对端的
+     */
+    public List<Map<String, Object>> listIncoming(String steamId) {
+        List<Map<String, Object>> streams = new ArrayList<>();
+        for (IncomingStream stream : incoming.values()) {
+            if (steamId == null || steamId.equals(String.valueOf(stream.getPeer()))) {
+                streams.add(stream.describe());
+            }
+        }
+        return streams;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("outgoing", outgoing.size());
+        stats.put("incoming", incoming.size());
+        stats.put("sentBytes", sentBytes.get());
+        stats.put("receivedBytes", receivedBytes.get());
+        stats.put("chunkSize", chunkSize);
+        stats.put("window", window);
+        stats.put("pooledBuffers", pool.getPooled());
+        return stats;
+    }
+
+    /**
+     * 处理数据流通道上的数据包（回调线程）
+     */
+    @EventListener
+    public void handleP2PPacketProcessEvent(P2PPacketProcessEvent event) {
+        if (!transport.isAvailable()) {
+            return;
+        }
+        try {
+            int packetSize = transport.isPacketAvailable(StreamFrames.STREAM_CHANNEL);
+            while (packetSize > 0) {
+                if (receiveBuffer.capacity() < packetSize) {
+                    receiveBuffer = ByteBuffer.allocateDirect(packetSize);
+                }
+                SteamID sender = transport.readPacket(receiveBuffer, StreamFrames.STREAM_CHANNEL);
+                if (sender != null && receiveBuffer.remaining() >= StreamFrames.HEADER_SIZE) {
+                    handleFrame(SteamID.getNativeHandle(sender), receiveBuffer);
+                }
+                packetSize = transport.isPacketAvailable(StreamFrames.STREAM_CHANNEL);
+            }
+
+            long now = System.currentTimeMillis();
+            if (now >= nextIdleCheck) {
+                expireIdleStreams(now);
+                nextIdleCheck = now + POLL_INTERVAL_MS;
+            }
+        } catch (Exception e) {
+            logger.error("💥 处理数据流数据包时发生错误", e);
+        }
+    }
+
+    private void handleFrame(long peer, ByteBuffer frame) {
+        byte type = frame.get();
+        long streamId = frame.getLong();
+        String key = key(peer, streamId);
+
+        switch (type) {
+            case StreamFrames.OPEN: {
+                int offeredWindow = frame.getInt();
+                int offeredChunkSize = frame.getInt();
+                String contentType = StreamFrames.readText(frame);
+                if (incoming.size() >= maxIncoming) {
+                    reject(peer, streamId, "接收中的数据流过多");
+                } else if (offeredWindow < 1 || offeredWindow > MAX_WINDOW || offeredChunkSize > chunkSize) {
+                    reject(peer, streamId, "不支持的窗口或块大小");
+                } else {
+                    incoming.put(key, new IncomingStream(peer, streamId,
+                            contentType.isEmpty() ? DEFAULT_CONTENT_TYPE : contentType, offeredWindow));
+                    logger.info("📥 [数据流] 收到来自 {} 的数据流 {} ({})", peer, streamId, contentType);
+                }
+                break;
+            }
+            case StreamFrames.DATA: {
+                IncomingStream stream = incoming.get(key);
+                if (stream == null) {
+                    return;
+                }
+                int length = frame.remaining();
+                if (length > chunkSize) {
+                    stream.abort("数据块过大");
+                    reject(peer, streamId, "数据块过大");
+                    return;
+                }
+                byte[] buffer = pool.acquire();
+                frame.get(buffer, 0, length);
+                if (!stream.offer(new IncomingStream.Chunk(buffer, length))) {
+                    pool.release(buffer);
+                    stream.abort("发送方超出窗口");
+                    reject(peer, streamId, "发送方超出窗口");
+                    return;
+                }
+                receivedBytes.addAndGet(length);
+                break;
+            }
+            case StreamFrames.END: {
+                IncomingStream stream = incoming.get(key);
+                if (stream != null) {
+                    stream.finish();
+                }
+                break;
+            }
+            case StreamFrames.ABORT: {
+                String reason = StreamFrames.readText(frame);
+                IncomingStream in = incoming.get(key);
+                if (in != null) {
+                    in.abort(reason);
+                    if (!in.isClaimed()) {
+                        remove(in);
+                    }
+                }
+                OutgoingStream out = outgoing.get(key);
+                if (out != null) {
+                    out.abort(reason);
+                }
+                break;
+            }
+            case StreamFrames.CREDIT: {
+                OutgoingStream out = outgoing.get(key);
+                if (out != null) {
+                    out.grant(frame.getInt());
+                }
+                break;
+            }
+            default:
+                logger.warn("⚠️ [数据流] 来自 {} 的未知帧类型: {}", peer, type);
+        }
+    }
+
+    /**
+     * 清理长时间无人下载或没有新数据的接收数据流（回调线程）
+     */
+    private void expireIdleStreams(long now) {
+        for (IncomingStream stream : incoming.values()) {
+            if (!stream.isClaimed() && now - stream.getLastActivityAt() > idleTimeoutMs) {
+                logger.warn("⏰ [数据流] 来自 {} 的数据流 {} 长时间无人下载，已丢弃", stream.getPeer(), stream.getStreamId());
+                reject(stream.getPeer(), stream.getStreamId(), "接收方长时间未读取");
+                stream.abort("超时");
+                remove(stream);
+            }
+        }
+    }
+
+    private void reject(long peer, long streamId, String reason) {
+        transport.sendPacket(SteamID.createFromNativeHandle(peer), StreamFrames.abort(streamId, reason),
+                P2PSendType.Reliable, StreamFrames.STREAM_CHANNEL);
+    }
+
+    /**
+     * 移除接收数据流并归还未写出的缓冲区
+     */
+    private void remove(IncomingStream stream) {
+        incoming.remove(key(stream.getPeer(), stream.getStreamId()), stream);
+        IncomingStream.Chunk chunk;
+        while ((chunk = stream.drain()) != null) {
+            if (chunk != IncomingStream.FINISHED && chunk != IncomingStream.ABORTED) {
+                pool.release(chunk.buffer);
+            }
+        }
+    }
+
+    private IncomingStream findIncoming(String steamId, String streamId) {
+        try {
+            return incoming.get(key(Long.parseLong(steamId), Long.parseLong(streamId)));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean await(CompletableFuture<Boolean> future) throws IOException, InterruptedException {
+        try {
+            return Boolean.TRUE.equals(future.get(idleTimeoutMs, TimeUnit.MILLISECONDS));
+        } catch (ExecutionException | TimeoutException e) {
+            throw new IOException("传输层操作失败: " + e.getMessage(), e);
+        }
+    }
+
+    private static String key(long peer, long streamId) {
+        return peer + ":" + streamId;
+    }
+}
@@ -0,0 +1,68 @@
+package me.steamworkp2p.stream;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 数据流协议的帧格式
+ * 数据流使用独立的可靠通道，与聊天消息（通道0）互不干扰。每帧以 byte 类型 | long 流ID 开头（大端）：
+ * OPEN   int 窗口（块数） | int 块大小 | UTF-8 内容类型
+ * DATA   数据块
+ * END    long 总字节数
+ * ABORT  UTF-8 原因
+ * CREDIT int 新增的可发送块数（接收方 -> 发送方）
+ */
+final class StreamFrames {
+
+    static final int STREAM_CHANNEL = 1;
+
+    static final byte OPEN = 1;
+    static final byte DATA = 2;
+    static final byte END = 3;
+    static final byte ABORT = 4;
+    static final byte CREDIT = 5;
+
+    // 类型 + 流ID
+    static final int HEADER_SIZE = 1 + 8;
+
+    private StreamFrames() {
+    }
+
+    /**
+     * 在已预留头部空间的数组中写入DATA帧头
+     */
+    static void writeDataHeader(byte[] frame, long streamId) {
+        ByteBuffer.wrap(frame, 0, HEADER_SIZE).put(DATA).putLong(streamId);
+    }
+
+    static byte[] open(long streamId, int window, int chunkSize, String contentType) {
+        byte[] type = contentType.getBytes(StandardCharsets.UTF_8);
+        return header(OPEN, streamId, 4 + 4 + type.length).putInt(window).putInt(chunkSize).put(type).array();
+    }
+
+    static byte[] end(long streamId, long totalBytes) {
+        return header(END, streamId, 8).putLong(totalBytes).array();
+    }
+
+    static byte[] abort(long streamId, String reason) {
+        byte[] text = reason.getBytes(StandardCharsets.UTF_8);
+        return header(ABORT, streamId, text.length).put(text).array();
+    }
+
+    static byte[] credit(long streamId, int credits) {
+        return header(CREDIT, streamId, 4).putInt(credits).array();
+    }
+
+    /**
+     * 读取帧剩余部分的UTF-8文本
+     */
+    static String readText(ByteBuffer frame) {
+        byte[] text = new byte[frame.remaining()];
+        frame.get(text);
+        return new String(text, StandardCharsets.UTF_8);
+    }
+
+    private static ByteBuffer header(byte type, long streamId, int bodySize) {
+        return ByteBuffer.allocate(HEADER_SIZE + bodySize).put(type).putLong(streamId);
+    }
+}
@@ -0,0 +1,331 @@
+package me.steamworkp2p.websocket;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * WebSocket客户端会话
+ * 每个会话有自己的发送队列和发送任务：广播线程只把帧放入队列，由会话的发送任务按序写入底层会话，
+ * 一个慢速浏览器只会阻塞它自己的发送任务。队列字节数超过缓冲区上限时按溢出策略丢弃最旧的帧或断开会话，
+ * 单帧发送超过时间上限的会话在下一次入队时断开。
+ * 积压（发送队列加上合并窗口内暂存的事件）超过降级阈值时会话进入降级状态，只接收状态类事件，
+ * 积压消化后恢复并通知客户端跳过的消息数。
+ *
+ * 启用合并时，两帧之间至少间隔一个合并窗口（也是该会话的帧率上限）：
+ * 空闲时事件立即发送，窗口内到达的事件先暂存，窗口结束时打包成一个
+ * {"type":"batch","data":[...]} 帧。每个事件按会话协商的编码（JSON或CBOR）只序列化一次，
+ * 打包只拼接已序列化的内容。命令ack通过{@link #sendNow}发送，不经过合并窗口，也不占用帧率上限
+ */
+public class ClientSession {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClientSession.class);
+
+    private final WebSocketSession session;
+    private final long sendTimeLimitNanos;
+    private final int bufferSizeLimit;
+    private final ConcurrentWebSocketSessionDecorator.OverflowStrategy overflowStrategy;
+    private final int degradeThreshold;
+    private final WebSocketEncoding encoding;
+
+    // 降级状态只在广播线程上读写
+    private boolean degraded = false;
+    private long skipped = 0;
+
+    // 帧合并，以下状态只在广播线程上读写；scheduler为null时不合并
+    private final ScheduledExecutorService scheduler;
+    private final long frameIntervalNanos;
+    private final List<Object> pending = new ArrayList<>();
+    private int pendingSize = 0;
+    private boolean flushScheduled = false;
+    private long lastFrameAt;
+
+    // 发送队列：广播线程入队，发送任务在sender上按序取出，同一时刻最多一个发送任务
+    private final Executor sender;
+    private final ConcurrentLinkedDeque<WebSocketMessage<?>> outbound = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger outboundBytes = new AtomicInteger();
+    private final AtomicBoolean draining = new AtomicBoolean();
+    // 当前帧开始发送的时间，0表示没有正在发送的帧
+    private volatile long sendStartedAt = 0;
+    private volatile boolean closed = false;
+
+    // 已受理但尚未回复ack的命令数
+    private final AtomicInteger pendingCommands = new AtomicInteger();
+
+    public ClientSession(WebSocketSession session, int sendTimeLimitMs, int bufferSizeLimit,
+                         ConcurrentWebSocketSessionDecorator.OverflowStrategy overflowStrategy,
+                         int degradeThreshold) {
+        this(session, sendTimeLimitMs, bufferSizeLimit, overflowStrategy, degradeThreshold,
+                WebSocketEncoding.JSON, null, 0, Runnable::run);
+    }
+
+    /**
+     * @param encoding 握手时协商的事件编码
+     * @param scheduler 执行延迟刷新的广播线程
+     * @param frameIntervalMs 两帧之间的最小间隔（合并窗口），0表示不合并
+     * @param sender 执行会话发送任务的线程池，发送任务可能阻塞在慢速浏览器上
+     */
+    public ClientSession(WebSocketSession session, int sendTimeLimitMs, int bufferSizeLimit,
+                         ConcurrentWebSocketSessionDecorator.OverflowStrategy overflowStrategy,
+                         int degradeThreshold, WebSocketEncoding encoding,
+                         ScheduledExecutorService scheduler, long frameIntervalMs, Executor sender) {
+        this.session = session;
+        this.sendTimeLimitNanos = TimeUnit.MILLISECONDS.toNanos(sendTimeLimitMs);
+        this.bufferSizeLimit = bufferSizeLimit;
+        this.overflowStrategy = overflowStrategy;
+        this.sender = sender;
+        this.degradeThreshold = degradeThreshold;
+        this.encoding = encoding;
+        this.scheduler = frameIntervalMs > 0 ? scheduler : null;
+        this.frameIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, frameIntervalMs));
+        this.lastFrameAt = System.nanoTime() - frameIntervalNanos;
+    }
+
+    public String getId() {
+        return session.getId();
+    }
+
+    public boolean isOpen() {
+        return !closed && session.isOpen();
+    }
+
+    /**
+     * 发送一个事件
+     *
+     * @param event 待推送的事件，多个会话共享同一实例和编码结果
+     * @param essential 是否为降级状态下仍需发送的状态类事件
+     * @return 会话是否仍然可用
+     */
+    public boolean send(EventFrame event, boolean essential) {
+        if (!isOpen()) {
+            return false;
+        }
+
+        // 暂存区不会提前发出，窗口内积累的事件同样计入积压，由降级限制其增长
+        int buffered = outboundBytes.get() + pendingSize;
+        if (degraded && buffered <= degradeThreshold / 2) {
+            degraded = false;
+            logger.info("✅ [WebSocket] 会话 {} 已恢复，降级期间跳过 {} 条消息", getId(), skipped);
+            if (!enqueue(new EventFrame("feed_restored", Map.of("skipped", skipped)))) {
+                return false;
+            }
+            skipped = 0;
+        } else if (!degraded && buffered > degradeThreshold) {
+            degraded = true;
+            logger.warn("🐢 [WebSocket] 会话 {} 发送积压 {} 字节，降级为仅推送状态事件", getId(), buffered);
+        }
+
+        if (degraded && !essential) {
+            skipped++;
+            return true;
+        }
+        return enqueue(event);
+    }
+
+    /**
+     * 立即发送一个事件，不经过合并窗口，也不受降级影响（仅在广播线程上调用）
+     * 用于命令ack：客户端按ack判断命令结果，不应被帧率上限延迟；ack可能先于窗口内暂存的事件到达
+     *
+     * @return 会话是否仍然可用
+     */
+    public boolean sendNow(EventFrame event) {
+        if (!isOpen()) {
+            return false;
+        }
+        Object encoded;
+        try {
+            encoded = event.encode(encoding);
+        } catch (Exception e) {
+            logger.error("💥 [WebSocket] 序列化事件失败: {} ({})", event.getType(), encoding, e);
+            return true;
+        }
+        return deliver(encoding.frame(encoded));
+    }
+
+    /**
+     * 空闲时立即发送，否则暂存到窗口结束
+     */
+    private boolean enqueue(EventFrame event) {
+        Object encoded;
+        try {
+            encoded = event.encode(encoding);
+        } catch (Exception e) {
+            logger.error("💥 [WebSocket] 序列化事件失败: {} ({})", event.getType(), encoding, e);
+            return true;
+        }
+
+        if (scheduler == null) {
+            return deliver(encoding.frame(encoded));
+        }
+
+        long now = System.nanoTime();
+        if (!flushScheduled && now - lastFrameAt >= frameIntervalNanos) {
+            lastFrameAt = now;
+            return deliver(encoding.frame(encoded));
+        }
+
+        pending.add(encoded);
+        pendingSize += encoding.sizeOf(encoded);
+        if (!flushScheduled) {
+            flushScheduled = true;
+            scheduler.schedule(() -> {
+                flushScheduled = false;
+                flush();
+            }, lastFrameAt + frameIntervalNanos - now, TimeUnit.NANOSECONDS);
+        }
+        return true;
+    }
+
+    /**
+     * 把暂存的事件打包成一帧发出（仅在广播线程上调用）
+     */
+    private boolean flush() {
+        if (pending.isEmpty()) {
+            return true;
+        }
+        lastFrameAt = System.nanoTime();
+
+        WebSocketMessage<?> frame = pending.size() == 1
+                ? encoding.frame(pending.get(0))
+                : encoding.batch(pending, pendingSize);
+        pending.clear();
+        pendingSize = 0;
+
+        // 发送失败时会话已被关闭，处理器在连接关闭回调中移除会话
+        return isOpen() && deliver(frame);
+    }
+
+    /**
+     * 把帧放入发送队列并在需要时启动发送任务
+     *
+     * @return 超出发送限制、会话已被断开时返回false
+     */
+    private boolean deliver(WebSocketMessage<?> frame) {
+        long startedAt = sendStartedAt;
+        if (startedAt != 0 && System.nanoTime() - startedAt > sendTimeLimitNanos) {
+            logger.warn("🚫 [WebSocket] 会话 {} 单帧发送超过 {}ms，已断开",
+                    getId(), TimeUnit.NANOSECONDS.toMillis(sendTimeLimitNanos));
+            close(CloseStatus.SESSION_NOT_RELIABLE);
+            return false;
+        }
+
+        outbound.offerLast(frame);
+        if (outboundBytes.addAndGet(frame.getPayloadLength()) > bufferSizeLimit) {
+            if (overflowStrategy == ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE) {
+                logger.warn("🚫 [WebSocket] 会话 {} 发送积压超过 {} 字节，已断开", getId(), bufferSizeLimit);
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+                return false;
+            }
+            // 丢弃最旧的帧；被丢弃的增量由客户端按版本号发现并请求重新同步
+            while (outboundBytes.get() > bufferSizeLimit) {
+                WebSocketMessage<?> dropped = outbound.pollFirst();
+                if (dropped == null) {
+                    break;
+                }
+                outboundBytes.addAndGet(-dropped.getPayloadLength());
+            }
+        }
+
+        if (draining.compareAndSet(false, true)) {
+            try {
+                sender.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                close(CloseStatus.SERVICE_RESTARTED);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 发送任务：按序发出队列中的帧，直到队列为空
+     */
+    private void drain() {
+        while (true) {
+            WebSocketMessage<?> frame = outbound.pollFirst();
+            if (frame == null) {
+                draining.set(false);
+                // 入队方可能在上面置位之前看到发送任务仍在运行而没有启动新任务
+                if (outbound.isEmpty() || !draining.compareAndSet(false, true)) {
+                    return;
+                }
+                continue;
+            }
+            outboundBytes.addAndGet(-frame.getPayloadLength());
+            if (closed) {
+                continue;
+            }
+
+            sendStartedAt = System.nanoTime();
+            try {
+                session.sendMessage(frame);
+            } catch (Exception e) {
+                logger.warn("⚠️ [WebSocket] 向会话 {} 发送失败: {}", getId(), e.getMessage());
+                close(CloseStatus.SESSION_NOT_RELIABLE);
+            } finally {
+                sendStartedAt = 0;
+            }
+        }
+    }
+
+    /**
+     * 受理一条命令，待处理命令已达上限时返回false
+     */
+    public boolean tryBeginCommand(int maxPending) {
+        if (pendingCommands.incrementAndGet() > maxPending) {
+            pendingCommands.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 命令的ack已发出
+     */
+    public void endCommand() {
+        pendingCommands.decrementAndGet();
+    }
+
+    public int getPendingCommands() {
+        return pendingCommands.get();
+    }
+
+    public void close(CloseStatus status) {
+        closed = true;
+        try {
+            session.close(status);
+        } catch (Exception e) {
+            logger.debug("关闭会话 {} 时发生错误: {}", getId(), e.getMessage());
+        }
+    }
+
+    public WebSocketEncoding getEncoding() {
+        return encoding;
+    }
+
+    public boolean isDegraded() {
+        return degraded;
+    }
+
+    /**
+     * 发送队列中尚未写入底层会话的字节数
+     */
+    public int getBufferSize() {
+        return outboundBytes.get();
+    }
+}
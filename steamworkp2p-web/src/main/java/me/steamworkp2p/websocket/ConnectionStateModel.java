@@ -0,0 +1,244 @@
+package me.steamworkp2p.websocket;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.model.ConnectionInfo;
+import me.steamworkp2p.service.SteamP2PService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 带版本号的连接状态模型
+ * 客户端先收到一份快照，之后只收到增量（新增、移除、变化的连接）。
+ * 每个增量携带基准版本，客户端发现版本不连续时请求重新同步快照。
+ * 模型按事件增量更新：连接变化和资料变化只标记对应的用户，刷新时只重新读取被标记的用户，
+ * 不在每次事件或定时刷新时遍历全部连接；只有启动后的第一次刷新或无法识别用户时才完整比较一次
+ */
+@Component
+public class ConnectionStateModel {
+
+    @Autowired
+    private SteamP2PService steamP2PService;
+
+    private long version = 0;
+    private boolean listening = false;
+    private boolean steamRunning = false;
+    private final Map<String, ConnectionInfo> connections = new LinkedHashMap<>();
+
+    // 待重新读取的用户（SteamID的64位值），事件线程标记，刷新时取出
+    private final Set<Long> dirtyPeers = ConcurrentHashMap.newKeySet();
+    private volatile boolean fullResync = true;
+
+    public ConnectionStateModel() {
+    }
+
+    /**
+     * 不经过Spring容器创建模型（用于基准测试），连接状态从指定的服务读取
+     */
+    ConnectionStateModel(SteamP2PService steamP2PService) {
+        this.steamP2PService = steamP2PService;
+    }
+
+    /**
+     * 完整快照
+     */
+    public static class Snapshot {
+        private final long version;
+        private final boolean isListening;
+        private final boolean steamRunning;
+        private final List<ConnectionInfo> connections;
+
+        Snapshot(long version, boolean isListening, boolean steamRunning, List<ConnectionInfo> connections) {
+            this.version = version;
+            this.isListening = isListening;
+            this.steamRunning = steamRunning;
+            this.connections = connections;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public boolean getIsListening() {
+            return isListening;
+        }
+
+        public boolean getSteamRunning() {
+            return steamRunning;
+        }
+
+        public List<ConnectionInfo> getConnections() {
+            return connections;
+        }
+    }
+
+    /**
+     * 相对于baseVersion的增量
+     */
+    public static class Delta {
+        private final long version;
+        private final long baseVersion;
+        private final boolean isListening;
+        private final boolean steamRunning;
+        private final List<ConnectionInfo> added;
+        private final List<String> removed;
+        private final List<ConnectionInfo> changed;
+
+        Delta(long version, long baseVersion, boolean isListening, boolean steamRunning,
+              List<ConnectionInfo> added, List<String> removed, List<ConnectionInfo> changed) {
+            this.version = version;
+            this.baseVersion = baseVersion;
+            this.isListening = isListening;
+            this.steamRunning = steamRunning;
+            this.added = added;
+            this.removed = removed;
+            this.changed = changed;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public long getBaseVersion() {
+            return baseVersion;
+        }
+
+        public boolean getIsListening() {
+            return isListening;
+        }
+
+        public boolean getSteamRunning() {
+            return steamRunning;
+        }
+
+        public List<ConnectionInfo> getAdded() {
+            return added;
+        }
+
+        public List<String> getRemoved() {
+            return removed;
+        }
+
+        public List<ConnectionInfo> getChanged() {
+            return changed;
+        }
+    }
+
+    /**
+     * 标记一个用户的连接或资料发生了变化，下一次刷新时重新读取
+     */
+    public void markPeer(long steamId) {
+        dirtyPeers.add(steamId);
+    }
+
+    /**
+     * 下一次刷新时与服务层完整比较一次
+     */
+    public void markAll() {
+        fullResync = true;
+    }
+
+    /**
+     * 读取监听和Steam运行状态以及被标记的用户，并与模型比较
+     *
+     * @return 有变化时返回增量并推进版本号，否则返回null
+     */
+    public synchronized Delta refresh() {
+        boolean currentListening = steamP2PService.isListening();
+        boolean currentSteamRunning = steamP2PService.isSteamRunning();
+
+        List<ConnectionInfo> added = new ArrayList<>();
+        List<ConnectionInfo> changed = new ArrayList<>();
+        List<String> removed = new ArrayList<>();
+
+        if (fullResync) {
+            fullResync = false;
+            dirtyPeers.clear();
+            compareAll(added, changed, removed);
+        } else {
+            // 取出时逐个移除，刷新期间新标记的用户留给下一次刷新
+            Iterator<Long> dirty = dirtyPeers.iterator();
+            while (dirty.hasNext()) {
+                SteamID steamID = SteamID.createFromNativeHandle(dirty.next());
+                dirty.remove();
+                ConnectionInfo info = steamP2PService.getConnectionInfo(steamID);
+                ConnectionInfo previous = connections.get(steamID.toString());
+                if (info == null) {
+                    if (previous != null) {
+                        removed.add(steamID.toString());
+                    }
+                } else if (previous == null) {
+                    added.add(info);
+                } else if (!sameState(previous, info)) {
+                    changed.add(info);
+                }
+            }
+        }
+
+        boolean statusChanged = currentListening != listening || currentSteamRunning != steamRunning;
+        if (added.isEmpty() && changed.isEmpty() && removed.isEmpty() && !statusChanged) {
+            return null;
+        }
+
+        removed.forEach(connections::remove);
+        added.forEach(info -> connections.put(info.getSteamID(), info));
+        changed.forEach(info -> connections.put(info.getSteamID(), info));
+        listening = currentListening;
+        steamRunning = currentSteamRunning;
+
+        long baseVersion = version++;
+        return new Delta(version, baseVersion, listening, steamRunning, added, removed, changed);
+    }
+
+    /**
+     * 与服务层的全部活跃连接比较
+     */
+    private void compareAll(List<ConnectionInfo> added, List<ConnectionInfo> changed, List<String> removed) {
+        Map<String, ConnectionInfo> current = new HashMap<>();
+        for (ConnectionInfo info : steamP2PService.getActiveConnections()) {
+            current.put(info.getSteamID(), info);
+        }
+        for (ConnectionInfo info : current.values()) {
+            ConnectionInfo previous = connections.get(info.getSteamID());
+            if (previous == null) {
+                added.add(info);
+            } else if (!sameState(previous, info)) {
+                changed.add(info);
+            }
+        }
+        for (String steamId : connections.keySet()) {
+            if (!current.containsKey(steamId)) {
+                removed.add(steamId);
+            }
+        }
+    }
+
+    /**
+     * 当前版本的快照
+     */
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(version, listening, steamRunning, new ArrayList<>(connections.values()));
+    }
+
+    public synchronized long getVersion() {
+        return version;
+    }
+
+    private static boolean sameState(ConnectionInfo a, ConnectionInfo b) {
+        return a.isConnected() == b.isConnected()
+                && Objects.equals(a.getStatus(), b.getStatus())
+                && Objects.equals(a.getDisplayName(), b.getDisplayName())
+                && Objects.equals(a.getPersonaState(), b.getPersonaState())
+                && Objects.equals(a.getRichPresence(), b.getRichPresence())
+                && Objects.equals(a.getAvatarUrl(), b.getAvatarUrl());
+    }
+}
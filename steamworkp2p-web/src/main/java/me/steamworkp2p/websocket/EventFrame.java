@@ -0,0 +1,75 @@
+package me.steamworkp2p.websocket;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * 一个待推送的WebSocket事件 {"type":...,"data":...}，广播事件另带序列号 "seq"（见ReplayBuffer）
+ * 每种编码最多序列化一次，编码结果由所有使用该编码的会话共享。
+ * 非线程安全，只在广播线程上使用
+ */
+public class EventFrame {
+
+    private final String type;
+    private final long seq;
+    private final Map<String, Object> event;
+
+    private String json;
+    private byte[] cbor;
+
+    public EventFrame(String type, Object data) {
+        this.type = type;
+        this.seq = 0;
+        this.event = Map.of(
+            "type", type,
+            "data", data
+        );
+    }
+
+    public EventFrame(String type, Object data, long seq) {
+        this.type = type;
+        this.seq = seq;
+        this.event = Map.of(
+            "type", type,
+            "seq", seq,
+            "data", data
+        );
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * 广播事件的序列号，会话专属的帧（快照、ack等）为0
+     */
+    public long getSeq() {
+        return seq;
+    }
+
+    /**
+     * JSON编码的长度（字符数），编码结果缓存供JSON会话复用
+     */
+    public int jsonLength() throws IOException {
+        return ((String) encode(WebSocketEncoding.JSON)).length();
+    }
+
+    /**
+     * 按指定编码序列化，结果为String（JSON）或byte[]（CBOR）
+     */
+    public Object encode(WebSocketEncoding encoding) throws IOException {
+        switch (encoding) {
+            case CBOR:
+                if (cbor == null) {
+                    cbor = WebSocketEncoding.CBOR_WRITER.writeValueAsBytes(event);
+                }
+                return cbor;
+            case JSON:
+            default:
+                if (json == null) {
+                    json = WebSocketEncoding.JSON_WRITER.writeValueAsString(event);
+                }
+                return json;
+        }
+    }
+}
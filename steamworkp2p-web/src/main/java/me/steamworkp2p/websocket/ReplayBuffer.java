@@ -0,0 +1,143 @@
+package me.steamworkp2p.websocket;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 已推送事件的有界重放缓冲区
+ * 每个广播事件分配一个单调递增的序列号并保存最近的事件，数量不超过capacity、
+ * 按JSON编码长度估算的总字节数不超过maxBytes（超出任一上限时淘汰最旧的事件）。
+ * 断线重连的客户端带上最后收到的序列号，即可补发期间错过的事件。
+ * epoch在每次启动时随机生成，服务重启后旧的序列号不再有效。
+ * 非线程安全，只在广播线程上读写
+ */
+public class ReplayBuffer {
+
+    /**
+     * 缓冲区中的一个事件
+     */
+    public static class Entry {
+        private final EventFrame frame;
+        private final boolean essential;
+        // 按订阅路由的事件涉及的对端，为null时推送给所有会话
+        private final String[] peers;
+        // 计入字节上限的估算大小
+        private final int size;
+
+        Entry(EventFrame frame, boolean essential, String[] peers, int size) {
+            this.frame = frame;
+            this.essential = essential;
+            this.peers = peers;
+            this.size = size;
+        }
+
+        public EventFrame getFrame() {
+            return frame;
+        }
+
+        public boolean isEssential() {
+            return essential;
+        }
+
+        public boolean isRouted() {
+            return peers != null;
+        }
+
+        public String[] getPeers() {
+            return peers;
+        }
+    }
+
+    private final long epoch = ThreadLocalRandom.current().nextLong(1, Long.MAX_VALUE);
+    private final Entry[] entries;
+    private final long maxBytes;
+    private long lastSeq = 0;
+    // 缓冲区中最旧事件的序列号，缓冲区为空时为lastSeq + 1
+    private long oldestSeq = 1;
+    private long bytes = 0;
+
+    /**
+     * @param capacity 最多保存的事件数
+     * @param maxBytes 保存的事件按JSON编码长度估算的总字节上限
+     */
+    public ReplayBuffer(int capacity, long maxBytes) {
+        this.entries = new Entry[Math.max(1, capacity)];
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * 分配下一个序列号
+     */
+    public long nextSeq() {
+        return ++lastSeq;
+    }
+
+    /**
+     * 保存已分配序列号的事件，按数量和字节上限淘汰最旧的事件
+     * 估算大小时序列化一次JSON，编码结果缓存在帧中，JSON会话推送时直接复用
+     */
+    public void add(EventFrame frame, boolean essential, String[] peers) {
+        int size;
+        try {
+            size = frame.jsonLength();
+        } catch (IOException e) {
+            // 无法编码的帧也不会发给任何会话，只占位保持序列号连续
+            size = 0;
+        }
+        // 单个事件超过字节上限时缓冲区只保留它自己
+        while (oldestSeq < lastSeq && (lastSeq - oldestSeq >= entries.length || bytes + size > maxBytes)) {
+            evictOldest();
+        }
+        entries[(int) (frame.getSeq() % entries.length)] = new Entry(frame, essential, peers, size);
+        bytes += size;
+    }
+
+    private void evictOldest() {
+        int index = (int) (oldestSeq % entries.length);
+        bytes -= entries[index].size;
+        entries[index] = null;
+        oldestSeq++;
+    }
+
+    /**
+     * 缓冲区能否补齐afterSeq之后的全部事件
+     */
+    public boolean canResume(long clientEpoch, long afterSeq) {
+        return clientEpoch == epoch && afterSeq <= lastSeq && afterSeq >= oldestSeq() - 1;
+    }
+
+    /**
+     * afterSeq之后的事件，按序列号升序（调用前先用canResume检查）
+     */
+    public List<Entry> since(long afterSeq) {
+        List<Entry> result = new ArrayList<>((int) (lastSeq - afterSeq));
+        for (long seq = afterSeq + 1; seq <= lastSeq; seq++) {
+            result.add(entries[(int) (seq % entries.length)]);
+        }
+        return result;
+    }
+
+    /**
+     * 缓冲区中最旧事件的序列号
+     */
+    public long oldestSeq() {
+        return oldestSeq;
+    }
+
+    /**
+     * 缓冲区中事件的估算总字节数
+     */
+    public long getBytes() {
+        return bytes;
+    }
+
+    public long getLastSeq() {
+        return lastSeq;
+    }
+
+    public long getEpoch() {
+        return epoch;
+    }
+}
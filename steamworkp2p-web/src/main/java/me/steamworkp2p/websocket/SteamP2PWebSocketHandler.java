@@ -0,0 +1,612 @@
+package me.steamworkp2p.websocket;
+
+import com.codedisaster.steamworks.SteamID;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import me.steamworkp2p.event.ConnectionChangeEvent;
+import me.steamworkp2p.event.NewMessageEvent;
+import me.steamworkp2p.event.StatusUpdateEvent;
+import me.steamworkp2p.service.SteamP2PService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * WebSocket处理器 - 处理实时通信
+ * 事件在专用的广播线程上序列化一次，同一帧共享给所有会话，
+ * 发布事件的线程（可能是Steam回调线程）只负责入队。广播线程只把帧放入各会话的发送队列，
+ * 写入浏览器由每个会话自己的发送任务完成，见ClientSession。广播线程上排队的聊天消息有上限，
+ * 超过后丢弃新消息；连接状态刷新在队列中最多只有一个。
+ * 连接列表以版本化的快照加增量推送，见ConnectionStateModel。
+ * 客户端还可以通过同一连接发送命令（发送消息、广播、连接、断开），见WebSocketCommandDispatcher。
+ * 高频事件按会话合并成batch帧，帧率上限可由客户端通过 ?maxFps= 进一步降低，见ClientSession。
+ * new_message和connection_change只推送给订阅了对应事件类型和对端的会话，见SubscriptionIndex；
+ * 新会话默认订阅全部事件。
+ * 事件编码在握手时协商（JSON文本帧或CBOR二进制帧），见WebSocketEncoding。
+ * 广播事件带有单调递增的序列号并保存在重放缓冲区中，客户端重连时通过
+ * ?resumeFrom=<最后的序列号>&epoch=<epoch> 补收断线期间的事件，缓冲区不足时改发快照，见ReplayBuffer
+ */
+@Component
+public class SteamP2PWebSocketHandler implements WebSocketHandler, SubProtocolCapable {
+
+    private static final Logger logger = LoggerFactory.getLogger(SteamP2PWebSocketHandler.class);
+
+    @Autowired
+    private ConnectionStateModel stateModel;
+
+    @Autowired
+    private SteamP2PService steamP2PService;
+
+    @Autowired
+    private WebSocketCommandDispatcher commandDispatcher;
+
+    // 单次发送的最长时间，超过后按溢出策略处理
+    @Value("${p2p.websocket.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    // 每个会话的发送缓冲区上限（字节）
+    @Value("${p2p.websocket.buffer-size-limit:524288}")
+    private int bufferSizeLimit;
+
+    // 缓冲区溢出时的策略：drop丢弃最旧的帧，terminate断开会话
+    @Value("${p2p.websocket.overflow-strategy:drop}")
+    private String overflowStrategy;
+
+    // 积压超过此值时会话降级为仅推送状态事件
+    @Value("${p2p.websocket.degrade-threshold:131072}")
+    private int degradeThreshold;
+
+    // 定时刷新周期：只读取监听和Steam运行状态，连接和资料变化由事件增量标记
+    @Value("${p2p.websocket.state-refresh-ms:1000}")
+    private long stateRefreshMs;
+
+    // 合并窗口：两帧之间的最小间隔，窗口内的事件打包成一帧，0表示不合并
+    @Value("${p2p.websocket.coalesce-window-ms:50}")
+    private long coalesceWindowMs;
+
+    // 每个会话的最大帧率，客户端只能在此之下降低
+    @Value("${p2p.websocket.max-frames-per-second:20}")
+    private int maxFramesPerSecond;
+
+    // 每个会话已受理但未回复的命令上限，超过后新命令直接回复失败
+    @Value("${p2p.websocket.max-pending-commands:256}")
+    private int maxPendingCommands;
+
+    // 重放缓冲区保存的最近广播事件数
+    @Value("${p2p.websocket.replay-buffer-size:4096}")
+    private int replayBufferSize;
+
+    // 重放缓冲区按JSON编码长度估算的总字节上限
+    @Value("${p2p.websocket.replay-buffer-max-bytes:8388608}")
+    private long replayBufferMaxBytes;
+
+    // 广播线程上排队等待处理的聊天消息上限
+    @Value("${p2p.websocket.max-queued-broadcasts:65536}")
+    private int maxQueuedBroadcasts;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final Map<String, ClientSession> sessions = new ConcurrentHashMap<>();
+
+    // 可按订阅路由的事件类型
+    private static final Set<String> ROUTED_EVENTS = Set.of(SubscriptionIndex.ANY, "new_message", "connection_change");
+
+    // 订阅索引只在广播线程上读写
+    private final SubscriptionIndex subscriptions = new SubscriptionIndex();
+
+    // 重放缓冲区同样只在广播线程上读写
+    private ReplayBuffer replayBuffer;
+
+    // 广播线程，保证帧的顺序且不阻塞事件发布者；连接状态模型也只在此线程上刷新
+    private final ScheduledExecutorService broadcastThread = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "WebSocket-Broadcast");
+        t.setDaemon(true);
+        return t;
+    });
+    private Executor broadcastExecutor = broadcastThread;
+
+    // 会话发送任务使用虚拟线程，阻塞在慢速浏览器上不占用平台线程
+    private final ExecutorService sendExecutor =
+            Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("WebSocket-Send-", 0).factory());
+
+    // 广播线程上排队的聊天消息数和因队列已满丢弃的消息数
+    private final AtomicInteger queuedBroadcasts = new AtomicInteger();
+    private final AtomicLong droppedBroadcasts = new AtomicLong();
+
+    // 是否已有一次连接状态刷新在广播线程上排队
+    private final AtomicBoolean stateRefreshQueued = new AtomicBoolean();
+
+    public SteamP2PWebSocketHandler() {
+    }
+
+    /**
+     * 不经过Spring容器创建处理器（用于基准测试）：指定广播执行器、重放缓冲区、连接状态模型和广播积压上限
+     */
+    SteamP2PWebSocketHandler(Executor broadcastExecutor, ReplayBuffer replayBuffer,
+                             ConnectionStateModel stateModel, int maxQueuedBroadcasts) {
+        this.broadcastExecutor = broadcastExecutor;
+        this.replayBuffer = replayBuffer;
+        this.stateModel = stateModel;
+        this.maxQueuedBroadcasts = maxQueuedBroadcasts;
+    }
+
+    /**
+     * 直接加入会话表并订阅，跳过建立连接时的状态推送（用于基准测试）
+     */
+    void addSession(ClientSession client, String event, String peer) {
+        sessions.put(client.getId(), client);
+        subscriptions.subscribe(client, event, peer);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+        ClientSession client = new ClientSession(session, sendTimeLimitMs, bufferSizeLimit,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.valueOf(overflowStrategy.toUpperCase()),
+                degradeThreshold, WebSocketEncoding.negotiate(session), broadcastThread, frameIntervalMs(session),
+                sendExecutor);
+        sessions.put(session.getId(), client);
+        logger.info("🔌 WebSocket连接已建立: {} ({})", session.getId(), client.getEncoding());
+
+        long[] resume = resumeRequest(session);
+        broadcastExecutor.execute(() -> {
+            subscriptions.subscribe(client, SubscriptionIndex.ANY, SubscriptionIndex.ANY);
+            // 补发和后续广播都在广播线程上进行，两者之间不会漏掉或重复事件
+            if (resume != null && replayBuffer.canResume(resume[0], resume[1])) {
+                resumeSession(client, resume[1]);
+                publishStateChanges();
+            } else {
+                // 先把已有变化推给其他会话，再给新会话发送快照
+                publishStateChanges();
+                sendSessionInfo(client, false, 0, resume != null);
+                sendSnapshot(client);
+            }
+        });
+    }
+
+    /**
+     * 读取重连参数 ?resumeFrom=&epoch=
+     *
+     * @return {epoch, 最后收到的序列号}，未请求补发或参数无效时返回null
+     */
+    private long[] resumeRequest(WebSocketSession session) {
+        if (session.getUri() == null) {
+            return null;
+        }
+        Map<String, List<String>> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        String resumeFrom = params.getOrDefault("resumeFrom", List.of()).stream().findFirst().orElse(null);
+        String epoch = params.getOrDefault("epoch", List.of()).stream().findFirst().orElse(null);
+        if (resumeFrom == null || epoch == null) {
+            return null;
+        }
+        try {
+            return new long[]{Long.parseLong(epoch), Long.parseLong(resumeFrom)};
+        } catch (NumberFormatException e) {
+            logger.warn("⚠️ 无效的重连参数: resumeFrom={}, epoch={}", resumeFrom, epoch);
+            return null;
+        }
+    }
+
+    /**
+     * 补发afterSeq之后会话订阅的事件（仅在广播线程上调用）
+     */
+    private void resumeSession(ClientSession client, long afterSeq) {
+        List<ReplayBuffer.Entry> missed = new ArrayList<>();
+        for (ReplayBuffer.Entry entry : replayBuffer.since(afterSeq)) {
+            if (!entry.isRouted() || subscriptions.matches(client, entry.getFrame().getType(), entry.getPeers())) {
+                missed.add(entry);
+            }
+        }
+        sendSessionInfo(client, true, missed.size(), true);
+        for (ReplayBuffer.Entry entry : missed) {
+            if (!client.send(entry.getFrame(), entry.isEssential())) {
+                removeSession(client);
+                return;
+            }
+        }
+        logger.info("🔁 WebSocket会话 {} 已从序列号 {} 恢复，补发 {} 个事件", client.getId(), afterSeq, missed.size());
+    }
+
+    /**
+     * 告知会话当前的epoch和序列号，以及重连补发的结果（仅在广播线程上调用）
+     *
+     * @param resumed 是否补发了断线期间的事件；为false时随后发送快照
+     * @param requested 客户端是否请求了补发
+     */
+    private void sendSessionInfo(ClientSession client, boolean resumed, int replayed, boolean requested) {
+        Map<String, Object> info = Map.of(
+            "epoch", String.valueOf(replayBuffer.getEpoch()),
+            "seq", replayBuffer.getLastSeq(),
+            "resumed", resumed,
+            "replayed", replayed,
+            "gap", requested && !resumed
+        );
+        if (!client.send(new EventFrame("session_info", info), true)) {
+            removeSession(client);
+        }
+    }
+
+    /**
+     * 会话的帧间隔：合并窗口与帧率上限中较长者
+     */
+    private long frameIntervalMs(WebSocketSession session) {
+        int fps = maxFramesPerSecond;
+        if (session.getUri() != null) {
+            String requested = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("maxFps");
+            if (requested != null) {
+                try {
+                    fps = Math.min(fps, Math.max(1, Integer.parseInt(requested)));
+                } catch (NumberFormatException e) {
+                    logger.warn("⚠️ 无效的maxFps参数: {}", requested);
+                }
+            }
+        }
+        long rateIntervalMs = fps > 0 ? 1000L / fps : 0;
+        return Math.max(coalesceWindowMs, rateIntervalMs);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+        if (message instanceof TextMessage || message instanceof BinaryMessage) {
+            JsonNode command;
+            try {
+                if (message instanceof TextMessage) {
+                    String payload = ((TextMessage) message).getPayload();
+                    logger.debug("📨 收到WebSocket消息: {}", payload);
+                    command = objectMapper.readTree(payload);
+                } else {
+                    // CBOR客户端的命令
+                    ByteBuffer payload = ((BinaryMessage) message).getPayload();
+                    byte[] bytes = new byte[payload.remaining()];
+                    payload.get(bytes);
+                    command = cborMapper.readTree(bytes);
+                }
+            } catch (Exception e) {
+                logger.warn("⚠️ 无法解析WebSocket消息: {}", e.getMessage());
+                return;
+            }
+            ClientSession client = sessions.get(session.getId());
+            if (client == null) {
+                return;
+            }
+            String type = command.path("type").asText();
+            // 客户端发现增量版本不连续时请求重新同步
+            if ("resync".equals(type)) {
+                broadcastExecutor.execute(() -> sendSnapshot(client));
+            } else if ("subscribe".equals(type) || "unsubscribe".equals(type)) {
+                broadcastExecutor.execute(() -> updateSubscriptions(client, command, "subscribe".equals(type)));
+            } else if (commandDispatcher.isCommand(type)) {
+                handleCommand(client, command);
+            } else {
+                logger.warn("⚠️ 未知的WebSocket消息类型: {}", type);
+            }
+        }
+    }
+
+    /**
+     * 异步执行命令，完成后在广播线程上回复ack
+     * 容器线程不等待命令结果，同一会话的后续命令可以立即被受理
+     */
+    private void handleCommand(ClientSession client, JsonNode command) {
+        if (!client.tryBeginCommand(maxPendingCommands)) {
+            Map<String, Object> rejected = commandDispatcher.reject(command, "待处理的命令过多，请稍后重试");
+            broadcastExecutor.execute(() -> sendAck(client, rejected));
+            return;
+        }
+        commandDispatcher.dispatch(command).thenAccept(ack ->
+                broadcastExecutor.execute(() -> {
+                    client.endCommand();
+                    sendAck(client, ack);
+                }));
+    }
+
+    /**
+     * 订阅或取消订阅（仅在广播线程上调用）
+     * {"type":"subscribe","id":"1","events":["new_message"],"peers":["7656..."]}，
+     * events和peers省略时为通配符，订阅项为两者的笛卡尔积；取消订阅只移除完全匹配的订阅项
+     */
+    private void updateSubscriptions(ClientSession client, JsonNode command, boolean subscribe) {
+        String id = command.path("id").asText(null);
+        String type = command.path("type").asText();
+        List<String> events = readList(command.path("events"));
+        List<String> peers = readList(command.path("peers"));
+
+        for (String event : events) {
+            if (!ROUTED_EVENTS.contains(event)) {
+                sendAck(client, WebSocketCommandDispatcher.ack(id, type, false, "不支持订阅的事件类型: " + event));
+                return;
+            }
+        }
+        for (String event : events) {
+            for (String peer : peers) {
+                if (subscribe) {
+                    subscriptions.subscribe(client, event, peer);
+                } else {
+                    subscriptions.unsubscribe(client, event, peer);
+                }
+            }
+        }
+
+        Map<String, Object> ack = WebSocketCommandDispatcher.ack(id, type, true, subscribe ? "已订阅" : "已取消订阅");
+        ack.put("subscriptions", subscriptions.describe(client));
+        sendAck(client, ack);
+    }
+
+    private static List<String> readList(JsonNode node) {
+        List<String> values = new ArrayList<>();
+        if (node.isArray()) {
+            node.forEach(value -> values.add(value.asText()));
+        } else if (node.isTextual()) {
+            values.add(node.asText());
+        }
+        if (values.isEmpty()) {
+            values.add(SubscriptionIndex.ANY);
+        }
+        return values;
+    }
+
+    /**
+     * 发送命令的ack（仅在广播线程上调用），不经过会话的合并窗口
+     */
+    private void sendAck(ClientSession client, Map<String, Object> ack) {
+        try {
+            if (!client.sendNow(new EventFrame("ack", ack))) {
+                removeSession(client);
+            }
+        } catch (Exception e) {
+            logger.error("💥 发送命令ack失败", e);
+        }
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+        logger.warn("⚠️ WebSocket传输错误: {}", exception.getMessage());
+        closeSession(session);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+        logger.info("🔌 WebSocket连接已关闭: {} ({})", session.getId(), closeStatus);
+        closeSession(session);
+    }
+
+    private void closeSession(WebSocketSession session) {
+        ClientSession client = sessions.remove(session.getId());
+        if (client != null) {
+            broadcastExecutor.execute(() -> subscriptions.remove(client));
+        }
+    }
+
+    /**
+     * 移除发送失败的会话（仅在广播线程上调用）
+     */
+    private void removeSession(ClientSession client) {
+        sessions.remove(client.getId());
+        subscriptions.remove(client);
+    }
+
+    /**
+     * 握手时可协商的子协议，客户端未请求时默认使用JSON
+     */
+    @Override
+    public List<String> getSubProtocols() {
+        return List.of(WebSocketEncoding.CBOR.getSubProtocol(), WebSocketEncoding.JSON.getSubProtocol());
+    }
+
+    @Override
+    public boolean supportsPartialMessages() {
+        return false;
+    }
+
+    @PostConstruct
+    public void startStateRefresh() {
+        if (replayBufferMaxBytes <= 0) {
+            throw new IllegalStateException("p2p.websocket.replay-buffer-max-bytes必须为正数: " + replayBufferMaxBytes);
+        }
+        replayBuffer = new ReplayBuffer(replayBufferSize, replayBufferMaxBytes);
+        // 连接表的增删（包括Steam回调直接接受的会话和连接超时）只标记对应的用户
+        steamP2PService.addPeerChangeListener(steamID -> {
+            stateModel.markPeer(SteamID.getNativeHandle(steamID));
+            if (!sessions.isEmpty()) {
+                queueStateRefresh();
+            }
+        });
+        broadcastThread.scheduleWithFixedDelay(() -> {
+            if (!sessions.isEmpty()) {
+                publishStateChanges();
+            }
+        }, stateRefreshMs, stateRefreshMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        broadcastThread.shutdown();
+        sendExecutor.shutdown();
+    }
+
+    /**
+     * 监听状态更新事件
+     */
+    @EventListener
+    public void handleStatusUpdateEvent(StatusUpdateEvent event) {
+        // 没有会话时也标记，模型保持最新，新会话的快照不需要完整比较
+        if (event.getSteamId() != null) {
+            stateModel.markPeer(event.getSteamId());
+        }
+        if (sessions.isEmpty()) {
+            return;
+        }
+        queueStateRefresh();
+    }
+
+    /**
+     * 监听新消息事件
+     * 没有会话时也进入重放缓冲区，供断线的客户端重连后补收
+     */
+    @EventListener
+    public void handleNewMessageEvent(NewMessageEvent event) {
+        Map<String, Object> messageData = new LinkedHashMap<>();
+        messageData.put("from", event.getFromSteamId());
+        messageData.put("to", event.getToSteamId());
+        messageData.put("message", event.getMessage());
+        messageData.put("timestamp", System.currentTimeMillis());
+        // 消息日志回放的旧消息带有标记，页面不把它当作新消息
+        if (event.isReplayed()) {
+            messageData.put("replayed", true);
+        }
+
+        broadcastMessage("new_message", messageData, event.getFromSteamId(), event.getToSteamId());
+    }
+
+    /**
+     * 监听连接状态变化事件
+     */
+    @EventListener
+    public void handleConnectionChangeEvent(ConnectionChangeEvent event) {
+        Map<String, Object> connectionData = Map.of(
+            "steamId", event.getSteamId(),
+            "connected", event.isConnected(),
+            "timestamp", System.currentTimeMillis()
+        );
+
+        broadcastMessage("connection_change", connectionData, event.getSteamId());
+        try {
+            stateModel.markPeer(Long.parseLong(event.getSteamId()));
+        } catch (NumberFormatException e) {
+            stateModel.markAll();
+        }
+        if (!sessions.isEmpty()) {
+            queueStateRefresh();
+        }
+    }
+
+    /**
+     * 在广播线程上刷新连接状态；已有一次刷新在排队时不再重复入队
+     */
+    private void queueStateRefresh() {
+        if (stateRefreshQueued.compareAndSet(false, true)) {
+            broadcastExecutor.execute(() -> {
+                stateRefreshQueued.set(false);
+                publishStateChanges();
+            });
+        }
+    }
+
+    /**
+     * 刷新连接状态模型，有变化时向所有会话推送增量（仅在广播线程上调用）
+     */
+    private void publishStateChanges() {
+        try {
+            ConnectionStateModel.Delta delta = stateModel.refresh();
+            if (delta == null) {
+                return;
+            }
+            EventFrame frame = new EventFrame("connection_delta", delta, replayBuffer.nextSeq());
+            replayBuffer.add(frame, true, null);
+            for (ClientSession client : sessions.values()) {
+                if (!client.send(frame, true)) {
+                    removeSession(client);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("💥 推送连接状态增量失败", e);
+        }
+    }
+
+    /**
+     * 发送连接状态快照给指定会话（仅在广播线程上调用）
+     */
+    private void sendSnapshot(ClientSession client) {
+        try {
+            EventFrame frame = new EventFrame("connection_snapshot", stateModel.snapshot());
+            if (!client.send(frame, true)) {
+                removeSession(client);
+            }
+        } catch (Exception e) {
+            logger.error("💥 发送连接状态快照失败", e);
+        }
+    }
+
+    /**
+     * 把事件推送给订阅了该事件类型和相关对端的会话
+     * 在广播线程上每种编码序列化一次，使用同一编码的会话共享编码结果。
+     * 事件无论是否有订阅者都进入重放缓冲区（重连的会话可能订阅了它），进入时为估算占用序列化一次JSON
+     */
+    private void broadcastMessage(String type, Object data, String... peers) {
+        // 聊天消息在会话降级时可以跳过，状态类事件总是发送
+        boolean essential = !"new_message".equals(type);
+        if (!essential && queuedBroadcasts.incrementAndGet() > maxQueuedBroadcasts) {
+            queuedBroadcasts.decrementAndGet();
+            long dropped = droppedBroadcasts.incrementAndGet();
+            if (dropped == 1 || dropped % 10000 == 0) {
+                logger.warn("🐢 广播线程积压超过 {} 条消息，已丢弃 {} 条", maxQueuedBroadcasts, dropped);
+            }
+            return;
+        }
+        broadcastExecutor.execute(() -> {
+            if (!essential) {
+                queuedBroadcasts.decrementAndGet();
+            }
+            EventFrame frame = new EventFrame(type, data, replayBuffer.nextSeq());
+            replayBuffer.add(frame, essential, peers);
+
+            Collection<ClientSession> targets = subscriptions.route(type, peers);
+            if (targets.isEmpty()) {
+                return;
+            }
+
+            List<ClientSession> failed = null;
+            for (ClientSession client : targets) {
+                if (!client.send(frame, essential)) {
+                    if (failed == null) {
+                        failed = new ArrayList<>();
+                    }
+                    failed.add(client);
+                }
+            }
+            // 路由结果在遍历期间不能修改，失败的会话最后统一移除
+            if (failed != null) {
+                failed.forEach(this::removeSession);
+            }
+        });
+    }
+
+    /**
+     * 获取当前会话数
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * 获取因广播线程积压而丢弃的消息数
+     */
+    public long getDroppedBroadcasts() {
+        return droppedBroadcasts.get();
+    }
+}
@@ -0,0 +1,152 @@
+package me.steamworkp2p.websocket;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * WebSocket订阅路由索引
+ * 每个会话按 (事件类型, 对端SteamID) 订阅，两者都可以是通配符"*"。
+ * 索引按事件类型、再按对端分桶，路由一个事件只查找 类型/通配类型 × 对端/通配对端 四个桶，
+ * 开销与订阅者数量成正比，与会话总数无关。
+ * 非线程安全，只在广播线程上读写
+ */
+public class SubscriptionIndex {
+
+    public static final String ANY = "*";
+
+    // 事件类型 -> 对端 -> 订阅的会话
+    private final Map<String, Map<String, Set<ClientSession>>> index = new HashMap<>();
+
+    // 会话 -> 订阅项，用于取消订阅和会话关闭时清理
+    private final Map<ClientSession, Set<String>> bySession = new IdentityHashMap<>();
+
+    // 路由结果，复用以避免每个事件分配集合
+    private final Set<ClientSession> routed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * 添加订阅
+     */
+    public void subscribe(ClientSession session, String eventType, String peer) {
+        index.computeIfAbsent(eventType, k -> new HashMap<>())
+                .computeIfAbsent(peer, k -> Collections.newSetFromMap(new IdentityHashMap<>()))
+                .add(session);
+        bySession.computeIfAbsent(session, k -> new LinkedHashSet<>()).add(key(eventType, peer));
+    }
+
+    /**
+     * 取消订阅，只移除完全匹配的订阅项
+     */
+    public void unsubscribe(ClientSession session, String eventType, String peer) {
+        Set<String> keys = bySession.get(session);
+        if (keys == null || !keys.remove(key(eventType, peer))) {
+            return;
+        }
+        removeFromIndex(session, eventType, peer);
+        if (keys.isEmpty()) {
+            bySession.remove(session);
+        }
+    }
+
+    /**
+     * 移除会话的全部订阅
+     */
+    public void remove(ClientSession session) {
+        Set<String> keys = bySession.remove(session);
+        if (keys == null) {
+            return;
+        }
+        for (String key : keys) {
+            int separator = key.indexOf('|');
+            removeFromIndex(session, key.substring(0, separator), key.substring(separator + 1));
+        }
+    }
+
+    /**
+     * 查找应收到事件的会话
+     *
+     * @param eventType 事件类型
+     * @param peers 事件涉及的对端SteamID（例如消息的发送方和接收方）
+     * @return 订阅者集合，仅在下一次调用route之前有效
+     */
+    public Collection<ClientSession> route(String eventType, String... peers) {
+        routed.clear();
+        collect(index.get(eventType), peers);
+        collect(index.get(ANY), peers);
+        return routed;
+    }
+
+    /**
+     * 单个会话是否订阅了该事件，用于重连时从重放缓冲区筛选事件
+     */
+    public boolean matches(ClientSession session, String eventType, String... peers) {
+        Set<String> keys = bySession.get(session);
+        if (keys == null) {
+            return false;
+        }
+        if (keys.contains(key(eventType, ANY)) || keys.contains(key(ANY, ANY))) {
+            return true;
+        }
+        for (String peer : peers) {
+            if (keys.contains(key(eventType, peer)) || keys.contains(key(ANY, peer))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 会话当前的订阅项，格式为 {"event":..., "peer":...}
+     */
+    public List<Map<String, String>> describe(ClientSession session) {
+        List<Map<String, String>> result = new ArrayList<>();
+        for (String key : bySession.getOrDefault(session, Collections.emptySet())) {
+            int separator = key.indexOf('|');
+            result.add(Map.of("event", key.substring(0, separator), "peer", key.substring(separator + 1)));
+        }
+        return result;
+    }
+
+    private void collect(Map<String, Set<ClientSession>> byPeer, String[] peers) {
+        if (byPeer == null) {
+            return;
+        }
+        Set<ClientSession> any = byPeer.get(ANY);
+        if (any != null) {
+            routed.addAll(any);
+        }
+        for (String peer : peers) {
+            Set<ClientSession> subscribers = byPeer.get(peer);
+            if (subscribers != null) {
+                routed.addAll(subscribers);
+            }
+        }
+    }
+
+    private void removeFromIndex(ClientSession session, String eventType, String peer) {
+        Map<String, Set<ClientSession>> byPeer = index.get(eventType);
+        if (byPeer == null) {
+            return;
+        }
+        Set<ClientSession> subscribers = byPeer.get(peer);
+        if (subscribers != null) {
+            subscribers.remove(session);
+            if (subscribers.isEmpty()) {
+                byPeer.remove(peer);
+            }
+        }
+        if (byPeer.isEmpty()) {
+            index.remove(eventType);
+        }
+    }
+
+    private static String key(String eventType, String peer) {
+        return eventType + "|" + peer;
+    }
+}
@@ -0,0 +1,160 @@
+package me.steamworkp2p.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import me.steamworkp2p.service.SteamP2PService;
+import me.steamworkp2p.service.SteamService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * WebSocket命令分发器
+ * 客户端通过已建立的WebSocket发送带类型的命令，每条命令携带客户端生成的id，
+ * 服务端异步执行并回复携带相同id的ack。命令之间互不等待（流水线），
+ * ack按完成顺序返回，客户端依靠id关联请求和结果。
+ *
+ * 命令格式：
+ * {"type":"send","id":"1","steamId":"7656...","message":"hi"}
+ * {"type":"broadcast","id":"2","message":"hi all"}
+ * {"type":"connect","id":"3","steamId":"7656..."}
+ * {"type":"disconnect","id":"4","steamId":"7656..."}
+ *
+ * ack格式：
+ * {"type":"ack","data":{"id":"1","command":"send","success":true,"message":"消息已发送"}}
+ *
+ * 与HTTP接口的就绪门控一致，Steam就绪前命令不执行，直接回复失败并附带就绪状态（state）
+ */
+@Component
+public class WebSocketCommandDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketCommandDispatcher.class);
+
+    @Autowired
+    private SteamP2PService steamP2PService;
+
+    @Autowired
+    private SteamService steamService;
+
+    // 单条命令的最长执行时间，超时后回复失败并释放会话的待处理配额
+    @Value("${p2p.websocket.command-timeout-ms:10000}")
+    private long commandTimeoutMs;
+
+    /**
+     * 是否为命令通道处理的消息类型
+     */
+    public boolean isCommand(String type) {
+        switch (type) {
+            case "send":
+            case "broadcast":
+            case "connect":
+            case "disconnect":
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * 执行一条命令
+     * 不阻塞调用线程（WebSocket容器线程），返回的future总是正常完成，失败体现在ack的success字段中
+     *
+     * @return ack的data部分
+     */
+    public CompletableFuture<Map<String, Object>> dispatch(JsonNode command) {
+        String id = command.path("id").asText(null);
+        String type = command.path("type").asText();
+
+        if (!steamService.isReady()) {
+            SteamService.Readiness readiness = steamService.getReadiness();
+            Map<String, Object> ack = ack(id, type, false,
+                    readiness == SteamService.Readiness.FAILED ? "Steam API初始化失败" : "Steam尚未就绪，请稍后重试");
+            ack.put("state", readiness.name());
+            return CompletableFuture.completedFuture(ack);
+        }
+
+        CompletableFuture<Map<String, Object>> result;
+        try {
+            result = execute(type, id, command);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.completedFuture(ack(id, type, false, e.getMessage()));
+        }
+
+        return result
+                .orTimeout(commandTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof TimeoutException) {
+                        logger.warn("⏰ [WebSocket命令] {} ({}) 执行超时", type, id);
+                        return ack(id, type, false, "命令执行超时");
+                    }
+                    logger.error("💥 [WebSocket命令] {} ({}) 执行失败", type, id, cause);
+                    return ack(id, type, false, cause.getMessage());
+                });
+    }
+
+    /**
+     * 构造命令被拒绝时的ack（例如待处理命令过多）
+     */
+    public Map<String, Object> reject(JsonNode command, String reason) {
+        return ack(command.path("id").asText(null), command.path("type").asText(), false, reason);
+    }
+
+    private CompletableFuture<Map<String, Object>> execute(String type, String id, JsonNode command) {
+        switch (type) {
+            case "send": {
+                String steamId = requireText(command, "steamId");
+                String message = requireText(command, "message");
+                return steamP2PService.sendMessageAsync(steamId, message)
+                        .thenApply(success -> ack(id, type, success, success ? "消息已发送" : "发送消息失败"));
+            }
+            case "broadcast": {
+                String message = requireText(command, "message");
+                return steamP2PService.broadcastMessageAsync(message).thenApply(delivered -> {
+                    Map<String, Object> ack = ack(id, type, delivered > 0,
+                            delivered > 0 ? "消息已发送给 " + delivered + " 个连接" : "没有可发送的连接");
+                    ack.put("delivered", delivered);
+                    return ack;
+                });
+            }
+            case "connect": {
+                String steamId = requireText(command, "steamId");
+                return steamP2PService.connectToUserAsync(steamId)
+                        .thenApply(success -> ack(id, type, success, success ? "连接请求已发送" : "发送连接请求失败"));
+            }
+            case "disconnect": {
+                // 断开只向传输层提交通知和关闭会话，不等待结果
+                String steamId = requireText(command, "steamId");
+                steamP2PService.disconnectUser(steamId);
+                return CompletableFuture.completedFuture(ack(id, type, true, "已断开连接"));
+            }
+            default:
+                throw new IllegalArgumentException("未知的命令类型: " + type);
+        }
+    }
+
+    private static String requireText(JsonNode command, String field) {
+        String value = command.path(field).asText("").trim();
+        if (value.isEmpty()) {
+            throw new IllegalArgumentException("缺少参数: " + field);
+        }
+        return value;
+    }
+
+    static Map<String, Object> ack(String id, String command, boolean success, String message) {
+        Map<String, Object> ack = new LinkedHashMap<>();
+        ack.put("id", id);
+        ack.put("command", command);
+        ack.put("success", success);
+        ack.put("message", message);
+        return ack;
+    }
+}
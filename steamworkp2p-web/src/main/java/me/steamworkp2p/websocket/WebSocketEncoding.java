@@ -0,0 +1,120 @@
+package me.steamworkp2p.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/**
+ * WebSocket事件编码
+ * 客户端在握手时通过子协议（steam-p2p.cbor / steam-p2p.json）或查询参数 ?encoding=cbor 选择编码，
+ * CBOR客户端收到BinaryMessage，其他客户端继续收到JSON文本帧。两种编码的事件模型相同
+ */
+public enum WebSocketEncoding {
+
+    JSON("steam-p2p.json"),
+    CBOR("steam-p2p.cbor");
+
+    // 共享的writer，Jackson在线程内复用其编码缓冲区
+    static final ObjectWriter JSON_WRITER = new ObjectMapper().writer();
+    static final ObjectWriter CBOR_WRITER = new CBORMapper().writer();
+
+    // CBOR编码的 {"type":"batch","data": 前缀：2项map、"type"、"batch"、"data"
+    private static final byte[] CBOR_BATCH_PREFIX = {
+        (byte) 0xA2,
+        0x64, 't', 'y', 'p', 'e',
+        0x65, 'b', 'a', 't', 'c', 'h',
+        0x64, 'd', 'a', 't', 'a'
+    };
+
+    private final String subProtocol;
+
+    WebSocketEncoding(String subProtocol) {
+        this.subProtocol = subProtocol;
+    }
+
+    public String getSubProtocol() {
+        return subProtocol;
+    }
+
+    /**
+     * 握手时协商的编码，优先使用子协议，其次是查询参数
+     */
+    public static WebSocketEncoding negotiate(WebSocketSession session) {
+        if (CBOR.subProtocol.equals(session.getAcceptedProtocol())) {
+            return CBOR;
+        }
+        if (session.getUri() != null) {
+            String requested = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams().getFirst("encoding");
+            if ("cbor".equalsIgnoreCase(requested)) {
+                return CBOR;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * 编码结果的字节数（JSON按字符数估算）
+     */
+    int sizeOf(Object encoded) {
+        return encoded instanceof byte[] ? ((byte[]) encoded).length : ((String) encoded).length();
+    }
+
+    /**
+     * 单个事件的帧
+     */
+    WebSocketMessage<?> frame(Object encoded) {
+        if (this == CBOR) {
+            return new BinaryMessage((byte[]) encoded);
+        }
+        return new TextMessage((String) encoded);
+    }
+
+    /**
+     * 把多个已编码的事件打包为一个 {"type":"batch","data":[...]} 帧，只拼接不重新序列化
+     */
+    WebSocketMessage<?> batch(List<Object> events, int totalSize) {
+        if (this == CBOR) {
+            ByteBuffer buffer = ByteBuffer.allocate(CBOR_BATCH_PREFIX.length + 5 + totalSize);
+            buffer.put(CBOR_BATCH_PREFIX);
+            putCborArrayHeader(buffer, events.size());
+            for (Object event : events) {
+                buffer.put((byte[]) event);
+            }
+            buffer.flip();
+            return new BinaryMessage(buffer);
+        }
+
+        StringBuilder batch = new StringBuilder(totalSize + events.size() + 32);
+        batch.append("{\"type\":\"batch\",\"data\":[");
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) {
+                batch.append(',');
+            }
+            batch.append((String) events.get(i));
+        }
+        return new TextMessage(batch.append("]}").toString());
+    }
+
+    /**
+     * CBOR定长数组头（主类型4）
+     */
+    private static void putCborArrayHeader(ByteBuffer buffer, int length) {
+        if (length < 24) {
+            buffer.put((byte) (0x80 | length));
+        } else if (length < 0x100) {
+            buffer.put((byte) 0x98).put((byte) length);
+        } else if (length < 0x10000) {
+            buffer.put((byte) 0x99).putShort((short) length);
+        } else {
+            buffer.put((byte) 0x9A).putInt(length);
+        }
+    }
+}
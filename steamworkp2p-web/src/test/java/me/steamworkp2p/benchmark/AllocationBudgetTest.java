@@ -0,0 +1,213 @@
+package me.steamworkp2p.benchmark;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.P2PSendType;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 分配预算测试
+ * 在回环传输上逐条路径测量每条消息在当前线程上分配的堆字节数，
+ * 超出预算文件（allocation-budget.file）中的预算或缺少某条路径的预算时测试失败。
+ * 接收和分发在真实运行时都发生在Steam回调线程上，这里的分配直接转化为该线程的GC压力。
+ * 设置 -Dallocation-budget.skip=true 时跳过。
+ */
+class AllocationBudgetTest {
+
+    // 每轮发送/处理的消息数
+    private static final int BATCH_SIZE = 1000;
+
+    // 预热轮数，让JIT完成编译和逃逸分析
+    private static final int WARMUP_ROUNDS = 200;
+
+    // 测量轮数，取中位数
+    private static final int MEASURE_ROUNDS = 25;
+
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final Properties budgets = new Properties();
+
+    /**
+     * 被测路径
+     */
+    private interface AllocationPath {
+        /** 准备一轮输入，不计入测量 */
+        void prepare();
+
+        /** 执行一轮，处理BATCH_SIZE条消息 */
+        void run();
+    }
+
+    @BeforeAll
+    static void loadBudgets() throws IOException {
+        assumeFalse(Boolean.getBoolean("allocation-budget.skip"), "已设置allocation-budget.skip，跳过分配预算测试");
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported(), "当前JVM不支持线程分配统计");
+        threadMXBean.setThreadAllocatedMemoryEnabled(true);
+
+        // 预算针对热点路径本身，日志开销单独评估
+        Configurator.setLevel("me.steamworkp2p", Level.WARN);
+
+        String budgetFile = System.getProperty("allocation-budget.file", "src/tools/allocation-budget.properties");
+        try (InputStream in = Files.newInputStream(Paths.get(budgetFile))) {
+            budgets.load(in);
+        }
+    }
+
+    @Test
+    void sendPathStaysWithinBudget() {
+        assertWithinBudget("send", sendPath());
+    }
+
+    @Test
+    void receivePathStaysWithinBudget() {
+        assertWithinBudget("receive", receivePath(0));
+    }
+
+    @Test
+    void dispatchPathStaysWithinBudget() {
+        assertWithinBudget("dispatch", receivePath(4));
+    }
+
+    @Test
+    void controlPathStaysWithinBudget() {
+        assertWithinBudget("control", controlPath());
+    }
+
+    private static void assertWithinBudget(String name, AllocationPath path) {
+        double measured = measure(path);
+        String budgetValue = budgets.getProperty(name + ".bytes-per-message");
+        assertNotNull(budgetValue,
+            String.format("%s 路径缺少预算 %s.bytes-per-message（实测 %.1f 字节）", name, name, measured));
+
+        double budget = Double.parseDouble(budgetValue.trim());
+        System.out.printf("%-10s %10.1f B/msg  预算 %8.0f%n", name, measured, budget);
+        assertTrue(measured <= budget,
+            String.format("%s 路径每条消息分配 %.1f 字节，超出预算 %.0f 字节", name, measured, budget));
+    }
+
+    /**
+     * 测量一条路径的每消息分配字节数（各轮的中位数）
+     */
+    private static double measure(AllocationPath path) {
+        long threadId = Thread.currentThread().threadId();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            path.prepare();
+            path.run();
+        }
+
+        double[] rounds = new double[MEASURE_ROUNDS];
+        for (int i = 0; i < MEASURE_ROUNDS; i++) {
+            path.prepare();
+            long before = threadMXBean.getThreadAllocatedBytes(threadId);
+            path.run();
+            long after = threadMXBean.getThreadAllocatedBytes(threadId);
+            rounds[i] = (after - before) / (double) BATCH_SIZE;
+        }
+        Arrays.sort(rounds);
+        return rounds[MEASURE_ROUNDS / 2];
+    }
+
+    /**
+     * 发送路径：sendMessageAsync到已建立连接的对端
+     */
+    private static AllocationPath sendPath() {
+        LoopbackP2PTransport local = BenchmarkFixtures.newEndpoint();
+        LoopbackP2PTransport remote = BenchmarkFixtures.newEndpoint();
+        SteamService steamService = BenchmarkFixtures.newSteamService();
+        steamService.addActiveConnection(remote.getLocalId());
+        P2PNetworkService service = BenchmarkFixtures.newNetworkService(local, steamService);
+
+        String target = String.valueOf(remote.getPeerId());
+        String message = "x".repeat(64);
+        ByteBuffer drainBuffer = ByteBuffer.allocateDirect(1024);
+        return new AllocationPath() {
+            @Override
+            public void prepare() {
+                BenchmarkFixtures.drain(remote, drainBuffer);
+            }
+
+            @Override
+            public void run() {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    service.sendMessageAsync(target, message);
+                }
+            }
+        };
+    }
+
+    /**
+     * 接收路径：一次数据包处理tick读取并分发BATCH_SIZE条普通消息
+     *
+     * @param listeners 注册的消息监听器数量，0时只测量读取和解码
+     */
+    private static AllocationPath receivePath(int listeners) {
+        LoopbackP2PTransport local = BenchmarkFixtures.newEndpoint();
+        LoopbackP2PTransport remote = BenchmarkFixtures.newEndpoint();
+        P2PNetworkService service = BenchmarkFixtures.newNetworkService(local, BenchmarkFixtures.newSteamService());
+        long[] consumed = new long[1];
+        for (int i = 0; i < listeners; i++) {
+            service.addMessageListener((sender, message) -> consumed[0] += message.length());
+        }
+
+        byte[] packet = "x".repeat(64).getBytes(StandardCharsets.UTF_8);
+        return new AllocationPath() {
+            @Override
+            public void prepare() {
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    remote.sendPacket(local.getLocalId(), packet, P2PSendType.Reliable, 0);
+                }
+            }
+
+            @Override
+            public void run() {
+                service.handleP2PPacketProcessEvent(null);
+            }
+        };
+    }
+
+    /**
+     * 控制消息路径：处理ping请求并回复pong
+     */
+    private static AllocationPath controlPath() {
+        LoopbackP2PTransport local = BenchmarkFixtures.newEndpoint();
+        LoopbackP2PTransport remote = BenchmarkFixtures.newEndpoint();
+        P2PNetworkService service = BenchmarkFixtures.newNetworkService(local, BenchmarkFixtures.newSteamService());
+
+        byte[] ping = ("P2P_PING:" + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8);
+        ByteBuffer drainBuffer = ByteBuffer.allocateDirect(1024);
+        return new AllocationPath() {
+            @Override
+            public void prepare() {
+                BenchmarkFixtures.drain(remote, drainBuffer);
+                for (int i = 0; i < BATCH_SIZE; i++) {
+                    remote.sendPacket(local.getLocalId(), ping, P2PSendType.Unreliable, 0);
+                }
+            }
+
+            @Override
+            public void run() {
+                service.handleP2PPacketProcessEvent(null);
+            }
+        };
+    }
+}
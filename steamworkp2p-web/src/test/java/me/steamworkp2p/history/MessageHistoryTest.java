@@ -0,0 +1,155 @@
+package me.steamworkp2p.history;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 消息历史的按对端容量淘汰、全局内存淘汰和分页游标
+ */
+class MessageHistoryTest {
+
+    private static final String PEER_A = "76561198000000001";
+    private static final String PEER_B = "76561198000000002";
+    private static final int UNLIMITED_CAPACITY = 1000;
+    private static final long UNLIMITED_BYTES = 1L << 30;
+    // 两字节消息的估算开销
+    private static final long SHORT_MESSAGE_COST = MessageHistory.ENTRY_OVERHEAD + 2;
+
+    private final List<MessageHistory> histories = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        histories.forEach(MessageHistory::shutdown);
+    }
+
+    private MessageHistory newHistory(int perPeerCapacity, long maxBytes) {
+        MessageHistory history = new MessageHistory(perPeerCapacity, maxBytes);
+        history.validateConfig();
+        histories.add(history);
+        return history;
+    }
+
+    @Test
+    void evictsOldestBeyondPerPeerCapacity() {
+        MessageHistory history = newHistory(3, UNLIMITED_BYTES);
+        for (int i = 1; i <= 5; i++) {
+            history.record(PEER_A, MessageHistory.INBOUND, "m" + i);
+        }
+        history.record(PEER_B, MessageHistory.OUTBOUND, "b1");
+
+        assertEquals(List.of("m3", "m4", "m5"), messages(latest(history, PEER_A, 10)));
+        assertEquals(List.of("b1"), messages(latest(history, PEER_B, 10)));
+        assertEquals("out", latest(history, PEER_B, 10).getMessages().get(0).getDirection());
+        assertEquals(4L, history.getStats().get("entries"));
+        assertEquals(4 * SHORT_MESSAGE_COST, history.getStats().get("usedBytes"));
+    }
+
+    @Test
+    void evictsGloballyOldestBeyondMaxBytes() {
+        MessageHistory history = newHistory(UNLIMITED_CAPACITY, 3 * SHORT_MESSAGE_COST);
+        history.record(PEER_A, MessageHistory.INBOUND, "a1");
+        history.record(PEER_B, MessageHistory.INBOUND, "b1");
+        history.record(PEER_A, MessageHistory.INBOUND, "a2");
+        history.record(PEER_B, MessageHistory.INBOUND, "b2");
+
+        // a1是全局最旧的消息，淘汰它而不是消息较多的对端的消息
+        assertEquals(List.of("a2"), messages(latest(history, PEER_A, 10)));
+        assertEquals(List.of("b1", "b2"), messages(latest(history, PEER_B, 10)));
+        assertEquals(3 * SHORT_MESSAGE_COST, history.getStats().get("usedBytes"));
+
+        history.record(PEER_B, MessageHistory.INBOUND, "b3");
+        history.record(PEER_B, MessageHistory.INBOUND, "b4");
+
+        // 对端A的消息全部淘汰后不再出现在概况中
+        assertTrue(latest(history, PEER_A, 10).getMessages().isEmpty());
+        assertEquals(Map.of(PEER_B, 3), history.getStats().get("peers"));
+    }
+
+    @Test
+    void skipsMessageLargerThanMaxBytes() {
+        MessageHistory history = newHistory(UNLIMITED_CAPACITY, 2 * SHORT_MESSAGE_COST);
+        history.record(PEER_A, MessageHistory.INBOUND, "a1");
+        history.record(PEER_A, MessageHistory.INBOUND, "x".repeat((int) (2 * SHORT_MESSAGE_COST)));
+
+        assertEquals(List.of("a1"), messages(latest(history, PEER_A, 10)));
+        assertEquals(1L, history.getStats().get("lastSeq"));
+    }
+
+    @Test
+    void pagesBackwardWithPrevCursor() {
+        MessageHistory history = newHistory(UNLIMITED_CAPACITY, UNLIMITED_BYTES);
+        recordInterleaved(history, 7);
+
+        MessageHistory.Page page = latest(history, PEER_A, 3);
+        assertEquals(List.of("a5", "a6", "a7"), messages(page));
+        assertNull(page.getNextCursor());
+
+        page = history.query(PEER_A, -1, page.getPrevCursor(), 0, Long.MAX_VALUE, 3);
+        assertEquals(List.of("a2", "a3", "a4"), messages(page));
+
+        page = history.query(PEER_A, -1, page.getPrevCursor(), 0, Long.MAX_VALUE, 3);
+        assertEquals(List.of("a1"), messages(page));
+        assertNull(page.getPrevCursor(), "没有更早的消息");
+    }
+
+    @Test
+    void pagesForwardWithNextCursor() {
+        MessageHistory history = newHistory(UNLIMITED_CAPACITY, UNLIMITED_BYTES);
+        recordInterleaved(history, 5);
+
+        // 序列号全局递增，对端A的消息序列号不连续，游标仍然有效
+        MessageHistory.Page page = history.query(PEER_A, 0, Long.MAX_VALUE, 0, Long.MAX_VALUE, 2);
+        assertEquals(List.of("a1", "a2"), messages(page));
+        assertEquals(List.of(1L, 3L), page.getMessages().stream().map(MessageHistory.Entry::getSeq).toList());
+
+        page = history.query(PEER_A, page.getNextCursor(), Long.MAX_VALUE, 0, Long.MAX_VALUE, 2);
+        assertEquals(List.of("a3", "a4"), messages(page));
+
+        page = history.query(PEER_A, page.getNextCursor(), Long.MAX_VALUE, 0, Long.MAX_VALUE, 2);
+        assertEquals(List.of("a5"), messages(page));
+        assertNull(page.getNextCursor(), "没有更新的消息");
+    }
+
+    @Test
+    void cursorSkipsEvictedMessages() {
+        MessageHistory history = newHistory(3, UNLIMITED_BYTES);
+        for (int i = 1; i <= 3; i++) {
+            history.record(PEER_A, MessageHistory.INBOUND, "m" + i);
+        }
+        long cursor = latest(history, PEER_A, 1).getMessages().get(0).getSeq();
+        MessageHistory.Page firstPage = history.query(PEER_A, 0, Long.MAX_VALUE, 0, Long.MAX_VALUE, 1);
+
+        history.record(PEER_A, MessageHistory.INBOUND, "m4");
+        history.record(PEER_A, MessageHistory.INBOUND, "m5");
+
+        // 游标指向的消息已被淘汰时，从仍在历史中的下一条开始
+        MessageHistory.Page page = history.query(PEER_A, firstPage.getNextCursor(), Long.MAX_VALUE, 0, Long.MAX_VALUE, 10);
+        assertEquals(List.of("m3", "m4", "m5"), messages(page));
+        page = history.query(PEER_A, cursor, Long.MAX_VALUE, 0, Long.MAX_VALUE, 10);
+        assertEquals(List.of("m4", "m5"), messages(page));
+    }
+
+    // 交替记录两个对端的消息：a1, b1, a2, b2, ...
+    private static void recordInterleaved(MessageHistory history, int count) {
+        for (int i = 1; i <= count; i++) {
+            history.record(PEER_A, MessageHistory.INBOUND, "a" + i);
+            history.record(PEER_B, MessageHistory.OUTBOUND, "b" + i);
+        }
+    }
+
+    private static MessageHistory.Page latest(MessageHistory history, String steamId, int limit) {
+        return history.query(steamId, -1, Long.MAX_VALUE, 0, Long.MAX_VALUE, limit);
+    }
+
+    private static List<String> messages(MessageHistory.Page page) {
+        return page.getMessages().stream().map(MessageHistory.Entry::getMessage).toList();
+    }
+}
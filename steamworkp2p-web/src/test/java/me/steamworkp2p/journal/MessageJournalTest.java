@@ -0,0 +1,146 @@
+package me.steamworkp2p.journal;
+
+import me.steamworkp2p.service.NetworkServiceFixtures;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 消息日志的停止、段滚动、重启恢复和CRC截断
+ */
+class MessageJournalTest {
+
+    private static final long PEER = 76561198000000001L;
+    private static final int SEGMENT_BYTES = 4096;
+
+    @TempDir
+    Path dir;
+
+    private P2PNetworkService networkService;
+    private final List<MessageJournal> journals = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        networkService = NetworkServiceFixtures.newNetworkService(
+            new LoopbackNetwork().createEndpoint(1), new SteamService());
+    }
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(MessageJournal::stop);
+    }
+
+    private MessageJournal open() {
+        MessageJournal journal = new MessageJournal(networkService, dir.toString(), SEGMENT_BYTES);
+        journal.start();
+        journals.add(journal);
+        return journal;
+    }
+
+    @Test
+    void ignoresAppendsAfterStop() throws IOException {
+        MessageJournal journal = open();
+        assertEquals(1, journal.append(PEER, JournalEntry.INBOUND, "before"));
+
+        journal.stop();
+        // 监听器可能仍在其他线程上调用append，停止后不能写入已关闭的段
+        assertEquals(-1, journal.append(PEER, JournalEntry.INBOUND, "after"));
+        assertTrue(scan(journal).isEmpty());
+    }
+
+    @Test
+    void rollsIntoPreparedSpareSegment() throws Exception {
+        MessageJournal journal = open();
+        waitForSpare();
+
+        List<String> written = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String message = "message-" + i;
+            written.add(message);
+            assertEquals(i + 1, journal.append(PEER, JournalEntry.OUTBOUND, message));
+        }
+
+        assertTrue(segmentFiles().size() > 1, "写满后应滚动到新段");
+        assertEquals(written, scan(journal));
+        // 备用段被启用后，刷盘线程会准备下一个
+        waitForSpare();
+    }
+
+    @Test
+    void resumesAfterRestart() throws IOException {
+        MessageJournal journal = open();
+        for (int i = 0; i < 100; i++) {
+            journal.append(PEER, JournalEntry.INBOUND, "message-" + i);
+        }
+        journal.stop();
+
+        MessageJournal reopened = open();
+        assertEquals(100L, reopened.getStats().get("lastSeq"));
+        assertEquals(101, reopened.append(PEER, JournalEntry.INBOUND, "message-100"));
+        List<String> messages = scan(reopened);
+        assertEquals(101, messages.size());
+        assertEquals("message-0", messages.get(0));
+        assertEquals("message-100", messages.get(100));
+    }
+
+    @Test
+    void truncatesRecordWithBadChecksum() throws IOException {
+        MessageJournal journal = open();
+        journal.append(PEER, JournalEntry.INBOUND, "m1");
+        journal.append(PEER, JournalEntry.INBOUND, "m2");
+        journal.append(PEER, JournalEntry.INBOUND, "m3");
+        journal.stop();
+
+        // 破坏第三条记录的消息内容（每条记录长度为RECORD_OVERHEAD加消息长度）
+        int recordLength = JournalSegment.RECORD_OVERHEAD + 2;
+        int payloadOffset = 2 * recordLength + 4 + 25;
+        try (FileChannel channel = FileChannel.open(segmentFiles().get(0), StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {'X'}), payloadOffset);
+        }
+
+        MessageJournal reopened = open();
+        assertEquals(2L, reopened.getStats().get("lastSeq"));
+        assertEquals(3, reopened.append(PEER, JournalEntry.INBOUND, "m3'"));
+        assertEquals(List.of("m1", "m2", "m3'"), scan(reopened));
+    }
+
+    private static List<String> scan(MessageJournal journal) throws IOException {
+        List<String> messages = new ArrayList<>();
+        journal.scan(0, Long.MAX_VALUE, 0, entry -> messages.add(entry.getMessage()));
+        return messages;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> listing = Files.list(dir)) {
+            return listing.filter(p -> p.getFileName().toString().endsWith(JournalSegment.SUFFIX)).sorted().toList();
+        }
+    }
+
+    private void waitForSpare() throws IOException, InterruptedException {
+        Path spare = dir.resolve(JournalSegment.SPARE_FILE);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Files.exists(spare) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(Files.exists(spare), "刷盘线程应预先创建备用段");
+        assertFalse(segmentFiles().isEmpty());
+    }
+}
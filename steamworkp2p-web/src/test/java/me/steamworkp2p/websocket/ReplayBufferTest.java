@@ -0,0 +1,92 @@
+package me.steamworkp2p.websocket;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 重放缓冲区按数量和字节上限淘汰，以及重连时的续传判断
+ */
+class ReplayBufferTest {
+
+    private static final long UNLIMITED_BYTES = Long.MAX_VALUE;
+
+    @Test
+    void evictsOldestBeyondCapacity() {
+        ReplayBuffer buffer = new ReplayBuffer(4, UNLIMITED_BYTES);
+        addEvents(buffer, 6);
+
+        assertEquals(3, buffer.oldestSeq());
+        assertEquals(6, buffer.getLastSeq());
+        assertEquals(List.of(3L, 4L, 5L, 6L), seqs(buffer.since(2)));
+    }
+
+    @Test
+    void evictsOldestBeyondByteLimit() throws IOException {
+        int size = frame(1).jsonLength();
+        ReplayBuffer buffer = new ReplayBuffer(100, 3L * size);
+        addEvents(buffer, 5);
+
+        assertEquals(3, buffer.oldestSeq());
+        assertEquals(3L * size, buffer.getBytes());
+        assertEquals(List.of(3L, 4L, 5L), seqs(buffer.since(2)));
+    }
+
+    @Test
+    void keepsSingleEventLargerThanByteLimit() throws IOException {
+        ReplayBuffer buffer = new ReplayBuffer(100, 10);
+        addEvents(buffer, 3);
+
+        // 每个事件都超过字节上限，缓冲区只保留最新的一个
+        assertEquals(3, buffer.oldestSeq());
+        assertEquals(frame(3).jsonLength(), buffer.getBytes());
+        assertEquals(List.of(3L), seqs(buffer.since(2)));
+    }
+
+    @Test
+    void resumesOnlyWithinBufferAndEpoch() {
+        ReplayBuffer buffer = new ReplayBuffer(4, UNLIMITED_BYTES);
+        addEvents(buffer, 6);
+        long epoch = buffer.getEpoch();
+
+        assertTrue(buffer.canResume(epoch, 2), "最旧事件之前一个序列号仍可续传");
+        assertTrue(buffer.canResume(epoch, 6), "已收到全部事件");
+        assertFalse(buffer.canResume(epoch, 1), "事件3之前的已被淘汰");
+        assertFalse(buffer.canResume(epoch, 7), "序列号超出已分配范围");
+        assertFalse(buffer.canResume(epoch + 1, 5), "服务重启后旧的序列号无效");
+        assertTrue(buffer.since(6).isEmpty());
+    }
+
+    @Test
+    void keepsRoutingOfEntries() {
+        ReplayBuffer buffer = new ReplayBuffer(4, UNLIMITED_BYTES);
+        buffer.add(frame(buffer.nextSeq()), true, null);
+        buffer.add(frame(buffer.nextSeq()), false, new String[] {"76561198000000001"});
+
+        List<ReplayBuffer.Entry> entries = buffer.since(0);
+        assertTrue(entries.get(0).isEssential());
+        assertFalse(entries.get(0).isRouted());
+        assertFalse(entries.get(1).isEssential());
+        assertEquals("76561198000000001", entries.get(1).getPeers()[0]);
+    }
+
+    private static void addEvents(ReplayBuffer buffer, int count) {
+        for (int i = 0; i < count; i++) {
+            buffer.add(frame(buffer.nextSeq()), false, null);
+        }
+    }
+
+    // 序列号都是一位数，各帧的JSON长度相同
+    private static EventFrame frame(long seq) {
+        return new EventFrame("new_message", "payload", seq);
+    }
+
+    private static List<Long> seqs(List<ReplayBuffer.Entry> entries) {
+        return entries.stream().map(entry -> entry.getFrame().getSeq()).toList();
+    }
+}
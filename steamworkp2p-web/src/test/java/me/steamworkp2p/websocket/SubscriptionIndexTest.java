@@ -0,0 +1,101 @@
+package me.steamworkp2p.websocket;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 按事件类型和对端的订阅路由，包括通配符和取消订阅
+ */
+class SubscriptionIndexTest {
+
+    private static final String PEER_A = "76561198000000001";
+    private static final String PEER_B = "76561198000000002";
+
+    private SubscriptionIndex index;
+    private ClientSession exact;
+    private ClientSession anyPeer;
+    private ClientSession anyEvent;
+    private ClientSession everything;
+
+    @BeforeEach
+    void setUp() {
+        index = new SubscriptionIndex();
+        exact = newSession();
+        anyPeer = newSession();
+        anyEvent = newSession();
+        everything = newSession();
+
+        index.subscribe(exact, "new_message", PEER_A);
+        index.subscribe(anyPeer, "new_message", SubscriptionIndex.ANY);
+        index.subscribe(anyEvent, SubscriptionIndex.ANY, PEER_B);
+        index.subscribe(everything, SubscriptionIndex.ANY, SubscriptionIndex.ANY);
+    }
+
+    // 路由只使用会话的对象身份，不需要真实的WebSocket连接
+    private static ClientSession newSession() {
+        return new ClientSession(null, 5000, 64 * 1024,
+                ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP, 32 * 1024);
+    }
+
+    @Test
+    void routesByEventTypeAndPeerWithWildcards() {
+        assertEquals(Set.of(exact, anyPeer, everything), Set.copyOf(index.route("new_message", PEER_A)));
+        assertEquals(Set.of(anyPeer, anyEvent, everything), Set.copyOf(index.route("new_message", PEER_B)));
+        assertEquals(Set.of(anyEvent, everything), Set.copyOf(index.route("peer_connected", PEER_B)));
+        assertEquals(Set.of(everything), Set.copyOf(index.route("peer_connected", PEER_A)));
+    }
+
+    @Test
+    void routesEventInvolvingSeveralPeersOnce() {
+        // 消息同时涉及发送方和接收方，匹配两个对端的会话只出现一次
+        index.subscribe(exact, "new_message", PEER_B);
+        assertEquals(Set.of(exact, anyPeer, anyEvent, everything),
+                Set.copyOf(index.route("new_message", PEER_A, PEER_B)));
+        assertEquals(4, index.route("new_message", PEER_A, PEER_B).size());
+    }
+
+    @Test
+    void unsubscribeRemovesOnlyExactSubscription() {
+        index.subscribe(exact, "peer_connected", PEER_A);
+        index.unsubscribe(exact, "new_message", SubscriptionIndex.ANY);
+        assertTrue(index.route("new_message", PEER_A).contains(exact), "不匹配的取消订阅不影响已有订阅");
+
+        index.unsubscribe(exact, "new_message", PEER_A);
+        assertFalse(index.route("new_message", PEER_A).contains(exact));
+        assertTrue(index.route("peer_connected", PEER_A).contains(exact));
+        assertEquals(List.of(Map.of("event", "peer_connected", "peer", PEER_A)), index.describe(exact));
+    }
+
+    @Test
+    void removeDropsAllSubscriptionsOfSession() {
+        index.subscribe(everything, "new_message", PEER_A);
+        index.remove(everything);
+
+        assertEquals(Set.of(exact, anyPeer), Set.copyOf(index.route("new_message", PEER_A)));
+        assertTrue(index.route("peer_connected", PEER_A).isEmpty());
+        assertTrue(index.describe(everything).isEmpty());
+        assertFalse(index.matches(everything, "new_message", PEER_A));
+    }
+
+    @Test
+    void matchesAgreesWithRoute() {
+        for (String event : List.of("new_message", "peer_connected")) {
+            for (String peer : List.of(PEER_A, PEER_B)) {
+                Set<ClientSession> routed = Set.copyOf(index.route(event, peer));
+                for (ClientSession session : List.of(exact, anyPeer, anyEvent, everything)) {
+                    assertEquals(routed.contains(session), index.matches(session, event, peer),
+                            event + "/" + peer);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package me.steamworkp2p.benchmark;
+
+import me.steamworkp2p.service.NetworkServiceFixtures;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.P2PTransport;
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+import me.steamworkp2p.transport.loopback.LoopbackP2PTransport;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基准测试夹具
+ * 不启动Spring容器，通过包内构造函数直接组装服务对象，
+ * 使测量只包含热点路径本身，而不包含回调线程调度等背景噪声
+ */
+final class BenchmarkFixtures {
+
+    // 基准测试使用的回环对端ID，与模拟对端及仿真节点的ID段错开
+    private static final AtomicLong NEXT_PEER_ID = new AtomicLong(76561199900000000L);
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * 在共享回环网络上创建一个新的端点
+     */
+    static LoopbackP2PTransport newEndpoint() {
+        return LoopbackNetwork.shared().createEndpoint(NEXT_PEER_ID.getAndIncrement());
+    }
+
+    /**
+     * 创建未启动回调线程的SteamService，仅用于活跃连接表
+     */
+    static SteamService newSteamService() {
+        return new SteamService();
+    }
+
+    /**
+     * 创建绑定到指定传输层的P2P网络服务
+     */
+    static P2PNetworkService newNetworkService(P2PTransport transport, SteamService steamService) {
+        return NetworkServiceFixtures.newNetworkService(transport, steamService);
+    }
+
+    /**
+     * 丢弃端点收件箱中的所有数据包（例如对端回复的PONG和ACCEPT）
+     */
+    static void drain(LoopbackP2PTransport endpoint, ByteBuffer buffer) {
+        int size;
+        while ((size = endpoint.isPacketAvailable(0)) > 0) {
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocateDirect(size);
+            }
+            endpoint.readPacket(buffer, 0);
+        }
+    }
+}
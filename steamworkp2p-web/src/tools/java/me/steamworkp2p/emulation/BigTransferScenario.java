@@ -0,0 +1,53 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.loopback.LinkConditions;
+
+/**
+ * 大块传输：在限速链路上连续发送大消息，检查回显吞吐能否接近链路带宽
+ */
+public class BigTransferScenario implements Scenario {
+    
+    @Override
+    public String getName() {
+        return "big-transfer";
+    }
+    
+    @Override
+    public ScenarioResult run(EmulationContext context) throws Exception {
+        EmulationOptions options = context.getOptions();
+        int messages = options.getInt("transfer-messages", 200);
+        int size = options.getInt("transfer-size", 32 * 1024);
+        long bandwidth = options.getLong("transfer-bandwidth", 2_000_000);
+        
+        long peerId = context.spawnPeers(1);
+        LinkConditions conditions = options.linkConditions().withBandwidth(bandwidth);
+        context.getNetwork().setBidirectionalConditions(context.getNode().getPeerId(), peerId, conditions);
+        
+        P2PNetworkService service = context.getNode().getNetworkService();
+        EchoProbe probe = new EchoProbe();
+        service.addMessageListener(probe);
+        long begin = System.nanoTime();
+        try {
+            String target = String.valueOf(peerId);
+            for (int i = 0; i < messages; i++) {
+                service.sendMessageAsync(target, EchoProbe.message(i, size));
+            }
+            EmulationContext.await(() -> probe.getReceived() >= messages, options.getLong("timeout-ms", 30000) * 4);
+        } finally {
+            service.removeMessageListener(probe);
+            service.disconnectFromUser(String.valueOf(peerId));
+        }
+        double seconds = (probe.getLastReceivedNanos() - begin) / 1e9;
+        double throughput = seconds > 0 ? probe.getReceivedBytes() / seconds : 0;
+        
+        return new ScenarioResult(getName())
+                .metric("links", conditions)
+                .metric("messages", messages)
+                .metric("bytes", probe.getReceivedBytes())
+                .metric("rtt", probe.getRecorder().summary())
+                .assertAtLeast("echoed", probe.getReceived(), messages)
+                .assertAtLeast("throughput.bytes_per_sec", throughput,
+                        bandwidth * options.getDouble("slo-transfer-ratio", 0.7));
+    }
+}
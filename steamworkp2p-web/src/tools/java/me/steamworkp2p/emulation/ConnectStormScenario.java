@@ -0,0 +1,90 @@
+package me.steamworkp2p.emulation;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.loopback.LinkConditions;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 连接风暴：同时向大量对端发起连接，检查全部建立所需的时间
+ */
+public class ConnectStormScenario implements Scenario {
+    
+    @Override
+    public String getName() {
+        return "connect-storm";
+    }
+    
+    @Override
+    public ScenarioResult run(EmulationContext context) throws Exception {
+        EmulationOptions options = context.getOptions();
+        int peers = options.getInt("peers", 50);
+        long nodeId = context.getNode().getPeerId();
+        long firstPeer = context.spawnPeers(peers);
+        
+        LinkConditions conditions = options.linkConditions();
+        for (int i = 0; i < peers; i++) {
+            context.getNetwork().setBidirectionalConditions(nodeId, firstPeer + i, conditions);
+        }
+        
+        Map<Long, Long> startTimes = new ConcurrentHashMap<>();
+        LatencyRecorder connectLatency = new LatencyRecorder();
+        AtomicInteger established = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        
+        P2PNetworkService.ConnectionStateListener listener = new P2PNetworkService.ConnectionStateListener() {
+            @Override
+            public void onConnectionEstablished(SteamID steamID) {
+                Long start = startTimes.remove(SteamID.getNativeHandle(steamID));
+                if (start != null) {
+                    connectLatency.record(System.nanoTime() - start);
+                    established.incrementAndGet();
+                }
+            }
+            
+            @Override
+            public void onConnectionLost(SteamID steamID) {
+            }
+            
+            @Override
+            public void onConnectionFailed(SteamID steamID) {
+                if (startTimes.remove(SteamID.getNativeHandle(steamID)) != null) {
+                    failed.incrementAndGet();
+                }
+            }
+        };
+        
+        P2PNetworkService service = context.getNode().getNetworkService();
+        service.addConnectionStateListener(listener);
+        long begin = System.nanoTime();
+        try {
+            for (int i = 0; i < peers; i++) {
+                long peerId = firstPeer + i;
+                startTimes.put(peerId, System.nanoTime());
+                service.connectToUserAsync(String.valueOf(peerId));
+            }
+            EmulationContext.await(() -> established.get() + failed.get() >= peers,
+                    options.getLong("timeout-ms", 30000));
+        } finally {
+            service.removeConnectionStateListener(listener);
+            for (int i = 0; i < peers; i++) {
+                service.disconnectFromUser(String.valueOf(firstPeer + i));
+            }
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        
+        return new ScenarioResult(getName())
+                .metric("links", conditions)
+                .metric("peers", peers)
+                .metric("failed", failed.get())
+                .metric("total.ms", elapsedMs)
+                .metric("connect", connectLatency.summary())
+                .assertAtLeast("established", established.get(), peers)
+                .assertAtMost("connect.p99.ms", connectLatency.getPercentileMillis(99),
+                        options.getDouble("slo-connect-p99-ms", 1000));
+    }
+}
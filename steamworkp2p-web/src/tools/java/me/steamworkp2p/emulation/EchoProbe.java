@@ -0,0 +1,66 @@
+package me.steamworkp2p.emulation;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.P2PNetworkService;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 回显探针
+ * 发送带发送时间戳的消息，模拟对端回显后记录往返延迟和吞吐
+ */
+class EchoProbe implements P2PNetworkService.MessageListener {
+    
+    private static final String PREFIX = "EMU:";
+    
+    private final LatencyRecorder recorder = new LatencyRecorder();
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong receivedBytes = new AtomicLong();
+    private volatile long lastReceivedNanos = 0;
+    
+    /**
+     * 构造探测消息，长度至少为size
+     */
+    static String message(long sequence, int size) {
+        StringBuilder sb = new StringBuilder(Math.max(size, 48));
+        sb.append(PREFIX).append(sequence).append(':').append(System.nanoTime()).append(':');
+        while (sb.length() < size) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+    
+    @Override
+    public void onMessageReceived(SteamID steamID, String message) {
+        if (!message.startsWith(PREFIX)) {
+            return;
+        }
+        long now = System.nanoTime();
+        int first = message.indexOf(':', PREFIX.length());
+        int second = message.indexOf(':', first + 1);
+        if (first < 0 || second < 0) {
+            return;
+        }
+        long sentNanos = Long.parseLong(message.substring(first + 1, second));
+        recorder.record(now - sentNanos);
+        received.incrementAndGet();
+        receivedBytes.addAndGet(message.length());
+        lastReceivedNanos = now;
+    }
+    
+    LatencyRecorder getRecorder() {
+        return recorder;
+    }
+    
+    long getReceived() {
+        return received.get();
+    }
+    
+    long getReceivedBytes() {
+        return receivedBytes.get();
+    }
+    
+    long getLastReceivedNanos() {
+        return lastReceivedNanos;
+    }
+}
@@ -0,0 +1,84 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.WebApplication;
+import me.steamworkp2p.service.P2PNetworkService;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.Arrays;
+
+/**
+ * 仿真节点
+ * 在当前JVM中以loopback profile启动一个不带Web服务器的完整应用上下文，
+ * 使用真实的P2PNetworkService逻辑，通过共享的回环网络与其他节点和模拟对端通信
+ */
+public class EmulatedNode implements AutoCloseable {
+    
+    private final long peerId;
+    private final ConfigurableApplicationContext context;
+    private final P2PNetworkService networkService;
+    
+    private EmulatedNode(long peerId, ConfigurableApplicationContext context) {
+        this.peerId = peerId;
+        this.context = context;
+        this.networkService = context.getBean(P2PNetworkService.class);
+    }
+    
+    /**
+     * 启动仿真节点
+     *
+     * @param peerId 节点在回环网络中的ID
+     * @param extraProperties 额外的配置（key=value）
+     */
+    public static EmulatedNode start(long peerId, String... extraProperties) {
+        return start(peerId, WebApplicationType.NONE, extraProperties);
+    }
+    
+    /**
+     * 启动带嵌入式Web服务器的仿真节点，用于通过REST/WebSocket接口驱动
+     *
+     * @param port Web服务器端口
+     */
+    public static EmulatedNode startWithWeb(long peerId, int port, String... extraProperties) {
+        String[] properties = Arrays.copyOf(extraProperties, extraProperties.length + 1);
+        properties[extraProperties.length] = "server.port=" + port;
+        return start(peerId, WebApplicationType.SERVLET, properties);
+    }
+    
+    private static EmulatedNode start(long peerId, WebApplicationType webType, String... extraProperties) {
+        String[] properties = new String[extraProperties.length + 4];
+        properties[0] = "p2p.loopback.local-id=" + peerId;
+        properties[1] = "p2p.loopback.simulated-peers=0";
+        properties[2] = "logging.level.me.steamworkp2p=WARN";
+        properties[3] = "spring.application.name=emulated-node-" + peerId;
+        System.arraycopy(extraProperties, 0, properties, 4, extraProperties.length);
+        
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(WebApplication.class)
+                .web(webType)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .profiles("loopback")
+                .properties(properties)
+                .run();
+        return new EmulatedNode(peerId, context);
+    }
+    
+    public long getPeerId() {
+        return peerId;
+    }
+    
+    public P2PNetworkService getNetworkService() {
+        return networkService;
+    }
+    
+    public ConfigurableApplicationContext getContext() {
+        return context;
+    }
+    
+    @Override
+    public void close() {
+        context.close();
+    }
+}
@@ -0,0 +1,76 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+import me.steamworkp2p.transport.loopback.LoopbackPeerSimulator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 场景运行环境
+ * 提供被测节点、回环网络和按需创建的模拟对端
+ */
+public class EmulationContext implements AutoCloseable {
+    
+    private final LoopbackNetwork network;
+    private final EmulatedNode node;
+    private final EmulationOptions options;
+    private final List<LoopbackPeerSimulator> simulators = new ArrayList<>();
+    
+    // 下一个可分配的模拟对端ID
+    private long nextPeerId;
+    
+    public EmulationContext(LoopbackNetwork network, EmulatedNode node, EmulationOptions options) {
+        this.network = network;
+        this.node = node;
+        this.options = options;
+        this.nextPeerId = node.getPeerId() + 1000;
+    }
+    
+    /**
+     * 创建一批新的回显模拟对端，返回第一个ID
+     */
+    public long spawnPeers(int count) {
+        long first = nextPeerId;
+        nextPeerId += count;
+        simulators.add(new LoopbackPeerSimulator(network, first, count, true));
+        return first;
+    }
+    
+    /**
+     * 等待条件成立
+     *
+     * @return 条件是否在超时前成立
+     */
+    public static boolean await(BooleanSupplier condition, long timeoutMillis) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        while (!condition.getAsBoolean()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+    
+    public LoopbackNetwork getNetwork() {
+        return network;
+    }
+    
+    public EmulatedNode getNode() {
+        return node;
+    }
+    
+    public EmulationOptions getOptions() {
+        return options;
+    }
+    
+    @Override
+    public void close() {
+        simulators.forEach(LoopbackPeerSimulator::close);
+        simulators.clear();
+        network.resetConditions();
+    }
+}
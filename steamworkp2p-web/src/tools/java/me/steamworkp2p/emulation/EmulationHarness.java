@@ -0,0 +1,76 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 网络仿真工具
+ * 在单个JVM中启动一个使用回环传输的完整节点和若干模拟对端，按配置注入弱网条件，
+ * 依次运行场景并检查SLO。任一SLO未达标时以非零状态退出，不需要Steam客户端。
+ *
+ * <p>示例：--scenario=all --peers=100 --latency-ms=60 --jitter-ms=20 --loss=0.02 --slo-p99-ms=500</p>
+ */
+public class EmulationHarness {
+    
+    public static void main(String[] args) throws Exception {
+        EmulationOptions options = EmulationOptions.parse(args);
+        LoopbackNetwork network = LoopbackNetwork.shared();
+        network.setSeed(options.getLong("seed", 42));
+        
+        List<Scenario> scenarios = selectScenarios(options.get("scenario", "all"));
+        List<ScenarioResult> results = new ArrayList<>();
+        
+        try (EmulatedNode node = EmulatedNode.start(options.getLong("node-id", 1))) {
+            for (Scenario scenario : scenarios) {
+                System.out.println("▶ 运行场景: " + scenario.getName());
+                try (EmulationContext context = new EmulationContext(network, node, options)) {
+                    results.add(scenario.run(context));
+                }
+            }
+        }
+        
+        boolean passed = printReport(results);
+        System.exit(passed ? 0 : 1);
+    }
+    
+    private static List<Scenario> selectScenarios(String names) {
+        List<Scenario> all = List.of(
+                new ConnectStormScenario(),
+                new LatencyScenario(),
+                new LinkFlapScenario(),
+                new BigTransferScenario());
+        if ("all".equals(names)) {
+            return all;
+        }
+        
+        List<Scenario> selected = new ArrayList<>();
+        for (String name : names.split(",")) {
+            Scenario match = all.stream()
+                    .filter(s -> s.getName().equals(name.trim()))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("未知场景: " + name));
+            selected.add(match);
+        }
+        return selected;
+    }
+    
+    private static boolean printReport(List<ScenarioResult> results) {
+        boolean passed = true;
+        System.out.println();
+        System.out.println("========== 网络仿真结果 ==========");
+        for (ScenarioResult result : results) {
+            System.out.println((result.isPassed() ? "✅ " : "❌ ") + result.getScenario());
+            for (Map.Entry<String, String> metric : result.getMetrics().entrySet()) {
+                System.out.println("    " + metric.getKey() + ": " + metric.getValue());
+            }
+            for (String violation : result.getViolations()) {
+                System.out.println("    ⚠️ SLO未达标: " + violation);
+            }
+            passed &= result.isPassed();
+        }
+        return passed;
+    }
+}
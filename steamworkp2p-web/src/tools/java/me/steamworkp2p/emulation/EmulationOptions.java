@@ -0,0 +1,66 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.transport.loopback.LinkConditions;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 仿真参数
+ * 命令行格式：--name=value
+ */
+public class EmulationOptions {
+    
+    private final Map<String, String> values = new HashMap<>();
+    
+    public static EmulationOptions parse(String[] args) {
+        EmulationOptions options = new EmulationOptions();
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无效参数: " + arg + "（格式应为 --name=value）");
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                options.values.put(arg.substring(2), "true");
+            } else {
+                options.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+    
+    public String get(String name, String defaultValue) {
+        return values.getOrDefault(name, defaultValue);
+    }
+    
+    public int getInt(String name, int defaultValue) {
+        String value = values.get(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+    
+    public long getLong(String name, long defaultValue) {
+        String value = values.get(name);
+        return value != null ? Long.parseLong(value) : defaultValue;
+    }
+    
+    public double getDouble(String name, double defaultValue) {
+        String value = values.get(name);
+        return value != null ? Double.parseDouble(value) : defaultValue;
+    }
+    
+    /**
+     * 按参数构造链路条件
+     */
+    public LinkConditions linkConditions() {
+        return LinkConditions.ideal()
+                .withLatency(getLong("latency-ms", 40), getLong("jitter-ms", 10),
+                        LinkConditions.LatencyDistribution.valueOf(get("distribution", "NORMAL").toUpperCase()))
+                .withLoss(getDouble("loss", 0.01))
+                .withReorder(getDouble("reorder", 0.01))
+                .withDuplicate(getDouble("duplicate", 0.0))
+                .withBandwidth(getLong("bandwidth", 0));
+    }
+}
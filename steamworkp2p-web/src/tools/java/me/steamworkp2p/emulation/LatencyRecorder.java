@@ -0,0 +1,70 @@
+package me.steamworkp2p.emulation;
+
+import java.util.Arrays;
+
+/**
+ * 延迟记录器
+ * 保存全部样本（微秒）并按需计算百分位
+ */
+public class LatencyRecorder {
+    
+    private long[] samples = new long[1024];
+    private int count = 0;
+    
+    /**
+     * 记录一个延迟样本
+     */
+    public synchronized void record(long latencyNanos) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, samples.length * 2);
+        }
+        samples[count++] = latencyNanos / 1000;
+    }
+    
+    public synchronized int getCount() {
+        return count;
+    }
+    
+    /**
+     * 获取百分位延迟（毫秒）
+     *
+     * @param percentile 0~100
+     */
+    public synchronized double getPercentileMillis(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, count);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+        return sorted[Math.max(0, Math.min(count - 1, index))] / 1000.0;
+    }
+    
+    public synchronized double getMeanMillis() {
+        if (count == 0) {
+            return 0;
+        }
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += samples[i];
+        }
+        return sum / (double) count / 1000.0;
+    }
+    
+    public synchronized double getMaxMillis() {
+        long max = 0;
+        for (int i = 0; i < count; i++) {
+            max = Math.max(max, samples[i]);
+        }
+        return max / 1000.0;
+    }
+    
+    /**
+     * 百分位摘要
+     */
+    public String summary() {
+        return String.format("n=%d mean=%.1fms p50=%.1fms p90=%.1fms p99=%.1fms max=%.1fms",
+                getCount(), getMeanMillis(), getPercentileMillis(50), getPercentileMillis(90),
+                getPercentileMillis(99), getMaxMillis());
+    }
+}
@@ -0,0 +1,50 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.loopback.LinkConditions;
+
+/**
+ * 往返延迟：按固定速率发送消息并等待回显，检查延迟百分位和送达率
+ */
+public class LatencyScenario implements Scenario {
+    
+    @Override
+    public String getName() {
+        return "latency";
+    }
+    
+    @Override
+    public ScenarioResult run(EmulationContext context) throws Exception {
+        EmulationOptions options = context.getOptions();
+        int messages = options.getInt("messages", 500);
+        long intervalMs = options.getLong("interval-ms", 5);
+        int size = options.getInt("size", 256);
+        
+        long peerId = context.spawnPeers(1);
+        LinkConditions conditions = options.linkConditions();
+        context.getNetwork().setBidirectionalConditions(context.getNode().getPeerId(), peerId, conditions);
+        
+        P2PNetworkService service = context.getNode().getNetworkService();
+        EchoProbe probe = new EchoProbe();
+        service.addMessageListener(probe);
+        try {
+            String target = String.valueOf(peerId);
+            for (int i = 0; i < messages; i++) {
+                service.sendMessageAsync(target, EchoProbe.message(i, size));
+                Thread.sleep(intervalMs);
+            }
+            EmulationContext.await(() -> probe.getReceived() >= messages, options.getLong("timeout-ms", 30000));
+        } finally {
+            service.removeMessageListener(probe);
+            service.disconnectFromUser(String.valueOf(peerId));
+        }
+        
+        LatencyRecorder rtt = probe.getRecorder();
+        return new ScenarioResult(getName())
+                .metric("links", conditions)
+                .metric("sent", messages)
+                .metric("rtt", rtt.summary())
+                .assertAtLeast("delivery.ratio", probe.getReceived() / (double) messages, 1.0)
+                .assertAtMost("rtt.p99.ms", rtt.getPercentileMillis(99), options.getDouble("slo-p99-ms", 400));
+    }
+}
@@ -0,0 +1,88 @@
+package me.steamworkp2p.emulation;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.loopback.LinkConditions;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 链路抖断：持续发送消息的同时周期性断开链路，检查每次恢复后收到回显所需的时间
+ */
+public class LinkFlapScenario implements Scenario {
+    
+    @Override
+    public String getName() {
+        return "link-flap";
+    }
+    
+    @Override
+    public ScenarioResult run(EmulationContext context) throws Exception {
+        EmulationOptions options = context.getOptions();
+        long durationMs = options.getLong("flap-duration-ms", 5000);
+        long periodMs = options.getLong("flap-period-ms", 1000);
+        long downMs = options.getLong("flap-down-ms", 300);
+        long intervalMs = options.getLong("interval-ms", 5);
+        
+        long nodeId = context.getNode().getPeerId();
+        long peerId = context.spawnPeers(1);
+        LinkConditions up = options.linkConditions();
+        LinkConditions down = up.withDown(true);
+        context.getNetwork().setBidirectionalConditions(nodeId, peerId, up);
+        
+        P2PNetworkService service = context.getNode().getNetworkService();
+        EchoProbe probe = new EchoProbe();
+        LatencyRecorder recovery = new LatencyRecorder();
+        int flaps = 0;
+        long sent = 0;
+        service.addMessageListener(probe);
+        try {
+            String target = String.valueOf(peerId);
+            long begin = System.nanoTime();
+            long upSince = 0;
+            boolean linkDown = false;
+            
+            while (true) {
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+                if (elapsedMs >= durationMs) {
+                    break;
+                }
+                
+                boolean shouldBeDown = elapsedMs % periodMs >= periodMs - downMs;
+                if (shouldBeDown != linkDown) {
+                    linkDown = shouldBeDown;
+                    context.getNetwork().setBidirectionalConditions(nodeId, peerId, linkDown ? down : up);
+                    if (linkDown) {
+                        flaps++;
+                    } else {
+                        upSince = System.nanoTime();
+                    }
+                }
+                
+                // 恢复时间：链路恢复到首次收到回显
+                if (upSince != 0 && probe.getLastReceivedNanos() > upSince) {
+                    recovery.record(probe.getLastReceivedNanos() - upSince);
+                    upSince = 0;
+                }
+                
+                service.sendMessageAsync(target, EchoProbe.message(sent++, 128));
+                Thread.sleep(intervalMs);
+            }
+            context.getNetwork().setBidirectionalConditions(nodeId, peerId, up);
+            Thread.sleep(options.getLong("flap-drain-ms", 1000));
+        } finally {
+            service.removeMessageListener(probe);
+            service.disconnectFromUser(String.valueOf(peerId));
+        }
+        
+        return new ScenarioResult(getName())
+                .metric("links", up)
+                .metric("flaps", flaps)
+                .metric("sent", sent)
+                .metric("echoed", probe.getReceived())
+                .metric("delivery.ratio", String.format("%.3f", probe.getReceived() / (double) Math.max(1, sent)))
+                .metric("recovery", recovery.summary())
+                .assertAtLeast("recoveries", recovery.getCount(), Math.max(0, flaps - 1))
+                .assertAtMost("recovery.max.ms", recovery.getMaxMillis(),
+                        options.getDouble("slo-flap-recovery-ms", 500));
+    }
+}
@@ -0,0 +1,11 @@
+package me.steamworkp2p.emulation;
+
+/**
+ * 仿真场景
+ */
+public interface Scenario {
+    
+    String getName();
+    
+    ScenarioResult run(EmulationContext context) throws Exception;
+}
@@ -0,0 +1,64 @@
+package me.steamworkp2p.emulation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 场景运行结果
+ * 记录测量值，并按SLO检查是否达标
+ */
+public class ScenarioResult {
+    
+    private final String scenario;
+    private final Map<String, String> metrics = new LinkedHashMap<>();
+    private final List<String> violations = new ArrayList<>();
+    
+    public ScenarioResult(String scenario) {
+        this.scenario = scenario;
+    }
+    
+    public ScenarioResult metric(String name, Object value) {
+        metrics.put(name, String.valueOf(value));
+        return this;
+    }
+    
+    /**
+     * 检查测量值不超过上限
+     */
+    public ScenarioResult assertAtMost(String name, double actual, double limit) {
+        metrics.put(name, String.format("%.2f (上限 %.2f)", actual, limit));
+        if (actual > limit) {
+            violations.add(String.format("%s = %.2f 超过上限 %.2f", name, actual, limit));
+        }
+        return this;
+    }
+    
+    /**
+     * 检查测量值不低于下限
+     */
+    public ScenarioResult assertAtLeast(String name, double actual, double limit) {
+        metrics.put(name, String.format("%.2f (下限 %.2f)", actual, limit));
+        if (actual < limit) {
+            violations.add(String.format("%s = %.2f 低于下限 %.2f", name, actual, limit));
+        }
+        return this;
+    }
+    
+    public boolean isPassed() {
+        return violations.isEmpty();
+    }
+    
+    public String getScenario() {
+        return scenario;
+    }
+    
+    public Map<String, String> getMetrics() {
+        return metrics;
+    }
+    
+    public List<String> getViolations() {
+        return violations;
+    }
+}
@@ -0,0 +1,33 @@
+package me.steamworkp2p.loadgen;
+
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.transport.P2PSendType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 直接调用P2PNetworkService的负载驱动
+ */
+class JavaApiDriver implements LoadDriver {
+
+    private final P2PNetworkService networkService;
+
+    JavaApiDriver(P2PNetworkService networkService) {
+        this.networkService = networkService;
+    }
+
+    @Override
+    public String getName() {
+        return "java";
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String targetSteamId, String message, P2PSendType sendType) {
+        return networkService.sendMessageAsync(targetSteamId, message, sendType);
+    }
+
+    @Override
+    public boolean supports(P2PSendType sendType) {
+        return true;
+    }
+}
@@ -0,0 +1,30 @@
+package me.steamworkp2p.loadgen;
+
+import me.steamworkp2p.transport.P2PSendType;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 负载驱动
+ * 通过某一种对外接口让节点发送消息
+ */
+interface LoadDriver extends AutoCloseable {
+
+    String getName();
+
+    /**
+     * 发送消息，不阻塞调用线程
+     *
+     * @return 节点是否接受了发送请求
+     */
+    CompletableFuture<Boolean> send(String targetSteamId, String message, P2PSendType sendType);
+
+    /**
+     * 驱动是否能按指定发送方式发送
+     */
+    boolean supports(P2PSendType sendType);
+
+    @Override
+    default void close() {
+    }
+}
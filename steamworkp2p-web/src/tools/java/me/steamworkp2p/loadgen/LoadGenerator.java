@@ -0,0 +1,188 @@
+package me.steamworkp2p.loadgen;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.emulation.EmulatedNode;
+import me.steamworkp2p.emulation.EmulationContext;
+import me.steamworkp2p.emulation.EmulationOptions;
+import me.steamworkp2p.service.P2PNetworkService;
+import me.steamworkp2p.service.SteamService;
+import me.steamworkp2p.transport.loopback.LoopbackNetwork;
+
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 端到端负载工具
+ * 在单个JVM中启动多个使用回环传输的完整节点，前若干个节点按固定速率（开环）向其余节点发送消息，
+ * 通过Java API、REST接口或WebSocket命令通道驱动，接收端按计划发送时间计算延迟以修正协调遗漏。
+ * 用于评估单个节点能承受的对端数和消息速率。
+ *
+ * <p>示例：--nodes=4 --senders=1 --rate=2000 --duration-s=30 --mix=64:Reliable:70,1024:Unreliable:30 --api=java</p>
+ */
+public class LoadGenerator {
+
+    // 负载节点的回环ID段，与仿真工具和模拟对端错开
+    private static final long FIRST_NODE_ID = 76561190000200001L;
+
+    public static void main(String[] args) throws Exception {
+        EmulationOptions options = EmulationOptions.parse(args);
+        int nodeCount = options.getInt("nodes", 2);
+        int senderCount = options.getInt("senders", 1);
+        double rate = options.getDouble("rate", 1000);
+        long warmupSeconds = options.getLong("warmup-s", 5);
+        long durationSeconds = options.getLong("duration-s", 30);
+        String api = options.get("api", "java");
+        MessageMix mix = MessageMix.parse(options.get("mix", "256:Reliable:1"));
+
+        if (nodeCount < 2 || senderCount < 1 || senderCount > nodeCount) {
+            throw new IllegalArgumentException("至少需要2个节点，发送节点数应在1到节点数之间");
+        }
+
+        LoopbackNetwork network = LoopbackNetwork.shared();
+        network.setSeed(options.getLong("seed", 42));
+        if (options.get("emulate-link", "false").equals("true")) {
+            network.setDefaultConditions(options.linkConditions());
+        }
+
+        LoadStats stats = new LoadStats(mix);
+        List<EmulatedNode> nodes = new ArrayList<>();
+        List<LoadDriver> drivers = new ArrayList<>();
+        try {
+            System.out.println("🚀 启动 " + nodeCount + " 个节点（" + api + " 接口）...");
+            int basePort = options.getInt("base-port", 18080);
+            for (int i = 0; i < nodeCount; i++) {
+                long peerId = FIRST_NODE_ID + i;
+                EmulatedNode node = !"java".equals(api) && i < senderCount
+                        ? EmulatedNode.startWithWeb(peerId, basePort + i)
+                        : EmulatedNode.start(peerId);
+                node.getNetworkService().addMessageListener(stats);
+                nodes.add(node);
+            }
+
+            for (int i = 0; i < senderCount; i++) {
+                LoadDriver driver = createDriver(api, nodes.get(i), basePort + i);
+                for (MessageMix.Entry entry : mix.getEntries()) {
+                    if (!driver.supports(entry.getSendType())) {
+                        throw new IllegalArgumentException(driver.getName() + " 接口不支持发送方式 " + entry.getSendType());
+                    }
+                }
+                drivers.add(driver);
+            }
+
+            connectAll(nodes, senderCount, options.getLong("connect-timeout-ms", 10000));
+
+            System.out.printf("📈 速率 %.0f msg/s x %d 个发送节点，消息组合: %s%n", rate, senderCount, mix);
+            System.out.println("⏳ 预热 " + warmupSeconds + "s，测量 " + durationSeconds + "s");
+
+            long startNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            long measureStartNanos = startNanos + TimeUnit.SECONDS.toNanos(warmupSeconds);
+            long endNanos = measureStartNanos + TimeUnit.SECONDS.toNanos(durationSeconds);
+            stats.startMeasurement(measureStartNanos);
+
+            List<Thread> senders = new ArrayList<>();
+            for (int i = 0; i < senderCount; i++) {
+                List<String> targets = new ArrayList<>();
+                for (int j = 0; j < nodeCount; j++) {
+                    if (j != i) {
+                        targets.add(String.valueOf(nodes.get(j).getPeerId()));
+                    }
+                }
+                Runnable task = senderTask(drivers.get(i), targets, mix, stats, rate,
+                        startNanos, endNanos, options.getLong("seed", 42) + i);
+                Thread thread = new Thread(task, "LoadGen-Sender-" + i);
+                thread.start();
+                senders.add(thread);
+            }
+            for (Thread thread : senders) {
+                thread.join();
+            }
+
+            // 等待在途消息到达
+            EmulationContext.await(() -> stats.getTotalReceived() >= stats.getTotalSent(),
+                    options.getLong("drain-ms", 5000));
+
+            LoadReport report = new LoadReport(stats, durationSeconds);
+            report.print(System.out);
+            String csv = options.get("csv", "");
+            if (!csv.isEmpty()) {
+                report.writeCsv(Paths.get(csv));
+                System.out.println("📄 CSV报告已写入: " + csv);
+            }
+        } finally {
+            drivers.forEach(LoadDriver::close);
+            nodes.forEach(EmulatedNode::close);
+            network.resetConditions();
+        }
+        System.exit(0);
+    }
+
+    private static LoadDriver createDriver(String api, EmulatedNode node, int port) {
+        switch (api) {
+            case "java":
+                return new JavaApiDriver(node.getNetworkService());
+            case "rest":
+                return new RestApiDriver(port);
+            case "ws":
+                return new WebSocketApiDriver(port);
+            default:
+                throw new IllegalArgumentException("未知的驱动接口: " + api + "（可选 java / rest / ws）");
+        }
+    }
+
+    /**
+     * 让每个发送节点与其余所有节点建立连接
+     */
+    private static void connectAll(List<EmulatedNode> nodes, int senderCount, long timeoutMillis) throws InterruptedException {
+        for (int i = 0; i < senderCount; i++) {
+            P2PNetworkService service = nodes.get(i).getNetworkService();
+            SteamService steamService = nodes.get(i).getContext().getBean(SteamService.class);
+            for (int j = 0; j < nodes.size(); j++) {
+                if (j == i) {
+                    continue;
+                }
+                String target = String.valueOf(nodes.get(j).getPeerId());
+                SteamID targetId = SteamID.createFromNativeHandle(nodes.get(j).getPeerId());
+                service.connectToUserAsync(target);
+                if (!EmulationContext.await(() -> steamService.hasActiveConnection(targetId), timeoutMillis)) {
+                    throw new IllegalStateException("节点 " + nodes.get(i).getPeerId() + " 无法连接到 " + target);
+                }
+            }
+        }
+    }
+
+    /**
+     * 开环发送：第i条消息的计划时间固定为 start + i * interval，
+     * 发送端落后时立即补发而不是顺延计划，落后的时间会体现在修正后的延迟中
+     */
+    private static Runnable senderTask(LoadDriver driver, List<String> targets, MessageMix mix, LoadStats stats,
+                                       double rate, long startNanos, long endNanos, long seed) {
+        return () -> {
+            Random random = new Random(seed);
+            double intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+            for (long i = 0; ; i++) {
+                long intendedNanos = startNanos + (long) (i * intervalNanos);
+                if (intendedNanos >= endNanos) {
+                    break;
+                }
+                long wait;
+                while ((wait = intendedNanos - System.nanoTime()) > 0) {
+                    LockSupport.parkNanos(wait);
+                }
+
+                MessageMix.Entry entry = mix.pick(random);
+                String target = targets.get((int) (i % targets.size()));
+                stats.recordSent(entry, intendedNanos);
+                driver.send(target, LoadStats.message(entry, intendedNanos), entry.getSendType())
+                        .whenComplete((result, error) -> {
+                            if (error != null || !Boolean.TRUE.equals(result)) {
+                                stats.recordSendFailure(entry, intendedNanos);
+                            }
+                        });
+            }
+        };
+    }
+}
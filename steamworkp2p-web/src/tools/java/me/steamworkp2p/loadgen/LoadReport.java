@@ -0,0 +1,163 @@
+package me.steamworkp2p.loadgen;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 负载测试报告
+ * 控制台输出HdrHistogram格式的百分位分布，CSV每行对应一类消息的一种延迟口径
+ */
+class LoadReport {
+
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9, 99.99};
+
+    // 直方图以微秒记录，报告以毫秒输出
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    /**
+     * 一行报告
+     */
+    private static class Row {
+        private final String series;
+        private final String latency;
+        private final Histogram histogram;
+        private final long sent;
+        private final long sendFailures;
+        private final long received;
+        private final long receivedBytes;
+
+        Row(String series, String latency, Histogram histogram,
+            long sent, long sendFailures, long received, long receivedBytes) {
+            this.series = series;
+            this.latency = latency;
+            this.histogram = histogram;
+            this.sent = sent;
+            this.sendFailures = sendFailures;
+            this.received = received;
+            this.receivedBytes = receivedBytes;
+        }
+    }
+
+    private final List<Row> rows = new ArrayList<>();
+    private final double durationSeconds;
+    private Histogram totalCorrected;
+
+    LoadReport(LoadStats stats, double durationSeconds) {
+        this.durationSeconds = durationSeconds;
+
+        Histogram allCorrected = null;
+        Histogram allUncorrected = null;
+        long sent = 0, failures = 0, received = 0, bytes = 0;
+
+        for (MessageMix.Entry entry : stats.getMix().getEntries()) {
+            int i = entry.getIndex();
+            Histogram corrected = stats.correctedHistogram(i);
+            Histogram uncorrected = stats.uncorrectedHistogram(i);
+            rows.add(new Row(entry.getLabel(), "corrected", corrected,
+                    stats.getSent(i), stats.getSendFailures(i), stats.getReceived(i), stats.getReceivedBytes(i)));
+            rows.add(new Row(entry.getLabel(), "uncorrected", uncorrected,
+                    stats.getSent(i), stats.getSendFailures(i), stats.getReceived(i), stats.getReceivedBytes(i)));
+
+            if (allCorrected == null) {
+                allCorrected = corrected.copy();
+                allUncorrected = uncorrected.copy();
+            } else {
+                allCorrected.add(corrected);
+                allUncorrected.add(uncorrected);
+            }
+            sent += stats.getSent(i);
+            failures += stats.getSendFailures(i);
+            received += stats.getReceived(i);
+            bytes += stats.getReceivedBytes(i);
+        }
+
+        if (stats.getMix().getEntries().size() > 1) {
+            rows.add(new Row("all", "corrected", allCorrected, sent, failures, received, bytes));
+            rows.add(new Row("all", "uncorrected", allUncorrected, sent, failures, received, bytes));
+        }
+        totalCorrected = allCorrected;
+    }
+
+    /**
+     * 输出到控制台
+     */
+    void print(PrintStream out) {
+        out.println();
+        out.println("========== 负载测试结果 ==========");
+        out.printf(Locale.ROOT, "测量时长: %.1fs%n", durationSeconds);
+        for (Row row : rows) {
+            Histogram h = row.histogram;
+            out.printf(Locale.ROOT, "%-24s %-12s sent=%d failed=%d recv=%d lost=%d %.0f msg/s %.2f MB/s%n",
+                    row.series, row.latency, row.sent, row.sendFailures, row.received, lost(row),
+                    row.received / durationSeconds, row.receivedBytes / durationSeconds / (1024 * 1024));
+            out.printf(Locale.ROOT, "%-24s %-12s mean=%.2fms p50=%.2fms p90=%.2fms p99=%.2fms p99.9=%.2fms max=%.2fms%n",
+                    "", "", h.getMean() / MICROS_PER_MILLI,
+                    millis(h, 50), millis(h, 90), millis(h, 99), millis(h, 99.9),
+                    h.getMaxValue() / MICROS_PER_MILLI);
+        }
+
+        if (totalCorrected != null && totalCorrected.getTotalCount() > 0) {
+            out.println();
+            out.println("端到端延迟分布（已修正协调遗漏，单位毫秒）:");
+            totalCorrected.outputPercentileDistribution(out, 5, MICROS_PER_MILLI);
+        }
+    }
+
+    /**
+     * 写入CSV
+     */
+    void writeCsv(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            StringBuilder header = new StringBuilder("series,latency,sent,send_failures,received,lost,"
+                    + "throughput_msg_s,throughput_mb_s,mean_ms");
+            for (double p : PERCENTILES) {
+                header.append(",p").append(format(p)).append("_ms");
+            }
+            header.append(",max_ms");
+            writer.println(header);
+
+            for (Row row : rows) {
+                Histogram h = row.histogram;
+                StringBuilder line = new StringBuilder();
+                line.append(row.series).append(',').append(row.latency)
+                        .append(',').append(row.sent)
+                        .append(',').append(row.sendFailures)
+                        .append(',').append(row.received)
+                        .append(',').append(lost(row))
+                        .append(',').append(format(row.received / durationSeconds))
+                        .append(',').append(format(row.receivedBytes / durationSeconds / (1024 * 1024)))
+                        .append(',').append(format(h.getMean() / MICROS_PER_MILLI));
+                for (double p : PERCENTILES) {
+                    line.append(',').append(format(millis(h, p)));
+                }
+                line.append(',').append(format(h.getMaxValue() / MICROS_PER_MILLI));
+                writer.println(line);
+            }
+        }
+    }
+
+    private static long lost(Row row) {
+        return Math.max(0, row.sent - row.sendFailures - row.received);
+    }
+
+    private static double millis(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI;
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.3f", value).replaceAll("\\.?0+$", "");
+    }
+}
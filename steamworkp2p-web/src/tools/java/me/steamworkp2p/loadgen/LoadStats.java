@@ -0,0 +1,162 @@
+package me.steamworkp2p.loadgen;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.service.P2PNetworkService;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 负载统计
+ * 每条消息携带计划发送时间和实际发送时间，接收端同时记录两种延迟：
+ * 从计划时间起算的延迟修正了协调遗漏（发送端落后于计划时，排队等待也计入延迟），
+ * 从实际发送时间起算的延迟即传统的服务时间，两者对比可以看出发送端是否被拖慢
+ */
+class LoadStats implements P2PNetworkService.MessageListener {
+
+    static final String PREFIX = "LOAD:";
+
+    // 直方图上限1小时（微秒），3位有效数字
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.HOURS.toMicros(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+
+    private final MessageMix mix;
+    private final Recorder[] corrected;
+    private final Recorder[] uncorrected;
+    private final AtomicLongArray sent;
+    private final AtomicLongArray sendFailures;
+    private final AtomicLongArray received;
+    private final AtomicLongArray receivedBytes;
+
+    // 早于此时间计划发送的消息属于预热阶段，不计入统计
+    private volatile long measureStartNanos = Long.MAX_VALUE;
+
+    LoadStats(MessageMix mix) {
+        this.mix = mix;
+        int n = mix.getEntries().size();
+        corrected = new Recorder[n];
+        uncorrected = new Recorder[n];
+        for (int i = 0; i < n; i++) {
+            corrected[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+            uncorrected[i] = new Recorder(HIGHEST_TRACKABLE_MICROS, SIGNIFICANT_DIGITS);
+        }
+        sent = new AtomicLongArray(n);
+        sendFailures = new AtomicLongArray(n);
+        received = new AtomicLongArray(n);
+        receivedBytes = new AtomicLongArray(n);
+    }
+
+    /**
+     * 构造负载消息，长度至少为size
+     */
+    static String message(MessageMix.Entry entry, long intendedNanos) {
+        StringBuilder sb = new StringBuilder(Math.max(entry.getSize(), 64));
+        sb.append(PREFIX).append(entry.getIndex())
+                .append(':').append(intendedNanos)
+                .append(':').append(System.nanoTime())
+                .append(':');
+        while (sb.length() < entry.getSize()) {
+            sb.append('x');
+        }
+        return sb.toString();
+    }
+
+    void startMeasurement(long startNanos) {
+        measureStartNanos = startNanos;
+    }
+
+    boolean isMeasured(long intendedNanos) {
+        return intendedNanos >= measureStartNanos;
+    }
+
+    void recordSent(MessageMix.Entry entry, long intendedNanos) {
+        if (isMeasured(intendedNanos)) {
+            sent.incrementAndGet(entry.getIndex());
+        }
+    }
+
+    void recordSendFailure(MessageMix.Entry entry, long intendedNanos) {
+        if (isMeasured(intendedNanos)) {
+            sendFailures.incrementAndGet(entry.getIndex());
+        }
+    }
+
+    @Override
+    public void onMessageReceived(SteamID steamID, String message) {
+        if (!message.startsWith(PREFIX)) {
+            return;
+        }
+        long now = System.nanoTime();
+        int first = message.indexOf(':', PREFIX.length());
+        int second = message.indexOf(':', first + 1);
+        int third = message.indexOf(':', second + 1);
+        if (first < 0 || second < 0 || third < 0) {
+            return;
+        }
+
+        int index = Integer.parseInt(message, PREFIX.length(), first, 10);
+        long intendedNanos = Long.parseLong(message, first + 1, second, 10);
+        long sentNanos = Long.parseLong(message, second + 1, third, 10);
+        if (!isMeasured(intendedNanos)) {
+            return;
+        }
+
+        corrected[index].recordValue(toMicros(now - intendedNanos));
+        uncorrected[index].recordValue(toMicros(now - sentNanos));
+        received.incrementAndGet(index);
+        receivedBytes.addAndGet(index, message.length());
+    }
+
+    private static long toMicros(long nanos) {
+        return Math.min(HIGHEST_TRACKABLE_MICROS, Math.max(0, nanos / 1000));
+    }
+
+    /**
+     * 取出测量期间累计的直方图
+     */
+    Histogram correctedHistogram(int index) {
+        return corrected[index].getIntervalHistogram();
+    }
+
+    Histogram uncorrectedHistogram(int index) {
+        return uncorrected[index].getIntervalHistogram();
+    }
+
+    MessageMix getMix() {
+        return mix;
+    }
+
+    long getSent(int index) {
+        return sent.get(index);
+    }
+
+    long getSendFailures(int index) {
+        return sendFailures.get(index);
+    }
+
+    long getReceived(int index) {
+        return received.get(index);
+    }
+
+    long getReceivedBytes(int index) {
+        return receivedBytes.get(index);
+    }
+
+    long getTotalSent() {
+        long total = 0;
+        for (int i = 0; i < sent.length(); i++) {
+            total += sent.get(i) - sendFailures.get(i);
+        }
+        return total;
+    }
+
+    long getTotalReceived() {
+        long total = 0;
+        for (int i = 0; i < received.length(); i++) {
+            total += received.get(i);
+        }
+        return total;
+    }
+}
@@ -0,0 +1,118 @@
+package me.steamworkp2p.loadgen;
+
+import me.steamworkp2p.transport.P2PSendType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 消息组合
+ * 格式：大小:发送方式:权重，多项以逗号分隔，例如 64:Reliable:70,1024:Unreliable:20,16384:Reliable:10
+ */
+public class MessageMix {
+
+    /**
+     * 组合中的一类消息
+     */
+    public static class Entry {
+        private final int index;
+        private final int size;
+        private final P2PSendType sendType;
+        private final int weight;
+
+        Entry(int index, int size, P2PSendType sendType, int weight) {
+            this.index = index;
+            this.size = size;
+            this.sendType = sendType;
+            this.weight = weight;
+        }
+
+        public int getIndex() {
+            return index;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public P2PSendType getSendType() {
+            return sendType;
+        }
+
+        public int getWeight() {
+            return weight;
+        }
+
+        public String getLabel() {
+            return size + "B-" + sendType;
+        }
+    }
+
+    private final List<Entry> entries;
+    private final int totalWeight;
+
+    private MessageMix(List<Entry> entries) {
+        this.entries = Collections.unmodifiableList(entries);
+        this.totalWeight = entries.stream().mapToInt(Entry::getWeight).sum();
+    }
+
+    public static MessageMix parse(String spec) {
+        List<Entry> entries = new ArrayList<>();
+        for (String item : spec.split(",")) {
+            String[] parts = item.trim().split(":");
+            if (parts.length < 2 || parts.length > 3) {
+                throw new IllegalArgumentException("无效的消息组合项: " + item + "（格式应为 大小:发送方式[:权重]）");
+            }
+            int size = Integer.parseInt(parts[0]);
+            P2PSendType sendType = parseSendType(parts[1]);
+            int weight = parts.length == 3 ? Integer.parseInt(parts[2]) : 1;
+            if (size <= 0 || weight <= 0) {
+                throw new IllegalArgumentException("消息大小和权重必须为正数: " + item);
+            }
+            entries.add(new Entry(entries.size(), size, sendType, weight));
+        }
+        return new MessageMix(entries);
+    }
+
+    private static P2PSendType parseSendType(String name) {
+        String normalized = name.replace("-", "").replace("_", "");
+        for (P2PSendType type : P2PSendType.values()) {
+            if (type.name().equalsIgnoreCase(normalized)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("未知的发送方式: " + name);
+    }
+
+    /**
+     * 按权重随机选择一类消息
+     */
+    public Entry pick(Random random) {
+        int value = random.nextInt(totalWeight);
+        for (Entry entry : entries) {
+            value -= entry.weight;
+            if (value < 0) {
+                return entry;
+            }
+        }
+        return entries.get(entries.size() - 1);
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (Entry entry : entries) {
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(entry.getLabel()).append(" x").append(entry.weight);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,61 @@
+package me.steamworkp2p.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import me.steamworkp2p.transport.P2PSendType;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 通过 POST /api/send-message 发送消息的负载驱动
+ * 该接口总是使用可靠发送，因此只支持Reliable
+ */
+class RestApiDriver implements LoadDriver {
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI sendUri;
+
+    RestApiDriver(int port) {
+        this.sendUri = URI.create("http://localhost:" + port + "/api/send-message");
+    }
+
+    @Override
+    public String getName() {
+        return "rest";
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String targetSteamId, String message, P2PSendType sendType) {
+        String form = "steamId=" + URLEncoder.encode(targetSteamId, StandardCharsets.UTF_8)
+                + "&message=" + URLEncoder.encode(message, StandardCharsets.UTF_8);
+        HttpRequest request = HttpRequest.newBuilder(sendUri)
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(form))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        return false;
+                    }
+                    try {
+                        return objectMapper.readTree(response.body()).path("success").asBoolean();
+                    } catch (Exception e) {
+                        return false;
+                    }
+                });
+    }
+
+    @Override
+    public boolean supports(P2PSendType sendType) {
+        return sendType == P2PSendType.Reliable;
+    }
+}
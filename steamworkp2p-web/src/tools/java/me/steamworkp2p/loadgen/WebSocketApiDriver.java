@@ -0,0 +1,137 @@
+package me.steamworkp2p.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import me.steamworkp2p.transport.P2PSendType;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通过WebSocket命令通道（/ws/steam-p2p 的send命令）发送消息的负载驱动
+ * 命令以流水线方式发出，不等待上一条的ack，ack通过id与请求关联。
+ * 与REST接口相同，send命令总是使用可靠发送，因此只支持Reliable
+ */
+class WebSocketApiDriver implements LoadDriver {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final WebSocket webSocket;
+
+    // java.net.http.WebSocket不允许并发发送，多个发送线程的帧在此串行排队
+    private CompletableFuture<WebSocket> sendChain;
+
+    WebSocketApiDriver(int port) {
+        this.webSocket = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(5))
+                .build()
+                .newWebSocketBuilder()
+                .buildAsync(URI.create("ws://localhost:" + port + "/ws/steam-p2p"), new AckListener())
+                .join();
+        this.sendChain = CompletableFuture.completedFuture(webSocket);
+    }
+
+    @Override
+    public String getName() {
+        return "ws";
+    }
+
+    @Override
+    public CompletableFuture<Boolean> send(String targetSteamId, String message, P2PSendType sendType) {
+        String id = Long.toString(nextId.incrementAndGet());
+        ObjectNode command = objectMapper.createObjectNode()
+                .put("type", "send")
+                .put("id", id)
+                .put("steamId", targetSteamId)
+                .put("message", message);
+
+        CompletableFuture<Boolean> ack = new CompletableFuture<>();
+        pending.put(id, ack);
+        String frame = command.toString();
+        synchronized (this) {
+            // 前一帧发送失败只影响它自己的命令，后续帧照常排队发送
+            sendChain = sendChain
+                    .exceptionally(error -> webSocket)
+                    .thenCompose(ws -> ws.sendText(frame, true));
+            sendChain.whenComplete((ws, error) -> {
+                if (error != null && pending.remove(id) != null) {
+                    ack.complete(false);
+                }
+            });
+        }
+        return ack;
+    }
+
+    @Override
+    public boolean supports(P2PSendType sendType) {
+        return sendType == P2PSendType.Reliable;
+    }
+
+    @Override
+    public void close() {
+        webSocket.sendClose(WebSocket.NORMAL_CLOSURE, "load test finished");
+        pending.values().forEach(ack -> ack.complete(false));
+        pending.clear();
+    }
+
+    /**
+     * 拼接分片的文本帧，只处理ack（包括batch帧中的ack），推送的事件直接丢弃
+     */
+    private class AckListener implements WebSocket.Listener {
+
+        private final StringBuilder buffer = new StringBuilder();
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            buffer.append(data);
+            if (last) {
+                handleFrame(buffer.toString());
+                buffer.setLength(0);
+            }
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            pending.values().forEach(ack -> ack.complete(false));
+            pending.clear();
+        }
+
+        private void handleFrame(String text) {
+            try {
+                JsonNode frame = objectMapper.readTree(text);
+                if ("batch".equals(frame.path("type").asText())) {
+                    // 服务端合并的多个事件
+                    for (JsonNode event : frame.path("data")) {
+                        handleEvent(event);
+                    }
+                } else {
+                    handleEvent(frame);
+                }
+            } catch (Exception e) {
+                // 无法解析的帧不影响统计
+            }
+        }
+
+        private void handleEvent(JsonNode event) {
+            if (!"ack".equals(event.path("type").asText())) {
+                return;
+            }
+            JsonNode data = event.path("data");
+            CompletableFuture<Boolean> ack = pending.remove(data.path("id").asText());
+            if (ack != null) {
+                ack.complete(data.path("success").asBoolean());
+            }
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package me.steamworkp2p.service;
+
+import me.steamworkp2p.transport.P2PTransport;
+
+/**
+ * 服务层基准测试夹具
+ * 通过包内构造函数组装服务对象，基准测试不需要反射写私有字段
+ */
+public final class NetworkServiceFixtures {
+
+    private NetworkServiceFixtures() {
+    }
+
+    /**
+     * 创建绑定到指定传输层的P2P网络服务
+     */
+    public static P2PNetworkService newNetworkService(P2PTransport transport, SteamService steamService) {
+        P2PNetworkService networkService = new P2PNetworkService(steamService, transport);
+        networkService.createEngine();
+        return networkService;
+    }
+}
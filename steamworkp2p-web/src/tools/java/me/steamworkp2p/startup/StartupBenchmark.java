@@ -0,0 +1,266 @@
+package me.steamworkp2p.startup;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 启动时间基准
+ * 交替启动普通jar和快速启动版本（Spring AOT + AppCDS）的应用进程，测量从进程启动到存活探针返回200的时间，
+ * 以及此时进程的常驻内存（RSS，读取/proc，仅Linux），用于比较两种构建的部署停机时间。
+ *
+ * <p>示例：--standard=target/app.jar --optimized=target/fast-startup/app.jar
+ * --archive=target/fast-startup/application.jsa --runs=5 --csv=target/startup.csv</p>
+ */
+public class StartupBenchmark {
+
+    private static final String READY_PATH = "/actuator/health/liveness";
+
+    /**
+     * 一种启动方式
+     */
+    private static final class Variant {
+        final String name;
+        final List<String> command;
+        final List<Long> readyMs = new ArrayList<>();
+        final List<Long> rssKb = new ArrayList<>();
+
+        Variant(String name, List<String> command) {
+            this.name = name;
+            this.command = command;
+        }
+    }
+
+    /**
+     * 命令行参数，格式：--name=value
+     */
+    private static final class Options {
+        final Map<String, String> values = new HashMap<>();
+
+        static Options parse(String[] args) {
+            Options options = new Options();
+            for (String arg : args) {
+                if (arg.isBlank()) {
+                    continue;
+                }
+                if (!arg.startsWith("--")) {
+                    throw new IllegalArgumentException("无效参数: " + arg + "（格式应为 --name=value）");
+                }
+                int eq = arg.indexOf('=');
+                if (eq < 0) {
+                    options.values.put(arg.substring(2), "true");
+                } else {
+                    options.values.put(arg.substring(2, eq), arg.substring(eq + 1));
+                }
+            }
+            return options;
+        }
+
+        String get(String name, String defaultValue) {
+            return values.getOrDefault(name, defaultValue);
+        }
+
+        int getInt(String name, int defaultValue) {
+            String value = values.get(name);
+            return value != null ? Integer.parseInt(value) : defaultValue;
+        }
+
+        long getLong(String name, long defaultValue) {
+            String value = values.get(name);
+            return value != null ? Long.parseLong(value) : defaultValue;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = Options.parse(args);
+        String standardJar = options.get("standard", "");
+        String optimizedJar = options.get("optimized", "");
+        String archive = options.get("archive", "");
+        int runs = options.getInt("runs", 5);
+        int warmupRuns = options.getInt("warmup-runs", 1);
+        long timeoutMs = options.getLong("timeout-ms", 60000);
+        String transport = options.get("transport", "steam");
+        List<String> jvmArgs = split(options.get("jvm-args", ""));
+
+        if (standardJar.isEmpty() || optimizedJar.isEmpty()) {
+            throw new IllegalArgumentException("需要 --standard 和 --optimized 两个jar的路径");
+        }
+
+        String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        List<String> common = new ArrayList<>(jvmArgs);
+        common.add("-Dp2p.transport=" + transport);
+
+        List<String> standard = new ArrayList<>();
+        standard.add(java);
+        standard.addAll(common);
+        standard.addAll(List.of("-jar", standardJar));
+
+        List<String> optimized = new ArrayList<>();
+        optimized.add(java);
+        optimized.addAll(common);
+        if (!archive.isEmpty()) {
+            if (!Files.exists(Paths.get(archive))) {
+                throw new IllegalArgumentException("CDS归档不存在: " + archive);
+            }
+            optimized.add("-XX:SharedArchiveFile=" + archive);
+        }
+        optimized.add("-Dspring.aot.enabled=true");
+        optimized.addAll(List.of("-jar", optimizedJar));
+
+        List<Variant> variants = List.of(new Variant("standard", standard), new Variant("optimized", optimized));
+
+        // 预热文件系统缓存，不计入结果
+        for (int i = 0; i < warmupRuns; i++) {
+            for (Variant variant : variants) {
+                measure(variant.command, timeoutMs);
+            }
+        }
+
+        // 交替运行，减少机器负载变化对某一种方式的影响
+        for (int i = 0; i < runs; i++) {
+            for (Variant variant : variants) {
+                long[] result = measure(variant.command, timeoutMs);
+                variant.readyMs.add(result[0]);
+                variant.rssKb.add(result[1]);
+                System.out.printf("⏱️ %-9s 第%d次: %d ms, RSS %s%n", variant.name, i + 1, result[0], formatRss(result[1]));
+            }
+        }
+
+        print(variants, System.out);
+        String csv = options.get("csv", "");
+        if (!csv.isEmpty()) {
+            writeCsv(variants, Paths.get(csv));
+            System.out.println("📄 CSV报告已写入: " + csv);
+        }
+        System.exit(0);
+    }
+
+    /**
+     * 启动一次应用，等待存活探针返回200
+     *
+     * @return {启动耗时毫秒, RSS千字节（无法读取时为-1）}
+     */
+    private static long[] measure(List<String> command, long timeoutMs) throws IOException, InterruptedException {
+        int port = freePort();
+        List<String> full = new ArrayList<>(command);
+        full.add("--server.port=" + port);
+
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://127.0.0.1:" + port + READY_PATH))
+                .timeout(Duration.ofMillis(500))
+                .build();
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(full)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("应用进程已退出，退出码 " + process.exitValue() + ": " + String.join(" ", full));
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                        return new long[]{elapsedMs, readRssKb(process.pid())};
+                    }
+                } catch (IOException e) {
+                    // 端口尚未监听
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("应用在 " + timeoutMs + "ms 内未就绪: " + String.join(" ", full));
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+
+    private static long readRssKb(long pid) {
+        Path status = Paths.get("/proc", String.valueOf(pid), "status");
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.UTF_8)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // 非Linux系统
+        }
+        return -1;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static void print(List<Variant> variants, PrintStream out) {
+        out.println();
+        out.println("========== 启动时间 ==========");
+        out.printf("%-10s %10s %10s %10s %12s%n", "方式", "中位数ms", "最小ms", "最大ms", "RSS中位数");
+        for (Variant variant : variants) {
+            out.printf("%-10s %10d %10d %10d %12s%n", variant.name, median(variant.readyMs),
+                    variant.readyMs.stream().mapToLong(Long::longValue).min().orElse(0),
+                    variant.readyMs.stream().mapToLong(Long::longValue).max().orElse(0),
+                    formatRss(median(variant.rssKb)));
+        }
+        long standard = median(variants.get(0).readyMs);
+        long optimized = median(variants.get(1).readyMs);
+        if (standard > 0) {
+            out.printf("快速启动版本节省 %.1f%% 的启动时间%n", 100.0 * (standard - optimized) / standard);
+        }
+    }
+
+    private static void writeCsv(List<Variant> variants, Path path) throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            writer.println("variant,run,time_to_ready_ms,rss_kb");
+            for (Variant variant : variants) {
+                for (int i = 0; i < variant.readyMs.size(); i++) {
+                    writer.printf("%s,%d,%d,%d%n", variant.name, i + 1, variant.readyMs.get(i), variant.rssKb.get(i));
+                }
+            }
+        }
+    }
+
+    private static long median(List<Long> values) {
+        if (values.isEmpty()) {
+            return 0;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        sorted.sort(null);
+        return sorted.get(sorted.size() / 2);
+    }
+
+    private static String formatRss(long kb) {
+        return kb < 0 ? "N/A" : String.format("%.1f MB", kb / 1024.0);
+    }
+
+    private static List<String> split(String value) {
+        return value.isBlank() ? List.of() : Arrays.asList(value.trim().split("\\s+"));
+    }
+}
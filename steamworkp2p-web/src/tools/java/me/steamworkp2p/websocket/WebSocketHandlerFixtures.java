@@ -0,0 +1,73 @@
+package me.steamworkp2p.websocket;
+
+import com.codedisaster.steamworks.SteamID;
+import me.steamworkp2p.model.ConnectionInfo;
+import me.steamworkp2p.service.SteamP2PService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executor;
+
+/**
+ * WebSocket基准测试夹具
+ * 通过包内构造函数和方法组装处理器与会话，基准测试不需要反射写私有字段
+ */
+public final class WebSocketHandlerFixtures {
+
+    // 与生产配置p2p.websocket.max-queued-broadcasts的默认值一致
+    public static final int MAX_QUEUED_BROADCASTS = 65536;
+
+    private WebSocketHandlerFixtures() {
+    }
+
+    /**
+     * 创建不依赖Spring容器的处理器，广播在指定执行器上完成
+     */
+    public static SteamP2PWebSocketHandler newHandler(Executor broadcastExecutor, ReplayBuffer replayBuffer,
+                                                      ConnectionStateModel stateModel) {
+        return new SteamP2PWebSocketHandler(broadcastExecutor, replayBuffer, stateModel, MAX_QUEUED_BROADCASTS);
+    }
+
+    /**
+     * 创建连接状态模型，活跃连接固定为指定的用户（调用前需已加载steamworks4j本地库）
+     */
+    public static ConnectionStateModel newStateModel(Set<Long> activePeers) {
+        return new ConnectionStateModel(new SteamP2PService() {
+            @Override
+            public boolean isListening() {
+                return true;
+            }
+
+            @Override
+            public boolean isSteamRunning() {
+                return true;
+            }
+
+            @Override
+            public List<ConnectionInfo> getActiveConnections() {
+                List<ConnectionInfo> connections = new ArrayList<>();
+                for (long peer : activePeers) {
+                    connections.add(toConnectionInfo(SteamID.createFromNativeHandle(peer)));
+                }
+                return connections;
+            }
+
+            @Override
+            public ConnectionInfo getConnectionInfo(SteamID steamID) {
+                return activePeers.contains(SteamID.getNativeHandle(steamID)) ? toConnectionInfo(steamID) : null;
+            }
+        });
+    }
+
+    private static ConnectionInfo toConnectionInfo(SteamID steamID) {
+        return new ConnectionInfo(steamID.toString(), "Steam用户 " + SteamID.getNativeHandle(steamID), true);
+    }
+
+    /**
+     * 直接放入会话表并订阅指定对端的所有事件，跳过建立连接时的状态推送
+     */
+    public static void register(SteamP2PWebSocketHandler handler, ClientSession session, String peer) {
+        handler.addSession(session, SubscriptionIndex.ANY, peer);
+    }
+}